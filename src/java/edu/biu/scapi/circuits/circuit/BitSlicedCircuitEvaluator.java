@@ -0,0 +1,272 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.circuits.circuit;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+import edu.biu.scapi.exceptions.NotAllInputsSetException;
+
+/**
+ * Computes a {@link BooleanCircuit} on many input assignments at once. <p>
+ * The values of each wire are packed into {@code long}s, such that bit j of word k holds the value of the wire in 
+ * assignment number 64*k+j. Every gate is then computed on 64 assignments with a few bitwise operations, 
+ * derived from its truth table. <p>
+ * This is useful for bulk testing of circuits and for checking the outputs of many garbled circuits 
+ * (for example in cut-and-choose protocols) against the expected plain outputs.<p>
+ * 
+ * An instance of this class reuses its internal wire array between calls and thus should not be used by several threads at once.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class BitSlicedCircuitEvaluator {
+
+	/*
+	 * Each gate is computed according to one of the following operations. 
+	 * The operations of one and two input gates are selected by their truth tables. All other gates are computed as 
+	 * a disjunction of the minterms of the rows whose output is 1.
+	 */
+	private static final byte CONSTANT_ZERO = 0;
+	private static final byte CONSTANT_ONE = 1;
+	private static final byte IDENTITY = 2;
+	private static final byte NOT = 3;
+	private static final byte TWO_INPUTS = 4;
+	private static final byte MINTERMS = 5;
+	
+	private CompiledBooleanCircuit circuit;
+	private byte[] operations;		//The operation of each gate.
+	private byte[] twoInputTables;	//The 4-bit truth table of each two input gate.
+	private BitSet[] bigTables;		//Truth tables of gates with more than 6 inputs.
+	
+	private long[] wireValues;		//The values of the wires used by the map based compute function.
+	
+	/**
+	 * Creates an evaluator for the given circuit.
+	 * @param bc The {@link BooleanCircuit} to compute.
+	 */
+	public BitSlicedCircuitEvaluator(BooleanCircuit bc){
+		circuit = bc.getCompiledCircuit();
+		int numberOfGates = circuit.getNumberOfGates();
+		int[] inputOffsets = circuit.getGatesInputOffsets();
+		operations = new byte[numberOfGates];
+		twoInputTables = new byte[numberOfGates];
+		
+		for (int i = 0; i < numberOfGates; i++){
+			int numberOfInputs = inputOffsets[i + 1] - inputOffsets[i];
+			if (numberOfInputs > 6){
+				//Truth tables that do not fit in a long are taken from the gate.
+				if (bigTables == null){
+					bigTables = new BitSet[numberOfGates];
+				}
+				bigTables[i] = bc.getGates()[i].getTruthTable();
+				operations[i] = MINTERMS;
+				continue;
+			}
+			
+			long table = circuit.getTruthTable(i);
+			long allRows = (numberOfInputs == 6) ? -1L : (1L << (1 << numberOfInputs)) - 1;
+			if (table == 0){
+				operations[i] = CONSTANT_ZERO;
+			} else if (table == allRows){
+				operations[i] = CONSTANT_ONE;
+			} else if (numberOfInputs == 1){
+				//Row 1 is the only row with output 1 in the identity gate and row 0 in the not gate.
+				operations[i] = (table == 2) ? IDENTITY : NOT;
+			} else if (numberOfInputs == 2){
+				operations[i] = TWO_INPUTS;
+				twoInputTables[i] = (byte) table;
+			} else {
+				operations[i] = MINTERMS;
+			}
+		}
+	}
+	
+	/**
+	 * Computes the circuit on the given packed inputs.<p>
+	 * All arrays should have the same length, and the number of assignments is 64 times this length. 
+	 * Bit j of word k of each array is the value of the wire in assignment number 64*k+j. 
+	 * Empty arrays are an empty batch, for which the output arrays are empty too.
+	 * 
+	 * @param inputs Maps each input wire index of all parties to its packed values.
+	 * @return a map from each output wire index of the circuit to its packed values.
+	 * @throws NotAllInputsSetException if one of the circuit's input wires is missing.
+	 * @throws IllegalArgumentException if the input arrays do not have the same length.
+	 */
+	public Map<Integer, long[]> compute(Map<Integer, long[]> inputs) throws NotAllInputsSetException{
+		int words = -1;
+		for (long[] values : inputs.values()){
+			if (words == -1){
+				words = values.length;
+			} else if (words != values.length){
+				throw new IllegalArgumentException("all inputs should contain the same number of assignments");
+			}
+		}
+		//Without any input there are no assignments. A circuit that has input wires fails below on the missing inputs.
+		if (words == -1){
+			words = 0;
+		}
+		
+		int size = circuit.getNumberOfWires() * words;
+		if (wireValues == null || wireValues.length < size){
+			wireValues = new long[size];
+		}
+		
+		//Copy the inputs of all the parties to the wire array.
+		for (int p = 1; p <= circuit.getNumberOfParties(); p++){
+			for (int w : circuit.getInputWireIndices(p)){
+				long[] values = inputs.get(w);
+				if (values == null){
+					throw new NotAllInputsSetException();
+				}
+				System.arraycopy(values, 0, wireValues, w * words, words);
+			}
+		}
+		
+		compute(wireValues, words);
+		
+		Map<Integer, long[]> outputs = new HashMap<Integer, long[]>();
+		for (int w : circuit.getOutputWireIndices()){
+			outputs.put(w, Arrays.copyOfRange(wireValues, w * words, (w + 1) * words));
+		}
+		return outputs;
+	}
+	
+	/**
+	 * Computes all the gates of the circuit without allocating memory.<p>
+	 * The values of wire w are at positions {@code w*words} to {@code (w+1)*words-1} of the given array. 
+	 * The values of the input wires should be set before calling this function and the values of all other wires are 
+	 * written by it.
+	 * 
+	 * @param wireValues The packed values of all the wires. Its length should be at least number of wires * words.
+	 * @param words The number of {@code long}s per wire, i.e. the number of assignments divided by 64.
+	 * @throws IllegalArgumentException if words is negative or the array is too short for the wires of the circuit.
+	 */
+	public void compute(long[] wireValues, int words){
+		if (words < 0 || wireValues.length < (long) circuit.getNumberOfWires() * words){
+			throw new IllegalArgumentException("the wire array should hold number of wires * words values, for a non negative words");
+		}
+		int[] inputOffsets = circuit.getGatesInputOffsets();
+		int[] inputWires = circuit.getGatesInputWires();
+		int[] outputOffsets = circuit.getGatesOutputOffsets();
+		int[] outputWires = circuit.getGatesOutputWires();
+		int numberOfGates = operations.length;
+		
+		for (int i = 0; i < numberOfGates; i++){
+			if (outputOffsets[i + 1] == outputOffsets[i]){
+				continue;
+			}
+			int firstOutput = outputWires[outputOffsets[i]] * words;
+			int a = (inputOffsets[i + 1] > inputOffsets[i]) ? inputWires[inputOffsets[i]] * words : 0;
+			
+			switch (operations[i]){
+			case CONSTANT_ZERO:
+				Arrays.fill(wireValues, firstOutput, firstOutput + words, 0L);
+				break;
+			case CONSTANT_ONE:
+				Arrays.fill(wireValues, firstOutput, firstOutput + words, -1L);
+				break;
+			case IDENTITY:
+				System.arraycopy(wireValues, a, wireValues, firstOutput, words);
+				break;
+			case NOT:
+				for (int k = 0; k < words; k++){
+					wireValues[firstOutput + k] = ~wireValues[a + k];
+				}
+				break;
+			case TWO_INPUTS:
+				int b = inputWires[inputOffsets[i] + 1] * words;
+				for (int k = 0; k < words; k++){
+					wireValues[firstOutput + k] = computeTwoInputs(twoInputTables[i], wireValues[a + k], wireValues[b + k]);
+				}
+				break;
+			default:
+				for (int k = 0; k < words; k++){
+					wireValues[firstOutput + k] = computeMinterms(i, wireValues, inputWires, inputOffsets[i], inputOffsets[i + 1], words, k);
+				}
+			}
+			
+			//Copy the result to the other output wires of the gate, if there are any.
+			for (int j = outputOffsets[i] + 1; j < outputOffsets[i + 1]; j++){
+				System.arraycopy(wireValues, firstOutput, wireValues, outputWires[j] * words, words);
+			}
+		}
+	}
+	
+	/**
+	 * Computes a two input gate. Row (2*a + b) of the truth table is the output on inputs a, b.
+	 */
+	private static long computeTwoInputs(byte table, long a, long b){
+		switch (table){
+		case 1: 	return ~(a | b);
+		case 2: 	return ~a & b;
+		case 3: 	return ~a;
+		case 4: 	return a & ~b;
+		case 5: 	return ~b;
+		case 6: 	return a ^ b;
+		case 7: 	return ~(a & b);
+		case 8: 	return a & b;
+		case 9: 	return ~(a ^ b);
+		case 10: 	return b;
+		case 11: 	return ~a | b;
+		case 12: 	return a;
+		case 13: 	return a | ~b;
+		case 14: 	return a | b;
+		case 15: 	return -1L;
+		default: 	return 0L;
+		}
+	}
+	
+	/**
+	 * Computes word k of a gate with any number of inputs as the disjunction of the rows whose output is 1.
+	 */
+	private long computeMinterms(int gate, long[] wireValues, int[] inputWires, int start, int end, int words, int k){
+		int numberOfInputs = end - start;
+		int numberOfRows = 1 << numberOfInputs;
+		long result = 0;
+		for (int row = 0; row < numberOfRows; row++){
+			if (!isRowSet(gate, row)){
+				continue;
+			}
+			//The first input wire is the most significant bit of the row.
+			long minterm = -1L;
+			for (int j = 0; j < numberOfInputs; j++){
+				long value = wireValues[inputWires[start + j] * words + k];
+				minterm &= (((row >>> (numberOfInputs - 1 - j)) & 1) == 1) ? value : ~value;
+			}
+			result |= minterm;
+		}
+		return result;
+	}
+	
+	private boolean isRowSet(int gate, int row){
+		if (bigTables != null && bigTables[gate] != null){
+			return bigTables[gate].get(row);
+		}
+		return ((circuit.getTruthTable(gate) >>> row) & 1) == 1;
+	}
+}
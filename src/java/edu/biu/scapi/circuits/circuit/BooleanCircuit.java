@@ -27,7 +27,6 @@ package edu.biu.scapi.circuits.circuit;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.util.ArrayList;
-import java.util.BitSet;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Scanner;
@@ -80,6 +79,16 @@ public class BooleanCircuit {
 	 * An arrayList containing the indices of the input {@code Wire}s of this {@code BooleanCircuit} indexed by the party number.
 	 */
 	private ArrayList<ArrayList<Integer>> eachPartysInputWires = new ArrayList<ArrayList<Integer>>();
+	
+	/**
+	 * The flat representation of this circuit that is used in the computation. It is created at the first call to compute.
+	 */
+	private CompiledBooleanCircuit compiledCircuit;
+	
+	/**
+	 * The values of all the wires of the circuit, indexed by the wire number. Reused between computations.
+	 */
+	private byte[] wireValues;
 
 	/**
 	 * Constructs a BooleanCircuit from a File. <p>
@@ -110,72 +119,32 @@ public class BooleanCircuit {
 	 * @throws CircuitFileFormatException if there is a problem with the format of the circuit.
 	 */
 	public BooleanCircuit(Scanner s) throws CircuitFileFormatException {
-	    //Read the number of gates.
-	    int numberOfGates = Integer.parseInt(read(s));
-	    gates = new Gate[numberOfGates];
-	    //Read the number of parties.
-	    numberOfParties =  Integer.parseInt(read(s));
-	    isInputSet = new boolean[numberOfParties];
-	    //For each party, read the party's number, number of input wires and their indices.
-	    for (int i = 0; i < numberOfParties; i++) {
-	    	if (Integer.parseInt(read(s)) != i+1) {//add 1 since parties are indexed from 1, not 0
-	    		throw new CircuitFileFormatException();
-	    	}
-	    	//Read the number of input wires.
-	    	int numberOfInputsForCurrentParty = Integer.parseInt(read(s));
-	    	if(numberOfInputsForCurrentParty < 0){
-	    		throw new CircuitFileFormatException();
-	    	}
-	    	boolean isThisPartyInputSet = numberOfInputsForCurrentParty == 0? true : false;
-	    	isInputSet[i]=isThisPartyInputSet;
-	    	
-	    	ArrayList<Integer> currentPartyInput = new ArrayList<Integer>();
-	    	eachPartysInputWires.add(currentPartyInput);
-	    	//Read the input wires indices.
-	    	for (int j = 0; j < numberOfInputsForCurrentParty; j++) {
-	    		currentPartyInput.add(Integer.parseInt(read(s)));
-	    	}
-	    }
-	    
-	    /*
-	     * The ouputWireIndices are the outputs from this circuit. However, this circuit may actually be a single layer of a 
-	     * larger layered circuit. So this output can be part of the input to another layer of the circuit.
-	     */
-	    int numberOfCircuitOutputs = Integer.parseInt(read(s));
-	    outputWireIndices = new int[numberOfCircuitOutputs];
-	    //Read the output wires indices.
-	    for (int i = 0; i < numberOfCircuitOutputs; i++) {
-	    	outputWireIndices[i] = Integer.parseInt(read(s));
-	    }
-	    
-	    int numberOfGateInputs, numberOfGateOutputs;
-	    //For each gate, read the number of input and output wires, their indices and the truth table.
-	    for (int i = 0; i < numberOfGates; i++) {
-	    	numberOfGateInputs = Integer.parseInt(read(s));
-	    	numberOfGateOutputs = Integer.parseInt(read(s));
-	    	int[] inputWireIndices = new int[numberOfGateInputs];
-	    	int[] outputWireIndices = new int[numberOfGateOutputs];
-	    	for (int j = 0; j < numberOfGateInputs; j++) {
-	    		inputWireIndices[j] = Integer.parseInt(read(s));
-	    	}
-	    	for (int j = 0; j < numberOfGateOutputs; j++) {
-	    		outputWireIndices[j] = Integer.parseInt(read(s));
-	    	}
-      
-	    	/*
-	    	 * We create a BitSet representation of the truth table from the 01 String
-	    	 * that we read from the file.
-	    	 */
-	    	BitSet truthTable = new BitSet();
-	    	String tTable = read(s);
-	    	for (int j = 0; j < tTable.length(); j++) {
-	    		if (tTable.charAt(j) == '1') {
-	    			truthTable.set(j);
-	    		}
-	    	}
-	    	//Construct the gate.
-	    	gates[i] = new Gate(i, truthTable, inputWireIndices, outputWireIndices);
-	    }
+		BooleanCircuitReader reader = new BooleanCircuitReader(s);
+		numberOfParties = reader.getNumberOfParties();
+		isInputSet = new boolean[numberOfParties];
+		//For each party, get the indices of the party's input wires.
+		for (int i = 0; i < numberOfParties; i++) {
+			ArrayList<Integer> currentPartyInput = null;
+			try {
+				currentPartyInput = reader.getInputWireIndices(i+1);
+			} catch (NoSuchPartyException e) {
+				// Should not occur since the parties numbers are between 1 to getNumberOfParties.
+			}
+			isInputSet[i] = currentPartyInput.isEmpty();
+			eachPartysInputWires.add(currentPartyInput);
+		}
+		
+		/*
+		 * The ouputWireIndices are the outputs from this circuit. However, this circuit may actually be a single layer of a 
+		 * larger layered circuit. So this output can be part of the input to another layer of the circuit.
+		 */
+		outputWireIndices = reader.getOutputWireIndices();
+		
+		//Read the gates.
+		gates = new Gate[reader.getNumberOfGates()];
+		for (int i = 0; i < gates.length; i++) {
+			gates[i] = reader.nextGate();
+		}
 	}
 
 	private String read(Scanner s){
@@ -256,22 +225,30 @@ public class BooleanCircuit {
 				throw new NotAllInputsSetException();
 			}
 		}
+		CompiledBooleanCircuit compiled = getCompiledCircuit();
+		if (wireValues == null) {
+			wireValues = new byte[compiled.getNumberOfWires()];
+		}
+		
+		//Copy the values of the input wires to the wire values array.
+		for (Map.Entry<Integer, Wire> entry : computedWires.entrySet()) {
+			wireValues[entry.getKey()] = entry.getValue().getValue();
+		}
+		
 		/* Computes each Gate. 
-		 * Since the Gates are provided in topological order, by the time the compute function on a given Gate is called, 
-		 * its input Wires will have already been assigned values
+		 * Since the Gates are provided in topological order, by the time a given Gate is computed, 
+		 * its input Wires will have already been assigned values.
 		 */
-		for (Gate g : getGates()) {
-			g.compute(computedWires);
-		}
+		compiled.compute(wireValues);
 		
 		/*
-		 * The computedWires array contains all the computed wire values, even those that it is no longer necessary to retain.
+		 * The wireValues array contains all the computed wire values, even those that it is no longer necessary to retain.
 		 * So, we create a new Map called outputMap which only stores the Wires that are output Wires to the circuit. 
 		 * We return outputMap.
 		 */
 		Map<Integer, Wire> outputMap = new HashMap<Integer, Wire>();
 		for (int w : outputWireIndices) {
-			outputMap.put(w, computedWires.get(w));
+			outputMap.put(w, new Wire(wireValues[w]));
 		}
 		return outputMap;
 	}
@@ -304,6 +281,18 @@ public class BooleanCircuit {
 		return true;
 	}
 
+	/**
+	 * Returns the flat representation of this circuit that is used for computing it.<p>
+	 * The representation is created at the first call to this function and cached.
+	 * @return the compiled circuit.
+	 */
+	public CompiledBooleanCircuit getCompiledCircuit() {
+		if (compiledCircuit == null) {
+			compiledCircuit = new CompiledBooleanCircuit(this);
+		}
+		return compiledCircuit;
+	}
+
 	/**
 	 * @return an array of the {@link Gate}s of this circuit.
 	 */
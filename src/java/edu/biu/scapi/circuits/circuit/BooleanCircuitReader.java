@@ -0,0 +1,209 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.circuits.circuit;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.NoSuchElementException;
+import java.util.Scanner;
+
+import edu.biu.scapi.exceptions.CircuitFileFormatException;
+import edu.biu.scapi.exceptions.NoSuchPartyException;
+
+/**
+ * Reads a circuit file gate by gate, without holding all the gates in memory.<p>
+ * The format of the file is the one described in {@link BooleanCircuit#BooleanCircuit(Scanner)}. The header of the file 
+ * (number of gates, parties' input wires and the circuit's output wires) is read in the constructor, 
+ * and each call to {@link #nextGate()} reads the next gate. <p>
+ * This class is used to process circuits that are too big to be kept in memory as a {@link BooleanCircuit}, 
+ * for example by garbling them in a streaming manner.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class BooleanCircuitReader {
+
+	private Scanner s;
+	private int numberOfGates;
+	private int gatesRead;
+	private ArrayList<ArrayList<Integer>> eachPartysInputWires = new ArrayList<ArrayList<Integer>>();
+	private int[] outputWireIndices;
+	
+	/**
+	 * Opens the given circuit file and reads its header.
+	 * @param f The {@link File} from which the circuit is read.
+	 * @throws FileNotFoundException if f is not found in the specified directory.
+	 * @throws CircuitFileFormatException if there is a problem with the format of the file.
+	 */
+	public BooleanCircuitReader(File f) throws FileNotFoundException, CircuitFileFormatException {
+		this(new Scanner(f));
+	}
+	
+	/**
+	 * Reads the header of the circuit from the given Scanner.
+	 * @param s The {@link Scanner} from which the circuit is read.
+	 * @throws CircuitFileFormatException if there is a problem with the format of the circuit.
+	 */
+	public BooleanCircuitReader(Scanner s) throws CircuitFileFormatException {
+		this.s = s;
+		try {
+			//Read the number of gates.
+			numberOfGates = Integer.parseInt(read());
+			//Read the number of parties.
+			int numberOfParties = Integer.parseInt(read());
+			//For each party, read the party's number, number of input wires and their indices.
+			for (int i = 0; i < numberOfParties; i++) {
+				if (Integer.parseInt(read()) != i+1) {//add 1 since parties are indexed from 1, not 0
+					throw new CircuitFileFormatException();
+				}
+				//Read the number of input wires.
+				int numberOfInputsForCurrentParty = Integer.parseInt(read());
+				if(numberOfInputsForCurrentParty < 0){
+					throw new CircuitFileFormatException();
+				}
+				ArrayList<Integer> currentPartyInput = new ArrayList<Integer>();
+				eachPartysInputWires.add(currentPartyInput);
+				//Read the input wires indices.
+				for (int j = 0; j < numberOfInputsForCurrentParty; j++) {
+					currentPartyInput.add(Integer.parseInt(read()));
+				}
+			}
+			
+			//Read the output wires indices.
+			int numberOfCircuitOutputs = Integer.parseInt(read());
+			outputWireIndices = new int[numberOfCircuitOutputs];
+			for (int i = 0; i < numberOfCircuitOutputs; i++) {
+				outputWireIndices[i] = Integer.parseInt(read());
+			}
+		} catch (NumberFormatException e) {
+			throw new CircuitFileFormatException();
+		} catch (NoSuchElementException e) {
+			throw new CircuitFileFormatException();
+		}
+	}
+	
+	// Integer.parseInt(s.next()) is significantly faster than s.nextInt() so we use the former.
+	private String read(){
+		String token = s.next();
+		while (token.startsWith("#")){
+			s.nextLine();
+			token = s.next();
+		}
+		return token;
+	}
+	
+	/**
+	 * @return {@code true} if there are gates that were not read yet.
+	 */
+	public boolean hasNextGate() {
+		return gatesRead < numberOfGates;
+	}
+	
+	/**
+	 * Reads the next gate of the circuit. <p>
+	 * Each gate is given as: number of input wires, number of output wires, input wire indices, output wire indices and the 
+	 * gate's truth table (as a 0-1 string).
+	 * @return the next gate.
+	 * @throws CircuitFileFormatException if there is a problem with the format of the gate.
+	 * @throws NoSuchElementException if all the gates have already been read.
+	 */
+	public Gate nextGate() throws CircuitFileFormatException {
+		if (!hasNextGate()){
+			throw new NoSuchElementException();
+		}
+		try {
+			int numberOfGateInputs = Integer.parseInt(read());
+			int numberOfGateOutputs = Integer.parseInt(read());
+			int[] inputWireIndices = new int[numberOfGateInputs];
+			int[] outputWireIndices = new int[numberOfGateOutputs];
+			for (int j = 0; j < numberOfGateInputs; j++) {
+				inputWireIndices[j] = Integer.parseInt(read());
+			}
+			for (int j = 0; j < numberOfGateOutputs; j++) {
+				outputWireIndices[j] = Integer.parseInt(read());
+			}
+			
+			/*
+			 * We create a BitSet representation of the truth table from the 01 String
+			 * that we read from the file.
+			 */
+			BitSet truthTable = new BitSet();
+			String tTable = read();
+			for (int j = 0; j < tTable.length(); j++) {
+				if (tTable.charAt(j) == '1') {
+					truthTable.set(j);
+				}
+			}
+			//Construct the gate.
+			return new Gate(gatesRead++, truthTable, inputWireIndices, outputWireIndices);
+		} catch (NumberFormatException e) {
+			throw new CircuitFileFormatException();
+		} catch (NoSuchElementException e) {
+			throw new CircuitFileFormatException();
+		}
+	}
+	
+	/**
+	 * Closes the underlying Scanner.
+	 */
+	public void close() {
+		s.close();
+	}
+	
+	/**
+	 * @return the number of gates in the circuit.
+	 */
+	public int getNumberOfGates() {
+		return numberOfGates;
+	}
+	
+	/**
+	 * @return the number of parties of the circuit.
+	 */
+	public int getNumberOfParties() {
+		return eachPartysInputWires.size();
+	}
+	
+	/**
+	 * @param partyNumber The number of the party whose input wires will be returned.
+	 * @return an ArrayList containing the input wire indices of the specified party.
+	 * @throws NoSuchPartyException if the given party number is less than 1 and greater than the given number of parties.
+	 */
+	public ArrayList<Integer> getInputWireIndices(int partyNumber) throws NoSuchPartyException {
+		if(partyNumber < 1 || partyNumber > eachPartysInputWires.size()){
+			throw new NoSuchPartyException();
+		}
+		return eachPartysInputWires.get(partyNumber-1);
+	}
+	
+	/**
+	 * @return an array of the output wire indices of the circuit.
+	 */
+	public int[] getOutputWireIndices() {
+		return outputWireIndices;
+	}
+}
@@ -0,0 +1,330 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.circuits.circuit;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+
+import edu.biu.scapi.exceptions.NoSuchPartyException;
+
+/**
+ * A flat, array based representation of a {@link BooleanCircuit} that is used for fast evaluation. <p>
+ * The gates are stored in topological order as offsets into two {@code int} arrays that hold the input and output wire indices 
+ * of all the gates. Truth tables of gates with up to six inputs are stored as {@code long} bit masks so that looking up the output 
+ * of a gate is a single shift. The values of the wires are kept in a {@code byte} array indexed by the wire number, 
+ * thus the evaluation does not box integers, hash wire numbers or allocate {@link Wire} objects.<p>
+ * 
+ * An instance is immutable and can be shared between threads as long as each thread uses its own wire values array.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class CompiledBooleanCircuit {
+
+	/*
+	 * Gates with more than this number of inputs have more than 64 rows in their truth table and are kept as BitSet.
+	 */
+	private static final int MAX_INPUTS_IN_MASK = 6;
+	
+	private int numberOfWires;			//The largest wire index in the circuit plus one.
+	private int numberOfGates;
+	
+	/*
+	 * The input wires of gate i are inputWires[inputOffsets[i]] ... inputWires[inputOffsets[i+1]-1], 
+	 * in the same order as in the gate (the first input wire is the most significant bit of the truth table index).
+	 * The output wires are stored in the same manner.
+	 */
+	private int[] inputOffsets;
+	private int[] inputWires;
+	private int[] outputOffsets;
+	private int[] outputWires;
+	
+	private long[] truthTables;			//Bit j of truthTables[i] is row j of the truth table of gate i.
+	private BitSet[] largeTruthTables;	//Truth tables of gates with more than MAX_INPUTS_IN_MASK inputs, null for the other gates.
+	
+	private int[] circuitOutputWires;
+	private int[][] eachPartysInputWires;
+	
+	private int[][] layers;				//The gates of each layer of the circuit. Computed on the first call to getLayers().
+	
+	/**
+	 * Compiles the given circuit.
+	 * @param bc The {@link BooleanCircuit} to compile.
+	 * @throws IllegalArgumentException if one of the wire indices in the circuit is negative.
+	 */
+	public CompiledBooleanCircuit(BooleanCircuit bc){
+		Gate[] gates = bc.getGates();
+		numberOfGates = gates.length;
+		
+		//Count the wires of all gates in order to allocate the flat arrays.
+		int totalInputs = 0;
+		int totalOutputs = 0;
+		for (int i = 0; i < numberOfGates; i++){
+			totalInputs += gates[i].getInputWireIndices().length;
+			totalOutputs += gates[i].getOutputWireIndices().length;
+		}
+		
+		inputOffsets = new int[numberOfGates + 1];
+		outputOffsets = new int[numberOfGates + 1];
+		inputWires = new int[totalInputs];
+		outputWires = new int[totalOutputs];
+		truthTables = new long[numberOfGates];
+		
+		int maxWire = -1;
+		int inPos = 0;
+		int outPos = 0;
+		for (int i = 0; i < numberOfGates; i++){
+			int[] in = gates[i].getInputWireIndices();
+			int[] out = gates[i].getOutputWireIndices();
+			inputOffsets[i] = inPos;
+			outputOffsets[i] = outPos;
+			for (int j = 0; j < in.length; j++){
+				inputWires[inPos++] = in[j];
+				maxWire = checkWire(in[j], maxWire);
+			}
+			for (int j = 0; j < out.length; j++){
+				outputWires[outPos++] = out[j];
+				maxWire = checkWire(out[j], maxWire);
+			}
+			
+			//Convert the truth table to a bit mask, if it is small enough.
+			BitSet table = gates[i].getTruthTable();
+			if (in.length <= MAX_INPUTS_IN_MASK){
+				long mask = 0;
+				for (int row = table.nextSetBit(0); row >= 0 && row < (1 << in.length); row = table.nextSetBit(row + 1)){
+					mask |= 1L << row;
+				}
+				truthTables[i] = mask;
+			} else {
+				if (largeTruthTables == null){
+					largeTruthTables = new BitSet[numberOfGates];
+				}
+				largeTruthTables[i] = table;
+			}
+		}
+		inputOffsets[numberOfGates] = inPos;
+		outputOffsets[numberOfGates] = outPos;
+		
+		circuitOutputWires = bc.getOutputWireIndices().clone();
+		for (int w : circuitOutputWires){
+			maxWire = checkWire(w, maxWire);
+		}
+		
+		int numberOfParties = bc.getNumberOfParties();
+		eachPartysInputWires = new int[numberOfParties][];
+		for (int p = 0; p < numberOfParties; p++){
+			ArrayList<Integer> partyInputs;
+			try {
+				partyInputs = bc.getInputWireIndices(p + 1);
+			} catch (NoSuchPartyException e) {
+				// Should not occur since the parties numbers are between 1 to getNumberOfParties.
+				throw new IllegalStateException(e);
+			}
+			eachPartysInputWires[p] = new int[partyInputs.size()];
+			for (int j = 0; j < eachPartysInputWires[p].length; j++){
+				eachPartysInputWires[p][j] = partyInputs.get(j);
+				maxWire = checkWire(eachPartysInputWires[p][j], maxWire);
+			}
+		}
+		
+		numberOfWires = maxWire + 1;
+	}
+	
+	private static int checkWire(int wire, int maxWire){
+		if (wire < 0){
+			throw new IllegalArgumentException("wire indices should be non negative");
+		}
+		return (wire > maxWire) ? wire : maxWire;
+	}
+	
+	/**
+	 * Computes all the gates of the circuit.<p>
+	 * The given array should be of size {@link #getNumberOfWires()} at least and contain the (0/1) values of the circuit's 
+	 * input wires. The values of all other wires are written into the array by this function. No memory is allocated.
+	 * @param wireValues The values of the wires, indexed by the wire number.
+	 */
+	public void compute(byte[] wireValues){
+		for (int i = 0; i < numberOfGates; i++){
+			int start = inputOffsets[i];
+			int end = inputOffsets[i + 1];
+			
+			//The first input wire is the most significant bit of the row index.
+			int row = 0;
+			for (int j = start; j < end; j++){
+				row = (row << 1) | wireValues[inputWires[j]];
+			}
+			
+			byte value;
+			if (largeTruthTables != null && largeTruthTables[i] != null){
+				value = (byte) (largeTruthTables[i].get(row) ? 1 : 0);
+			} else {
+				value = (byte) ((truthTables[i] >>> row) & 1);
+			}
+			
+			for (int j = outputOffsets[i]; j < outputOffsets[i + 1]; j++){
+				wireValues[outputWires[j]] = value;
+			}
+		}
+	}
+	
+	/**
+	 * @return the size of the wire values array, i.e. the largest wire index in the circuit plus one.
+	 */
+	public int getNumberOfWires(){
+		return numberOfWires;
+	}
+	
+	/**
+	 * @return the number of gates in the circuit.
+	 */
+	public int getNumberOfGates(){
+		return numberOfGates;
+	}
+	
+	/**
+	 * @return an array containing the indices of the output wires of the circuit.
+	 */
+	public int[] getOutputWireIndices(){
+		return circuitOutputWires;
+	}
+	
+	/**
+	 * @param partyNumber The number of the party whose input wires will be returned (parties are indexed from 1).
+	 * @return an array containing the indices of the input wires of the given party.
+	 */
+	public int[] getInputWireIndices(int partyNumber){
+		return eachPartysInputWires[partyNumber - 1];
+	}
+	
+	/**
+	 * @return the number of parties of the compiled circuit.
+	 */
+	public int getNumberOfParties(){
+		return eachPartysInputWires.length;
+	}
+	
+	/**
+	 * Returns the offsets of the gates' input wires in the array returned by {@link #getGatesInputWires()}.<p>
+	 * The input wires of gate i are at positions {@code offsets[i]} to {@code offsets[i+1]-1}.
+	 * @return an array of size number of gates + 1.
+	 */
+	public int[] getGatesInputOffsets(){
+		return inputOffsets;
+	}
+	
+	/**
+	 * @return the input wire indices of all the gates, one after the other.
+	 */
+	public int[] getGatesInputWires(){
+		return inputWires;
+	}
+	
+	/**
+	 * Returns the offsets of the gates' output wires in the array returned by {@link #getGatesOutputWires()}.<p>
+	 * The output wires of gate i are at positions {@code offsets[i]} to {@code offsets[i+1]-1}.
+	 * @return an array of size number of gates + 1.
+	 */
+	public int[] getGatesOutputOffsets(){
+		return outputOffsets;
+	}
+	
+	/**
+	 * @return the output wire indices of all the gates, one after the other.
+	 */
+	public int[] getGatesOutputWires(){
+		return outputWires;
+	}
+	
+	/**
+	 * Returns a topological layering of the circuit's gates.<p>
+	 * The gates of a layer do not depend on each other, thus they can be computed in any order (or concurrently) once all the 
+	 * previous layers have been computed. A gate is placed in the layer after the last layer that writes one of its input wires. 
+	 * In case a wire is written more than once, the writing gate is also placed after all the gates that use the wire's previous value.
+	 * The layering is computed on the first call and then cached.
+	 * @return an array where entry i contains the indices of the gates of layer i, in ascending order.
+	 */
+	public synchronized int[][] getLayers(){
+		if (layers != null){
+			return layers;
+		}
+		
+		//The last layer that wrote and read each wire, -1 if there is no such layer.
+		int[] writeLayer = new int[numberOfWires];
+		int[] readLayer = new int[numberOfWires];
+		Arrays.fill(writeLayer, -1);
+		Arrays.fill(readLayer, -1);
+		
+		int[] gateLayers = new int[numberOfGates];
+		int numberOfLayers = 0;
+		for (int i = 0; i < numberOfGates; i++){
+			int layer = 0;
+			for (int j = inputOffsets[i]; j < inputOffsets[i + 1]; j++){
+				layer = Math.max(layer, writeLayer[inputWires[j]] + 1);
+			}
+			for (int j = outputOffsets[i]; j < outputOffsets[i + 1]; j++){
+				layer = Math.max(layer, Math.max(writeLayer[outputWires[j]], readLayer[outputWires[j]]) + 1);
+			}
+			for (int j = inputOffsets[i]; j < inputOffsets[i + 1]; j++){
+				readLayer[inputWires[j]] = Math.max(readLayer[inputWires[j]], layer);
+			}
+			for (int j = outputOffsets[i]; j < outputOffsets[i + 1]; j++){
+				writeLayer[outputWires[j]] = layer;
+			}
+			gateLayers[i] = layer;
+			numberOfLayers = Math.max(numberOfLayers, layer + 1);
+		}
+		
+		//Group the gates by their layers.
+		int[] layerSizes = new int[numberOfLayers];
+		for (int i = 0; i < numberOfGates; i++){
+			layerSizes[gateLayers[i]]++;
+		}
+		int[][] result = new int[numberOfLayers][];
+		for (int l = 0; l < numberOfLayers; l++){
+			result[l] = new int[layerSizes[l]];
+			layerSizes[l] = 0;
+		}
+		for (int i = 0; i < numberOfGates; i++){
+			int l = gateLayers[i];
+			result[l][layerSizes[l]++] = i;
+		}
+		layers = result;
+		return layers;
+	}
+	
+	/**
+	 * Returns the truth table of the given gate as a bit mask where bit j is the output of row j.<p>
+	 * @param gateIndex The index of the gate in the circuit.
+	 * @return the truth table bit mask.
+	 * @throws UnsupportedOperationException if the gate has more than six inputs and thus can not be represented as a {@code long}.
+	 */
+	public long getTruthTable(int gateIndex){
+		if (largeTruthTables != null && largeTruthTables[gateIndex] != null){
+			throw new UnsupportedOperationException("the truth table of gate " + gateIndex + " has more than 64 rows");
+		}
+		return truthTables[gateIndex];
+	}
+}
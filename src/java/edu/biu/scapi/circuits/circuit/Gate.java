@@ -174,8 +174,8 @@ public class Gate {
 		 */
 		int truthTableIndex = 0;
 		int numberOfInputs = inputWireIndices.length;
-		for (int i = numberOfInputs - 1, j = 0; j < numberOfInputs; i--, j++) {
-			truthTableIndex += computedWires.get(inputWireIndices[i]).getValue() * Math.pow(2, j);
+		for (int i = 0; i < numberOfInputs; i++) {
+			truthTableIndex = (truthTableIndex << 1) | computedWires.get(inputWireIndices[i]).getValue();
 		}
 		return truthTableIndex;
 	}
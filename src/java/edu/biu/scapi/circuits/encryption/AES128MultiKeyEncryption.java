@@ -28,6 +28,7 @@ import java.security.InvalidKeyException;
 
 import javax.crypto.IllegalBlockSizeException;
 import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
 
 import edu.biu.scapi.exceptions.CiphertextTooLongException;
 import edu.biu.scapi.exceptions.KeyNotSetException;
@@ -69,6 +70,10 @@ public class AES128MultiKeyEncryption implements MultiKeyEncryptionScheme {
 	private AES aes;
 	private byte[] tweak;
 	private boolean isTweakSet;
+	
+	//Reusable buffers used by the offset based encrypt and decrypt functions.
+	private byte[] pad = new byte[KEY_SIZE / 8];
+	private byte[] temp = new byte[KEY_SIZE / 8];
 
 	public AES128MultiKeyEncryption(AES aes) {
 		this.aes = aes;
@@ -173,6 +178,49 @@ public class AES128MultiKeyEncryption implements MultiKeyEncryptionScheme {
 		return outBytes;
 	}
 
+	@Override
+	public void encrypt(byte[] keys, int[] keyOffsets, byte[] tweak, byte[] in, int inOff, byte[] out, int outOff) throws InvalidKeyException, IllegalBlockSizeException {
+		computePad(keys, keyOffsets, tweak);
+		for (int currentByte = 0; currentByte < pad.length; currentByte++) {
+			out[outOff + currentByte] = (byte) (pad[currentByte] ^ in[inOff + currentByte]);
+		}
+	}
+	
+	@Override
+	public void decrypt(byte[] keys, int[] keyOffsets, byte[] tweak, byte[] in, int inOff, byte[] out, int outOff) throws InvalidKeyException, IllegalBlockSizeException {
+		// Encryption and decryption are both a XOR with the same pad.
+		encrypt(keys, keyOffsets, tweak, in, inOff, out, outOff);
+	}
+	
+	/**
+	 * Since each block is encrypted using its own AES keys, the blocks are encrypted one after the other.
+	 */
+	@Override
+	public void encryptBlocks(byte[] keys, int[][] keyOffsets, byte[][] tweaks, byte[] in, int inOff, byte[] out, int outOff) throws InvalidKeyException, IllegalBlockSizeException {
+		int size = KEY_SIZE / 8;
+		for (int i = 0; i < keyOffsets.length; i++) {
+			encrypt(keys, keyOffsets[i], tweaks[i], in, inOff + i * size, out, outOff + i * size);
+		}
+	}
+	
+	/**
+	 * Computes the XOR of AES on the tweak using each one of the keys, into the pad buffer.<p>
+	 * Note that since the AES interface sets keys using {@code SecretKey} objects, this scheme still creates an object per key.
+	 */
+	private void computePad(byte[] keys, int[] keyOffsets, byte[] tweak) throws InvalidKeyException, IllegalBlockSizeException {
+		int size = KEY_SIZE / 8;
+		for (int currentByte = 0; currentByte < size; currentByte++) {
+			pad[currentByte] = 0;
+		}
+		for (int i = 0; i < keyOffsets.length; i++) {
+			aes.setKey(new SecretKeySpec(keys, keyOffsets[i], size, ""));
+			aes.computeBlock(tweak, 0, temp, 0);
+			for (int currentByte = 0; currentByte < size; currentByte++) {
+				pad[currentByte] ^= temp[currentByte];
+			}
+		}
+	}
+
 	@Override
 	public boolean isKeySet() {
 		return isKeySet;
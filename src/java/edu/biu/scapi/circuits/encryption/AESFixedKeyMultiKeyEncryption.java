@@ -78,6 +78,11 @@ public class AESFixedKeyMultiKeyEncryption implements MultiKeyEncryptionScheme {
 	//To avoid that, the input to the aes function should be different. 
 	//This flag indicates which algorithm to use.
 	private boolean isFreeXor = false; 
+	
+	//Reusable buffers for the input and output of the fixed key aes, used by the offset based encrypt and decrypt functions.
+	//The encryptBlocks function enlarges them to hold all the blocks.
+	private byte[] aesInput = new byte[KEY_SIZE / 8];
+	private byte[] aesOutput = new byte[KEY_SIZE / 8];
 
 	public AESFixedKeyMultiKeyEncryption() {
 		aes = new CryptoPpAES();
@@ -206,6 +211,126 @@ public class AESFixedKeyMultiKeyEncryption implements MultiKeyEncryptionScheme {
 		return outBytes;
 	}
 
+	@Override
+	public void encrypt(byte[] keys, int[] keyOffsets, byte[] tweak, byte[] in, int inOff, byte[] out, int outOff) throws IllegalBlockSizeException {
+		computeBlock(keys, keyOffsets, tweak, in, inOff, out, outOff);
+	}
+	
+	/**
+	 * Since encryption and decryption are both a XOR with the same pad, this function is identical to the encrypt function.
+	 */
+	@Override
+	public void decrypt(byte[] keys, int[] keyOffsets, byte[] tweak, byte[] in, int inOff, byte[] out, int outOff) throws IllegalBlockSizeException {
+		computeBlock(keys, keyOffsets, tweak, in, inOff, out, outOff);
+	}
+	
+	/**
+	 * Computes all the K values into the aesInput buffer, calls the fixed key AES once on all of them 
+	 * and then XORs each output with its K and with the input block.
+	 */
+	@Override
+	public void encryptBlocks(byte[] keys, int[][] keyOffsets, byte[][] tweaks, byte[] in, int inOff, byte[] out, int outOff) throws IllegalBlockSizeException {
+		int size = KEY_SIZE / 8;
+		int numBlocks = keyOffsets.length;
+		int len = numBlocks * size;
+		if (aesInput.length < len) {
+			aesInput = new byte[len];
+			aesOutput = new byte[len];
+		}
+		
+		for (int block = 0; block < numBlocks; block++) {
+			computeK(keys, keyOffsets[block], tweaks[block], aesInput, block * size);
+		}
+		
+		aes.computeBlocks(aesInput, 0, aesOutput, 0, numBlocks);
+		
+		// XOR the output of the AES with K and with the input block.
+		for (int index = 0; index < len; index++) {
+			out[outOff + index] = (byte) (aesOutput[index] ^ aesInput[index] ^ in[inOff + index]);
+		}
+	}
+	
+	/**
+	 * Computes AES(K) XOR K XOR in, where K is the XOR of the keys and the tweak, exactly as the {@link #encrypt(byte[])} function does.<p>
+	 * The computation uses the reusable aesInput and aesOutput buffers and thus does not allocate memory.
+	 */
+	private void computeBlock(byte[] keys, int[] keyOffsets, byte[] tweak, byte[] in, int inOff, byte[] out, int outOff) throws IllegalBlockSizeException {
+		int size = KEY_SIZE / 8;
+		
+		computeK(keys, keyOffsets, tweak, aesInput, 0);
+		
+		aes.computeBlock(aesInput, 0, aesOutput, 0);
+		
+		// XOR the output of the AES with K and with the input block.
+		for (int byteNumber = 0; byteNumber < size; byteNumber++) {
+			out[outOff + byteNumber] = (byte) (aesOutput[byteNumber] ^ aesInput[byteNumber] ^ in[inOff + byteNumber]);
+		}
+	}
+	
+	/**
+	 * Computes K, the XOR of the keys and the tweak, into the given array. 
+	 * In case of free xor circuit, the first key is multiplied by two and the other keys are divided by two.
+	 * @param result The array to put K in.
+	 * @param resultOffset The offset of K in the result array.
+	 */
+	private void computeK(byte[] keys, int[] keyOffsets, byte[] tweak, byte[] result, int resultOffset) {
+		int size = KEY_SIZE / 8;
+		System.arraycopy(tweak, 0, result, resultOffset, size);
+		for (int i = 0; i < keyOffsets.length; i++) {
+			if (!isFreeXor){
+				for (int byteNumber = 0; byteNumber < size; byteNumber++) {
+					result[resultOffset + byteNumber] ^= keys[keyOffsets[i] + byteNumber];
+				}
+			} else if (i == 0){
+				xorShiftedLeft(keys, keyOffsets[i], result, resultOffset);
+			} else {
+				xorShiftedRight(keys, keyOffsets[i], result, resultOffset);
+			}
+		}
+	}
+	
+	/**
+	 * XORs the given key, shifted to the left the same way as {@link #shiftLeft(byte[])} does, to the given result array.<p>
+	 * The key is treated as a sequence of big endian longs, each one shifted separately.
+	 * @param key An array that contains the key.
+	 * @param keyOffset The offset of the key in the array.
+	 * @param result The array to XOR the shifted key to.
+	 * @param resultOffset The offset in the result array to XOR the shifted key to.
+	 */
+	private void xorShiftedLeft(byte[] key, int keyOffset, byte[] result, int resultOffset){
+		int size = KEY_SIZE / 8;
+		for (int byteNumber = 0; byteNumber < size; byteNumber++) {
+			int shifted = key[keyOffset + byteNumber] << 1;
+			//The msb of the next byte moves to this byte, unless this is the last byte of the long.
+			if ((byteNumber & 7) != 7){
+				shifted |= (key[keyOffset + byteNumber + 1] & 0xff) >>> 7;
+			}
+			result[resultOffset + byteNumber] ^= (byte) shifted;
+		}
+	}
+	
+	/**
+	 * XORs the given key, shifted to the right the same way as {@link #shiftRight(byte[])} does, to the given result array.<p>
+	 * The key is treated as a sequence of big endian longs, each one shifted separately using a signed shift.
+	 * @param key An array that contains the key.
+	 * @param keyOffset The offset of the key in the array.
+	 * @param result The array to XOR the shifted key to.
+	 * @param resultOffset The offset in the result array to XOR the shifted key to.
+	 */
+	private void xorShiftedRight(byte[] key, int keyOffset, byte[] result, int resultOffset){
+		int size = KEY_SIZE / 8;
+		for (int byteNumber = 0; byteNumber < size; byteNumber++) {
+			int shifted;
+			//The first byte of the long keeps its sign bit. In the other bytes, the lsb of the previous byte moves to the msb.
+			if ((byteNumber & 7) == 0){
+				shifted = key[keyOffset + byteNumber] >> 1;
+			} else {
+				shifted = ((key[keyOffset + byteNumber] & 0xff) >>> 1) | ((key[keyOffset + byteNumber - 1] & 1) << 7);
+			}
+			result[resultOffset + byteNumber] ^= (byte) shifted;
+		}
+	}
+	
 	/**
 	 * Shifts the bits of the given array to the right.
 	 * @param bytes to shift right.
@@ -26,6 +26,7 @@ package edu.biu.scapi.circuits.encryption;
 
 import java.security.SecureRandom;
 
+import javax.crypto.IllegalBlockSizeException;
 import javax.crypto.SecretKey;
 import javax.crypto.spec.SecretKeySpec;
 
@@ -65,6 +66,9 @@ public class HashingMultiKeyEncryption implements MultiKeyEncryptionScheme {
 	private boolean isKeySet;
 
 	private CryptographicHash hash;
+	
+	//A reusable buffer for the hash output, used by the offset based encrypt and decrypt functions.
+	private byte[] hashOutput;
 
 	/**
 	 * Constructor that sets the given values.
@@ -95,6 +99,7 @@ public class HashingMultiKeyEncryption implements MultiKeyEncryptionScheme {
 		this.keySize = keySize;
 		this.hash = hash;
 		this.random = random;
+		hashOutput = new byte[hash.getHashedMsgSize()];
 	}
 	
 	@Override
@@ -160,6 +165,43 @@ public class HashingMultiKeyEncryption implements MultiKeyEncryptionScheme {
 		return output;
 	}
 
+	/**
+	 * Hashes the appended keys and XORs the last {@link #getCipherSize()} bytes of the hash output to the input block.
+	 * @throws IllegalBlockSizeException if the cipher size is longer than the output of the hash function.
+	 */
+	@Override
+	public void encrypt(byte[] keys, int[] keyOffsets, byte[] tweak, byte[] in, int inOff, byte[] out, int outOff) throws IllegalBlockSizeException {
+		int blockSize = keySize / 8;
+		int offset = hashOutput.length - blockSize;
+		if (offset < 0) {
+			throw new IllegalBlockSizeException("the cipher size is longer than the output of the hash function");
+		}
+		for (int i = 0; i < keyOffsets.length; i++) {
+			hash.update(keys, keyOffsets[i], blockSize);
+		}
+		hash.hashFinal(hashOutput, 0);
+		for (int i = 0; i < blockSize; i++) {
+			out[outOff + i] = (byte) (hashOutput[i + offset] ^ in[inOff + i]);
+		}
+	}
+	
+	@Override
+	public void decrypt(byte[] keys, int[] keyOffsets, byte[] tweak, byte[] in, int inOff, byte[] out, int outOff) throws IllegalBlockSizeException {
+		// See comments to encrypt method to understand the encryption/decryption.
+		encrypt(keys, keyOffsets, tweak, in, inOff, out, outOff);
+	}
+
+	/**
+	 * The hash function works on one block at a time, so the blocks are encrypted one after the other.
+	 */
+	@Override
+	public void encryptBlocks(byte[] keys, int[][] keyOffsets, byte[][] tweaks, byte[] in, int inOff, byte[] out, int outOff) throws IllegalBlockSizeException {
+		int blockSize = keySize / 8;
+		for (int i = 0; i < keyOffsets.length; i++) {
+			encrypt(keys, keyOffsets[i], tweaks[i], in, inOff + i * blockSize, out, outOff + i * blockSize);
+		}
+	}
+
 	@Override
 	public SecretKey generateKey() {
 		//Divide by 8 since the key size is specified in bits and we are using a byte array
@@ -128,6 +128,60 @@ public interface MultiKeyEncryptionScheme {
 
 	public byte[] decrypt(byte[] ciphertext) throws CiphertextTooLongException, KeyNotSetException, TweakNotSetException, InvalidKeyException, IllegalBlockSizeException;
 
+	/**
+	 * Encrypts a single block using the given keys and tweak, without creating any intermediate objects.<p>
+	 * This is equivalent to calling {@link #setKey(MultiSecretKey)} with the given keys, {@link #setTweak(byte[])} with the given tweak 
+	 * and then {@link #encrypt(byte[])} on the given plaintext block. The key and tweak that were set using the setter functions 
+	 * are not used and not changed by this function.<p>
+	 * 
+	 * This function is meant for the inner loops of garbling and computing, where the keys of a gate can be kept in one reusable buffer.
+	 * 
+	 * @param keys An array that contains the individual keys. Each key is {@link #getCipherSize()} bytes long.
+	 * @param keyOffsets The offsets of the individual keys in the keys array. The number of keys is the length of this array.
+	 * @param tweak The tweak to use. Schemes that do not use a tweak ignore it.
+	 * @param in An array that contains the plaintext block.
+	 * @param inOff The offset of the plaintext block in the in array.
+	 * @param out An array to put the ciphertext block in. May be the in array itself.
+	 * @param outOff The offset in the out array to put the ciphertext block in.
+	 * @throws InvalidKeyException
+	 * @throws IllegalBlockSizeException
+	 */
+	public void encrypt(byte[] keys, int[] keyOffsets, byte[] tweak, byte[] in, int inOff, byte[] out, int outOff) throws InvalidKeyException, IllegalBlockSizeException;
+
+	/**
+	 * Decrypts a single block using the given keys and tweak, without creating any intermediate objects.<p>
+	 * This is the inverse of {@link #encrypt(byte[], int[], byte[], byte[], int, byte[], int)}. 
+	 * The key and tweak that were set using the setter functions are not used and not changed by this function.
+	 * 
+	 * @param keys An array that contains the individual keys. Each key is {@link #getCipherSize()} bytes long.
+	 * @param keyOffsets The offsets of the individual keys in the keys array. The number of keys is the length of this array.
+	 * @param tweak The tweak to use. Schemes that do not use a tweak ignore it.
+	 * @param in An array that contains the ciphertext block.
+	 * @param inOff The offset of the ciphertext block in the in array.
+	 * @param out An array to put the plaintext block in. May be the in array itself.
+	 * @param outOff The offset in the out array to put the plaintext block in.
+	 * @throws InvalidKeyException
+	 * @throws IllegalBlockSizeException
+	 */
+	public void decrypt(byte[] keys, int[] keyOffsets, byte[] tweak, byte[] in, int inOff, byte[] out, int outOff) throws InvalidKeyException, IllegalBlockSizeException;
+
+	/**
+	 * Encrypts consecutive blocks, each one using its own keys and tweak.<p>
+	 * The result is the same as calling {@link #encrypt(byte[], int[], byte[], byte[], int, byte[], int)} on each block, 
+	 * but schemes that are based on a block cipher compute the cipher on all the blocks together, for example all the rows of a garbled table.
+	 * 
+	 * @param keys An array that contains the individual keys of all the blocks. Each key is {@link #getCipherSize()} bytes long.
+	 * @param keyOffsets The offsets of the individual keys of each block in the keys array. The number of blocks is the length of this array.
+	 * @param tweaks The tweak of each block. Schemes that do not use a tweak ignore them.
+	 * @param in An array that contains the plaintext blocks one after the other.
+	 * @param inOff The offset of the first plaintext block in the in array.
+	 * @param out An array to put the ciphertext blocks in. May be the in array itself, at the same offset.
+	 * @param outOff The offset in the out array to put the first ciphertext block in.
+	 * @throws InvalidKeyException
+	 * @throws IllegalBlockSizeException
+	 */
+	public void encryptBlocks(byte[] keys, int[][] keyOffsets, byte[][] tweaks, byte[] in, int inOff, byte[] out, int outOff) throws InvalidKeyException, IllegalBlockSizeException;
+
 	/**
 	 * Checks if the key for this {@code MultiKeyEncryptionScheme} has been set.<P>
 	 * Returning {@code true} if it has been and {@code false} if it has not been. <P>
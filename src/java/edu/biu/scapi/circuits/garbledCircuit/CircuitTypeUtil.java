@@ -74,4 +74,12 @@ interface CircuitTypeUtil {
 	public CircuitCreationValues garble(BooleanCircuit ungarbledCircuit, GarbledTablesHolder garbledTablesHolder, 
 			GarbledGate[] gates, PseudorandomGenerator prg, byte[] seed) throws InvalidKeyException;
 	
+	/**
+	 * Sets an executor that garbles the gates using several threads.<p>
+	 * Once an executor is set, the garble functions create the garbled tables using the gates of the executor's workers. 
+	 * If no executor is set, the gates given to the garble functions are garbled sequentially.
+	 * @param executor The executor to use.
+	 */
+	public void setGateExecutor(LayeredGateExecutor executor);
+	
 }
@@ -38,6 +38,7 @@ import edu.biu.scapi.circuits.circuit.BooleanCircuit;
 import edu.biu.scapi.circuits.circuit.Gate;
 import edu.biu.scapi.circuits.encryption.AESFixedKeyMultiKeyEncryption;
 import edu.biu.scapi.circuits.encryption.MultiKeyEncryptionScheme;
+import edu.biu.scapi.exceptions.CiphertextTooLongException;
 import edu.biu.scapi.exceptions.NoSuchPartyException;
 import edu.biu.scapi.exceptions.PlaintextTooLongException;
 import edu.biu.scapi.primitives.prg.PseudorandomGenerator;
@@ -63,6 +64,9 @@ class FreeXORGarbledBooleanCircuitUtil implements CircuitTypeUtil {
 	
 	protected MultiKeyEncryptionScheme mes;
 	
+	//Runs the garbling of the gates using several threads. If null, the gates are garbled sequentially.
+	protected LayeredGateExecutor executor;
+	
 	// We save the XOR and XORNOT truth tables because they will be used many times and we want to avoid repeated creations.
 	private BitSet XORNOTTruthTable;	
 	private BitSet XORTruthTable;
@@ -136,22 +140,7 @@ class FreeXORGarbledBooleanCircuitUtil implements CircuitTypeUtil {
 		Map<Integer, SecretKey[]> allOutputWireValues = null;
 		HashMap<Integer, Byte> translationTable = new HashMap<Integer, Byte>();
 		Gate[] ungarbledGates = ungarbledCircuit.getGates();
-		byte[] globalKeyOffset = null;
-		
-		/*
-		 * The globalKeyOffset is a randomly chosen bit sequence that is the same size as the key and will be used to create the 
-		 * garbled wire's values.
-		 * We used generate key since this way globalKeyOfset will always be the size of the key. 
-		 * See Free XOR Gates and Applications by Validimir Kolesnikov and Thomas Schneider.
-		 */
-		globalKeyOffset = mes.generateKey().getEncoded();
-		/*
-		 * Setting the last bit to 1. This follows algorithm 1 step 2 part A of Free XOR Gates and Applications by Validimir 
-		 * Kolesnikov and Thomas Schneider.
-		 * This algorithm calls for XORing the Wire values with R and the signal bit with 1. So, we set the last bit of R to 1 and 
-		 * this will be XOR'd with the last bit of the wire value, which is the signal bit in our implementation.
-		 */
-		globalKeyOffset[globalKeyOffset.length - 1] |= 1;
+		byte[] globalKeyOffset = sampleGlobalKeyOffset();
 				
 		//Sample input keys.
 		allInputWireValues = new HashMap<Integer, SecretKey[]>();
@@ -202,6 +191,28 @@ class FreeXORGarbledBooleanCircuitUtil implements CircuitTypeUtil {
 		return new CircuitCreationValues(allInputWireValues, allOutputWireValues, translationTable);		
 	}	
 	
+	/**
+	 * Samples the global key offset of the circuit (the Free XOR delta).
+	 * @return the sampled offset.
+	 */
+	protected byte[] sampleGlobalKeyOffset() {
+		/*
+		 * The globalKeyOffset is a randomly chosen bit sequence that is the same size as the key and will be used to create the 
+		 * garbled wire's values.
+		 * We used generate key since this way globalKeyOfset will always be the size of the key. 
+		 * See Free XOR Gates and Applications by Validimir Kolesnikov and Thomas Schneider.
+		 */
+		byte[] globalKeyOffset = mes.generateKey().getEncoded();
+		/*
+		 * Setting the last bit to 1. This follows algorithm 1 step 2 part A of Free XOR Gates and Applications by Validimir 
+		 * Kolesnikov and Thomas Schneider.
+		 * This algorithm calls for XORing the Wire values with R and the signal bit with 1. So, we set the last bit of R to 1 and 
+		 * this will be XOR'd with the last bit of the wire value, which is the signal bit in our implementation.
+		 */
+		globalKeyOffset[globalKeyOffset.length - 1] |= 1;
+		return globalKeyOffset;
+	}
+	
 	/**
 	 * Generates the input wire keys and signal bits.
 	 * @param allWireValues A map that contains both keys for each wire.
@@ -258,22 +269,56 @@ class FreeXORGarbledBooleanCircuitUtil implements CircuitTypeUtil {
 	 * @param ungarbledGates The gates that should be garbled.
 	 * @param allWireValues A map that contains both keys for each wire.
 	 */
-	protected void createGarbledTables(GarbledGate[] gates, BasicGarbledTablesHolder garbledTablesHolder, Gate[] ungarbledGates, Map<Integer, SecretKey[]> allWireValues) throws InvalidKeyException, IllegalBlockSizeException, PlaintextTooLongException {
-			
-		// Get the XOR and XORNOT truth table to be used to test against for equality.
-		BitSet XORTruthTable = getXORTruthTable();
-		BitSet XORNOTTruthTable = getXORNOTTruthTable();
-				
-		//For each Standard gate, create the suitable StandardGarbledGate object. 
-		//Free XOR gate and Free XOR NOT gates do not have a garbled tables, thus they should not be created.
-		for (int gate = 0; gate < ungarbledGates.length; gate++) {
-			
-			if (!ungarbledGates[gate].getTruthTable().equals(XORTruthTable) && !(ungarbledGates[gate].getTruthTable().equals(XORNOTTruthTable))) {
-				((StandardGarbledGate) gates[gate]).createGarbledTable(ungarbledGates[gate], allWireValues);
-			}
+	protected void createGarbledTables(GarbledGate[] gates, BasicGarbledTablesHolder garbledTablesHolder, final Gate[] ungarbledGates, final Map<Integer, SecretKey[]> allWireValues) throws InvalidKeyException, IllegalBlockSizeException, PlaintextTooLongException {
+		
+		//The keys of all the wires are already known, thus the garbled tables of the gates do not depend on each other.
+		try {
+			getGateExecutor(gates).runAll(new LayeredGateExecutor.GateTask() {
+				@Override
+				public void run(GarbledGate gate, int gateIndex) throws InvalidKeyException, IllegalBlockSizeException, PlaintextTooLongException {
+					createGarbledTable(gate, ungarbledGates[gateIndex], allWireValues);
+				}
+			});
+		} catch (CiphertextTooLongException e) {
+			// Should not occur since the garbling only encrypts.
 		}
 	}
 	
+	@Override
+	public void setGateExecutor(LayeredGateExecutor executor) {
+		this.executor = executor;
+	}
+	
+	/**
+	 * Returns the executor that was set to this utility or, if no executor was set, an executor that runs the given gates sequentially.
+	 * @param gates The gates given to the garble function.
+	 */
+	protected LayeredGateExecutor getGateExecutor(GarbledGate[] gates) {
+		return (executor != null) ? executor : new LayeredGateExecutor(gates);
+	}
+	
+	/**
+	 * Creates the garbled table of the given gate, if it has one.<p> 
+	 * Free XOR gate and Free XOR NOT gates do not have a garbled table, thus nothing is done for them.
+	 * @param gate The garbled gate that was created for the given ungarbled gate.
+	 * @param ungarbledGate The gate that should be garbled.
+	 * @param allWireValues A map that contains both keys for each wire.
+	 */
+	protected void createGarbledTable(GarbledGate gate, Gate ungarbledGate, Map<Integer, SecretKey[]> allWireValues) throws InvalidKeyException, IllegalBlockSizeException, PlaintextTooLongException {
+		if (!isFreeGate(ungarbledGate)) {
+			((StandardGarbledGate) gate).createGarbledTable(ungarbledGate, allWireValues);
+		}
+	}
+	
+	/**
+	 * @param ungarbledGate The gate to check.
+	 * @return {@code true} if the given gate is an XOR or XORNOT gate, which are computed without a garbled table.
+	 */
+	protected boolean isFreeGate(Gate ungarbledGate) {
+		BitSet truthTable = ungarbledGate.getTruthTable();
+		return truthTable.equals(getXORTruthTable()) || truthTable.equals(getXORNOTTruthTable());
+	}
+	
 	/**
 	 * Creates the keys of the non-input wires.
 	 * @param ungarbledGates The gates that should be garbled.
@@ -281,26 +326,34 @@ class FreeXORGarbledBooleanCircuitUtil implements CircuitTypeUtil {
 	 * @param globalKeyOffset The FREE XOR delta.
 	 */
 	protected void createNonInputWireValues(Gate[] ungarbledGates, Map<Integer, SecretKey[]> allWireValues, byte[] globalKeyOffset){
-		// Get the XOR and XORNOT truth table to be used to test against for equality.
-		BitSet XORTruthTable = getXORTruthTable();
-		BitSet XORNOTTruthTable = getXORNOTTruthTable();
-		
 		//Generate both keys for each output wire of each gate.
 		for (int gate = 0; gate < ungarbledGates.length; gate++) {
-			//XOR gate.
-			if (ungarbledGates[gate].getTruthTable().equals(XORTruthTable)) {
-				generateXORValues(ungarbledGates[gate], allWireValues, globalKeyOffset);
+			createOutputWireValues(ungarbledGates[gate], allWireValues, globalKeyOffset);
+		}
+	}
+	
+	/**
+	 * Creates the keys of the output wire of the given gate.<p>
+	 * The keys of the gate's input wires should already be in the given map.
+	 * @param ungarbledGate The gate that should be garbled.
+	 * @param allWireValues A map that contains both keys for each wire.
+	 * @param globalKeyOffset The FREE XOR delta.
+	 */
+	protected void createOutputWireValues(Gate ungarbledGate, Map<Integer, SecretKey[]> allWireValues, byte[] globalKeyOffset){
+		BitSet truthTable = ungarbledGate.getTruthTable();
+		//XOR gate.
+		if (truthTable.equals(getXORTruthTable())) {
+			generateXORValues(ungarbledGate, allWireValues, globalKeyOffset);
 
-			} 
-			//XOR NOT gate.
-			else if (ungarbledGates[gate].getTruthTable().equals(XORNOTTruthTable)) {
-				generateXORNOTValues(ungarbledGates[gate], allWireValues, globalKeyOffset);
-			}
-			//Standard gate.
-			else {
-				byte[] zeroValueBytes = mes.generateKey().getEncoded();//Generate the first value.
-				generateStandardValues(ungarbledGates[gate], allWireValues, globalKeyOffset, zeroValueBytes);
-			}
+		} 
+		//XOR NOT gate.
+		else if (truthTable.equals(getXORNOTTruthTable())) {
+			generateXORNOTValues(ungarbledGate, allWireValues, globalKeyOffset);
+		}
+		//Standard gate.
+		else {
+			byte[] zeroValueBytes = mes.generateKey().getEncoded();//Generate the first value.
+			generateStandardValues(ungarbledGate, allWireValues, globalKeyOffset, zeroValueBytes);
 		}
 	}
 
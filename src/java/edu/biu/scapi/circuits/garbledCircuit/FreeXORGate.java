@@ -38,7 +38,7 @@ import edu.biu.scapi.circuits.circuit.Gate;
  * The technique dictates a careful way to choose the Wire Values. <p>
  * See the {@link FreeXORGarbledBooleanCircuitUtil} class that constructs the circuit and chooses the values according to this procedure. 
  * Once the Wire values have been chosen as such, evaluating XOR gates does not require encryption. 
- * See the {@link #compute(Map)} method in this class where the computation is done.
+ * See the {@link #compute(GarbledWire[])} method in this class where the computation is done.
  * </p>
  * 
  * See <i>Free XOR Gates and Applications</i> by Validimir Kolesnikov and Thomas Schneider for a full description of the Free XOR technique, pseudocode
@@ -76,7 +76,7 @@ class FreeXORGate implements GarbledGate{
 	  * Constructs a free XOR garbled gate from an ungarbled gate.<p>
 	  * Since this is an XOR Gate using the Free XOR technique, no encryption is required for its Garbling. 
 	  * Rather, the {@code GarbledWire} values were carefully chosen in the GarbledBooleanCircuit.<p> 
-	  * See {@code FreeXORGarbledBooleanCircuitUtil} and {@link #compute(Map)} for the  technical details on how this is achieved.
+	  * See {@code FreeXORGarbledBooleanCircuitUtil} and {@link #compute(GarbledWire[])} for the  technical details on how this is achieved.
 	  * @param ungarbledGate The ungarbled Gate that needs to be Garbled. 
 	  */
 	 FreeXORGate(Gate ungarbledGate) {
@@ -86,26 +86,27 @@ class FreeXORGate implements GarbledGate{
 	 }
 
 	 @Override
-	 public void compute(Map<Integer, GarbledWire> computedWires) {
+	 public void compute(GarbledWire[] computedWires) {
 	    
 		 /*
 		  * The Free XOR Gate has only 2 inputs. We XOR the input values to obtain the Garbled output value. 
 		  * This is made possible by carefully choosing the garbled values for the {@code Garbled Wires} in the constructor of the
 		  * {@code FreeXORGarbledBooleanCircuitUtil} class. See there for details.
 		  */
-		 byte[] outputValue = computedWires.get(inputWireIndices[0]).getValueAndSignalBit().getEncoded();
-	     byte[] nextInput = computedWires.get(inputWireIndices[1]).getValueAndSignalBit().getEncoded();
+		 byte[] firstInput = computedWires[inputWireIndices[0]].getValue();
+	     byte[] nextInput = computedWires[inputWireIndices[1]].getValue();
 	
 	     // XORing the two input values.
+	     byte[] outputValue = new byte[firstInput.length];
 	     for (int currentByte = 0; currentByte < outputValue.length; currentByte++) {
-	    	 outputValue[currentByte] ^= nextInput[currentByte];
+	    	 outputValue[currentByte] = (byte) (firstInput[currentByte] ^ nextInput[currentByte]);
 	     }
 	
-	     SecretKey outputWireValue = new SecretKeySpec(outputValue, "");
+	     GarbledWire output = new GarbledWire(outputValue);
 	    
 	     // Create the output GarbledWire(s) and set them with the value we just computed
 	     for (int w : outputWireIndices) {
-	    	 computedWires.put(w, new GarbledWire(outputWireValue));
+	    	 computedWires[w] = output;
 	     }
 	     
 	 }
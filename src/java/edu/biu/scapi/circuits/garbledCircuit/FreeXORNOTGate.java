@@ -47,7 +47,7 @@ class FreeXORNOTGate extends FreeXORGate{
 	 * Constructs a free XOR NOT garbled gate from an ungarbled gate.<p>
 	 * Since this is an XOR NOT Gate using the Free XOR technique, no encryption is required for its Garbling. 
 	 * Rather, the {@code GarbledWire} values were carefully chosen in the GarbledBooleanCircuit. <p>
-	 * See {@code FreeXORGarbledBooleanCircuitUtil} and {@link #compute(Map)} for the  technical details on how this is achieved.
+	 * See {@code FreeXORGarbledBooleanCircuitUtil} and {@link #compute(GarbledWire[])} for the  technical details on how this is achieved.
 	 * @param ungarbledGate The ungarbled Gate that needs to be Garbled. 
 	 */
 	FreeXORNOTGate(Gate ungarbledGate) {
@@ -37,6 +37,7 @@ import edu.biu.scapi.circuits.encryption.AESFixedKeyMultiKeyEncryption;
 import edu.biu.scapi.exceptions.CiphertextTooLongException;
 import edu.biu.scapi.exceptions.NoSuchPartyException;
 import edu.biu.scapi.exceptions.NotAllInputsSetException;
+import edu.biu.scapi.exceptions.PlaintextTooLongException;
 import edu.biu.scapi.primitives.prg.PseudorandomGenerator;
 
 /**
@@ -52,6 +53,8 @@ public class GarbledBooleanCircuitImp extends GarbledBooleanCircuitAbs implement
 	private CircuitTypeUtil util; 		//Executes all functionalities that specific to the circuit type.
 	private PseudorandomGenerator prg;  //used in case of generating the keys using a seed.
 	private GarbledGate[] gates; 		// The garbled gates of this garbled circuit.
+	private GarbledWire[] wireValues;	// The garbled values of all wires, indexed by the wire number. Reused between computations.
+	private LayeredGateExecutor executor; // Garbles and computes the gates using several threads. Null in case of a single thread.
 	
   	/**
 	 * Default constructor. Sets the given boolean circuit and creates a Free XOR circuit using a AESFixedKeyMultiKeyEncryption.
@@ -96,6 +99,54 @@ public class GarbledBooleanCircuitImp extends GarbledBooleanCircuitAbs implement
 		doConstruct(input);
 	}
 	
+	/**
+	 * A constructor that creates a circuit that garbles and computes its gates using several threads.<p>
+	 * The gates of each layer of the circuit are divided between the threads, where the calling thread is one of them. 
+	 * The encryption schemes hold mutable state, thus each thread uses its own gates, created using its own input object. 
+	 * All the given input objects should contain the same ungarbled circuit and be of the same type, 
+	 * and each one of them should use a different {@code MultiKeyEncryptionScheme} instance.<p>
+	 * This constructor should be used in case the garbling is done using the encryption scheme. 
+	 * @param inputs An input object for each thread. The number of threads is the number of the input objects.
+	 * @throws IllegalArgumentException if the input objects do not contain the same ungarbled circuit.
+	 */
+	public GarbledBooleanCircuitImp(GarblingParameters[] inputs){
+		this(inputs[0]);
+		createWorkers(inputs);
+	}
+	
+	/**
+	 * A constructor that creates a circuit that garbles and computes its gates using several threads, 
+	 * and garbles using a seed. See {@link #GarbledBooleanCircuitImp(GarblingParameters[])} for the requirements of the input objects.
+	 * @param inputs An input object for each thread. The number of threads is the number of the input objects.
+	 * @param prg Used to generate the keys from a seed.
+	 * @throws IllegalArgumentException if the input objects do not contain the same ungarbled circuit.
+	 */
+	public GarbledBooleanCircuitImp(GarblingParameters[] inputs, PseudorandomGenerator prg){
+		this(inputs[0], prg);
+		createWorkers(inputs);
+	}
+	
+	/**
+	 * Creates the gates of each thread and the executor that runs them.
+	 * @param inputs An input object for each thread.
+	 */
+	private void createWorkers(GarblingParameters[] inputs) {
+		if (inputs.length == 1){
+			return;
+		}
+		GarbledGate[][] workerGates = new GarbledGate[inputs.length][];
+		workerGates[0] = gates;
+		for (int i = 1; i < inputs.length; i++){
+			if (inputs[i].getUngarbledCircuit() != bc){
+				throw new IllegalArgumentException("all the input objects should contain the same ungarbled circuit");
+			}
+			//The gates of all threads share the same garbled tables.
+			workerGates[i] = inputs[i].createCircuitUtil().createGates(bc.getGates(), garbledTablesHolder);
+		}
+		executor = new LayeredGateExecutor(workerGates, bc.getCompiledCircuit().getLayers());
+		util.setGateExecutor(executor);
+	}
+	
 	/**
 	 * Constructs a circuit from the given input.
 	 * @param input Specifies which concrete type of circuit to implement.
@@ -162,31 +213,67 @@ public class GarbledBooleanCircuitImp extends GarbledBooleanCircuitAbs implement
 	  		}
   		}
   		
+  		if (wireValues == null){
+  			wireValues = new GarbledWire[bc.getCompiledCircuit().getNumberOfWires()];
+  		}
+  		
+  		/*
+  		 * Copy the input values to the array that holds the values of the wires. 
+  		 * Negative indices belong to the input identity gates of an extended circuit and are not part of this circuit.
+  		 */
+  		for (Map.Entry<Integer, GarbledWire> entry : computedWires.entrySet()) {
+  			int wireNumber = entry.getKey();
+  			if (wireNumber >= 0 && wireNumber < wireValues.length){
+  				wireValues[wireNumber] = entry.getValue();
+  			}
+  		}
+  		
   		/*
   		 * We use the interface GarbledGate and thus this works for all implementing classes. The compute method of the 
   		 * specific garbled gate being used will be called. This allows us to have circuits with different types of gates 
   		 * {i.e a FreeXORGarbledBooleanCircuit contains both StandardGarbledGates and FreeXORGates) and this will work for all the gates.
   		 */
-  		for (GarbledGate g : gates) {
+  		if (executor == null){
+	  		for (GarbledGate g : gates) {
+	  			try {
+					g.compute(wireValues);
+				} catch (InvalidKeyException e) {
+					// Should not occur since the keys were generated through the encryption scheme that generates keys that match it.
+				} catch (IllegalBlockSizeException e) {
+					// Should not occur since the keys were generated through the encryption scheme that generates keys that match it.
+				} catch (CiphertextTooLongException e) {
+					// Should not occur since the keys were generated through the encryption scheme that generates keys that match it.
+				}
+	  		}
+  		} else {
+  			//Compute the gates of each layer in parallel. Each gate writes only its own output wires in the wire values array.
+  			final GarbledWire[] values = wireValues;
   			try {
-				g.compute(computedWires);
-			} catch (InvalidKeyException e) {
+				executor.runByLayers(new LayeredGateExecutor.GateTask() {
+					@Override
+					public void run(GarbledGate gate, int gateIndex) throws InvalidKeyException, IllegalBlockSizeException, CiphertextTooLongException {
+						gate.compute(values);
+					}
+				});
+  			} catch (InvalidKeyException e) {
 				// Should not occur since the keys were generated through the encryption scheme that generates keys that match it.
 			} catch (IllegalBlockSizeException e) {
 				// Should not occur since the keys were generated through the encryption scheme that generates keys that match it.
 			} catch (CiphertextTooLongException e) {
 				// Should not occur since the keys were generated through the encryption scheme that generates keys that match it.
+			} catch (PlaintextTooLongException e) {
+				// Should not occur since the computation only decrypts.
 			}
   		}
   		
   		/*
   		 * Copy only the values that we need to retain -- i.e. the values of the output wires to a new map to be returned. 
-  		 * The computedWire's map contains more values than we need to retain as it has values for all wires, 
+  		 * The wireValues array contains more values than we need to retain as it has values for all wires, 
   		 * not only circuit output wires.
   		 */
   		HashMap<Integer, GarbledWire> garbledOutput = new HashMap<Integer, GarbledWire>();
   		for (int w : outputWireIndices) {
-  			garbledOutput.put(w, computedWires.get(w));
+  			garbledOutput.put(w, wireValues[w]);
   		}
 
   		return garbledOutput;
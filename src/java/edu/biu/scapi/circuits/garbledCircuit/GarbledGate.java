@@ -46,12 +46,13 @@ public interface GarbledGate {
   	
 	/**
 	 * Computes the output of this gate and sets the output wire(s) to that value.
-	 * @param computedWires A {@link Map} containing the {@link GarbledWires}s that have already been computed and had their values set.
+	 * @param computedWires An array indexed by the wire number that contains the {@link GarbledWire}s that have already 
+	 * been computed and had their values set. The output wires of the gate are written into this array.
 	 * @throws InvalidKeyException
 	 * @throws IllegalBlockSizeException
 	 * @throws CiphertextTooLongException
 	 */
-	public void compute(Map<Integer, GarbledWire> computedWires) throws InvalidKeyException, IllegalBlockSizeException, CiphertextTooLongException;
+	public void compute(GarbledWire[] computedWires) throws InvalidKeyException, IllegalBlockSizeException, CiphertextTooLongException;
 
 	/**
 	 * This method tests an ungarbled {@link Gate} for equality to this {@code GarbledGate}. <P>
@@ -27,6 +27,7 @@ package edu.biu.scapi.circuits.garbledCircuit;
 import java.io.Serializable;
 
 import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
 
 import edu.biu.scapi.circuits.circuit.BooleanCircuit;
 import edu.biu.scapi.circuits.circuit.Wire;
@@ -43,12 +44,17 @@ import edu.biu.scapi.circuits.circuit.Wire;
 public class GarbledWire implements Serializable{
 
 	
-	private static final long serialVersionUID = 4396938333877434711L;
+	private static final long serialVersionUID = -2516488960313590418L;
 	
 	/**
 	 * The garbled value of this {@code GarbledWire}. The least significant bit is the signal bit.
 	 */
-	private SecretKey valueAndSignalBit;
+	private byte[] value;
+	
+	/*
+	 * The garbled value as a SecretKey. It is created only when requested, since the gates work directly on the bytes of the value.
+	 */
+	private transient SecretKey valueAndSignalBit;
   
 	/**
 	 * Constructs a {@code GarbledWire} and assigns it a value and signalBit. <P>
@@ -57,6 +63,16 @@ public class GarbledWire implements Serializable{
 	 */
 	public GarbledWire(SecretKey valueAndSignalBit) {
 		this.valueAndSignalBit = valueAndSignalBit;
+		value = valueAndSignalBit.getEncoded();
+	}
+	
+	/**
+	 * Constructs a {@code GarbledWire} from the bytes of its garbled value. <P>
+	 * The given array is not copied, thus it should not be changed after calling this constructor.
+	 * @param value The {@code GarbledWire}'s garbled value. The least significant bit of the last byte is the signal bit.
+	 */
+	GarbledWire(byte[] value) {
+		this.value = value;
 	}
 
 	/**
@@ -64,8 +80,20 @@ public class GarbledWire implements Serializable{
 	 * underlying {@code byte[]} is the signal bit.
 	 */
 	public SecretKey getValueAndSignalBit() {
+		if (valueAndSignalBit == null){
+			valueAndSignalBit = new SecretKeySpec(value, "");
+		}
 		return valueAndSignalBit;
 	}
+	
+	/**
+	 * Returns the garbled value of this {@code GarbledWire} without copying it. <p>
+	 * This is used by the gates in order to avoid the copy done by {@code SecretKey.getEncoded()}. The returned array should not be changed.
+	 * @return the bytes of the garbled value.
+	 */
+	byte[] getValue() {
+		return value;
+	}
 
 	/**
 	 * Clarification: The signal bit works as follows:<p>
@@ -83,7 +111,7 @@ public class GarbledWire implements Serializable{
 	 * @return the signal bit. <p>
   	 */
 	public byte getSignalBit() {
-		byte signalBit = (byte) ((valueAndSignalBit.getEncoded()[valueAndSignalBit.getEncoded().length - 1] & 1) == 0 ? 0 : 1);
+		byte signalBit = (byte) (value[value.length - 1] & 1);
 		return signalBit;
 	}
 
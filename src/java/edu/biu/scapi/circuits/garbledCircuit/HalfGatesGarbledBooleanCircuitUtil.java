@@ -0,0 +1,207 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.circuits.garbledCircuit;
+
+import java.security.InvalidKeyException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.crypto.IllegalBlockSizeException;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+
+import edu.biu.scapi.circuits.circuit.BooleanCircuit;
+import edu.biu.scapi.circuits.circuit.Gate;
+import edu.biu.scapi.circuits.encryption.MultiKeyEncryptionScheme;
+import edu.biu.scapi.exceptions.CiphertextTooLongException;
+import edu.biu.scapi.exceptions.NoSuchPartyException;
+import edu.biu.scapi.exceptions.PlaintextTooLongException;
+import edu.biu.scapi.primitives.prg.PseudorandomGenerator;
+
+/**
+ * The {@code HalfGatesGarbledBooleanCircuitUtil} is a utility class that computes the functionalities regarding a Free XOR garbled 
+ * circuit that uses the half gates technique of Zahur, Rosulek and Evans. <p>
+ * 
+ * XOR and XORNOT gates are free as in {@link FreeXORGarbledBooleanCircuitUtil}. Every two input gate with an odd number of ones 
+ * in its truth table (AND, OR, NAND, NOR etc.) is garbled as a {@link HalfGatesGarbledGate}, whose garbled table contains two 
+ * ciphertexts instead of four. Any other gate is garbled as a standard gate.<p>
+ * 
+ * Unlike the other Free XOR utilities, the output keys of a half gates gate are derived from its input keys during the garbling 
+ * of the gate. Thus, the keys and the garbled tables are created together, in the topological order of the circuit. 
+ * In case a {@link LayeredGateExecutor} is set, the gates of each layer of the circuit are garbled in parallel.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+class HalfGatesGarbledBooleanCircuitUtil extends FreeXORGarbledBooleanCircuitUtil {
+
+	/**
+	 * Sets the given MultiKeyEncryptionScheme.
+	 * @param mes The concrete encryption object to use.
+	 */
+	HalfGatesGarbledBooleanCircuitUtil(MultiKeyEncryptionScheme mes) {
+		super(mes);
+	}
+	
+	/**
+	 * Default constructor. Uses AESFixedKeyMultiKeyEncryption object.
+	 */
+	HalfGatesGarbledBooleanCircuitUtil() {
+		super();
+	}
+	
+	@Override
+	protected GarbledGate createStandardGate(Gate ungarbledGate, BasicGarbledTablesHolder garbledTablesHolder) {
+		if (HalfGatesGarbledGate.isHalfGate(ungarbledGate)){
+			return new HalfGatesGarbledGate(ungarbledGate, mes, garbledTablesHolder);
+		}
+		return super.createStandardGate(ungarbledGate, garbledTablesHolder);
+	}
+	
+	@Override
+	public CircuitCreationValues garble(BooleanCircuit ungarbledCircuit, GarbledTablesHolder garbledTablesHolder, GarbledGate[] gates) {
+		return garble(ungarbledCircuit, garbledTablesHolder, gates, null);
+	}
+	
+	@Override
+	public CircuitCreationValues garble(BooleanCircuit ungarbledCircuit, GarbledTablesHolder garbledTablesHolder, 
+			GarbledGate[] gates, PseudorandomGenerator prg, byte[] seed) throws InvalidKeyException {
+		//Sets the given seed as the prg key.
+		prg.setKey(new SecretKeySpec(seed, ""));
+		return garble(ungarbledCircuit, garbledTablesHolder, gates, prg);
+	}
+	
+	/**
+	 * Samples the keys of the circuit and creates the garbled tables.
+	 * @param ungarbledCircuit The circuit that should be garbled.
+	 * @param garbledTablesHolder Contains the pointer to the garbled tables.
+	 * @param gates The garbled gates of the circuit.
+	 * @param prg The prg to sample the keys with. If {@code null}, the keys are sampled by the encryption scheme.
+	 * @return the created keys of each input and output wire and the translation table.
+	 */
+	private CircuitCreationValues garble(BooleanCircuit ungarbledCircuit, GarbledTablesHolder garbledTablesHolder, 
+			GarbledGate[] gates, PseudorandomGenerator prg) {
+		if (!(garbledTablesHolder instanceof BasicGarbledTablesHolder)){
+			throw new IllegalArgumentException("the given garbledTablesHolder should be an instance of BasicGarbledTablesHolder");
+		}
+		//The gates of a layer may be garbled concurrently and put their output keys in the map.
+		final Map<Integer, SecretKey[]> allWireValues = new ConcurrentHashMap<Integer, SecretKey[]>();
+		Map<Integer, SecretKey[]> allInputWireValues = new HashMap<Integer, SecretKey[]>();
+		Map<Integer, SecretKey[]> allOutputWireValues = new HashMap<Integer, SecretKey[]>();
+		HashMap<Integer, Byte> translationTable = new HashMap<Integer, Byte>();
+		final Gate[] ungarbledGates = ungarbledCircuit.getGates();
+		
+		final byte[] globalKeyOffset;
+		if (prg == null){
+			globalKeyOffset = sampleGlobalKeyOffset();
+		} else {
+			globalKeyOffset = sampleKey(prg);
+			//Set the last bit to 1, as done in sampleGlobalKeyOffset.
+			globalKeyOffset[globalKeyOffset.length - 1] |= 1;
+		}
+		
+		//Sample input keys.
+		for (int i=1; i<=ungarbledCircuit.getNumberOfParties(); i++){
+			ArrayList<Integer> inputWireNumbers = null;
+			try {
+				inputWireNumbers = ungarbledCircuit.getInputWireIndices(i);
+			} catch (NoSuchPartyException e) {
+				// should not occur since the number is a valid party number
+			}
+			for (int w : inputWireNumbers) {
+				//Samples random key. The other key will be calculated via XOR with the globalKeyOffset.
+				SecretKey zeroValue = (prg == null) ? mes.generateKey() : new SecretKeySpec(sampleKey(prg), "");
+				sampleInputKeys(allInputWireValues, globalKeyOffset, w, zeroValue);
+			}
+		}
+		allWireValues.putAll(allInputWireValues);
+		
+		/*
+		 * Sample the zero keys of the output wires of the standard gates in advance, in the order of the circuit. 
+		 * This way the garbling of the gates does not use the prg or the encryption scheme of this utility, and the keys that are 
+		 * created from a seed do not depend on the order in which the gates are garbled.
+		 */
+		final boolean[] isFreeGate = new boolean[ungarbledGates.length];
+		final byte[][] standardZeroValues = new byte[ungarbledGates.length][];
+		for (int gate = 0; gate < ungarbledGates.length; gate++) {
+			isFreeGate[gate] = isFreeGate(ungarbledGates[gate]);
+			if (!isFreeGate[gate] && !HalfGatesGarbledGate.isHalfGate(ungarbledGates[gate])) {
+				standardZeroValues[gate] = (prg == null) ? mes.generateKey().getEncoded() : sampleKey(prg);
+			}
+		}
+		
+		//Create the keys and the garbled tables of the gates, in the topological order of the circuit.
+		try {
+			getGateExecutor(gates).runByLayers(new LayeredGateExecutor.GateTask() {
+				@Override
+				public void run(GarbledGate gate, int gateIndex) throws InvalidKeyException, IllegalBlockSizeException, PlaintextTooLongException {
+					if (gate instanceof HalfGatesGarbledGate){
+						//The output keys of a half gates gate are created along with its garbled table.
+						((HalfGatesGarbledGate) gate).createGarbledTable(ungarbledGates[gateIndex], allWireValues, globalKeyOffset);
+					} else if (isFreeGate[gateIndex]) {
+						createOutputWireValues(ungarbledGates[gateIndex], allWireValues, globalKeyOffset);
+					} else {
+						generateStandardValues(ungarbledGates[gateIndex], allWireValues, globalKeyOffset, standardZeroValues[gateIndex]);
+						createGarbledTable(gate, ungarbledGates[gateIndex], allWireValues);
+					}
+				}
+			});
+		} catch (InvalidKeyException e) {
+			// Should not occur since the keys were generated through the encryption scheme that generates keys that match it.
+		} catch (IllegalBlockSizeException e) {
+			// Should not occur since the keys were generated through the encryption scheme that generates keys that match it.
+		} catch (PlaintextTooLongException e) {
+			// Should not occur since the keys were generated through the encryption scheme that generates keys that match it.
+		} catch (CiphertextTooLongException e) {
+			// Should not occur since the garbling only encrypts.
+		}
+		
+		//Fill the the output wire values to be used in the following sub circuit
+		for (int n : ungarbledCircuit.getOutputWireIndices()) {
+			
+			//Add both values of output wire numbers to the allOutputWireValues Map.
+			allOutputWireValues.put(n, allWireValues.get(n));
+			
+			//Signal bit is the last bit of k0.
+			byte[] k0 = allWireValues.get(n)[0].getEncoded();
+			translationTable.put(n, (byte) (k0[k0.length-1] & 1));
+		}
+		return new CircuitCreationValues(allInputWireValues, allOutputWireValues, translationTable);
+	}
+	
+	/**
+	 * Samples a key using the given prg.
+	 * @param prg The prg to sample the key with.
+	 * @return the sampled bytes.
+	 */
+	private byte[] sampleKey(PseudorandomGenerator prg){
+		int keySize = mes.getCipherSize();
+		byte[] key = new byte[keySize];
+		prg.getPRGBytes(key, 0, keySize);
+		return key;
+	}
+}
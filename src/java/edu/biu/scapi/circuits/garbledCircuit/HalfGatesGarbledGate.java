@@ -0,0 +1,319 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.circuits.garbledCircuit;
+
+import java.nio.ByteBuffer;
+import java.security.InvalidKeyException;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Map;
+
+import javax.crypto.IllegalBlockSizeException;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+
+import edu.biu.scapi.circuits.circuit.Gate;
+import edu.biu.scapi.circuits.encryption.MultiKeyEncryptionScheme;
+import edu.biu.scapi.exceptions.CiphertextTooLongException;
+
+/**
+ * A garbled gate that uses the half-gates technique of <i>Two Halves Make a Whole: Reducing Data Transfer in Garbled Circuits 
+ * using Half Gates</i> by Samee Zahur, Mike Rosulek and David Evans.<p>
+ * 
+ * The technique works for every two input gate whose truth table has an odd number of ones, i.e. gates of the form 
+ * ((a XOR alpha) AND (b XOR beta)) XOR gamma. The gate is split into a "garbler half gate", where the garbler knows the value of 
+ * one input, and an "evaluator half gate", where the evaluator knows the value (XORed with the signal bit) of one input. 
+ * Each half needs a single ciphertext, so the garbled table contains two ciphertexts and the evaluation performs two 
+ * hash computations.<p>
+ * 
+ * The hash H(K, j) is computed as the encryption of the zero block under the single key K with a tweak containing the gate number 
+ * and the index of the half. When used with {@link edu.biu.scapi.circuits.encryption.AESFixedKeyMultiKeyEncryption} in Free XOR mode this is 
+ * AES(2K ^ T) ^ 2K ^ T, using a fixed key AES.<p>
+ * 
+ * This gate must be used in a Free XOR circuit, since the garbling assumes that the two keys of every wire differ by the global 
+ * offset R, whose last bit is 1.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+class HalfGatesGarbledGate implements GarbledGate {
+
+	//The indices of the two halves in the tweak.
+	private static final int GARBLER_HALF = 1;
+	private static final int EVALUATOR_HALF = 2;
+	
+	private MultiKeyEncryptionScheme mes; 					// The encryption scheme used to compute the hash.
+	private BasicGarbledTablesHolder garbledTablesHolder; 	// Holds the garbled tables.
+	private int[] inputWireIndices;
+	private int[] outputWireIndices;
+	private int gateNumber;
+	private byte[] garblerTweak;							// The tweak of the garbler half gate.
+	private byte[] evaluatorTweak;							// The tweak of the evaluator half gate.
+	
+	/*
+	 * Reusable buffers of the hash computation. The keys to hash are placed one after the other in the keys buffer, and the 
+	 * zero blocks are encrypted into the hashes buffer. The garbling hashes four keys and the evaluation hashes two keys.
+	 */
+	private byte[] hashKeys;
+	private byte[] zeroBlocks;
+	private byte[] hashes;
+	private int[][] garblingKeyOffsets;
+	private int[][] evaluationKeyOffsets;
+	private byte[][] garblingTweaks;
+	private byte[][] evaluationTweaks;
+	
+	/**
+	 * Constructs a half gates garbled gate from an ungarbled gate.
+	 * @param ungarbledGate The gate to garble. Should satisfy {@link #isHalfGate(Gate)}.
+	 * @param mes The encryption scheme used to garble this gate.
+	 * @param garbledTablesHolder A reference to the garbled tables of the circuit.
+	 */
+	HalfGatesGarbledGate(Gate ungarbledGate, MultiKeyEncryptionScheme mes, BasicGarbledTablesHolder garbledTablesHolder){
+		this.mes = mes;
+		this.garbledTablesHolder = garbledTablesHolder;
+		inputWireIndices = ungarbledGate.getInputWireIndices();
+		outputWireIndices = ungarbledGate.getOutputWireIndices();
+		gateNumber = ungarbledGate.getGateNumber();
+		garblerTweak = createTweak(GARBLER_HALF);
+		evaluatorTweak = createTweak(EVALUATOR_HALF);
+		
+		int size = mes.getCipherSize();
+		hashKeys = new byte[4 * size];
+		zeroBlocks = new byte[4 * size];
+		hashes = new byte[4 * size];
+		garblingKeyOffsets = new int[][] {{0}, {size}, {2 * size}, {3 * size}};
+		evaluationKeyOffsets = new int[][] {{0}, {size}};
+		garblingTweaks = new byte[][] {garblerTweak, garblerTweak, evaluatorTweak, evaluatorTweak};
+		evaluationTweaks = new byte[][] {garblerTweak, evaluatorTweak};
+	}
+	
+	/**
+	 * Creates the tweak of the given half, which is the gate number followed by the index of the half in the last 4 bytes.
+	 */
+	private byte[] createTweak(int half){
+		ByteBuffer tweak = ByteBuffer.allocate(16);
+		tweak.putInt(gateNumber);
+		tweak.putInt(12, half);
+		return tweak.array();
+	}
+	
+	/**
+	 * Checks if the given gate can be garbled using the half gates technique. <p>
+	 * This is true for two input gates whose truth table contains one or three ones (AND, OR, NAND, NOR and their variations 
+	 * with negated inputs).
+	 * @param ungarbledGate The gate to check.
+	 * @return {@code true} if the gate can be garbled as a half gates gate.
+	 */
+	static boolean isHalfGate(Gate ungarbledGate){
+		if (ungarbledGate.getInputWireIndices().length != 2){
+			return false;
+		}
+		BitSet truthTable = ungarbledGate.getTruthTable().get(0, 4);
+		int ones = truthTable.cardinality();
+		return ones == 1 || ones == 3;
+	}
+	
+	/**
+	 * Creates the garbled table of this gate and the keys of its output wire.<p>
+	 * Unlike the standard gates, the output keys of a half gates gate are determined by the input keys, 
+	 * thus they are computed here and put in the given map.
+	 * @param ungarbledGate The gate to garble.
+	 * @param allWireValues Both keys of all the circuit's wires. The keys of the input wires should already be in the map.
+	 * @param globalKeyOffset The Free XOR delta.
+	 * @throws InvalidKeyException
+	 * @throws IllegalBlockSizeException
+	 */
+	void createGarbledTable(Gate ungarbledGate, Map<Integer, SecretKey[]> allWireValues, byte[] globalKeyOffset) 
+			throws InvalidKeyException, IllegalBlockSizeException {
+		int size = mes.getCipherSize();
+		
+		/*
+		 * Write the gate as ((a XOR alpha) AND (b XOR beta)) XOR gamma. 
+		 * The row that differs from the other three rows is the row where both terms of the AND are 1.
+		 */
+		BitSet truthTable = ungarbledGate.getTruthTable();
+		boolean gamma = truthTable.get(0, 4).cardinality() == 3;
+		int oddRow = 0;
+		while (truthTable.get(oddRow) == gamma){
+			oddRow++;
+		}
+		int alpha = 1 - (oddRow >> 1);
+		int beta = 1 - (oddRow & 1);
+		
+		//The keys that represent 0 in the AND gate inputs.
+		byte[] a0 = allWireValues.get(inputWireIndices[0])[alpha].getEncoded();
+		byte[] a1 = allWireValues.get(inputWireIndices[0])[1 - alpha].getEncoded();
+		byte[] b0 = allWireValues.get(inputWireIndices[1])[beta].getEncoded();
+		byte[] b1 = allWireValues.get(inputWireIndices[1])[1 - beta].getEncoded();
+		boolean pa = (a0[size - 1] & 1) == 1;
+		boolean pb = (b0[size - 1] & 1) == 1;
+		
+		//The four hashes are computed together. The hash of a0 is at index 0, then the hashes of a1, b0 and b1.
+		System.arraycopy(a0, 0, hashKeys, 0, size);
+		System.arraycopy(a1, 0, hashKeys, size, size);
+		System.arraycopy(b0, 0, hashKeys, 2 * size, size);
+		System.arraycopy(b1, 0, hashKeys, 3 * size, size);
+		hash(garblingKeyOffsets, garblingTweaks);
+		
+		byte[] garbledTable = new byte[2 * size];
+		byte[] zeroValue = new byte[size];
+		for (int i = 0; i < size; i++){
+			byte hashA0 = hashes[i];
+			byte hashA1 = hashes[size + i];
+			byte hashB0 = hashes[2 * size + i];
+			byte hashB1 = hashes[3 * size + i];
+			//Garbler half gate.
+			byte tg = (byte) (hashA0 ^ hashA1 ^ (pb ? globalKeyOffset[i] : 0));
+			byte wg = (byte) (hashA0 ^ (pa ? tg : 0));
+			//Evaluator half gate.
+			byte te = (byte) (hashB0 ^ hashB1 ^ a0[i]);
+			byte we = (byte) (hashB0 ^ (pb ? (te ^ a0[i]) : 0));
+			
+			garbledTable[i] = tg;
+			garbledTable[size + i] = te;
+			//The result of the AND is wg ^ we, the output of the gate is this value XORed with gamma.
+			zeroValue[i] = (byte) (wg ^ we ^ (gamma ? globalKeyOffset[i] : 0));
+		}
+		garbledTablesHolder.toDoubleByteArray()[gateNumber] = garbledTable;
+		
+		byte[] oneValue = new byte[size];
+		for (int i = 0; i < size; i++){
+			oneValue[i] = (byte) (zeroValue[i] ^ globalKeyOffset[i]);
+		}
+		SecretKey[] outputKeys = new SecretKey[] {new SecretKeySpec(zeroValue, ""), new SecretKeySpec(oneValue, "")};
+		for (int w : outputWireIndices){
+			allWireValues.put(w, outputKeys);
+		}
+	}
+	
+	@Override
+	public void compute(GarbledWire[] computedWires) throws InvalidKeyException, IllegalBlockSizeException, CiphertextTooLongException {
+		byte[] a = computedWires[inputWireIndices[0]].getValue();
+		byte[] b = computedWires[inputWireIndices[1]].getValue();
+		
+		GarbledWire output = new GarbledWire(evaluate(a, b));
+		for (int w : outputWireIndices){
+			computedWires[w] = output;
+		}
+	}
+	
+	/**
+	 * Computes the output key of the gate on the given input keys.
+	 * @param a The key of the first input wire.
+	 * @param b The key of the second input wire.
+	 * @return the key of the output wire.
+	 */
+	private byte[] evaluate(byte[] a, byte[] b) throws InvalidKeyException, IllegalBlockSizeException {
+		int size = mes.getCipherSize();
+		byte[] garbledTable = garbledTablesHolder.toDoubleByteArray()[gateNumber];
+		boolean sa = (a[size - 1] & 1) == 1;
+		boolean sb = (b[size - 1] & 1) == 1;
+		
+		//Both hashes are computed together. The hash of a is at index 0 and the hash of b follows it.
+		System.arraycopy(a, 0, hashKeys, 0, size);
+		System.arraycopy(b, 0, hashKeys, size, size);
+		hash(evaluationKeyOffsets, evaluationTweaks);
+		byte[] result = new byte[size];
+		for (int i = 0; i < size; i++){
+			result[i] = (byte) (hashes[i] ^ hashes[size + i]);
+			if (sa){
+				result[i] ^= garbledTable[i];
+			}
+			if (sb){
+				result[i] ^= garbledTable[size + i] ^ a[i];
+			}
+		}
+		return result;
+	}
+	
+	/**
+	 * Computes H(key, half) for each of the keys in the keys buffer, by encrypting zero blocks using the keys and the tweaks of the halves.<p>
+	 * All the blocks are encrypted in one call to the encryption scheme. The hashes are put one after the other in the hashes buffer.
+	 * @param keyOffsets The offset of each key in the keys buffer.
+	 * @param tweaks The tweak of the half gate of each key.
+	 */
+	private void hash(int[][] keyOffsets, byte[][] tweaks) throws InvalidKeyException, IllegalBlockSizeException {
+		mes.encryptBlocks(hashKeys, keyOffsets, tweaks, zeroBlocks, 0, hashes, 0);
+	}
+
+	@Override
+	public boolean verify(Gate g, Map<Integer, SecretKey[]> allWireValues) throws InvalidKeyException, IllegalBlockSizeException, CiphertextTooLongException {
+		//Check that the gate number and the input and output indices are the same.
+		if (gateNumber != g.getGateNumber() || !isHalfGate(g)) {
+			return false;
+		}
+		int[] ungarbledInputWireIndices = g.getInputWireIndices();
+		int[] ungarbledOutputWireIndices = g.getOutputWireIndices();
+		if (inputWireIndices[0] != ungarbledInputWireIndices[0] || inputWireIndices[1] != ungarbledInputWireIndices[1] 
+				|| outputWireIndices.length != ungarbledOutputWireIndices.length) {
+			return false;
+		}
+		for (int i = 0; i < outputWireIndices.length; i++) {
+			if (outputWireIndices[i] != ungarbledOutputWireIndices[i]) {
+			    return false;
+			}
+		}
+		
+		/*
+		 * Compute the gate on every combination of input keys and check that the rows of the truth table with the same 
+		 * ungarbled value give the same output key.
+		 */
+		BitSet ungarbledTruthTable = g.getTruthTable();
+		byte[][] outputKeys = new byte[2][];
+		for (int row = 0; row < 4; row++) {
+			SecretKey a = allWireValues.get(inputWireIndices[0])[row >> 1];
+			SecretKey b = allWireValues.get(inputWireIndices[1])[row & 1];
+			//See StandardGarbledGate.verifyGarbledTable for the reason of skipping null keys.
+			if (a == null || b == null){
+				continue;
+			}
+			byte[] output = evaluate(a.getEncoded(), b.getEncoded());
+			int value = ungarbledTruthTable.get(row) ? 1 : 0;
+			if (outputKeys[value] == null){
+				outputKeys[value] = output;
+			} else if (!Arrays.equals(outputKeys[value], output)){
+				return false;
+			}
+		}
+		
+		// Add the output wire to the allWireValues Map.
+		SecretKey zeroValue = (outputKeys[0] == null) ? null : new SecretKeySpec(outputKeys[0], "");
+		SecretKey oneValue = (outputKeys[1] == null) ? null : new SecretKeySpec(outputKeys[1], "");
+		for (int w : outputWireIndices) {
+			allWireValues.put(w, new SecretKey[] {zeroValue, oneValue});
+		}
+		return true;
+	}
+
+	@Override
+	public int[] getInputWireIndices() {
+		return inputWireIndices;
+	}
+
+	@Override
+	public int[] getOutputWireIndices() {
+		return outputWireIndices;
+	}
+}
@@ -173,8 +173,32 @@ public class IdentityGate implements GarbledGate{
 	}
 	
 	@Override
+	public void compute(GarbledWire[] computedWires) throws InvalidKeyException, IllegalBlockSizeException,
+			CiphertextTooLongException {
+		computedWires[outputWireIndex] = computeOutput(computedWires[inputWireIndex]);
+	}
+	
+	/**
+	 * Computes the output of this gate and puts the output wire in the given map.<p>
+	 * This function is used by the extended circuit, where the input identity gates have negative input wire indices 
+	 * and thus can not be computed over an array.
+	 * @param computedWires A {@link Map} containing the {@link GarbledWire}s that have already been computed and had their values set.
+	 * @throws InvalidKeyException
+	 * @throws IllegalBlockSizeException
+	 * @throws CiphertextTooLongException
+	 */
 	public void compute(Map<Integer, GarbledWire> computedWires) throws InvalidKeyException, IllegalBlockSizeException,
 			CiphertextTooLongException {
+		computedWires.put(outputWireIndex, computeOutput(computedWires.get(inputWireIndex)));
+	}
+	
+	/**
+	 * Decrypts the garbled table using the given input wire.
+	 * @param wire The garbled value of the input wire.
+	 * @return the garbled value of the output wire.
+	 */
+	private GarbledWire computeOutput(GarbledWire wire) throws InvalidKeyException, IllegalBlockSizeException,
+			CiphertextTooLongException {
 		/*
 		 * Identity gate has one input wire and one output wire.
 		 * Assume input wire's keys are k0, k1 and output wire's keys k0', k1'.
@@ -195,7 +219,6 @@ public class IdentityGate implements GarbledGate{
 		 */
 		
 		//Get the input garlbed value.
-		GarbledWire wire = computedWires.get(inputWireIndex);
 		SecretKey keyToDecryptOn = wire.getValueAndSignalBit();
 		  
 		//Set the key and tweak to the encryption scheme.
@@ -238,7 +261,7 @@ public class IdentityGate implements GarbledGate{
 		
 		SecretKey outputValue = new SecretKeySpec(wireValue, "");
 		// Create the output wire with the decrypted value.
-		computedWires.put(outputWireIndex, new GarbledWire(outputValue));	
+		return new GarbledWire(outputValue);
 	}
 
 	/**
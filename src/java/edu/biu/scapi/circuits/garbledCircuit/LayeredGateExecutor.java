@@ -0,0 +1,264 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.circuits.garbledCircuit;
+
+import java.security.InvalidKeyException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.IllegalBlockSizeException;
+
+import edu.biu.scapi.exceptions.CiphertextTooLongException;
+import edu.biu.scapi.exceptions.PlaintextTooLongException;
+
+/**
+ * Runs a task on the gates of a garbled circuit, using several threads.<p>
+ * 
+ * The gates are divided to the layers of the circuit (see {@link edu.biu.scapi.circuits.circuit.CompiledBooleanCircuit#getLayers()}). 
+ * The layers are run one after the other, and the gates of each layer are divided between the workers. 
+ * The calling thread is the first worker and the other workers run in a thread pool.<p>
+ * 
+ * The garbled gates and the encryption schemes hold mutable state, thus each worker has its own copy of the circuit's gates, 
+ * created with its own {@code MultiKeyEncryptionScheme}. The task gets the gate object of the worker that runs it.<p>
+ * 
+ * An executor with a single worker does not create any thread and runs the gates sequentially, in the order of the circuit.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+class LayeredGateExecutor {
+
+	/*
+	 * Layers with less gates than this number are run by the calling thread, since dividing them costs more than it saves.
+	 */
+	private static final int MIN_GATES_TO_DIVIDE = 64;
+	
+	/**
+	 * A task to run on a single gate.
+	 */
+	interface GateTask {
+		
+		/**
+		 * Runs the task on the given gate.
+		 * @param gate The garbled gate of the worker that runs the task.
+		 * @param gateIndex The index of the gate in the circuit.
+		 */
+		void run(GarbledGate gate, int gateIndex) throws InvalidKeyException, IllegalBlockSizeException, PlaintextTooLongException, CiphertextTooLongException;
+	}
+	
+	private GarbledGate[][] workerGates;	//The gates of each worker. All arrays are indexed by the gate number.
+	private int[][] layers;					//The gates of each layer of the circuit.
+	private int[] allGates;					//The indices of all the gates, used when the gates do not depend on each other.
+	private ExecutorService pool;			//Runs the workers other than the calling thread. Null in case of a single worker.
+	
+	/**
+	 * Creates an executor that runs the given gates sequentially, on the calling thread.
+	 * @param gates The gates of the circuit.
+	 */
+	LayeredGateExecutor(GarbledGate[] gates){
+		this(new GarbledGate[][] {gates}, null);
+	}
+	
+	/**
+	 * Creates an executor with a worker for each one of the given gates arrays.
+	 * @param workerGates The gates of each worker. All the arrays should be garblings of the same circuit, 
+	 * each one using a different encryption scheme instance.
+	 * @param layers The indices of the gates of each layer of the circuit.
+	 */
+	LayeredGateExecutor(GarbledGate[][] workerGates, int[][] layers){
+		this.workerGates = workerGates;
+		this.layers = layers;
+		
+		int numberOfGates = workerGates[0].length;
+		allGates = new int[numberOfGates];
+		for (int i = 0; i < numberOfGates; i++){
+			allGates[i] = i;
+		}
+		
+		if (workerGates.length > 1){
+			/*
+			 * The pool threads are daemon threads that are released after a minute without work, so an unused circuit does not 
+			 * keep threads alive. In the rare case that all pool threads are still busy, the calling thread runs the work itself.
+			 */
+			pool = new ThreadPoolExecutor(0, workerGates.length - 1, 60, TimeUnit.SECONDS, new SynchronousQueue<Runnable>(), 
+					new ThreadFactory() {
+						@Override
+						public Thread newThread(Runnable r) {
+							Thread thread = new Thread(r, "garbled-circuit-worker");
+							thread.setDaemon(true);
+							return thread;
+						}
+					}, new ThreadPoolExecutor.CallerRunsPolicy());
+		}
+	}
+	
+	/**
+	 * @return the number of workers of this executor.
+	 */
+	int getParallelism(){
+		return workerGates.length;
+	}
+	
+	/**
+	 * Runs the given task on all the gates, in the topological order of the circuit.<p>
+	 * The task of a gate starts only after the tasks of all the gates of the previous layers have finished.
+	 * @param task The task to run.
+	 */
+	void runByLayers(GateTask task) throws InvalidKeyException, IllegalBlockSizeException, PlaintextTooLongException, CiphertextTooLongException {
+		if (pool == null){
+			runSequentially(task);
+			return;
+		}
+		for (int[] layer : layers){
+			runGates(layer, task);
+		}
+	}
+	
+	/**
+	 * Runs the given task on all the gates, assuming that the tasks of different gates do not depend on each other.
+	 * @param task The task to run.
+	 */
+	void runAll(GateTask task) throws InvalidKeyException, IllegalBlockSizeException, PlaintextTooLongException, CiphertextTooLongException {
+		if (pool == null){
+			runSequentially(task);
+			return;
+		}
+		runGates(allGates, task);
+	}
+	
+	/**
+	 * Runs the given task on all the gates of the first worker, in the order of the circuit.
+	 */
+	private void runSequentially(GateTask task) throws InvalidKeyException, IllegalBlockSizeException, PlaintextTooLongException, CiphertextTooLongException {
+		GarbledGate[] gates = workerGates[0];
+		for (int i = 0; i < gates.length; i++){
+			task.run(gates[i], i);
+		}
+	}
+	
+	/**
+	 * Divides the given gates between the workers and waits until all of them are done.
+	 * @param gateIndices The gates to run the task on.
+	 * @param task The task to run.
+	 */
+	private void runGates(final int[] gateIndices, final GateTask task) throws InvalidKeyException, IllegalBlockSizeException, PlaintextTooLongException, CiphertextTooLongException {
+		int numberOfGates = gateIndices.length;
+		if (numberOfGates < MIN_GATES_TO_DIVIDE){
+			runRange(workerGates[0], gateIndices, 0, numberOfGates, task);
+			return;
+		}
+		
+		//Send a part of the gates to each worker, except the first part that is run by this thread.
+		int parallelism = workerGates.length;
+		List<Future<Void>> futures = new ArrayList<Future<Void>>(parallelism - 1);
+		for (int worker = 1; worker < parallelism; worker++){
+			final GarbledGate[] gates = workerGates[worker];
+			final int from = (int) ((long) numberOfGates * worker / parallelism);
+			final int to = (int) ((long) numberOfGates * (worker + 1) / parallelism);
+			futures.add(pool.submit(new Callable<Void>() {
+				@Override
+				public Void call() throws Exception {
+					runRange(gates, gateIndices, from, to, task);
+					return null;
+				}
+			}));
+		}
+		
+		Throwable failure = null;
+		try {
+			runRange(workerGates[0], gateIndices, 0, numberOfGates / parallelism, task);
+		} catch (Exception e) {
+			failure = e;
+		}
+		
+		//Wait for all the workers, even in case of a failure, so that no worker is still running when this function returns.
+		boolean interrupted = false;
+		for (Future<Void> future : futures){
+			while (true){
+				try {
+					future.get();
+					break;
+				} catch (InterruptedException e) {
+					interrupted = true;
+				} catch (ExecutionException e) {
+					if (failure == null){
+						failure = e.getCause();
+					}
+					break;
+				}
+			}
+		}
+		if (interrupted){
+			Thread.currentThread().interrupt();
+		}
+		if (failure != null){
+			rethrow(failure);
+		}
+	}
+	
+	/**
+	 * Runs the given task on the gates at positions from (inclusive) to to (exclusive) of the given indices array.
+	 */
+	private static void runRange(GarbledGate[] gates, int[] gateIndices, int from, int to, GateTask task) throws InvalidKeyException, IllegalBlockSizeException, PlaintextTooLongException, CiphertextTooLongException {
+		for (int i = from; i < to; i++){
+			int gateIndex = gateIndices[i];
+			task.run(gates[gateIndex], gateIndex);
+		}
+	}
+	
+	/**
+	 * Throws the given exception that was thrown by one of the tasks.
+	 */
+	private static void rethrow(Throwable failure) throws InvalidKeyException, IllegalBlockSizeException, PlaintextTooLongException, CiphertextTooLongException {
+		if (failure instanceof InvalidKeyException){
+			throw (InvalidKeyException) failure;
+		}
+		if (failure instanceof IllegalBlockSizeException){
+			throw (IllegalBlockSizeException) failure;
+		}
+		if (failure instanceof PlaintextTooLongException){
+			throw (PlaintextTooLongException) failure;
+		}
+		if (failure instanceof CiphertextTooLongException){
+			throw (CiphertextTooLongException) failure;
+		}
+		if (failure instanceof RuntimeException){
+			throw (RuntimeException) failure;
+		}
+		if (failure instanceof Error){
+			throw (Error) failure;
+		}
+		//Should not occur since the tasks throw only the above exceptions.
+		throw new IllegalStateException(failure);
+	}
+}
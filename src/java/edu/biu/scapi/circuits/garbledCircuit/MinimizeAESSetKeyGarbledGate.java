@@ -33,6 +33,7 @@ import javax.crypto.SecretKey;
 
 import edu.biu.scapi.circuits.circuit.Gate;
 import edu.biu.scapi.circuits.encryption.MultiKeyEncryptionScheme;
+import edu.biu.scapi.primitives.prf.PrpFixed;
 import edu.biu.scapi.primitives.prf.PseudorandomFunction;
 
 /**
@@ -141,27 +142,10 @@ class MinimizeAESSetKeyGarbledGate extends StandardGarbledGate {
 	     */
 	    for (int i = 0; i < numberOfInputs; i++) {
 	    	aes.setKey(allWireValues.get(inputWireIndices[i])[0]);
-	    	for (int rowNumber = 0; rowNumber < numberOfRows; rowNumber++) {
-	    		if (valuesToEncryptOn[rowNumber][i] == 0) {
-	    			byte[] tempo = new byte[aes.getBlockSize()];
-	    			aes.computeBlock(tweaksToEncrypt[rowNumber], 0, tempo, 0);
-	    			for (int byteNumber = 0; byteNumber < tempo.length; byteNumber++) {
-	    				outputValues[rowNumber][byteNumber] ^= tempo[byteNumber];
-	    			}
-	    		}
-
-	    	}
+	    	xorEncryptedTweaks(aes, i, 0, valuesToEncryptOn, tweaksToEncrypt, outputValues);
 
 	    	aes.setKey(allWireValues.get(inputWireIndices[i])[1]);
-	    	for (int rowNumber = 0; rowNumber < numberOfRows; rowNumber++) {
-	    		if (valuesToEncryptOn[rowNumber][i] == 1) {
-	    			byte[] tempo = new byte[aes.getBlockSize()];
-	    			aes.computeBlock(tweaksToEncrypt[rowNumber], 0, tempo, 0);
-	    			for (int byteNumber = 0; byteNumber < tempo.length; byteNumber++) {
-	    				outputValues[rowNumber][byteNumber] ^= tempo[byteNumber];
-	    			}
-	    		}
-	    	}
+	    	xorEncryptedTweaks(aes, i, 1, valuesToEncryptOn, tweaksToEncrypt, outputValues);
 	    }
 	    
 	    // Now that we encrypted the tweaks and XOR them to each other, we XOR the result to outputValue, the plaintext.
@@ -175,4 +159,47 @@ class MinimizeAESSetKeyGarbledGate extends StandardGarbledGate {
     		System.arraycopy(outputValues[rowNumber], 0, garbledTablesHolder.toDoubleByteArray()[gateNumber], rowNumber * mes.getCipherSize() , mes.getCipherSize());
     	}
 	}
+	
+	/**
+	 * Encrypts the tweaks of all the rows that use the given value of the given input wire, using the key that is currently set to the aes, 
+	 * and XORs the results to the output values of these rows.<p>
+	 * If the aes is a {@link PrpFixed}, all these tweaks are encrypted in one call.
+	 * @param aes The AES object, set to the key of the given value of the input wire.
+	 * @param inputIndex The index of the input wire in the gate.
+	 * @param value The value of the input wire, 0 or 1.
+	 * @param valuesToEncryptOn The values of the input wires in each row.
+	 * @param tweaksToEncrypt The tweak of each row.
+	 * @param outputValues The output values of the rows, to XOR the encrypted tweaks to.
+	 * @throws IllegalBlockSizeException
+	 */
+	static void xorEncryptedTweaks(PseudorandomFunction aes, int inputIndex, int value, int[][] valuesToEncryptOn, byte[][] tweaksToEncrypt, 
+			byte[][] outputValues) throws IllegalBlockSizeException {
+		int blockSize = aes.getBlockSize();
+		int numberOfRows = valuesToEncryptOn.length;
+		
+		//Gather the tweaks of the rows that are encrypted using the current key.
+		int[] rows = new int[numberOfRows];
+		byte[] blocks = new byte[numberOfRows * blockSize];
+		int numBlocks = 0;
+		for (int rowNumber = 0; rowNumber < numberOfRows; rowNumber++) {
+			if (valuesToEncryptOn[rowNumber][inputIndex] == value) {
+				System.arraycopy(tweaksToEncrypt[rowNumber], 0, blocks, numBlocks * blockSize, blockSize);
+				rows[numBlocks++] = rowNumber;
+			}
+		}
+		
+		if (aes instanceof PrpFixed) {
+			((PrpFixed) aes).computeBlocks(blocks, 0, blocks, 0, numBlocks);
+		} else {
+			for (int block = 0; block < numBlocks; block++) {
+				aes.computeBlock(tweaksToEncrypt[rows[block]], 0, blocks, block * blockSize);
+			}
+		}
+		
+		for (int block = 0; block < numBlocks; block++) {
+			for (int byteNumber = 0; byteNumber < blockSize; byteNumber++) {
+				outputValues[rows[block]][byteNumber] ^= blocks[block * blockSize + byteNumber];
+			}
+		}
+	}
 }
@@ -147,28 +147,10 @@ class MinimizeAESSetKeyRowReductionGate extends StandardRowReductionGarbledGate
 	     */
 	    for (int i = 0; i < numberOfInputs; i++) {
 	    	aes.setKey(allWireValues.get(inputWireIndices[i])[0]);
-	    	for (int rowNumber = 0; rowNumber < numberOfRows; rowNumber++) {
-	    		if (valuesToEncryptOn[rowNumber][i] == 0) {
-	    			byte[] tempo = new byte[16];
-	    			aes.computeBlock(tweaksToEncrypt[rowNumber], 0, tempo, 0);
-	    			for (int byteNumber = 0; byteNumber < tempo.length; byteNumber++) {
-
-	    				outputValues[rowNumber][byteNumber] ^= tempo[byteNumber];
-	    			}
-	    		}
-
-	    	}
+	    	MinimizeAESSetKeyGarbledGate.xorEncryptedTweaks(aes, i, 0, valuesToEncryptOn, tweaksToEncrypt, outputValues);
 
 	    	aes.setKey(allWireValues.get(inputWireIndices[i])[1]);
-	    	for (int rowNumber = 0; rowNumber < numberOfRows; rowNumber++) {
-	    		if (valuesToEncryptOn[rowNumber][i] == 1) {
-	    			byte[] tempo = new byte[16];
-	    			aes.computeBlock(tweaksToEncrypt[rowNumber], 0, tempo, 0);
-	    			for (int byteNumber = 0; byteNumber < tempo.length; byteNumber++) {
-	    				outputValues[rowNumber][byteNumber] ^= tempo[byteNumber];
-	    			}
-	    		}
-	    	}
+	    	MinimizeAESSetKeyGarbledGate.xorEncryptedTweaks(aes, i, 1, valuesToEncryptOn, tweaksToEncrypt, outputValues);
 	    }
 	    
 	    // Now that we encrypted the tweaks and XOR them to each other, we XOR the result to outputValue, the plaintext.
@@ -38,6 +38,7 @@ import edu.biu.scapi.circuits.circuit.BooleanCircuit;
 import edu.biu.scapi.circuits.circuit.Gate;
 import edu.biu.scapi.circuits.encryption.AESFixedKeyMultiKeyEncryption;
 import edu.biu.scapi.circuits.encryption.MultiKeyEncryptionScheme;
+import edu.biu.scapi.exceptions.CiphertextTooLongException;
 import edu.biu.scapi.exceptions.NoSuchPartyException;
 import edu.biu.scapi.exceptions.PlaintextTooLongException;
 import edu.biu.scapi.primitives.prg.PseudorandomGenerator;
@@ -55,6 +56,9 @@ class StandardGarbledBooleanCircuitUtil implements CircuitTypeUtil{
 	
 	protected SecureRandom random;
 	
+	//Runs the garbling of the gates using several threads. If null, the gates are garbled sequentially.
+	protected LayeredGateExecutor executor;
+	
 	/**
 	 * Sets the given MultiKeyEncryptionScheme and random.
 	 * @param mes
@@ -176,13 +180,25 @@ class StandardGarbledBooleanCircuitUtil implements CircuitTypeUtil{
 	 * @throws IllegalBlockSizeException
 	 * @throws PlaintextTooLongException
 	 */
-	private void createGarbledTables(GarbledGate[] gates, BasicGarbledTablesHolder garbledTablesHolder, Gate[] ungarbledGates, Map<Integer, SecretKey[]> allWireValues) throws InvalidKeyException, IllegalBlockSizeException, PlaintextTooLongException {
-		int length = ungarbledGates.length;
-		//After we have all keys, create the garbledTables according to them.
-		for (int gate = 0; gate < length; gate++) {
-			((StandardGarbledGate) gates[gate]).createGarbledTable(ungarbledGates[gate], allWireValues);
+	private void createGarbledTables(GarbledGate[] gates, BasicGarbledTablesHolder garbledTablesHolder, final Gate[] ungarbledGates, final Map<Integer, SecretKey[]> allWireValues) throws InvalidKeyException, IllegalBlockSizeException, PlaintextTooLongException {
+		//After we have all keys, create the garbledTables according to them. The garbled tables of the gates do not depend on each other.
+		LayeredGateExecutor gateExecutor = (executor != null) ? executor : new LayeredGateExecutor(gates);
+		try {
+			gateExecutor.runAll(new LayeredGateExecutor.GateTask() {
+				@Override
+				public void run(GarbledGate gate, int gateIndex) throws InvalidKeyException, IllegalBlockSizeException, PlaintextTooLongException {
+					((StandardGarbledGate) gate).createGarbledTable(ungarbledGates[gateIndex], allWireValues);
+				}
+			});
+		} catch (CiphertextTooLongException e) {
+			// Should not occur since the garbling only encrypts.
 		}
 	}
+	
+	@Override
+	public void setGateExecutor(LayeredGateExecutor executor) {
+		this.executor = executor;
+	}
 
 	/**
 	 * Fills the maps containing the keys for the output wires and the translation table.
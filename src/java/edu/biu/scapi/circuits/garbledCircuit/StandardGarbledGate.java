@@ -75,6 +75,22 @@ class StandardGarbledGate implements GarbledGate {
 	 * {@link StandardGarbledBooleanCircuitUtil}
 	 */
 	protected int gateNumber;
+	
+	/*
+	 * Reusable buffers for the keys and the tweak of a single row of the garbled table. They are passed to the offset based 
+	 * decrypt function of the encryption scheme in order to avoid allocations in the computing loop. 
+	 * When garbling, the keys buffer holds both keys of each input wire.
+	 */
+	protected byte[] keysBuffer;
+	protected int[] keyOffsets;
+	protected byte[] tweak;
+	
+	/*
+	 * The keys offsets and the tweaks of the garbled rows, used to encrypt all the rows together. 
+	 * The offsets are set when garbling. The tweak of a row depends only on its position, so it is set in the constructor.
+	 */
+	private int[][] rowKeyOffsets;
+	private byte[][] rowTweaks;
 
 	/**
 	 * Constructs a garbled gate from an ungarbled gate using the given {@code MultiKeyEncryptionScheme}.
@@ -83,12 +99,45 @@ class StandardGarbledGate implements GarbledGate {
 	 * @param garbledTablesHolder A reference to the garbled tables of the circuit.
    	 */
 	StandardGarbledGate(Gate ungarbledGate, MultiKeyEncryptionScheme mes, BasicGarbledTablesHolder garbledTablesHolder){
+		this(ungarbledGate, mes, garbledTablesHolder, 1 << ungarbledGate.getInputWireIndices().length);
+	}
+	
+	/**
+	 * Constructs a garbled gate whose garbled table contains the given number of rows.
+	 * @param ungarbledGate The gate to garble.
+	 * @param mes The encryption scheme used to garble this gate.
+	 * @param garbledTablesHolder A reference to the garbled tables of the circuit.
+	 * @param numberOfGarbledRows The number of rows that are encrypted by {@link #garbleRows(byte[][], BitSet, byte[])}.
+	 */
+	protected StandardGarbledGate(Gate ungarbledGate, MultiKeyEncryptionScheme mes, BasicGarbledTablesHolder garbledTablesHolder, int numberOfGarbledRows){
 		//Sets the given parameters.
 	    this.mes = mes;
 	    inputWireIndices = ungarbledGate.getInputWireIndices();
 	    outputWireIndices = ungarbledGate.getOutputWireIndices();
 	    gateNumber = ungarbledGate.getGateNumber();
 	    this.garbledTablesHolder = garbledTablesHolder;
+	    
+	    //The keys of the input wires are placed one after the other in the keys buffer.
+	    int numberOfInputs = inputWireIndices.length;
+	    int size = mes.getCipherSize();
+	    keysBuffer = new byte[2 * numberOfInputs * size];
+	    keyOffsets = new int[numberOfInputs];
+	    for (int i = 0; i < keyOffsets.length; i++) {
+	    	keyOffsets[i] = i * size;
+	    }
+	    
+	    //The tweak starts with the gate number. The signal bits are set for each row.
+	    tweak = ByteBuffer.allocate(16).putInt(gateNumber).array();
+	    
+	    //The signal bits in the tweak of position p are the bits of p, where the first input wire is the most significant bit.
+	    rowKeyOffsets = new int[numberOfGarbledRows][numberOfInputs];
+	    rowTweaks = new byte[numberOfGarbledRows][];
+	    for (int permutedPosition = 0; permutedPosition < numberOfGarbledRows; permutedPosition++) {
+	    	rowTweaks[permutedPosition] = tweak.clone();
+	    	for (int i = 0; i < numberOfInputs; i++) {
+	    		rowTweaks[permutedPosition][4 * i + 7] = (byte) ((permutedPosition >> (numberOfInputs - 1 - i)) & 1);
+	    	}
+	    }
 	}
   
 	/**
@@ -103,149 +152,147 @@ class StandardGarbledGate implements GarbledGate {
 	  
 		//The number of rows truth table is 2^(number of inputs).
 		int numberOfInputs = inputWireIndices.length;
-		int numberOfRows = (int) Math.pow(2, numberOfInputs);
+		int numberOfRows = 1 << numberOfInputs;
+		int size = mes.getCipherSize();
 		
 		//Allocate memory to the garbled table.
-		byte[] garbledTable = new byte[numberOfRows * mes.getCipherSize()];
+		byte[] garbledTable = new byte[numberOfRows * size];
 		garbledTablesHolder.toDoubleByteArray()[gateNumber] = garbledTable;
 		
-		//Calculate the garbled table row by row.
-		for (int rowOfTruthTable = 0; rowOfTruthTable < numberOfRows; rowOfTruthTable++) {
-			// tweak - what is to be encrypted.
-	    	// value - which output wire to xor the encrypted tweak to, 0 or 1.
-	    	// permuted position - where to put the result in the output array.
-			ByteBuffer tweak = ByteBuffer.allocate(16);
-		  	tweak.putInt(gateNumber);
-		  	int permutedPosition = 0;
-		  	SecretKey[] keysToEncryptOn = new SecretKey[numberOfInputs];
-		  	
-		  	//This for loop goes through from left to right the input of the given row of the truth table.
-		  	for (int i = 0, j = (int) Math.pow(2, numberOfInputs - 1), reverseIndex = numberOfInputs - 1; i < numberOfInputs; i++, j /= 2, reverseIndex--) {
-		  	
-		  		/* 
-		  		 * Truth table inputs are arranged according to binary number values. j is the value that begins as a 1 in the
-			   	 * leftmost(most significant bit) of the binary number that is the size of the truth table. Say for example that there are
-			   	 * 3 inputs. So the truth table has 3 input columns. j begins as the binary number 100 and we use it to check whether the leftmost bit in
-			   	 * the row of the truth table is set. If it is, that means that the input value is a 1.  Otherwise it's a 0. We then divide j by 2 to 
-			   	 * obtain the binary number 010 and we use this to determine the value of the inputs in the second column. We then divide by 2 again 
-			   	 * to obtain the binary number 001 and use it to determine the value of the inputs in the third column.
-			   	 */
-        
-		  		byte input = (byte) (((rowOfTruthTable & j) == 0) ? 0 : 1);
-		  		/*
-	    		 * The signal bits tell us the position on the garbled truth table for the given row of an ungarbled truth table.
+		putInputKeys(allWireValues);
+		SecretKey[] outputKeys = allWireValues.get(outputWireIndices[0]);
+		byte[][] outputValues = new byte[][] {outputKeys[0].getEncoded(), outputKeys[1].getEncoded()};
+		BitSet truthTable = ungarbledGate.getTruthTable();
+		
+		//Encrypt all the rows of the garbled table together.
+		garbleRows(outputValues, truthTable, garbledTable);
+	}
+	
+	/**
+	 * Puts both keys of each input wire of this gate in the keys buffer. 
+	 * The 0-key of the i'th input wire is placed at block 2i of the buffer and its 1-key is placed at block 2i+1.
+	 * @param allWireValues Both keys of all the circuit's wires.
+	 */
+	protected void putInputKeys(Map<Integer, SecretKey[]> allWireValues) {
+		int numberOfInputs = inputWireIndices.length;
+		int size = mes.getCipherSize();
+		for (int i = 0; i < numberOfInputs; i++) {
+			SecretKey[] keys = allWireValues.get(inputWireIndices[i]);
+			System.arraycopy(keys[0].getEncoded(), 0, keysBuffer, 2 * i * size, size);
+			System.arraycopy(keys[1].getEncoded(), 0, keysBuffer, (2 * i + 1) * size, size);
+		}
+	}
+	
+	/**
+	 * Encrypts the output keys into the first positions of the garbled table, using one call to the encryption scheme.<p>
+	 * Position p of the garbled table holds the row whose input signal bits (i.e. input XOR the signal bit of the wire) are the bits of p,
+	 * where the first input wire is the most significant bit. 
+	 * For a better understanding on how this works, see the getIndexToDecrypt method in this class.<p>
+	 * The number of filled positions is the number of garbled rows given in the constructor. 
+	 * The keys of the input wires should be put in the keys buffer by {@link #putInputKeys(Map)}.
+	 * @param outputValues The 0-key and the 1-key of the output wire.
+	 * @param truthTable The truth table of the ungarbled gate.
+	 * @param garbledTable The garbled table to fill.
+	 * @throws InvalidKeyException
+	 * @throws IllegalBlockSizeException
+	 */
+	protected void garbleRows(byte[][] outputValues, BitSet truthTable, byte[] garbledTable) 
+			throws InvalidKeyException, IllegalBlockSizeException {
+		int numberOfInputs = inputWireIndices.length;
+		int size = mes.getCipherSize();
+		
+		for (int permutedPosition = 0; permutedPosition < rowKeyOffsets.length; permutedPosition++) {
+			int rowOfTruthTable = 0;
+			for (int i = 0; i < numberOfInputs; i++) {
+				/*
 	    		 * The signal bit of wire i is the last bit of wire i's k0. 
-	    		 * See Fairplay  A Secure Two-Party Computation System by Dahlia Malkhi, Noam Nisan1, Benny Pinkas, and Yaron Sella for more on signal bits.
+	    		 * See Fairplay - A Secure Two-Party Computation System by Dahlia Malkhi, Noam Nisan1, Benny Pinkas, and Yaron Sella for more on signal bits.
 	    		 */
-		  		byte[] k0 = allWireValues.get(inputWireIndices[i])[0].getEncoded();
-		  		byte signalBit =  (byte) (k0[k0.length-1] & 1);
-		  		
-		  		// Update the permuted position. For a better understanding on how this works, see the getIndexToDecrypt method in this class.
-			    permutedPosition += (input ^ signalBit) * (Math.pow(2, reverseIndex));
-		  		
-		  		// Add the current Wire value to the list of keys to encrypt on. These keys will then be used to construct a multikey.
-		  		keysToEncryptOn[i] = allWireValues.get(inputWireIndices[i])[input];
-		  		
-		  		/*
-		  		 * We add the signalBit that is placed on the end of the wire's value which is given by input XOR signalBit (i.e. the random bit for the
-		  		 * wire). Again, to clarify we use the term signal bit to mean both the random but assigned to each wire as well as the bit that is
-		  		 * associated with each of the wire's 2 values. The latter value is obtained by XORing the signal bit of the wire with the actual value
-		  		 * that the garbled value is encoding. So, for example if the signal bit for the wire is 0. Then the 0-encoded value will have 0 XOR 
-		  		 * 0 = 0 as its signal bit. The 1-encoded value will have 0 XOR 1 = 1 as its signal bit.
-		  		 */
-		  		tweak.putInt(input ^ signalBit);
-		  	}
-		  	
-		  	// Set the keys and the tweak of the encryption scheme.
-		  	mes.setKey(mes.generateMultiKey(keysToEncryptOn));
-		  	mes.setTweak(tweak.array());
-		  	
-		  	// Get the output value that should be garbled.
-		  	int value = (ungarbledGate.getTruthTable().get(rowOfTruthTable) == true) ? 1: 0;
-      
-		  	// Encrypt the output key and put the ciphertext in the garbled table.
-		  	try {
-				System.arraycopy(mes.encrypt(allWireValues.get(outputWireIndices[0])[value].getEncoded()) , 0, garbledTable, permutedPosition*mes.getCipherSize(), mes.getCipherSize());
-			} catch (KeyNotSetException e) {
-				// Should not occur since the encryption has a key.
-			} catch (TweakNotSetException e) {
-				// Should not occur since the encryption has a tweak.			
+				int signalBit = keysBuffer[(2 * i + 1) * size - 1] & 1;
+				int permutedBit = (permutedPosition >> (numberOfInputs - 1 - i)) & 1;
+				int input = permutedBit ^ signalBit;
+				rowOfTruthTable = (rowOfTruthTable << 1) | input;
+				
+				// The row is encrypted using the current Wire value. The signal bit that is placed on its end is already in the tweak.
+				rowKeyOffsets[permutedPosition][i] = (2 * i + input) * size;
 			}
+			
+			// Put the output value that should be garbled in its place in the garbled table. It is encrypted there in place.
+			int value = truthTable.get(rowOfTruthTable) ? 1: 0;
+			System.arraycopy(outputValues[value], 0, garbledTable, permutedPosition * size, size);
 		}
+		
+		mes.encryptBlocks(keysBuffer, rowKeyOffsets, rowTweaks, garbledTable, 0, garbledTable, 0);
+	}
+	
+	/**
+	 * Puts the signal bit of the given input wire in the tweak.<p>
+	 * The tweak is the gate number followed by the signal bits of the input wires, each one written as a 4 bytes integer.
+	 * @param inputIndex The index of the input wire in this gate.
+	 * @param signalBit The signal bit to put.
+	 */
+	protected void setTweakSignalBit(int inputIndex, int signalBit) {
+		tweak[4 * inputIndex + 7] = (byte) signalBit;
 	}
   
 	@Override
-	public void compute(Map<Integer, GarbledWire> computedWires) throws InvalidKeyException, IllegalBlockSizeException, CiphertextTooLongException {
+	public void compute(GarbledWire[] computedWires) throws InvalidKeyException, IllegalBlockSizeException, CiphertextTooLongException {
 		
 		//Calculate the row in the garbled table we need to decrypt.
 		int garbledTableIndex = getIndexToDecrypt(computedWires);
 		
-		// Regenerate the multiSecretKey and the tweak. 
-		// Then, reset the tweak and the key to the MultiKeyEncryptionScheme and call its decrypt function.
-		SecretKey wireValue = computeGarbledTable(computedWires, garbledTableIndex);
+		// Decrypt the row using the keys and the signal bits of the input wires.
+		GarbledWire output = new GarbledWire(computeGarbledTable(computedWires, garbledTableIndex));
 		
-		// Create the output wire (s) with the decrypted value.
+		// Set the output wire (s) with the decrypted value.
 		int numberOfOutputs = outputWireIndices.length;
 		for (int i = 0; i < numberOfOutputs; i++) {
 		
-			computedWires.put(outputWireIndices[i], new GarbledWire(wireValue));
+			computedWires[outputWireIndices[i]] = output;
 		}
 	}
 
 	/**
 	 * Computes the garbled table of this gate.
-	 * @param computedWires A Map containing the GarbledWiress that have already been computed and had their values set.
+	 * @param computedWires An array indexed by the wire number containing the GarbledWiress that have already been computed and had their values set.
 	 * @param garbledTableIndex The index of the row that should be decrypted.
 	 * @return the output key.
 	 * @throws CiphertextTooLongException
 	 * @throws InvalidKeyException
 	 * @throws IllegalBlockSizeException
 	 */
-	protected SecretKey computeGarbledTable(Map<Integer, GarbledWire> computedWires, int garbledTableIndex) 
+	protected byte[] computeGarbledTable(GarbledWire[] computedWires, int garbledTableIndex) 
 			throws CiphertextTooLongException, InvalidKeyException, IllegalBlockSizeException {
 		
 		int numberOfInputs = inputWireIndices.length;
-		
-		SecretKey[] keysToDecryptOn = new SecretKey[numberOfInputs];
-		ByteBuffer tweak = ByteBuffer.allocate(16);
-		// Put the gate number in the tweak.
-		tweak.putInt(gateNumber);
+		int size = mes.getCipherSize();
 		
 		for (int i = 0; i < numberOfInputs; i++) {
-			GarbledWire wire = computedWires.get(inputWireIndices[i]);
-			keysToDecryptOn[i] = wire.getValueAndSignalBit();
+			byte[] value = computedWires[inputWireIndices[i]].getValue();
+			System.arraycopy(value, 0, keysBuffer, keyOffsets[i], size);
 		  
 			// Put the signal bits of the input wire values into the tweak.
-			tweak.putInt(wire.getSignalBit());
+			setTweakSignalBit(i, value[value.length - 1] & 1);
 		}
-		
-		mes.setKey(mes.generateMultiKey(keysToDecryptOn));
-		mes.setTweak(tweak.array());
 	
 		// Decrypt the output value.
-		SecretKey wireValue = null;
-		try {
-			wireValue = new SecretKeySpec(mes.decrypt(Arrays.copyOfRange(garbledTablesHolder.toDoubleByteArray()[gateNumber], 
-					garbledTableIndex * mes.getCipherSize(), (garbledTableIndex +1)*mes.getCipherSize())),"");
-		} catch (KeyNotSetException e) {
-			// Should not occur since the key was set.
-		} catch (TweakNotSetException e) {
-			// Should not occur since the tweak was set.
-		}
+		byte[] wireValue = new byte[size];
+		mes.decrypt(keysBuffer, keyOffsets, tweak, garbledTablesHolder.toDoubleByteArray()[gateNumber], garbledTableIndex * size, wireValue, 0);
 		return wireValue;
 	}
 	
 	/**
 	 * A helper method that computes which index to decrypt based on the signal bits of the input wires.
-	 * @param computedWires A {@code Map} containing the input wires and their values. We will use it to obtain the 
-	 * signal bits of the values of the input wires in order to determine the correct index to decrypt.
+	 * @param computedWires An array indexed by the wire number containing the input wires and their values. We will use it to 
+	 * obtain the signal bits of the values of the input wires in order to determine the correct index to decrypt.
 	 * @return the index of the garbled truth table that the input wires' signal bits signal to decrypt.
 	 */
-	protected int getIndexToDecrypt(Map<Integer, GarbledWire> computedWires) {
+	protected int getIndexToDecrypt(GarbledWire[] computedWires) {
 		int garbledTableIndex = 0;
 		int numberOfInputs = inputWireIndices.length;
-		for (int i = numberOfInputs - 1, j = 0; j < numberOfInputs; i--, j++) {
-			garbledTableIndex += computedWires.get(inputWireIndices[i]).getSignalBit() * Math.pow(2, j);
+		//The first input wire is the most significant bit of the index.
+		for (int i = 0; i < numberOfInputs; i++) {
+			garbledTableIndex = (garbledTableIndex << 1) | computedWires[inputWireIndices[i]].getSignalBit();
 		}
 		return garbledTableIndex;
 	}
@@ -63,7 +63,8 @@ class StandardRowReductionGarbledGate extends StandardGarbledGate{
 	 * @param garbledTablesHolder A reference to the garbled tables of the circuit.
    	 */
 	StandardRowReductionGarbledGate(Gate ungarbledGate, MultiKeyEncryptionScheme mes, KeyDerivationFunction kdf, BasicGarbledTablesHolder garbledTablesHolder){
-		super(ungarbledGate, mes, garbledTablesHolder);
+		//The last row is not garbled.
+		super(ungarbledGate, mes, garbledTablesHolder, (1 << ungarbledGate.getInputWireIndices().length) - 1);
 		this.kdf = kdf;;
 	}
   
@@ -75,108 +76,54 @@ class StandardRowReductionGarbledGate extends StandardGarbledGate{
 	void createGarbledTable(Gate ungarbledGate, Map<Integer, SecretKey[]> allWireValues) throws  IllegalBlockSizeException, PlaintextTooLongException, InvalidKeyException{
 		//The number of rows is 2^numberOfInputs - 1. The last row will be calculated by the row reduction technique.
 		int numberOfInputs = inputWireIndices.length;
-		int numberOfRows = (int) Math.pow(2, numberOfInputs)-1;
+		int numberOfRows = (1 << numberOfInputs) - 1;
+		int size = mes.getCipherSize();
 		
 		//Allocate memory to the garbled table.
-		byte[] garbledTable = new byte[numberOfRows * mes.getCipherSize()];
+		byte[] garbledTable = new byte[numberOfRows * size];
 		garbledTablesHolder.toDoubleByteArray()[gateNumber] = garbledTable;
 		
-		//Calculate the garbled table row by row.
-		for (int rowOfTruthTable = 0; rowOfTruthTable <= numberOfRows; rowOfTruthTable++) {
-		  	ByteBuffer tweak = ByteBuffer.allocate(16);
-		  	tweak.putInt(gateNumber);
-		  	
-		  	// Permuted position will be the index of the garbled truth table corresponding to rowOfTruthTable.
-		  	int permutedPosition = 0;
-		  	SecretKey[] keysToEncryptOn = new SecretKey[numberOfInputs];
-		  	
-		  	//This for loop goes through from left to right the input of the given row of the truth table.
-		  	for (int i = 0, j = (int) Math.pow(2, numberOfInputs - 1), reverseIndex = numberOfInputs - 1; i < numberOfInputs; i++, j /= 2, reverseIndex--) {
-		  	
-		  		/* Truth table inputs are arranged according to binary number values. j is the value that begins as a 1 in the
-			   	 * leftmost(most significant bit) of the binary number that is the size of the truth table. Say for example that there are
-			   	 * 3 inputs. So the truth table has 3 input columns. j begins as the binary number 100 and we use it to check whether the leftmost bit in
-			   	 * the row of the truth table is set. If it is, that means that the input value is a 1.  Otherwise it's a 0. We then divide j by 2 to obtain the binary
-			   	 * number 010 and we use this to determine the value of the inputs in the second column. We then divide by 2 again to obtain the 
-			   	 * binary number 001 and use it to determine the value of the inputs in the third column
-			   	 */
-        
-		  		int input = (((rowOfTruthTable & j) == 0) ? 0 : 1);
-		  		
-		  		//signal bit is the last bit of k0.
-		  		byte[] k0 = allWireValues.get(inputWireIndices[i])[0].getEncoded();
-		  		byte signalBit =  (byte) (k0[k0.length-1] & 1);
-		  		
-		  		
-		  		// Update the permuted position. For a better understanding on how this works, see the getIndexToDecrypt method in this class.
-		  		permutedPosition += (input ^ signalBit) * (Math.pow(2, reverseIndex));
-		  		
-		  		// Add the current Wire value to the list of keys to encrypt on. These keys will then be used to construct a multikey.
-		  		keysToEncryptOn[i] = allWireValues.get(inputWireIndices[i])[input];
-		  		
-		  		/*
-		  		 * We add the signalBit that is placed on the end of the wire's value which is given by input XOR signalBit (i.e. the random bit for the
-		  		 * wire). Again, to clarify we use the term signal bit to mean both the random but assigned to each wire as well as the bit that is
-		  		 * associated with each of the wire's 2 values. The latter value is obtained by XORing the signal bit of the wire with the actual value
-		  		 * that the garbled value is encoding. So, for example if the signal bit for the wire is 0. Then the 0-encoded value will have 0 XOR 
-		  		 * 0 = 0 as its signal bit. The 1-encoded value will have 0 XOR 1 = 1 as its signal bit.
-		  		 */
-		  		tweak.putInt(input ^ signalBit);
-		  	}
-		  	
-		  	//In row reduction technique we compute all rows except the last one. The last row will be calculated by the KDF.
-		  	if (permutedPosition != numberOfRows){ 
-		  		//Set the keys and the tweak of the encryption scheme.
-		  		mes.setKey(mes.generateMultiKey(keysToEncryptOn));
-			  	mes.setTweak(tweak.array());
-			  	
-			  	// Get the output value that should be garbled.
-			  	int value = (ungarbledGate.getTruthTable().get(rowOfTruthTable) == true) ? 1: 0;
-	      
-			  	// Encrypt the output key and put the ciphertext in the garbled table.
-			  	try {
-					System.arraycopy(mes.encrypt(allWireValues.get(outputWireIndices[0])[value].getEncoded()) , 0, garbledTable, permutedPosition*mes.getCipherSize(), mes.getCipherSize());
-				} catch (KeyNotSetException e) {
-					// Should not occur since the encryption has a key.
-				} catch (TweakNotSetException e) {
-					// Should not occur since the encryption has a tweak.			
-				}
-		  	}
-		}
+		putInputKeys(allWireValues);
+		SecretKey[] outputKeys = allWireValues.get(outputWireIndices[0]);
+		byte[][] outputValues = new byte[][] {outputKeys[0].getEncoded(), outputKeys[1].getEncoded()};
+		BitSet truthTable = ungarbledGate.getTruthTable();
+		
+		//In row reduction technique we compute all rows except the last one. The last row will be calculated by the KDF.
+		//Encrypt all the other rows together.
+		garbleRows(outputValues, truthTable, garbledTable);
 	}
   
 	@Override
-	public void compute(Map<Integer, GarbledWire> computedWires) throws InvalidKeyException, IllegalBlockSizeException, CiphertextTooLongException {
+	public void compute(GarbledWire[] computedWires) throws InvalidKeyException, IllegalBlockSizeException, CiphertextTooLongException {
 		//Calculate the row in the garbled table we need to decrypt.
 		int garbledTableIndex = getIndexToDecrypt(computedWires);
-		SecretKey wireValue = null;
+		GarbledWire output = null;
 		int numberOfInputs = inputWireIndices.length;
 		
 		//In case of the last row, calculate the output key by the KDF.
 		//The number of rows is 2^numberOfInputs - 1. The last row will be calculated by the row reduction technique.
-		int numberOfRows = (int) Math.pow(2, numberOfInputs)-1;
+		int numberOfRows = (1 << numberOfInputs)-1;
 		if (garbledTableIndex == numberOfRows){
 			
 			ByteBuffer kdfBytes = ByteBuffer.allocate(mes.getCipherSize()*numberOfInputs +16);
 			for (int i = 0; i < numberOfInputs; i++) {
-				kdfBytes.put(computedWires.get(inputWireIndices[i]).getValueAndSignalBit().getEncoded());
+				kdfBytes.put(computedWires[inputWireIndices[i]].getValue());
 			}
 			kdfBytes.putInt(gateNumber);
 			for (int i = 0; i < numberOfInputs; i++) {
-				kdfBytes.putInt(computedWires.get(inputWireIndices[i]).getSignalBit());
+				kdfBytes.putInt(computedWires[inputWireIndices[i]].getSignalBit());
 			}
-			wireValue = kdf.deriveKey(kdfBytes.array(), 0, mes.getCipherSize()*numberOfInputs +16, mes.getCipherSize());
+			output = new GarbledWire(kdf.deriveKey(kdfBytes.array(), 0, mes.getCipherSize()*numberOfInputs +16, mes.getCipherSize()));
 			
 		}else {
 		
-			// Regenerate the multiSecretKey and the tweak. 
-			// Then, reset the tweak and the key to the MultiKeyEncryptionScheme and call its decrypt function.
-			wireValue = computeGarbledTable(computedWires, garbledTableIndex);
+			// Decrypt the row using the keys and the signal bits of the input wires.
+			output = new GarbledWire(computeGarbledTable(computedWires, garbledTableIndex));
 		}
 		int numberOfOutputs = outputWireIndices.length;
 		for (int i = 0; i < numberOfOutputs; i++) {
 		
-			computedWires.put(outputWireIndices[i], new GarbledWire(wireValue));
+			computedWires[outputWireIndices[i]] = output;
 		}
 	}
 
@@ -0,0 +1,203 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.circuits.garbledCircuit;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.security.InvalidKeyException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.crypto.IllegalBlockSizeException;
+
+import edu.biu.scapi.circuits.circuit.BooleanCircuitReader;
+import edu.biu.scapi.circuits.circuit.Gate;
+import edu.biu.scapi.circuits.circuit.Wire;
+import edu.biu.scapi.circuits.encryption.MultiKeyEncryptionScheme;
+import edu.biu.scapi.comm.Channel;
+import edu.biu.scapi.comm.twoPartyComm.BinaryChannel;
+import edu.biu.scapi.exceptions.CiphertextTooLongException;
+import edu.biu.scapi.exceptions.CircuitFileFormatException;
+import edu.biu.scapi.exceptions.NotAllInputsSetException;
+
+/**
+ * Computes a circuit that is garbled and sent by a {@link StreamingCircuitGarbler}.<p>
+ * The circuit file is read gate by gate, and the garbled tables are received in chunks as the garbler produces them. 
+ * Each gate is computed as soon as its garbled table arrives, and the garbled value of a wire is released after the last 
+ * gate that uses it was computed. Thus, only one chunk of garbled tables is held in memory at any time.<p>
+ * 
+ * See {@link StreamingCircuitGarbler} for the order of the calls of both parties.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class StreamingCircuitEvaluator extends StreamingGarbledCircuitAbs {
+
+	private byte[] chunk = new byte[0];		//The last received chunk of garbled tables.
+	private int position;					//The position of the next garbled table in the chunk.
+	
+	/**
+	 * Reads the given circuit file.
+	 * @param circuitFile The file of the circuit, in the format of {@link BooleanCircuitReader}. Should be the same file the garbler uses.
+	 * @param mes The encryption scheme to use. Should be the same as the one used by the garbler.
+	 * @param isRowReduction Indicates if the circuit uses the row reduction algorithm or not.
+	 * @throws FileNotFoundException if the circuit file is not found.
+	 * @throws CircuitFileFormatException if there is a problem with the format of the file.
+	 */
+	public StreamingCircuitEvaluator(File circuitFile, MultiKeyEncryptionScheme mes, boolean isRowReduction) 
+			throws FileNotFoundException, CircuitFileFormatException {
+		super(circuitFile, mes, isRowReduction);
+	}
+	
+	/**
+	 * Receives the garbled tables from the given channel and computes the circuit on the given garbled inputs.
+	 * @param channel The channel to the garbler.
+	 * @param inputs The garbled values of all the circuit's input wires.
+	 * @return the garbled values of the output wires. They can be translated using {@link #translate(Map, Map)}.
+	 * @throws NotAllInputsSetException if one of the input wires is missing.
+	 * @throws IOException if there was a problem in the communication, in reading the circuit file, or if the received 
+	 * 		   garbled tables do not match the circuit.
+	 * @throws ClassNotFoundException if the received object is not a byte array.
+	 * @throws CircuitFileFormatException if there is a problem with the format of the circuit file.
+	 */
+	public HashMap<Integer, GarbledWire> compute(Channel channel, Map<Integer, GarbledWire> inputs) 
+			throws NotAllInputsSetException, IOException, ClassNotFoundException, CircuitFileFormatException {
+		GarbledWire[] wireValues = new GarbledWire[numberOfWires];
+		
+		//Check that all the inputs have been set and put them in the wires array.
+		for (int i = 0; i < eachPartysInputWires.size(); i++){
+			for (int w : eachPartysInputWires.get(i)){
+				GarbledWire wire = inputs.get(w);
+				if (wire == null){
+					throw new NotAllInputsSetException();
+				}
+				wireValues[w] = wire;
+			}
+		}
+		
+		BasicGarbledTablesHolder garbledTablesHolder = new BasicGarbledTablesHolder(new byte[numberOfGates][]);
+		byte[][] garbledTables = garbledTablesHolder.toDoubleByteArray();
+		chunk = new byte[0];
+		position = 0;
+		
+		BooleanCircuitReader reader = openCircuit();
+		try {
+			while (reader.hasNextGate()){
+				Gate ungarbledGate = reader.nextGate();
+				int gateNumber = ungarbledGate.getGateNumber();
+				GarbledGate gate = createGate(ungarbledGate, garbledTablesHolder);
+				
+				//Take the garbled table of the gate from the received chunk.
+				int tableSize = getGarbledTableSize(ungarbledGate);
+				if (tableSize > 0){
+					garbledTables[gateNumber] = nextGarbledTable(channel, tableSize);
+				}
+				
+				try {
+					gate.compute(wireValues);
+				} catch (InvalidKeyException e) {
+					// Should not occur since the keys were generated through the encryption scheme that generates keys that match it.
+				} catch (IllegalBlockSizeException e) {
+					// Should not occur since the keys were generated through the encryption scheme that generates keys that match it.
+				} catch (CiphertextTooLongException e) {
+					// Should not occur since the keys were generated through the encryption scheme that generates keys that match it.
+				}
+				garbledTables[gateNumber] = null;
+				
+				//Release the values of the wires that are not used anymore.
+				for (int w : ungarbledGate.getInputWireIndices()){
+					if (isLastUse(gateNumber, w)){
+						wireValues[w] = null;
+					}
+				}
+				for (int w : ungarbledGate.getOutputWireIndices()){
+					if (lastUse[w] == -1){
+						wireValues[w] = null;
+					}
+				}
+			}
+		} finally {
+			reader.close();
+		}
+		
+		if (position != chunk.length){
+			throw new IOException("the received garbled tables are longer than the circuit's garbled tables");
+		}
+		
+		HashMap<Integer, GarbledWire> garbledOutput = new HashMap<Integer, GarbledWire>();
+		for (int w : outputWireIndices) {
+			garbledOutput.put(w, wireValues[w]);
+		}
+		return garbledOutput;
+	}
+	
+	/**
+	 * Returns the next garbled table, receiving a new chunk if the current one was fully used.
+	 */
+	private byte[] nextGarbledTable(Channel channel, int tableSize) throws IOException, ClassNotFoundException{
+		while (position == chunk.length){
+			if (channel instanceof BinaryChannel){
+				chunk = ((BinaryChannel) channel).receiveBytes();
+			} else {
+				Object received = channel.receive();
+				if (!(received instanceof byte[])){
+					throw new IllegalArgumentException("the received message should be a byte array");
+				}
+				chunk = (byte[]) received;
+			}
+			position = 0;
+		}
+		if (position + tableSize > chunk.length){
+			throw new IOException("the received garbled tables do not match the circuit");
+		}
+		byte[] garbledTable = Arrays.copyOfRange(chunk, position, position + tableSize);
+		position += tableSize;
+		return garbledTable;
+	}
+	
+	/**
+	 * Translates the garbled output into a meaningful (i.e. 0-1) output using the translation table sent by the garbler.
+	 * @param garbledOutput The garbled output returned by {@link #compute(Channel, Map)}.
+	 * @param translationTable The signal bits of the output wires.
+	 * @return a map from each output wire index to its value.
+	 */
+	public Map<Integer, Wire> translate(Map<Integer, GarbledWire> garbledOutput, Map<Integer, Byte> translationTable){
+		Map<Integer, Wire> translatedOutput = new HashMap<Integer, Wire>();
+		byte signalBit, permutationBitOnWire, value;
+		
+	    //Go through the output wires and translate it using the translation table.
+	    for (int w : outputWireIndices) {
+	    	signalBit = translationTable.get(w);
+	    	permutationBitOnWire = garbledOutput.get(w).getSignalBit();
+	      
+	    	//Calculate the resulting value.
+	    	value = (byte) (signalBit ^ permutationBitOnWire);
+	    	translatedOutput.put(w, new Wire(value));
+	    }
+	    return translatedOutput;
+	}
+}
@@ -0,0 +1,212 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.circuits.garbledCircuit;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.security.InvalidKeyException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.crypto.IllegalBlockSizeException;
+import javax.crypto.SecretKey;
+
+import edu.biu.scapi.circuits.circuit.BooleanCircuitReader;
+import edu.biu.scapi.circuits.circuit.Gate;
+import edu.biu.scapi.circuits.encryption.MultiKeyEncryptionScheme;
+import edu.biu.scapi.comm.Channel;
+import edu.biu.scapi.comm.twoPartyComm.BinaryChannel;
+import edu.biu.scapi.exceptions.CircuitFileFormatException;
+import edu.biu.scapi.exceptions.PlaintextTooLongException;
+
+/**
+ * Garbles a circuit while reading it from a file, and sends the garbled tables to the other party as they are produced.<p>
+ * 
+ * The regular {@link GarbledBooleanCircuitImp} holds all the gates of the circuit and all the garbled tables in memory before 
+ * anything can be sent. For circuits with millions of gates this takes gigabytes of memory and delays the beginning of the 
+ * evaluation. This class reads the gates one by one, garbles them and sends the garbled tables in chunks of 
+ * {@code windowSize} gates. The keys of a wire are released after the last gate that uses it was garbled, thus the memory used 
+ * depends on the window size and on the number of "live" wires, instead of the circuit size.<p>
+ * 
+ * The other party should use a {@link StreamingCircuitEvaluator} that was created with the same circuit file and the same 
+ * encryption parameters. The protocol is:<p>
+ * 1. The garbler creates this object, which samples the keys of the input wires. <p>
+ * 2. The parties transfer the garbled inputs (for example, the evaluator's inputs using oblivious transfer).<p>
+ * 3. The garbler calls {@link #garble(Channel)} while the evaluator calls {@link StreamingCircuitEvaluator#compute(Channel, Map)}.<p>
+ * 4. The garbler sends the translation table returned by {@link #garble(Channel)}, if the evaluator should learn the output.<p>
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class StreamingCircuitGarbler extends StreamingGarbledCircuitAbs {
+
+	private int windowSize;								//The number of gates that are garbled before sending their tables.
+	private byte[] globalKeyOffset;						//The Free XOR delta.
+	private Map<Integer, SecretKey[]> allInputWireValues;	//Both keys of each input wire.
+	
+	private byte[] chunk = new byte[0];					//Holds the garbled tables of the current window.
+	private int chunkLength;
+	
+	/**
+	 * Reads the given circuit file and samples the keys of the input wires.
+	 * @param circuitFile The file of the circuit, in the format of {@link BooleanCircuitReader}.
+	 * @param mes The encryption scheme to use. Should be the same as the one used by the evaluator.
+	 * @param isRowReduction Indicates if the circuit should use the row reduction algorithm or not.
+	 * @param windowSize The number of gates whose garbled tables are sent together.
+	 * @throws FileNotFoundException if the circuit file is not found.
+	 * @throws CircuitFileFormatException if there is a problem with the format of the file.
+	 */
+	public StreamingCircuitGarbler(File circuitFile, MultiKeyEncryptionScheme mes, boolean isRowReduction, int windowSize) 
+			throws FileNotFoundException, CircuitFileFormatException {
+		super(circuitFile, mes, isRowReduction);
+		if (windowSize < 1){
+			throw new IllegalArgumentException("window size should be positive");
+		}
+		this.windowSize = windowSize;
+		
+		//Sample the keys of the input wires.
+		globalKeyOffset = util.sampleGlobalKeyOffset();
+		allInputWireValues = new HashMap<Integer, SecretKey[]>();
+		for (int i = 0; i < eachPartysInputWires.size(); i++){
+			for (int w : eachPartysInputWires.get(i)) {
+				util.sampleInputKeys(allInputWireValues, globalKeyOffset, w, mes.generateKey());
+			}
+		}
+	}
+	
+	/**
+	 * @return both keys of each input wire of the circuit.
+	 */
+	public Map<Integer, SecretKey[]> getAllInputWireValues(){
+		return allInputWireValues;
+	}
+	
+	/**
+	 * Garbles the circuit and sends the garbled tables over the given channel.<p>
+	 * If the channel is a {@link BinaryChannel}, the tables are sent as raw bytes. Otherwise they are sent as serialized byte arrays.
+	 * @param channel The channel to the evaluator.
+	 * @return the keys of the input and output wires and the translation table.
+	 * @throws IOException if there was a problem in the communication or in reading the circuit file.
+	 * @throws CircuitFileFormatException if there is a problem with the format of the circuit file.
+	 */
+	public CircuitCreationValues garble(Channel channel) throws IOException, CircuitFileFormatException {
+		Map<Integer, SecretKey[]> allWireValues = new HashMap<Integer, SecretKey[]>(allInputWireValues);
+		
+		//The garbled tables of the gates are kept in the holder only until they are copied to the chunk.
+		BasicGarbledTablesHolder garbledTablesHolder = new BasicGarbledTablesHolder(new byte[numberOfGates][]);
+		byte[][] garbledTables = garbledTablesHolder.toDoubleByteArray();
+		chunkLength = 0;
+		
+		BooleanCircuitReader reader = openCircuit();
+		try {
+			int gatesInChunk = 0;
+			while (reader.hasNextGate()){
+				Gate ungarbledGate = reader.nextGate();
+				int gateNumber = ungarbledGate.getGateNumber();
+				
+				//Create the keys of the output wire and then the garbled table, which depends on them.
+				util.createOutputWireValues(ungarbledGate, allWireValues, globalKeyOffset);
+				GarbledGate gate = createGate(ungarbledGate, garbledTablesHolder);
+				try {
+					util.createGarbledTable(gate, ungarbledGate, allWireValues);
+				} catch (InvalidKeyException e) {
+					// Should not occur since the keys were generated through the encryption scheme that generates keys that match it.
+				} catch (IllegalBlockSizeException e) {
+					// Should not occur since the keys were generated through the encryption scheme that generates keys that match it.
+				} catch (PlaintextTooLongException e) {
+					// Should not occur since the keys were generated through the encryption scheme that generates keys that match it.
+				}
+				
+				if (garbledTables[gateNumber] != null){
+					append(garbledTables[gateNumber]);
+					garbledTables[gateNumber] = null;
+				}
+				
+				//Release the keys of the wires that are not used anymore.
+				for (int w : ungarbledGate.getInputWireIndices()){
+					if (isLastUse(gateNumber, w)){
+						allWireValues.remove(w);
+					}
+				}
+				for (int w : ungarbledGate.getOutputWireIndices()){
+					if (lastUse[w] == -1){
+						allWireValues.remove(w);
+					}
+				}
+				
+				if (++gatesInChunk == windowSize){
+					flush(channel);
+					gatesInChunk = 0;
+				}
+			}
+			flush(channel);
+		} finally {
+			reader.close();
+		}
+		
+		//Fill the output keys and the translation table.
+		Map<Integer, SecretKey[]> allOutputWireValues = new HashMap<Integer, SecretKey[]>();
+		HashMap<Integer, Byte> translationTable = new HashMap<Integer, Byte>();
+		for (int n : outputWireIndices) {
+			allOutputWireValues.put(n, allWireValues.get(n));
+			
+			//Signal bit is the last bit of k0.
+			byte[] k0 = allWireValues.get(n)[0].getEncoded();
+			translationTable.put(n, (byte) (k0[k0.length-1] & 1));	
+		}
+		
+		return new CircuitCreationValues(allInputWireValues, allOutputWireValues, translationTable);
+	}
+	
+	/**
+	 * Appends the given garbled table to the current chunk.
+	 */
+	private void append(byte[] garbledTable){
+		if (chunkLength + garbledTable.length > chunk.length){
+			chunk = Arrays.copyOf(chunk, Math.max(chunkLength + garbledTable.length, chunk.length * 2));
+		}
+		System.arraycopy(garbledTable, 0, chunk, chunkLength, garbledTable.length);
+		chunkLength += garbledTable.length;
+	}
+	
+	/**
+	 * Sends the current chunk, if it is not empty.<p>
+	 * Empty chunks (of windows that contain only free gates) are not sent, since the evaluator reads a new chunk 
+	 * only when it needs a garbled table.
+	 */
+	private void flush(Channel channel) throws IOException{
+		if (chunkLength == 0){
+			return;
+		}
+		if (channel instanceof BinaryChannel){
+			((BinaryChannel) channel).sendBytes(chunk, 0, chunkLength);
+		} else {
+			channel.send(Arrays.copyOf(chunk, chunkLength));
+		}
+		chunkLength = 0;
+	}
+}
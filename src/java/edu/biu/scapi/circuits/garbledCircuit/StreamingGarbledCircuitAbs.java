@@ -0,0 +1,236 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.circuits.garbledCircuit;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import edu.biu.scapi.circuits.circuit.BooleanCircuitReader;
+import edu.biu.scapi.circuits.circuit.Gate;
+import edu.biu.scapi.circuits.encryption.MultiKeyEncryptionScheme;
+import edu.biu.scapi.exceptions.CircuitFileFormatException;
+import edu.biu.scapi.exceptions.FactoriesException;
+import edu.biu.scapi.exceptions.NoSuchPartyException;
+import edu.biu.scapi.primitives.kdf.bc.BcKdfISO18033;
+
+/**
+ * Abstract class that holds the common members and functionalities of the streaming garbler and evaluator.<p>
+ * Both sides read the circuit file gate by gate instead of constructing a {@link edu.biu.scapi.circuits.circuit.BooleanCircuit}. 
+ * Before the garbling (or computing) starts, the file is read once in order to find the index of the last gate that uses each wire, 
+ * so that the keys of a wire can be released as soon as they are not needed anymore.<p>
+ * 
+ * The circuits are garbled using the Free XOR technique, with or without the row reduction technique, exactly as done by 
+ * {@link FreeXORGarblingParameters}.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+abstract class StreamingGarbledCircuitAbs {
+
+	/*
+	 * The last use of the circuit's output wires. These wires are never released.
+	 */
+	protected static final int NEVER_RELEASED = Integer.MAX_VALUE;
+	
+	protected File circuitFile;
+	protected FreeXORGarbledBooleanCircuitUtil util;
+	protected MultiKeyEncryptionScheme mes;
+	protected boolean isRowReduction;
+	
+	protected int numberOfGates;
+	protected int numberOfWires;
+	protected ArrayList<ArrayList<Integer>> eachPartysInputWires = new ArrayList<ArrayList<Integer>>();
+	protected int[] outputWireIndices;
+	
+	/*
+	 * lastUse[w] is the number of the last gate that has w as input wire. -1 if no gate uses the wire.
+	 */
+	protected int[] lastUse;
+	
+	/**
+	 * Reads the circuit file in order to find the circuit's wires and the last use of each wire.
+	 * @param circuitFile The file of the circuit, in the format of {@link BooleanCircuitReader}.
+	 * @param mes The encryption scheme to use.
+	 * @param isRowReduction Indicates if the circuit should use the row reduction algorithm or not.
+	 * @throws FileNotFoundException if the circuit file is not found.
+	 * @throws CircuitFileFormatException if there is a problem with the format of the file.
+	 */
+	StreamingGarbledCircuitAbs(File circuitFile, MultiKeyEncryptionScheme mes, boolean isRowReduction) 
+			throws FileNotFoundException, CircuitFileFormatException {
+		this.circuitFile = circuitFile;
+		this.mes = mes;
+		this.isRowReduction = isRowReduction;
+		
+		//Create the same utility class as FreeXORGarblingParameters does.
+		if (isRowReduction){
+			try {
+				util = new FreeXORRowReductionGarbledBooleanCircuitUtil(mes, new BcKdfISO18033("SHA-256"));
+			} catch (FactoriesException e) {
+				// Should not occur since the given parameters are implemented.
+			}
+		} else {
+			util = new FreeXORGarbledBooleanCircuitUtil(mes);
+		}
+		
+		scanCircuit();
+	}
+	
+	/**
+	 * Reads the circuit file and fills the last use of each wire.
+	 */
+	private void scanCircuit() throws FileNotFoundException, CircuitFileFormatException {
+		BooleanCircuitReader reader = new BooleanCircuitReader(circuitFile);
+		try {
+			numberOfGates = reader.getNumberOfGates();
+			outputWireIndices = reader.getOutputWireIndices();
+			for (int i = 1; i <= reader.getNumberOfParties(); i++){
+				try {
+					eachPartysInputWires.add(reader.getInputWireIndices(i));
+				} catch (NoSuchPartyException e) {
+					// Should not occur since the parties numbers are between 1 to getNumberOfParties.
+				}
+			}
+			
+			lastUse = new int[1024];
+			Arrays.fill(lastUse, -1);
+			int maxWire = -1;
+			while (reader.hasNextGate()){
+				Gate gate = reader.nextGate();
+				for (int w : gate.getInputWireIndices()){
+					ensureCapacity(w);
+					lastUse[w] = gate.getGateNumber();
+					maxWire = Math.max(maxWire, w);
+				}
+				for (int w : gate.getOutputWireIndices()){
+					ensureCapacity(w);
+					maxWire = Math.max(maxWire, w);
+				}
+			}
+			for (ArrayList<Integer> partyInputs : eachPartysInputWires){
+				for (int w : partyInputs){
+					ensureCapacity(w);
+					maxWire = Math.max(maxWire, w);
+				}
+			}
+			for (int w : outputWireIndices){
+				ensureCapacity(w);
+				lastUse[w] = NEVER_RELEASED;
+				maxWire = Math.max(maxWire, w);
+			}
+			numberOfWires = maxWire + 1;
+		} finally {
+			reader.close();
+		}
+	}
+	
+	private void ensureCapacity(int wire){
+		if (wire < 0){
+			throw new IllegalArgumentException("wire indices should be non negative");
+		}
+		if (wire >= lastUse.length){
+			int oldLength = lastUse.length;
+			lastUse = Arrays.copyOf(lastUse, Math.max(wire + 1, oldLength * 2));
+			Arrays.fill(lastUse, oldLength, lastUse.length, -1);
+		}
+	}
+	
+	/**
+	 * Opens the circuit file for reading the gates.
+	 * @return a reader positioned at the first gate.
+	 */
+	protected BooleanCircuitReader openCircuit() throws FileNotFoundException, CircuitFileFormatException {
+		return new BooleanCircuitReader(circuitFile);
+	}
+	
+	/**
+	 * Creates the garbled gate of the given gate.
+	 * @param ungarbledGate The gate to garble.
+	 * @param garbledTablesHolder Holds the garbled tables.
+	 * @return the garbled gate.
+	 */
+	protected GarbledGate createGate(Gate ungarbledGate, BasicGarbledTablesHolder garbledTablesHolder){
+		return util.createGates(new Gate[]{ungarbledGate}, garbledTablesHolder)[0];
+	}
+	
+	/**
+	 * Returns the size of the garbled table of the given gate in bytes.
+	 * @param ungarbledGate The gate to check.
+	 * @return 0 for free gates, 2^numberOfInputs rows for standard gates and 2^numberOfInputs - 1 rows if row reduction is used.
+	 */
+	protected int getGarbledTableSize(Gate ungarbledGate){
+		if (util.isFreeGate(ungarbledGate)){
+			return 0;
+		}
+		int numberOfRows = 1 << ungarbledGate.getInputWireIndices().length;
+		if (isRowReduction){
+			numberOfRows--;
+		}
+		return numberOfRows * mes.getCipherSize();
+	}
+	
+	/**
+	 * @param gateNumber The number of the gate that was just processed.
+	 * @param wire An input wire of this gate.
+	 * @return {@code true} if the given gate is the last gate that uses the given wire.
+	 */
+	protected boolean isLastUse(int gateNumber, int wire){
+		return lastUse[wire] == gateNumber;
+	}
+	
+	/**
+	 * @return the number of gates in the circuit.
+	 */
+	public int getNumberOfGates(){
+		return numberOfGates;
+	}
+	
+	/**
+	 * @param partyNumber The number of the party whose input wires will be returned.
+	 * @return an ArrayList containing the input wire indices of the specified party.
+	 * @throws NoSuchPartyException if the given party number is less than 1 and greater than the given number of parties.
+	 */
+	public ArrayList<Integer> getInputWireIndices(int partyNumber) throws NoSuchPartyException {
+		if(partyNumber < 1 || partyNumber > eachPartysInputWires.size()){
+			throw new NoSuchPartyException();
+		}
+		return eachPartysInputWires.get(partyNumber-1);
+	}
+	
+	/**
+	 * @return the number of parties of the circuit.
+	 */
+	public int getNumberOfParties(){
+		return eachPartysInputWires.size();
+	}
+	
+	/**
+	 * @return an array of the output wire indices of the circuit.
+	 */
+	public int[] getOutputWireIndices(){
+		return outputWireIndices;
+	}
+}
@@ -0,0 +1,318 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.comm;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Serializable;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Level;
+
+import edu.biu.scapi.generals.Logging;
+
+/**
+ * This class adds the asynchronous functions of {@link AsyncChannel} to any existing channel, 
+ * such as the socket and queue channels created by the two party communication setups.<p>
+ * 
+ * Messages are written to the underlying channel by a dedicated writer thread, that takes them from a bounded queue. 
+ * When the queue is full, sendAsync blocks until the writer thread has sent a message, so a fast protocol can not use 
+ * an unlimited amount of memory. Receive requests are performed by a dedicated reader thread in the order they were made.<p>
+ * 
+ * The synchronous send and receive functions wait for the asynchronous ones, so they keep the order of the messages 
+ * with respect to asynchronous calls. After the adapter is created, the underlying channel should only be used through it.<p>
+ * 
+ * Once a message fails to be sent, the messages that were queued after it are not sent and their futures fail too, 
+ * since the other party would receive them out of order. Close waits for the queued messages at most the close timeout; 
+ * then the underlying channel is closed and the messages that were not sent are cancelled.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class AsyncChannelAdapter implements AsyncChannel {
+	
+	/**
+	 * The default number of messages that may wait to be sent.
+	 */
+	public static final int DEFAULT_QUEUE_SIZE = 16;
+	
+	/**
+	 * The default time in milliseconds that close waits for the queued messages to be sent.
+	 */
+	public static final long DEFAULT_CLOSE_TIMEOUT = 10000;
+	
+	private Channel channel;				//The underlying channel.
+	private ExecutorService writer;			//Single thread that sends the messages.
+	private ExecutorService reader;			//Single thread that receives the messages.
+	private Semaphore queueSlots;			//Bounds the number of messages that wait to be sent.
+	private long closeTimeout;				//Time in milliseconds that close waits for the queued messages.
+	private volatile IOException sendFailure;	//The failure of the first message that was not sent, if any.
+	private volatile boolean closed;
+	
+	/**
+	 * Constructor that wraps the given channel, with the default size of the outgoing queue.
+	 * @param channel an established channel to the other party.
+	 */
+	public AsyncChannelAdapter(Channel channel) {
+		this(channel, DEFAULT_QUEUE_SIZE);
+	}
+	
+	/**
+	 * Constructor that wraps the given channel, with the given size of the outgoing queue.
+	 * @param channel an established channel to the other party.
+	 * @param queueSize the maximal number of messages that wait to be sent.
+	 * @throws IllegalArgumentException if queueSize is not positive.
+	 */
+	public AsyncChannelAdapter(Channel channel, int queueSize) {
+		this(channel, queueSize, DEFAULT_CLOSE_TIMEOUT);
+	}
+	
+	/**
+	 * Constructor that wraps the given channel, with the given size of the outgoing queue and close timeout.
+	 * @param channel an established channel to the other party.
+	 * @param queueSize the maximal number of messages that wait to be sent.
+	 * @param closeTimeout the time in milliseconds that close waits for the queued messages to be sent.
+	 * @throws IllegalArgumentException if queueSize is not positive or closeTimeout is negative.
+	 */
+	public AsyncChannelAdapter(Channel channel, int queueSize, long closeTimeout) {
+		if (queueSize < 1) {
+			throw new IllegalArgumentException("queue size must be positive");
+		}
+		if (closeTimeout < 0) {
+			throw new IllegalArgumentException("close timeout must not be negative");
+		}
+		this.channel = channel;
+		this.closeTimeout = closeTimeout;
+		queueSlots = new Semaphore(queueSize);
+		writer = Executors.newSingleThreadExecutor(new IOThreadFactory("AsyncChannel writer"));
+		reader = Executors.newSingleThreadExecutor(new IOThreadFactory("AsyncChannel reader"));
+	}
+	
+	/**
+	 * Queues the given message to be sent by the writer thread. Blocks while the outgoing queue is full.
+	 * @param data the message to send. It should not be modified until the returned future is done.
+	 * @return a future that is done when the message was sent. It fails if the message, or a message that was queued before it, 
+	 * could not be sent.
+	 * @throws IllegalStateException if the channel is closed.
+	 */
+	@Override
+	public Future<Void> sendAsync(final Serializable data) {
+		if (closed) {
+			throw new IllegalStateException("the channel is closed");
+		}
+		queueSlots.acquireUninterruptibly();
+		try {
+			return writer.submit(new Callable<Void>() {
+				@Override
+				public Void call() throws IOException {
+					try {
+						if (sendFailure != null) {
+							throw new IOException("a previous message was not sent. The thrown exception is: " + sendFailure.getMessage());
+						}
+						channel.send(data);
+					} catch (IOException e) {
+						if (sendFailure == null) {
+							sendFailure = e;
+						}
+						throw e;
+					} catch (RuntimeException e) {
+						if (sendFailure == null) {
+							sendFailure = new IOException(e.toString());
+						}
+						throw e;
+					} finally {
+						queueSlots.release();
+					}
+					return null;
+				}
+			});
+		} catch (RuntimeException e) {
+			//The writer was shut down by a concurrent close.
+			queueSlots.release();
+			throw new IllegalStateException("the channel is closed");
+		}
+	}
+	
+	/**
+	 * Requests the next message from the reader thread.
+	 * @return a future that holds the received message.
+	 * @throws IllegalStateException if the channel is closed.
+	 */
+	@Override
+	public Future<Serializable> receiveAsync() {
+		if (closed) {
+			throw new IllegalStateException("the channel is closed");
+		}
+		try {
+			return reader.submit(new Callable<Serializable>() {
+				@Override
+				public Serializable call() throws ClassNotFoundException, IOException {
+					return channel.receive();
+				}
+			});
+		} catch (RuntimeException e) {
+			throw new IllegalStateException("the channel is closed");
+		}
+	}
+	
+	/**
+	 * Sends the given message and waits until it is sent, after all the messages that were queued before it.
+	 * @throws IOException if the channel is closed or failed to send the message.
+	 */
+	@Override
+	public void send(Serializable data) throws IOException {
+		if (closed) {
+			throw new IOException("the channel is closed");
+		}
+		try {
+			waitFor(sendAsync(data));
+		} catch (ClassNotFoundException e) {
+			// Should not occur since sending does not deserialize objects.
+			throw new IOException(e.getMessage());
+		}
+	}
+	
+	/**
+	 * Receives the next message, after all the receive requests that were made before.
+	 * @throws IOException if the channel is closed or failed to receive the message.
+	 * @throws ClassNotFoundException if the class of the received object can not be found.
+	 */
+	@Override
+	public Serializable receive() throws ClassNotFoundException, IOException {
+		if (closed) {
+			throw new IOException("the channel is closed");
+		}
+		return waitFor(receiveAsync());
+	}
+	
+	/**
+	 * Closes the channel after all the queued messages were sent, and stops the writer and reader threads.<p>
+	 * If the queued messages are not sent within the close timeout, for example because the other party stopped reading, 
+	 * the underlying channel is closed anyway, the writer thread is interrupted and the futures of the messages that were 
+	 * not sent are cancelled.
+	 */
+	@Override
+	public void close() {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		//The underlying channel is closed by the writer thread, after the messages that were queued before.
+		Future<Void> closing = writer.submit(new Callable<Void>() {
+			@Override
+			public Void call() {
+				channel.close();
+				return null;
+			}
+		});
+		writer.shutdown();
+		try {
+			closing.get(closeTimeout, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			abortSends();
+		} catch (TimeoutException e) {
+			Logging.getLogger().log(Level.WARNING, "the queued messages were not sent in " + closeTimeout + " milliseconds");
+			abortSends();
+		} catch (ExecutionException e) {
+			// Should not occur since close does not throw exceptions.
+		}
+		//A pending receive fails since the underlying channel is closed.
+		reader.shutdown();
+	}
+	
+	/**
+	 * Closes the underlying channel in order to release a blocked send, interrupts the writer thread and cancels the 
+	 * messages that are still queued.
+	 */
+	private void abortSends() {
+		channel.close();
+		for (Runnable task : writer.shutdownNow()) {
+			if (task instanceof Future<?>) {
+				((Future<?>) task).cancel(false);
+			}
+		}
+	}
+	
+	@Override
+	public boolean isClosed() {
+		return closed || channel.isClosed();
+	}
+	
+	/**
+	 * Waits for the given future and throws the exception of the underlying channel, if any.
+	 */
+	private <T> T waitFor(Future<T> future) throws ClassNotFoundException, IOException {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("interrupted while waiting for the channel");
+		} catch (CancellationException e) {
+			throw new IOException("the channel was closed before the request was performed");
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			if (cause instanceof ClassNotFoundException) {
+				throw (ClassNotFoundException) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IOException(String.valueOf(cause));
+		}
+	}
+	
+	/**
+	 * Creates the daemon threads of the adapter, so that an open channel does not prevent the application from exiting.
+	 */
+	private static class IOThreadFactory implements ThreadFactory {
+		private String name;
+		
+		IOThreadFactory(String name) {
+			this.name = name;
+		}
+		
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r, name);
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
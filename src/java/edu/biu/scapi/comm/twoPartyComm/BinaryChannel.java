@@ -0,0 +1,77 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+
+package edu.biu.scapi.comm.twoPartyComm;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import edu.biu.scapi.comm.Channel;
+
+/**
+ * This interface extends the {@link Channel} with the ability to send and receive raw byte arrays without using the Java 
+ * serialization mechanism.<p>
+ * Each message is written as a 4-byte length header followed by the payload, so the receiver gets exactly the bytes that 
+ * were sent. Protocols that already hold their messages as byte arrays (garbled tables, OT strings, etc.) should use this 
+ * interface in order to avoid the overhead of serializing and de-serializing the arrays.<p>
+ * Note that both parties should use the same type of channel, since the format on the wire differs from the format of 
+ * the regular {@link Channel}.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public interface BinaryChannel extends Channel{
+
+	/**
+	 * Sends the given byte array to the other party.
+	 * @param data the bytes to send.
+	 * @throws IOException Any of the usual Input/Output related exceptions.
+	 */
+	public void sendBytes(byte[] data) throws IOException;
+	
+	/**
+	 * Sends length bytes of the given array, starting at the given offset, to the other party.
+	 * @param data the array that holds the bytes to send.
+	 * @param offset the index of the first byte to send.
+	 * @param length the number of bytes to send.
+	 * @throws IOException Any of the usual Input/Output related exceptions.
+	 */
+	public void sendBytes(byte[] data, int offset, int length) throws IOException;
+	
+	/**
+	 * Sends the remaining bytes of the given buffer to the other party. <p>
+	 * After this function returns, the position of the buffer equals its limit.
+	 * @param data the buffer that holds the bytes to send.
+	 * @throws IOException Any of the usual Input/Output related exceptions.
+	 */
+	public void sendBytes(ByteBuffer data) throws IOException;
+	
+	/**
+	 * Receives a byte array that was sent by the other party using one of the sendBytes functions.
+	 * @return the received bytes.
+	 * @throws IOException Any of the usual Input/Output related exceptions.
+	 */
+	public byte[] receiveBytes() throws IOException;
+}
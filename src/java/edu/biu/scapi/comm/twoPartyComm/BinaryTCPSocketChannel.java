@@ -0,0 +1,229 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+
+package edu.biu.scapi.comm.twoPartyComm;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+
+/**
+ * This class represents a TCP channel that frames every message with a 4-byte length header instead of using the Java 
+ * serialization streams of the sockets.<p>
+ * The {@link PlainTCPSocketChannel} serializes each object into a byte array, wraps the array in a Message object and 
+ * serializes the Message again through the object stream of the socket. This channel writes the bytes directly on a 
+ * buffered stream of the socket, so byte arrays are sent without any serialization and objects are serialized only once.
+ * Arrays that are larger than the buffer are written directly to the socket, without being copied. <p>
+ * 
+ * Both parties should use this type of channel; it cannot communicate with a {@link PlainTCPSocketChannel}.<p>
+ * 
+ * A length header that is longer than the maximal message length closes the channel, in order not to allocate the memory 
+ * that the other party asks for.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+class BinaryTCPSocketChannel extends PlainTCPSocketChannel implements BinaryChannel{
+	
+	/**
+	 * A ByteArrayOutputStream that gives access to its internal buffer in order to avoid the copy done by toByteArray().
+	 */
+	private static class ExposedByteArrayOutputStream extends ByteArrayOutputStream{
+		
+		byte[] getBuffer(){
+			return buf;
+		}
+	}
+	
+	private static final int BUFFER_SIZE = 64 * 1024;	//The size of the buffers of the socket streams.
+	static final int DEFAULT_MAX_MESSAGE_LENGTH = 64 * 1024 * 1024;	//The default maximal length of an incoming message.
+	
+	private DataOutputStream dataOut;				//Used to send the framed messages.
+	private DataInputStream dataIn;					//Used to receive the framed messages.
+	private ExposedByteArrayOutputStream objectBytes = new ExposedByteArrayOutputStream(); //Reused in order to serialize objects.
+	private int maxMessageLength = DEFAULT_MAX_MESSAGE_LENGTH;	//The maximal length of an incoming message.
+	
+	/**
+	 * A constructor that set the state of this channel to not ready.
+	 */
+	BinaryTCPSocketChannel(){
+		super();
+	}
+	
+	/**
+	 * A constructor that create the socket address according to the given ip and port and set the state of this channel to not ready.
+	 * @param ipAddress other party's IP address.
+	 * @param port other party's port.
+	 */
+	BinaryTCPSocketChannel(InetAddress ipAddress, int port) {
+		super(ipAddress, port);
+	}
+	
+	/**
+	 * A constructor that set the given socket address and set the state of this channel to not ready.
+	 * @param socketAddress other end's InetSocketAddress
+	 */
+	BinaryTCPSocketChannel(InetSocketAddress socketAddress) {
+		super(socketAddress);
+	}
+	
+	/**
+	 * A constructor that set the given socket address and maximal message length and set the state of this channel to not ready.
+	 * @param socketAddress other end's InetSocketAddress
+	 * @param maxMessageLength the maximal length of an incoming message. A longer message closes the channel.
+	 */
+	BinaryTCPSocketChannel(InetSocketAddress socketAddress, int maxMessageLength) {
+		super(socketAddress);
+		this.maxMessageLength = maxMessageLength;
+	}
+	
+	/**
+	 * Creates a buffered data stream on top of the send socket.
+	 */
+	@Override
+	protected void initOutputStream() throws IOException{
+		dataOut = new DataOutputStream(new BufferedOutputStream(sendSocket.getOutputStream(), BUFFER_SIZE));
+	}
+	
+	/**
+	 * Creates a buffered data stream on top of the receive socket.
+	 */
+	@Override
+	protected void initInputStream() throws IOException{
+		dataIn = new DataInputStream(new BufferedInputStream(receiveSocket.getInputStream(), BUFFER_SIZE));
+	}
+	
+	/**
+	 * Closes the data streams of this channel.
+	 */
+	@Override
+	protected void closeStreams() throws IOException{
+		if(dataOut != null){
+			dataOut.close();
+		}
+		if(dataIn != null){
+			dataIn.close();
+		}
+	}
+	
+	/** 
+	 * Serializes the given object once and sends the resulting bytes as a single framed message.
+	 * The serialization buffer is kept for the next objects, unless it grew beyond the size of the socket buffers.
+	 *  
+	 * @param msg the object to send.
+	 * @throws IOException Any of the usual Input/Output related exceptions.  
+	 */
+	@Override
+	public void send(Serializable msg) throws IOException {
+		
+		objectBytes.reset();
+		ObjectOutputStream oOut  = new ObjectOutputStream(objectBytes);
+		oOut.writeObject(msg);  
+		oOut.close();
+		
+		try{
+			sendBytes(objectBytes.getBuffer(), 0, objectBytes.size());
+		} finally{
+			//Do not hold the memory of a large object for the rest of the channel's life.
+			if (objectBytes.getBuffer().length > BUFFER_SIZE){
+				objectBytes = new ExposedByteArrayOutputStream();
+			}
+		}
+	}
+	
+	/** 
+	 * Receives a framed message and de-serializes the object it contains.
+	 * 
+	 * @throws ClassNotFoundException  The Class of the serialized object cannot be found.
+	 * @throws IOException Any of the usual Input/Output related exceptions.
+	 */
+	@Override
+	public Serializable receive() throws ClassNotFoundException, IOException {
+		
+		ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(receiveBytes()));
+		return (Serializable) ois.readObject();
+	}
+	
+	@Override
+	public void sendBytes(byte[] data) throws IOException {
+		sendBytes(data, 0, data.length);
+	}
+	
+	@Override
+	public void sendBytes(byte[] data, int offset, int length) throws IOException {
+		if (offset < 0 || length < 0 || offset + length > data.length){
+			throw new IndexOutOfBoundsException("wrong offset or length for the given array");
+		}
+		
+		//Write the length header followed by the payload. 
+		//BufferedOutputStream writes arrays that are larger than its buffer directly to the socket.
+		dataOut.writeInt(length);
+		dataOut.write(data, offset, length);
+		dataOut.flush();
+	}
+	
+	@Override
+	public void sendBytes(ByteBuffer data) throws IOException {
+		int length = data.remaining();
+		
+		//If the buffer is backed by an array, send the array without copying it.
+		if (data.hasArray()){
+			sendBytes(data.array(), data.arrayOffset() + data.position(), length);
+			data.position(data.limit());
+		} else{
+			byte[] bytes = new byte[length];
+			data.get(bytes);
+			sendBytes(bytes, 0, length);
+		}
+	}
+	
+	/**
+	 * Receives a framed message.
+	 * @throws IOException if the length header is negative or longer than the maximal message length. In this case the 
+	 * channel is closed, since the rest of the stream can not be framed.
+	 */
+	@Override
+	public byte[] receiveBytes() throws IOException {
+		int length = dataIn.readInt();
+		if (length < 0 || length > maxMessageLength){
+			close();
+			throw new IOException("received an illegal message length " + length);
+		}
+		
+		byte[] data = new byte[length];
+		dataIn.readFully(data);
+		return data;
+	}
+}
@@ -0,0 +1,92 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+
+package edu.biu.scapi.comm.twoPartyComm;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class holds a pool of direct byte buffers of the same size.<p>
+ * Allocating a direct buffer is expensive, and the memory it uses is released only when the buffer is garbage collected.
+ * The {@link NioSocketChannel}s take their buffers from a shared pool when they are created and return them when they 
+ * are closed, so that opening and closing many sessions does not allocate new direct memory each time.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+class DirectBufferPool {
+	
+	private final int bufferSize;							//The size of each buffer in the pool.
+	private final int maxPooled;							//The maximal number of buffers kept in the pool.
+	private ConcurrentLinkedQueue<ByteBuffer> buffers;		//The free buffers.
+	private AtomicInteger pooled;							//The number of free buffers.
+	
+	/**
+	 * Constructor that sets the parameters of the pool.
+	 * @param bufferSize the size of each buffer in the pool.
+	 * @param maxPooled the maximal number of free buffers to keep. Buffers that are released when the pool is full are 
+	 * 		  left to the garbage collector.
+	 */
+	DirectBufferPool(int bufferSize, int maxPooled){
+		this.bufferSize = bufferSize;
+		this.maxPooled = maxPooled;
+		buffers = new ConcurrentLinkedQueue<ByteBuffer>();
+		pooled = new AtomicInteger(0);
+	}
+	
+	/**
+	 * Returns a cleared buffer. If the pool is empty a new direct buffer is allocated.
+	 */
+	ByteBuffer acquire(){
+		ByteBuffer buffer = buffers.poll();
+		if (buffer == null){
+			return ByteBuffer.allocateDirect(bufferSize);
+		}
+		pooled.decrementAndGet();
+		buffer.clear();
+		return buffer;
+	}
+	
+	/**
+	 * Returns the given buffer to the pool.
+	 * @param buffer a buffer that was previously acquired from this pool. 
+	 */
+	void release(ByteBuffer buffer){
+		if (pooled.incrementAndGet() <= maxPooled){
+			buffers.offer(buffer);
+		} else{
+			pooled.decrementAndGet();
+		}
+	}
+	
+	/**
+	 * Returns the size of the buffers in this pool.
+	 */
+	int getBufferSize(){
+		return bufferSize;
+	}
+}
@@ -0,0 +1,411 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.comm.twoPartyComm;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.logging.Level;
+
+import edu.biu.scapi.comm.Channel;
+import edu.biu.scapi.generals.Logging;
+
+/**
+ * This class runs any number of logical channels over one established channel between two parties.<p>
+ * 
+ * Each logical channel has an id. A message that is sent on the logical channel with some id is received by the 
+ * logical channel with the same id on the other side. Both parties get their logical channels by calling 
+ * {@link #getChannel(String)} with the same ids, in any order; messages that arrive before the channel is requested are kept until it is.
+ * This way many protocol instances can run in parallel between two parties, each one on its own logical channel, 
+ * using a single connection that was created by a {@link TwoPartyCommunicationSetup} with one connection id.<p>
+ * 
+ * Every logical channel has its own flow control. A party may have at most window messages that were sent on a logical 
+ * channel and not yet received by the other party; the next send blocks until the other party receives some of them. 
+ * Therefore a slow protocol instance can not fill the memory of the other party or delay the other logical channels.<p>
+ * 
+ * The messages of all logical channels are read by one daemon thread and sent under a lock on the underlying channel, 
+ * so different logical channels may be used by different threads. As with the other channels, a single logical channel should 
+ * be used by one thread at a time. A logical channel id should not be reused after the channel was closed.<p>
+ * 
+ * A logical channel is removed from the connection once both parties closed it. The other party may open at most 
+ * maxPeerChannels logical channels that were not yet requested by this party; a party that opens more, or sends more than 
+ * window messages on a logical channel, fails the connection.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class MultiplexedConnection {
+	
+	/**
+	 * The default number of messages that may be in transit on a logical channel.
+	 */
+	public static final int DEFAULT_WINDOW = 64;
+	
+	/**
+	 * The default number of logical channels that the other party may open before this party requests them.
+	 */
+	public static final int DEFAULT_MAX_PEER_CHANNELS = 1024;
+	
+	private static final int DATA = 0;		//A message of a logical channel.
+	private static final int CREDIT = 1;	//Allows the other party to send more messages on a logical channel.
+	private static final int CLOSE = 2;		//The other party closed a logical channel.
+	
+	/**
+	 * The message that is actually sent over the underlying channel. 
+	 */
+	static class Frame implements Serializable {
+		
+		private static final long serialVersionUID = -6213093325493520146L;
+		private String channelId;
+		private int type;
+		private int credit;
+		private Serializable data;
+		
+		Frame(String channelId, int type, int credit, Serializable data) {
+			this.channelId = channelId;
+			this.type = type;
+			this.credit = credit;
+			this.data = data;
+		}
+	}
+	
+	private Channel channel;				//The underlying channel.
+	private int window;						//Maximal number of messages in transit on a logical channel.
+	private int maxPeerChannels;			//Maximal number of logical channels opened by the other party and not yet requested.
+	private int peerChannels;				//Number of logical channels opened by the other party and not yet requested. Guarded by channels.
+	private Map<String, LogicalChannel> channels = new HashMap<String, LogicalChannel>();
+	private volatile boolean closed;
+	private volatile IOException failure;	//The reason that the underlying channel stopped working, if any.
+	private Thread reader;					//Reads the messages of all logical channels.
+	
+	/**
+	 * Constructor that sets the underlying channel and the default window.
+	 * @param channel an established channel to the other party. It should not be used directly after this call.
+	 */
+	public MultiplexedConnection(Channel channel) {
+		this(channel, DEFAULT_WINDOW);
+	}
+	
+	/**
+	 * Constructor that sets the underlying channel and the window of the flow control.<p>
+	 * Both parties should use the same window.
+	 * @param channel an established channel to the other party. It should not be used directly after this call.
+	 * @param window the maximal number of messages that were sent on a logical channel and not yet received by the other party.
+	 * @throws IllegalArgumentException if window is not positive.
+	 */
+	public MultiplexedConnection(Channel channel, int window) {
+		this(channel, window, DEFAULT_MAX_PEER_CHANNELS);
+	}
+	
+	/**
+	 * Constructor that sets the underlying channel, the window of the flow control and the limit on the logical channels 
+	 * that the other party opens.<p>
+	 * Both parties should use the same window.
+	 * @param channel an established channel to the other party. It should not be used directly after this call.
+	 * @param window the maximal number of messages that were sent on a logical channel and not yet received by the other party.
+	 * @param maxPeerChannels the maximal number of logical channels that the other party may open before this party requests them.
+	 * @throws IllegalArgumentException if window or maxPeerChannels is not positive.
+	 */
+	public MultiplexedConnection(Channel channel, int window, int maxPeerChannels) {
+		if (window < 1) {
+			throw new IllegalArgumentException("window must be positive");
+		}
+		if (maxPeerChannels < 1) {
+			throw new IllegalArgumentException("maxPeerChannels must be positive");
+		}
+		this.channel = channel;
+		this.window = window;
+		this.maxPeerChannels = maxPeerChannels;
+		
+		reader = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				readFrames();
+			}
+		}, "MultiplexedConnection reader");
+		reader.setDaemon(true);
+		reader.start();
+	}
+	
+	/**
+	 * Returns the logical channel with the given id. The channel is created on the first call with this id.
+	 * @param id the id of the logical channel. The other party should use the same id.
+	 * @return the logical channel.
+	 */
+	public Channel getChannel(String id) {
+		synchronized (channels) {
+			LogicalChannel logical = channels.get(id);
+			if (logical == null) {
+				logical = new LogicalChannel(id);
+				channels.put(id, logical);
+			} else if (!logical.requested) {
+				peerChannels--;
+			}
+			logical.requested = true;
+			return logical;
+		}
+	}
+	
+	/**
+	 * Closes all the logical channels and the underlying channel.
+	 */
+	public void close() {
+		closed = true;
+		channel.close();
+		wakeAll();
+	}
+	
+	/**
+	 * Checks if this connection is closed, either by calling close or because the underlying channel failed.
+	 * @return true if the connection is closed; false, otherwise.
+	 */
+	public boolean isClosed() {
+		return closed || failure != null;
+	}
+	
+	/**
+	 * Returns the logical channel of a frame that was received from the other party. 
+	 * The channel is created if this party did not request it yet.
+	 * @throws IOException if the other party opened too many logical channels that were not requested.
+	 */
+	private LogicalChannel getPeerChannel(String id) throws IOException {
+		synchronized (channels) {
+			LogicalChannel logical = channels.get(id);
+			if (logical == null) {
+				if (peerChannels == maxPeerChannels) {
+					throw new IOException("the other party opened more than " + maxPeerChannels + " logical channels that were not requested");
+				}
+				logical = new LogicalChannel(id);
+				channels.put(id, logical);
+				peerChannels++;
+			}
+			return logical;
+		}
+	}
+	
+	/**
+	 * Removes the given logical channel from this connection, after both parties closed it.
+	 */
+	private void remove(LogicalChannel logical) {
+		synchronized (channels) {
+			if (channels.get(logical.id) == logical) {
+				channels.remove(logical.id);
+			}
+		}
+	}
+	
+	/**
+	 * Sends the given frame over the underlying channel.
+	 */
+	private void sendFrame(Frame frame) throws IOException {
+		if (isClosed()) {
+			throw new IOException("the connection is closed");
+		}
+		synchronized (channel) {
+			channel.send(frame);
+		}
+	}
+	
+	/**
+	 * Reads the frames of the underlying channel and passes each one to its logical channel, until the connection is closed.
+	 */
+	private void readFrames() {
+		try {
+			while (!closed) {
+				Serializable msg = channel.receive();
+				if (!(msg instanceof Frame)) {
+					throw new IOException("the received message is not a multiplexed frame");
+				}
+				Frame frame = (Frame) msg;
+				getPeerChannel(frame.channelId).handle(frame);
+			}
+		} catch (IOException e) {
+			if (!closed) {
+				failure = e;
+				Logging.getLogger().log(Level.WARNING, e.toString());
+			}
+		} catch (ClassNotFoundException e) {
+			if (!closed) {
+				failure = new IOException("failed to read a message. The thrown exception is: " + e.getMessage());
+				Logging.getLogger().log(Level.WARNING, e.toString());
+			}
+		} finally {
+			//Releases the threads that wait for messages or credit.
+			wakeAll();
+		}
+	}
+	
+	private void wakeAll() {
+		ArrayList<LogicalChannel> all;
+		synchronized (channels) {
+			all = new ArrayList<LogicalChannel>(channels.values());
+		}
+		for (LogicalChannel logical : all) {
+			synchronized (logical) {
+				logical.notifyAll();
+			}
+		}
+	}
+	
+	/**
+	 * A logical channel that sends and receives its messages through the underlying channel of the connection.
+	 */
+	private class LogicalChannel implements Channel {
+		
+		private String id;
+		private LinkedList<Serializable> received = new LinkedList<Serializable>();	//Messages that were received and not yet taken.
+		private int sendCredit = window;	//Number of messages that can be sent before the other party receives some.
+		private int consumed;				//Number of messages that were taken and not yet reported to the other party.
+		private boolean closedLocally;
+		private boolean closedByPeer;
+		private boolean requested;			//Set when this party called getChannel with the id of this channel. Guarded by channels.
+		
+		LogicalChannel(String id) {
+			this.id = id;
+		}
+		
+		/**
+		 * Handles a frame of this channel that was received by the reader thread.
+		 * @throws IOException if the other party sent more messages than the window.
+		 */
+		void handle(Frame frame) throws IOException {
+			boolean closedByBoth;
+			synchronized (this) {
+				if (frame.type == DATA) {
+					if (received.size() == window) {
+						throw new IOException("the other party sent more than " + window + " messages on logical channel " + id);
+					}
+					received.addLast(frame.data);
+				} else if (frame.type == CREDIT) {
+					sendCredit += frame.credit;
+				} else if (frame.type == CLOSE) {
+					closedByPeer = true;
+				}
+				closedByBoth = closedLocally && closedByPeer;
+				notifyAll();
+			}
+			if (closedByBoth) {
+				remove(this);
+			}
+		}
+		
+		/**
+		 * Sends the given message on this logical channel. Blocks while the other party has window messages of this channel that it did not receive.
+		 * @throws IOException if the channel or the connection is closed, or failed to send the message.
+		 */
+		@Override
+		public void send(Serializable data) throws IOException {
+			synchronized (this) {
+				while (sendCredit == 0 && !isClosed()) {
+					waitForPeer();
+				}
+				if (isClosed()) {
+					throw new IOException("logical channel " + id + " is closed");
+				}
+				sendCredit--;
+			}
+			sendFrame(new Frame(id, DATA, 0, data));
+		}
+		
+		/**
+		 * Receives the next message of this logical channel. Blocks until a message arrives.
+		 * @throws IOException if there are no more messages since the channel or the connection is closed.
+		 */
+		@Override
+		public Serializable receive() throws ClassNotFoundException, IOException {
+			Serializable data;
+			int credit = 0;
+			synchronized (this) {
+				while (received.isEmpty() && !closedLocally && !closedByPeer && !MultiplexedConnection.this.isClosed()) {
+					waitForPeer();
+				}
+				if (received.isEmpty()) {
+					if (failure != null) {
+						throw new IOException("failed to receive a message. The thrown exception is: " + failure.getMessage());
+					}
+					throw new IOException("logical channel " + id + " is closed");
+				}
+				data = received.removeFirst();
+				//Gives the credit back in batches of half a window, in order to avoid a credit frame per message.
+				//No frame is sent after this channel was closed, since the other party may have already removed it.
+				consumed++;
+				if (consumed >= (window + 1) / 2 && !closedLocally && !closedByPeer) {
+					credit = consumed;
+					consumed = 0;
+				}
+			}
+			if (credit > 0) {
+				try {
+					sendFrame(new Frame(id, CREDIT, credit, null));
+				} catch (IOException e) {
+					//The message was received. The failure of the connection will be reported by the next call.
+				}
+			}
+			return data;
+		}
+		
+		/**
+		 * Closes this logical channel and tells the other party. The channel is removed from the connection once the other party closes it too.
+		 */
+		@Override
+		public void close() {
+			boolean closedByBoth;
+			synchronized (this) {
+				if (closedLocally) {
+					return;
+				}
+				closedLocally = true;
+				closedByBoth = closedByPeer;
+				notifyAll();
+			}
+			try {
+				sendFrame(new Frame(id, CLOSE, 0, null));
+			} catch (IOException e) {
+				Logging.getLogger().log(Level.WARNING, e.toString());
+			}
+			if (closedByBoth) {
+				remove(this);
+			}
+		}
+		
+		@Override
+		public synchronized boolean isClosed() {
+			return closedLocally || closedByPeer || MultiplexedConnection.this.isClosed();
+		}
+		
+		private void waitForPeer() throws InterruptedIOException {
+			try {
+				wait();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("interrupted while waiting on logical channel " + id);
+			}
+		}
+	}
+}
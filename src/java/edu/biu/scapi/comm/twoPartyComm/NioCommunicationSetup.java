@@ -0,0 +1,403 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+
+package edu.biu.scapi.comm.twoPartyComm;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+
+import org.apache.commons.exec.TimeoutObserver;
+import org.apache.commons.exec.Watchdog;
+
+import edu.biu.scapi.comm.Channel;
+import edu.biu.scapi.exceptions.DuplicatePartyException;
+import edu.biu.scapi.generals.Logging;
+
+/**
+ * This class implements a communication between two parties using non-blocking NIO sockets.<p>
+ * Unlike the {@link SocketCommunicationSetup}, each created channel uses a single socket both to send and to receive messages,
+ * and no thread is created per setup. All the channels in the JVM are served by one shared selector thread, so that one 
+ * application can hold hundreds of concurrent sessions. <p>
+ * The connection is done as follows:
+ * <ul>
+ * <li>The party whose address is smaller connects to the other party once for each requested channel, 
+ * and sends the id of the channel over the created socket.</li>
+ * <li>The other party listens on its port, accepts the calls and matches each accepted socket to a channel according to 
+ * the received id.</li>
+ * <li>In the end the sockets are switched to non-blocking mode and registered in the selector thread.</li>
+ * </ul>
+ * The created channels implement the {@link BinaryChannel} interface, so byte arrays can be sent without serialization.
+ * Both parties should use this communication setup.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class NioCommunicationSetup implements TwoPartyCommunicationSetup, TimeoutObserver{
+	
+	private static final long RETRY_SLEEP = 100;	//The time in milliseconds to wait before trying to connect or accept again.
+	
+	private int maxMessageLength = 64 * 1024 * 1024;	//The maximal length of an incoming message.
+	private int maxQueuedMessages = 1024;				//The maximal number of incoming messages that wait to be received in a channel.
+	private long handshakeTimeout = 10000;				//The time in milliseconds to wait for the id of an accepted connection.
+	private volatile boolean bTimedOut = false; 	//Indicated whether or not to end the communication.
+	private Watchdog watchdog;						//Used to measure times.
+	private boolean enableNagle = false;			//Indicated whether or not to use Nagle optimization algorithm.
+	private int connectionsNumber;					//Holds the number of created connections.
+	private SocketPartyData me;						//The data of the current application
+	private SocketPartyData other;					//The data of the other application to communicate with.
+	
+	/**
+	 * A constructor that set the given parties.
+	 * @param me The data of the current application.
+	 * @param party The data of the other application to communicate with.
+	 * @throws DuplicatePartyException 
+	 */
+	public NioCommunicationSetup(PartyData me, PartyData party) throws DuplicatePartyException{
+		//Both parties should be instances of SocketPArty.
+		if (!(me instanceof SocketPartyData) || !(party instanceof SocketPartyData)){
+			throw new IllegalArgumentException("both parties should be instances of SocketParty");
+		}
+		this.me = (SocketPartyData) me;
+		this.other = (SocketPartyData) party;
+		
+		//Compare the two given parties. If they are the same, throw exception.
+		int partyCompare = this.me.compareTo(other);
+		if(partyCompare == 0){
+			throw new DuplicatePartyException("Another party with the same ip address and port");
+		}
+		connectionsNumber = 0;
+	}
+	
+	/**  
+	 * Initiates the creation of the actual sockets connections between the parties. If this function succeeds, the 
+	 * application may use the send and receive functions of the created channels to pass messages.
+	 * 
+	 */
+	@Override
+	public Map<String, Channel> prepareForCommunication(String[] connectionsIds, long timeOut) {
+		
+		//Start the watch dog with the given timeout.
+		bTimedOut = false;
+		watchdog = new Watchdog(timeOut);
+		//Add this instance as the observer in order to receive the event of time out.
+		watchdog.addTimeoutObserver(this);
+		watchdog.start();
+		
+		Map<String, SocketChannel> sockets = new HashMap<String, SocketChannel>();
+		Map<String, Channel> connections = new HashMap<String, Channel>();
+		
+		try {
+			//The party with the smaller address connects and the other party accepts.
+			if (me.compareTo(other) < 0){
+				connect(connectionsIds, sockets);
+			} else{
+				accept(connectionsIds, sockets);
+			}
+			
+			//Wrap the connected sockets with channels and register them in the selector thread.
+			NioSelectorThread selectorThread = NioSelectorThread.getInstance();
+			Iterator<String> ids = sockets.keySet().iterator();
+			while (ids.hasNext()){
+				String id = ids.next();
+				NioSocketChannel channel = new NioSocketChannel(sockets.get(id), selectorThread, maxMessageLength, maxQueuedMessages);
+				channel.enableNagle(enableNagle);
+				channel.register();
+				connections.put(id, channel);
+			}
+		} catch (IOException e) {
+			Logging.getLogger().log(Level.WARNING, e.toString());
+			closeSockets(sockets, connections);
+		}
+		
+		//If we already know that all the connections were established we can stop the watchdog.
+		if (!bTimedOut){
+			watchdog.stop();
+		}
+		
+		//Update the number of the created connections.
+		connectionsNumber += connections.size();
+		
+		return connections;
+	}
+	
+	@Override
+	public Map<String, Channel> prepareForCommunication(int connectionsNum, long timeOut) {
+		//Prepare the connections Ids using the default implementation, meaning the connections are numbered 
+		//according to their index. i.e the first connection's name is "1", the second is "2" and so on.
+		String[] names = new String[connectionsNum];
+		for (int i=0; i<connectionsNum; i++){
+			names[i] = Integer.toString(connectionsNumber++);
+		}
+		
+		//Call the other prepareForCommunication function with the created ids.
+		return prepareForCommunication(names, timeOut);
+	}
+	
+	/**
+	 * Connects to the other party once for each requested connection and sends the id of the connection over the socket.
+	 * If the other party is not up yet then we sleep for a while and try again until the connection is established 
+	 * or the timeout has been reached.
+	 * @param connectionsIds The names of the requested connections. 
+	 * @param sockets a map to put the connected sockets in.
+	 * @throws IOException if the id could not be sent.
+	 */
+	private void connect(String[] connectionsIds, Map<String, SocketChannel> sockets) throws IOException{
+		InetSocketAddress address = new InetSocketAddress(other.getIpAddress(), other.getPort());
+		
+		for (int i=0; i<connectionsIds.length && !bTimedOut; i++){
+			SocketChannel socket = null;
+			
+			//while connection has not been stopped by owner and connection has failed.
+			while (socket == null && !bTimedOut){
+				Logging.getLogger().log(Level.INFO, "Trying to connect to " + address.getAddress() + " on port " + address.getPort());
+				try {
+					socket = SocketChannel.open(address);
+				} catch (IOException e) {
+					Logging.getLogger().log(Level.FINEST, e.toString());
+					sleep();
+				}
+			}
+			
+			if (socket != null){
+				sockets.put(connectionsIds[i], socket);
+				writeId(socket, connectionsIds[i]);
+			}
+		}
+	}
+	
+	/**
+	 * Accepts the calls of the other party and matches each accepted socket to a connection according to the id that the 
+	 * other party sends. Calls from other addresses and calls with unknown ids are closed.
+	 * @param connectionsIds The names of the requested connections. 
+	 * @param sockets a map to put the accepted sockets in.
+	 * @throws IOException if the server socket could not be created.
+	 */
+	private void accept(String[] connectionsIds, Map<String, SocketChannel> sockets) throws IOException{
+		Set<String> expected = new HashSet<String>();
+		for (int i=0; i<connectionsIds.length; i++){
+			expected.add(connectionsIds[i]);
+		}
+		
+		//We use a non-blocking accept so that the timeout flag will be checked while waiting.
+		ServerSocketChannel listener = ServerSocketChannel.open();
+		try{
+			listener.configureBlocking(false);
+			listener.socket().setReuseAddress(true);
+			listener.socket().bind(new InetSocketAddress(me.getIpAddress(), me.getPort()));
+			
+			while (!expected.isEmpty() && !bTimedOut){
+				Logging.getLogger().log(Level.INFO, "Trying to listen "+ me.getPort());
+				SocketChannel socket = listener.accept();
+				
+				//If there was no connection request wait and try again.
+				if (socket == null){
+					sleep();
+					continue;
+				}
+				
+				InetAddress inetAddr = socket.socket().getInetAddress();
+				String id = null;
+				//Only the other party may connect. Read the id of the connection it sent.
+				if (inetAddr.equals(other.getIpAddress())){
+					try{
+						id = readId(socket);
+					} catch (IOException e){
+						Logging.getLogger().log(Level.WARNING, e.toString());
+					}
+				}
+				
+				if (id != null && expected.remove(id)){
+					sockets.put(id, socket);
+				} else{
+					socket.close();
+				}
+			}
+		} finally{
+			listener.close();
+		}
+	}
+	
+	/**
+	 * Sends the given id over the given blocking socket.
+	 */
+	private void writeId(SocketChannel socket, String id) throws IOException{
+		byte[] idBytes = id.getBytes("UTF-8");
+		ByteBuffer buffer = ByteBuffer.allocate(4 + idBytes.length);
+		buffer.putInt(idBytes.length);
+		buffer.put(idBytes);
+		buffer.flip();
+		while (buffer.hasRemaining()){
+			socket.write(buffer);
+		}
+	}
+	
+	/**
+	 * Reads an id from the given accepted socket. 
+	 * The socket is switched to non-blocking mode, so that a caller that does not send the id can not block the accept
+	 * for more than the handshake timeout.
+	 */
+	private String readId(SocketChannel socket) throws IOException{
+		long deadline = System.currentTimeMillis() + handshakeTimeout;
+		socket.configureBlocking(false);
+		Selector selector = Selector.open();
+		try{
+			socket.register(selector, SelectionKey.OP_READ);
+			ByteBuffer header = ByteBuffer.allocate(4);
+			readFully(socket, selector, header, deadline);
+			int length = header.getInt();
+			if (length < 0 || length > 1024){
+				throw new IOException("received an illegal connection id length " + length);
+			}
+			ByteBuffer idBytes = ByteBuffer.allocate(length);
+			readFully(socket, selector, idBytes, deadline);
+			return new String(idBytes.array(), "UTF-8");
+		} finally{
+			selector.close();
+		}
+	}
+	
+	/**
+	 * Reads from the given non-blocking socket until the buffer is full, and flips the buffer.
+	 * @param selector a selector that the socket is registered in for reading.
+	 * @param deadline the time in milliseconds until which the buffer should be filled.
+	 * @throws SocketTimeoutException if the deadline or the timeout of the setup has passed.
+	 */
+	private void readFully(SocketChannel socket, Selector selector, ByteBuffer buffer, long deadline) throws IOException{
+		while (buffer.hasRemaining()){
+			long remaining = deadline - System.currentTimeMillis();
+			if (remaining <= 0 || bTimedOut){
+				throw new SocketTimeoutException("the connection id was not received in time");
+			}
+			//Wake up at least every RETRY_SLEEP milliseconds in order to check the timeout flag.
+			selector.select(Math.min(remaining, RETRY_SLEEP));
+			selector.selectedKeys().clear();
+			if (socket.read(buffer) == -1){
+				throw new IOException("the connection was closed by the other party");
+			}
+		}
+		buffer.flip();
+	}
+	
+	/**
+	 * Closes all the given sockets and channels.
+	 */
+	private void closeSockets(Map<String, SocketChannel> sockets, Map<String, Channel> connections){
+		Iterator<SocketChannel> itr = sockets.values().iterator();
+		while (itr.hasNext()){
+			try {
+				itr.next().close();
+			} catch (IOException e) {
+				Logging.getLogger().log(Level.WARNING, e.toString());
+			}
+		}
+		Iterator<Channel> channels = connections.values().iterator();
+		while (channels.hasNext()){
+			channels.next().close();
+		}
+		sockets.clear();
+		connections.clear();
+	}
+	
+	private void sleep(){
+		try {
+			Thread.sleep(RETRY_SLEEP);
+		} catch (InterruptedException e) {
+			Logging.getLogger().log(Level.FINEST, e.toString());
+		}
+	}
+	
+	public void enableNagle(){
+		//Set to true the boolean indicates whether or not to use the Nagle optimization algorithm. 
+		//For Cryptographic algorithms is better to have it disabled.
+		this.enableNagle  = true;
+	}
+	
+	/**
+	 * Sets the maximal length of a message that the created channels accept. 
+	 * A channel that receives a longer length header is closed, in order not to allocate the requested memory.
+	 * The default value is 64 MB.
+	 * @param maxMessageLength the maximal length in bytes.
+	 */
+	public void setMaxMessageLength(int maxMessageLength){
+		if (maxMessageLength < 0){
+			throw new IllegalArgumentException("the maximal message length should not be negative");
+		}
+		this.maxMessageLength = maxMessageLength;
+	}
+	
+	/**
+	 * Sets the maximal number of incoming messages that wait in a created channel until the user receives them. 
+	 * When the limit is reached the channel stops reading from its socket, so the other party is slowed down by TCP.
+	 * The default value is 1024.
+	 * @param maxQueuedMessages the maximal number of waiting messages.
+	 */
+	public void setMaxQueuedMessages(int maxQueuedMessages){
+		if (maxQueuedMessages <= 0){
+			throw new IllegalArgumentException("the maximal number of queued messages should be positive");
+		}
+		this.maxQueuedMessages = maxQueuedMessages;
+	}
+	
+	/**
+	 * Sets the time to wait for the id of an accepted connection. A caller that does not send its id in this time is closed.
+	 * The default value is 10 seconds.
+	 * @param handshakeTimeout the timeout in milliseconds.
+	 */
+	public void setHandshakeTimeout(long handshakeTimeout){
+		if (handshakeTimeout <= 0){
+			throw new IllegalArgumentException("the handshake timeout should be positive");
+		}
+		this.handshakeTimeout = handshakeTimeout;
+	}
+	
+	/**
+	 * This function is called by the infrastructure of the Watchdog if the previously set timeout has passed. (Do not call this function).
+	 */
+	public void timeoutOccured(Watchdog w) {
+
+		Logging.getLogger().log(Level.INFO, "Timeout occured");
+		
+		//Timeout has passed, set the flag.
+		bTimedOut = true;
+	}
+
+	/**
+	 * This implementation has nothing to close besides the sockets (which are being closed by the channel instances).
+	 */
+	public void close() {}
+}
@@ -0,0 +1,212 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+
+package edu.biu.scapi.comm.twoPartyComm;
+
+import java.io.IOException;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.logging.Level;
+
+import edu.biu.scapi.generals.Logging;
+
+/**
+ * This class is the single thread that serves all the {@link NioSocketChannel}s of the JVM.<p>
+ * The thread waits on one selector for all the registered connections. When a connection has incoming data, the thread 
+ * reads it and passes the complete messages to the channel, where they wait until the user calls receive. When a 
+ * connection whose send buffer was full becomes writable again, the thread wakes up the sending thread.<p>
+ * All the changes to the registration of the connections are done by this thread. Other threads ask for them by adding 
+ * a task to the queue of pending tasks and waking up the selector.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+class NioSelectorThread extends Thread{
+	
+	private static NioSelectorThread instance;				//The shared selector thread.
+	
+	private Selector selector;								//Selects the ready connections.
+	private ConcurrentLinkedQueue<Runnable> pendingTasks;	//Registration changes asked by other threads.
+	
+	/**
+	 * Returns the shared selector thread. The thread is created and started in the first call, 
+	 * and created again if the previous thread terminated.
+	 * @throws IOException if the selector could not be opened.
+	 */
+	static synchronized NioSelectorThread getInstance() throws IOException{
+		if (instance == null || !instance.isAlive()){
+			instance = new NioSelectorThread();
+			instance.start();
+		}
+		return instance;
+	}
+	
+	/**
+	 * Private constructor. Use the getInstance function in order to get the shared thread.
+	 */
+	private NioSelectorThread() throws IOException{
+		super("SCAPI NIO selector");
+		//The thread should not prevent the JVM from exiting.
+		setDaemon(true);
+		selector = Selector.open();
+		pendingTasks = new ConcurrentLinkedQueue<Runnable>();
+	}
+	
+	/**
+	 * Registers the given channel for reading.
+	 * @param channel the channel to register.
+	 */
+	void register(final NioSocketChannel channel){
+		addTask(new Runnable(){
+			public void run() {
+				try {
+					SelectionKey key = channel.getSocketChannel().register(selector, SelectionKey.OP_READ, channel);
+					channel.setKey(key);
+				} catch (ClosedChannelException e) {
+					Logging.getLogger().log(Level.WARNING, e.toString());
+					channel.shutdown();
+				}
+			}
+		});
+	}
+	
+	/**
+	 * Asks to be notified when the given channel can be written again.
+	 * @param channel a channel whose send buffer is full.
+	 */
+	void enableWriteInterest(final NioSocketChannel channel){
+		addTask(new Runnable(){
+			public void run() {
+				SelectionKey key = channel.getKey();
+				if (key != null && key.isValid()){
+					key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+				} else{
+					//The channel was closed, wake up the waiting thread.
+					channel.notifyWritable();
+				}
+			}
+		});
+	}
+	
+	/**
+	 * Continues reading the incoming data of the given channel, after the reading was paused because its incoming queue was full.
+	 * @param channel a channel whose user received messages.
+	 */
+	void resumeReading(final NioSocketChannel channel){
+		addTask(new Runnable(){
+			public void run() {
+				try {
+					channel.resumeReading();
+				} catch (IOException e) {
+					Logging.getLogger().log(Level.WARNING, e.toString());
+					channel.shutdown();
+				}
+			}
+		});
+	}
+	
+	/**
+	 * Removes the given channel from the selector and closes its socket.
+	 * @param channel the channel to close.
+	 */
+	void deregister(final NioSocketChannel channel){
+		addTask(new Runnable(){
+			public void run() {
+				channel.shutdown();
+			}
+		});
+	}
+	
+	/**
+	 * Adds the given task to the pending tasks and wakes up the selector so that it will be executed.
+	 */
+	private void addTask(Runnable task){
+		pendingTasks.offer(task);
+		selector.wakeup();
+	}
+	
+	/**
+	 * Executes all the pending tasks. A task that fails does not stop the other tasks.
+	 */
+	private void runPendingTasks(){
+		Runnable task;
+		while ((task = pendingTasks.poll()) != null){
+			try {
+				task.run();
+			} catch (Throwable e){
+				Logging.getLogger().log(Level.SEVERE, e.toString());
+			}
+		}
+	}
+	
+	/**
+	 * This function is the main function of the NioSelectorThread. It waits on the selector, executes the pending tasks and 
+	 * serves the ready connections.
+	 */
+	public void run(){
+		
+		while (true){
+			try {
+				selector.select();
+			} catch (IOException e) {
+				Logging.getLogger().log(Level.WARNING, e.toString());
+				continue;
+			}
+			
+			runPendingTasks();
+			
+			Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+			while (keys.hasNext()){
+				SelectionKey key = keys.next();
+				keys.remove();
+				NioSocketChannel channel = (NioSocketChannel) key.attachment();
+				
+				try{
+					if (key.isValid() && key.isReadable()){
+						channel.readAvailable();
+					}
+					if (key.isValid() && key.isWritable()){
+						//Stop selecting for write until the next time the send buffer is full.
+						key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+						channel.notifyWritable();
+					}
+				} catch (CancelledKeyException e){
+					channel.shutdown();
+				} catch (IOException e){
+					Logging.getLogger().log(Level.WARNING, e.toString());
+					channel.shutdown();
+				} catch (Throwable e){
+					//For example, an OutOfMemoryError. Only this channel is closed, the thread keeps serving the other channels.
+					Logging.getLogger().log(Level.SEVERE, e.toString());
+					channel.shutdown();
+				}
+			}
+		}
+	}
+}
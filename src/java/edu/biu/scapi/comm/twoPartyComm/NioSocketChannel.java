@@ -0,0 +1,417 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+
+package edu.biu.scapi.comm.twoPartyComm;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.logging.Level;
+
+import edu.biu.scapi.generals.Logging;
+
+/**
+ * This class represents a channel that uses one non-blocking {@link SocketChannel} both to send and to receive messages.<p>
+ * The channel does not own a thread. The incoming data is read by the shared {@link NioSelectorThread}, which splits it to 
+ * messages and puts them in the queue of this channel. The receive functions take the messages from the queue. 
+ * The send functions write directly on the socket from the calling thread, using one gathering write for the length 
+ * header and the payload. If the send buffer of the socket is full, the calling thread waits until the selector thread 
+ * reports that the socket is writable. <p>
+ * The messages have the same format as in {@link BinaryTCPSocketChannel}: a 4-byte length header followed by the payload.
+ * The read buffer and the write buffer of the channel are direct buffers taken from a shared {@link DirectBufferPool}.<p>
+ * In order to protect the memory of the JVM from the other party, the length of an incoming message is limited, and when 
+ * the incoming queue is full the selector thread stops reading from the socket until the user receives some messages.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+class NioSocketChannel implements BinaryChannel{
+	
+	/**
+	 * A ByteArrayOutputStream that gives access to its internal buffer in order to avoid the copy done by toByteArray().
+	 */
+	private static class ExposedByteArrayOutputStream extends ByteArrayOutputStream{
+		
+		byte[] getBuffer(){
+			return buf;
+		}
+	}
+	
+	private static final int HEADER_SIZE = 4;			//The size of the length header.
+	private static final byte[] CLOSED = new byte[0];	//Put in the incoming queue when the connection is closed.
+	
+	//The pool of the read and write buffers of all channels.
+	private static final DirectBufferPool bufferPool = new DirectBufferPool(64 * 1024, 1024);
+	
+	private SocketChannel socketChannel;				//The connection to the other party.
+	private NioSelectorThread selectorThread;			//The thread that reads the incoming data.
+	private SelectionKey key;							//The registration of the connection in the selector.
+	
+	private ByteBuffer readBuffer;						//Holds the bytes read from the socket that were not handled yet.
+	private byte[] currentMessage;						//The message that is being read.
+	private int currentFilled;							//The number of bytes of currentMessage that were already read.
+	private LinkedBlockingQueue<byte[]> incoming;		//The complete messages that were not received by the user yet.
+	private int maxMessageLength;						//The maximal length of an incoming message.
+	private int maxQueuedMessages;						//The number of messages in the incoming queue that stops the reading.
+	private volatile boolean readPaused;				//Set when the reading stopped because the incoming queue is full.
+	
+	private final Object writeLock = new Object();		//Guards the write buffer and the writable flag.
+	private ByteBuffer writeBuffer;						//Used to send the header and small payloads.
+	private ByteBuffer[] gatherBuffers;					//Used to send the header and a large payload in one write.
+	private boolean writable;							//Set by the selector thread when the socket can be written.
+	private ExposedByteArrayOutputStream objectBytes;	//Reused in order to serialize objects.
+	
+	private volatile boolean closed;
+	
+	/**
+	 * A constructor that sets the given connected socket. The socket is switched to non-blocking mode.
+	 * @param socketChannel a connected socket to the other party.
+	 * @param selectorThread the thread that reads the incoming data.
+	 * @param maxMessageLength the maximal length of an incoming message. A longer message closes the channel.
+	 * @param maxQueuedMessages the maximal number of incoming messages that wait to be received.
+	 * @throws IOException if the socket could not be switched to non-blocking mode.
+	 */
+	NioSocketChannel(SocketChannel socketChannel, NioSelectorThread selectorThread, int maxMessageLength, int maxQueuedMessages) throws IOException{
+		this.socketChannel = socketChannel;
+		this.selectorThread = selectorThread;
+		this.maxMessageLength = maxMessageLength;
+		this.maxQueuedMessages = maxQueuedMessages;
+		socketChannel.configureBlocking(false);
+		
+		readBuffer = bufferPool.acquire();
+		writeBuffer = bufferPool.acquire();
+		gatherBuffers = new ByteBuffer[2];
+		incoming = new LinkedBlockingQueue<byte[]>();
+		objectBytes = new ExposedByteArrayOutputStream();
+	}
+	
+	/**
+	 * Registers this channel in the selector thread. After this call the incoming messages are collected.
+	 */
+	void register(){
+		selectorThread.register(this);
+	}
+	
+	SocketChannel getSocketChannel(){
+		return socketChannel;
+	}
+	
+	SelectionKey getKey(){
+		return key;
+	}
+	
+	void setKey(SelectionKey key){
+		this.key = key;
+	}
+	
+	/**
+	 * Serializes the given object and sends the resulting bytes as a single message.
+	 * @param msg the object to send.
+	 * @throws IOException Any of the usual Input/Output related exceptions. 
+	 */
+	public void send(Serializable msg) throws IOException {
+		synchronized (writeLock) {
+			objectBytes.reset();
+			ObjectOutputStream oOut  = new ObjectOutputStream(objectBytes);
+			oOut.writeObject(msg);  
+			oOut.close();
+			
+			sendBytes(objectBytes.getBuffer(), 0, objectBytes.size());
+		}
+	}
+	
+	/** 
+	 * Receives a message and de-serializes the object it contains.
+	 * 
+	 * @throws ClassNotFoundException  The Class of the serialized object cannot be found.
+	 * @throws IOException Any of the usual Input/Output related exceptions.
+	 */
+	public Serializable receive() throws ClassNotFoundException, IOException {
+		ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(receiveBytes()));
+		return (Serializable) ois.readObject();
+	}
+	
+	public void sendBytes(byte[] data) throws IOException {
+		sendBytes(data, 0, data.length);
+	}
+	
+	public void sendBytes(ByteBuffer data) throws IOException {
+		synchronized (writeLock) {
+			checkOpen();
+			writeBuffer.clear();
+			writeBuffer.putInt(data.remaining());
+			writeBuffer.flip();
+			writeFully(writeBuffer, data);
+		}
+	}
+	
+	public void sendBytes(byte[] data, int offset, int length) throws IOException {
+		if (offset < 0 || length < 0 || offset + length > data.length){
+			throw new IndexOutOfBoundsException("wrong offset or length for the given array");
+		}
+		
+		synchronized (writeLock) {
+			checkOpen();
+			writeBuffer.clear();
+			writeBuffer.putInt(length);
+			
+			//Small payloads are copied after the header in order to write them from the direct buffer.
+			//Large payloads are written together with the header using a gathering write. 
+			if (length <= writeBuffer.remaining()){
+				writeBuffer.put(data, offset, length);
+				writeBuffer.flip();
+				writeFully(writeBuffer, null);
+			} else{
+				writeBuffer.flip();
+				writeFully(writeBuffer, ByteBuffer.wrap(data, offset, length));
+			}
+		}
+	}
+	
+	/**
+	 * Throws an IOException if the channel was closed.
+	 */
+	private void checkOpen() throws IOException{
+		if (closed){
+			throw new IOException("the channel is closed");
+		}
+	}
+	
+	/**
+	 * Writes the given buffers to the socket. If the send buffer of the socket is full, waits until the selector thread 
+	 * reports that it is writable.
+	 * Should be called while holding the write lock.
+	 * @param header the first buffer to write.
+	 * @param payload the second buffer to write. May be null.
+	 * @throws IOException if the channel was closed or the write failed.
+	 */
+	private void writeFully(ByteBuffer header, ByteBuffer payload) throws IOException{
+		gatherBuffers[0] = header;
+		gatherBuffers[1] = payload;
+		try{
+			while (header.hasRemaining() || (payload != null && payload.hasRemaining())){
+				checkOpen();
+				long written = (payload == null) ? socketChannel.write(header) : socketChannel.write(gatherBuffers);
+				if (written == 0){
+					awaitWritable();
+				}
+			}
+		} finally{
+			gatherBuffers[1] = null;
+		}
+	}
+	
+	/**
+	 * Waits until the selector thread reports that the socket is writable.
+	 * Should be called while holding the write lock.
+	 */
+	private void awaitWritable() throws IOException{
+		writable = false;
+		selectorThread.enableWriteInterest(this);
+		try {
+			while (!writable && !closed){
+				writeLock.wait();
+			}
+		} catch (InterruptedException e) {
+			throw new InterruptedIOException(e.toString());
+		}
+	}
+	
+	/**
+	 * Called by the selector thread when the socket can be written.
+	 */
+	void notifyWritable(){
+		synchronized (writeLock) {
+			writable = true;
+			writeLock.notifyAll();
+		}
+	}
+	
+	/**
+	 * Receives a message that was sent by the other party. If there is no waiting message, blocks until one arrives.
+	 * @throws IOException if the channel was closed.
+	 */
+	public byte[] receiveBytes() throws IOException {
+		byte[] message;
+		try {
+			message = incoming.take();
+		} catch (InterruptedException e) {
+			throw new InterruptedIOException(e.toString());
+		}
+		
+		if (message == CLOSED){
+			//Leave the mark for the next calls.
+			incoming.offer(CLOSED);
+			throw new IOException("the channel is closed");
+		}
+		
+		//There is room in the queue now, ask the selector thread to continue reading.
+		if (readPaused){
+			selectorThread.resumeReading(this);
+		}
+		return message;
+	}
+	
+	/**
+	 * Called by the selector thread when the socket has incoming data. 
+	 * Reads the available bytes and moves the complete messages to the incoming queue.
+	 * @throws IOException if the read failed or an illegal message length was received.
+	 */
+	void readAvailable() throws IOException{
+		int read = socketChannel.read(readBuffer);
+		if (read == -1){
+			//The other party closed the connection.
+			shutdown();
+			return;
+		}
+		
+		readMessages();
+	}
+	
+	/**
+	 * Called by the selector thread when the user received messages after the reading was paused. 
+	 * Moves the messages that are already in the read buffer to the incoming queue and selects the socket for reading again.
+	 * @throws IOException if an illegal message length was received.
+	 */
+	void resumeReading() throws IOException{
+		if (!readPaused || key == null || !key.isValid()){
+			return;
+		}
+		readPaused = false;
+		key.interestOps(key.interestOps() | SelectionKey.OP_READ);
+		readMessages();
+	}
+	
+	/**
+	 * Moves the complete messages in the read buffer to the incoming queue. 
+	 * If the queue is full, stops selecting the socket for reading and leaves the remaining bytes in the read buffer.
+	 * @throws IOException if an illegal message length was received.
+	 */
+	private void readMessages() throws IOException{
+		readBuffer.flip();
+		while (true){
+			if (incoming.size() >= maxQueuedMessages){
+				//The flag is set before checking the size again, so that either this thread sees a message that was 
+				//received meanwhile, or receiveBytes sees the flag and asks to resume the reading.
+				readPaused = true;
+				if (incoming.size() >= maxQueuedMessages){
+					key.interestOps(key.interestOps() & ~SelectionKey.OP_READ);
+					break;
+				}
+				readPaused = false;
+			}
+			
+			//Start a new message if the whole header is available.
+			if (currentMessage == null){
+				if (readBuffer.remaining() < HEADER_SIZE){
+					break;
+				}
+				int length = readBuffer.getInt();
+				if (length < 0 || length > maxMessageLength){
+					throw new IOException("received an illegal message length " + length);
+				}
+				currentMessage = new byte[length];
+				currentFilled = 0;
+			}
+			
+			int toCopy = Math.min(readBuffer.remaining(), currentMessage.length - currentFilled);
+			readBuffer.get(currentMessage, currentFilled, toCopy);
+			currentFilled += toCopy;
+			
+			if (currentFilled < currentMessage.length){
+				break;
+			}
+			incoming.offer(currentMessage);
+			currentMessage = null;
+		}
+		readBuffer.compact();
+	}
+	
+	/**
+	 * Closes the socket and releases the read buffer. Called by the selector thread.
+	 */
+	void shutdown(){
+		if (key != null){
+			key.cancel();
+		}
+		try {
+			socketChannel.close();
+		} catch (IOException e) {
+			Logging.getLogger().log(Level.WARNING, e.toString());
+		}
+		
+		if (readBuffer != null){
+			bufferPool.release(readBuffer);
+			readBuffer = null;
+			//Wake up the threads that wait for messages.
+			incoming.offer(CLOSED);
+		}
+		closed = true;
+		notifyWritable();
+	}
+	
+	/**
+	 * Closes the connection and releases the resources of this channel.
+	 */
+	public void close() {
+		synchronized (writeLock) {
+			closed = true;
+			if (writeBuffer != null){
+				bufferPool.release(writeBuffer);
+				writeBuffer = null;
+			}
+			writeLock.notifyAll();
+		}
+		selectorThread.deregister(this);
+	}
+	
+	/**
+	 * Checks if the channel is closed or not.
+	 * @return true if the channel is closed; False, otherwise.
+	 */
+	public boolean isClosed() {
+		return closed || !socketChannel.isOpen();
+	}
+	
+	/**
+	 * Enable/disable the Nagle algorithm according to the given boolean.
+	 * @param enableNagle.
+	 */
+	void enableNagle(boolean enableNagle) {
+		try {
+			socketChannel.socket().setTcpNoDelay(!enableNagle);
+		} catch (IOException e) {
+			Logging.getLogger().log(Level.WARNING, e.toString());
+		}
+	}
+}
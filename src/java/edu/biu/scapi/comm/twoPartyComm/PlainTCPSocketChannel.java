@@ -93,7 +93,7 @@ class PlainTCPSocketChannel implements Channel{
 	
 	protected State state;						// The state of the channel.
 	protected Socket sendSocket;					//A socket used to send messages.
-	private Socket receiveSocket;				//A socket used to receive messages.
+	protected Socket receiveSocket;				//A socket used to receive messages.
 	protected ObjectOutputStream outStream;		//Used to send a message
 	private ObjectInputStream inStream;			//Used to receive a message.
 	protected InetSocketAddress socketAddress;	//The address of the other party.
@@ -193,14 +193,13 @@ class PlainTCPSocketChannel implements Channel{
 	public void close() {
 
 		try {
+			closeStreams();
 			if(sendSocket != null){
-				outStream.close();
 				sendSocket.close();
 				
 			}
 			if(receiveSocket != null){
 				
-				inStream.close();
 				receiveSocket.close();
 			}
 		} catch (IOException e) {
@@ -208,6 +207,35 @@ class PlainTCPSocketChannel implements Channel{
 			Logging.getLogger().log(Level.WARNING, e.toString());
 		}
 	}
+	
+	/**
+	 * Closes the streams that were created on top of the sockets.
+	 * @throws IOException Any of the usual Input/Output related exceptions.
+	 */
+	protected void closeStreams() throws IOException{
+		if(outStream != null){
+			outStream.close();
+		}
+		if(inStream != null){
+			inStream.close();
+		}
+	}
+	
+	/**
+	 * Creates the stream used to send messages on top of the connected send socket.
+	 * @throws IOException Any of the usual Input/Output related exceptions.
+	 */
+	protected void initOutputStream() throws IOException{
+		outStream = new ObjectOutputStream(sendSocket.getOutputStream());
+	}
+	
+	/**
+	 * Creates the stream used to receive messages on top of the accepted receive socket.
+	 * @throws IOException Any of the usual Input/Output related exceptions.
+	 */
+	protected void initInputStream() throws IOException{
+		inStream = new ObjectInputStream(receiveSocket.getInputStream());
+	}
 
 	/**
 	 * Checks if the channel os closed or not.
@@ -239,7 +267,7 @@ class PlainTCPSocketChannel implements Channel{
 			if(sendSocket.isConnected()){
 				
 				Logging.getLogger().log(Level.INFO, "Socket connected");
-				outStream = new ObjectOutputStream(sendSocket.getOutputStream());
+				initOutputStream();
 				
 				//After the send socket is connected, need to check if the receive socket is also connected.
 				//If so, set the channel state to READY.
@@ -275,7 +303,7 @@ class PlainTCPSocketChannel implements Channel{
 		
 		try {
 			//set the input and output streams
-			inStream = new ObjectInputStream(socket.getInputStream());
+			initInputStream();
 			//After the receive socket is connected, need to check if the send socket is also connected.
 			//If so, set the channel state to READY.
 			setReady();
@@ -59,6 +59,8 @@ public class SocketCommunicationSetup implements TwoPartyCommunicationSetup, Tim
 	protected boolean bTimedOut = false; 								//Indicated whether or not to end the communication.
 	private Watchdog watchdog;										//Used to measure times.
 	private boolean enableNagle = false;							//Indicated whether or not to use Nagle optimization algorithm.
+	private boolean binaryFraming = false;							//Indicated whether or not to create channels that frame raw bytes.
+	private int maxMessageLength = BinaryTCPSocketChannel.DEFAULT_MAX_MESSAGE_LENGTH; //The maximal length of an incoming framed message.
 	protected EstablishedSocketConnections establishedConnections;	//Holds the created channels.
 	protected SocketListenerThread listeningThread;					//Listen to calls from the other party.
 	private int connectionsNumber;									//Holds the number of created connections. 
@@ -160,7 +162,11 @@ public class SocketCommunicationSetup implements TwoPartyCommunicationSetup, Tim
 		//Create the number of channels as requested.
 		for (int i=0; i<size; i++){
 			//Create a channel.
-			channels[i] = new PlainTCPSocketChannel(inetSocketAdd);
+			if (binaryFraming){
+				channels[i] = new BinaryTCPSocketChannel(inetSocketAdd, maxMessageLength);
+			} else{
+				channels[i] = new PlainTCPSocketChannel(inetSocketAdd);
+			}
 			//Set to NOT_INIT state.
 			channels[i].setState(PlainTCPSocketChannel.State.NOT_INIT);
 			//Add to the established connection object.
@@ -232,6 +238,30 @@ public class SocketCommunicationSetup implements TwoPartyCommunicationSetup, Tim
 		this.enableNagle  = true;
 	}
 	
+	/**
+	 * Sets this communication setup to create channels that send each message as a length header followed by the raw bytes, 
+	 * instead of using the Java serialization streams of the sockets.<p>
+	 * The created channels implement the {@link BinaryChannel} interface, so byte arrays can be sent without any 
+	 * serialization. Objects sent through the regular send function are serialized only once.<p>
+	 * This function should be called before prepareForCommunication, and both parties should call it.
+	 */
+	public void enableBinaryFraming(){
+		this.binaryFraming = true;
+	}
+	
+	/**
+	 * Sets the maximal length of a message that the channels created with binary framing accept. 
+	 * A channel that receives a longer length header is closed, in order not to allocate the requested memory.
+	 * The default value is 64 MB.
+	 * @param maxMessageLength the maximal length in bytes.
+	 */
+	public void setMaxMessageLength(int maxMessageLength){
+		if (maxMessageLength < 0){
+			throw new IllegalArgumentException("the maximal message length should not be negative");
+		}
+		this.maxMessageLength = maxMessageLength;
+	}
+	
 	/**
 	 * This function is called by the infrastructure of the Watchdog if the previously set timeout has passed. (Do not call this function).
 	 */
@@ -24,7 +24,10 @@
 */
 package edu.biu.scapi.interactiveMidProtocols.commitmentScheme.elGamal;
 
-import java.io.Serializable;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 
 import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtCCommitmentMsg;
 import edu.biu.scapi.midLayer.ciphertext.ElGamalCiphertextSendableData;
@@ -34,7 +37,7 @@ import edu.biu.scapi.midLayer.ciphertext.ElGamalCiphertextSendableData;
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Yael Ejgenberg)
  *
  */
-public class CmtElGamalCommitmentMessage implements CmtCCommitmentMsg, Serializable {
+public class CmtElGamalCommitmentMessage implements CmtCCommitmentMsg, Externalizable {
 
 	private static final long serialVersionUID = 8646902245380445237L;
 	// In ElGamal schemes the commitment object is a ElGamalCiphertext
@@ -42,6 +45,12 @@ public class CmtElGamalCommitmentMessage implements CmtCCommitmentMsg, Serializa
 	private ElGamalCiphertextSendableData cipherData;
 	private long id; //The id of the commitment
 	
+	/**
+	 * Empty constructor, used by the de-serialization.
+	 */
+	public CmtElGamalCommitmentMessage(){
+	}
+	
 	/**
 	 * Constructor that sets the commitment and id.
 	 * @param cipherData the actual commitment object. In ElGamal schemes the commitment object is a ElGamalCiphertextSendableData.
@@ -67,5 +76,13 @@ public class CmtElGamalCommitmentMessage implements CmtCCommitmentMsg, Serializa
 		return id;
 	}
 	
+	public void writeExternal(ObjectOutput out) throws IOException {
+		out.writeObject(cipherData);
+		out.writeLong(id);
+	}
 	
+	public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+		cipherData = (ElGamalCiphertextSendableData) in.readObject();
+		id = in.readLong();
+	}
 }
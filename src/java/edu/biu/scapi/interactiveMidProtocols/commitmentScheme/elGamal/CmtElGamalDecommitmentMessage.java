@@ -24,17 +24,22 @@
 */
 package edu.biu.scapi.interactiveMidProtocols.commitmentScheme.elGamal;
 
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.io.Serializable;
 
 import edu.biu.scapi.interactiveMidProtocols.BigIntegerRandomValue;
 import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtCDecommitmentMessage;
+import edu.biu.scapi.primitives.dlog.SendableDataCodec;
 
 /**
  * Concrete implementation of decommitment message used by ElGamal commitment scheme.
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Yael Ejgenberg)
  *
  */
-public class CmtElGamalDecommitmentMessage implements CmtCDecommitmentMessage, Serializable {
+public class CmtElGamalDecommitmentMessage implements CmtCDecommitmentMessage, Externalizable {
 
 	
 	private static final long serialVersionUID = 7030668841448148428L;
@@ -43,6 +48,12 @@ public class CmtElGamalDecommitmentMessage implements CmtCDecommitmentMessage, S
 	Serializable x; 
 	BigIntegerRandomValue r; //Random value sampled during the sampleRandomValues stage;
 
+	/**
+	 * Empty constructor, used by the de-serialization.
+	 */
+	public CmtElGamalDecommitmentMessage(){
+	}
+	
 	/**
 	 * Constructor that sets the given committed value and random value.
 	 * @param x the committed value
@@ -67,4 +78,14 @@ public class CmtElGamalDecommitmentMessage implements CmtCDecommitmentMessage, S
 	public BigIntegerRandomValue getR() {
 		return r;
 	}
+	
+	public void writeExternal(ObjectOutput out) throws IOException {
+		out.writeObject(x);
+		SendableDataCodec.writeBigInteger(out, r.getR());
+	}
+	
+	public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+		x = (Serializable) in.readObject();
+		r = new BigIntegerRandomValue(SendableDataCodec.readBigInteger(in));
+	}
 }
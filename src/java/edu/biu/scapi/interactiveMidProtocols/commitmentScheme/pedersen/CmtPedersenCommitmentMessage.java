@@ -24,18 +24,21 @@
  */
 package edu.biu.scapi.interactiveMidProtocols.commitmentScheme.pedersen;
 
-import java.io.Serializable;
-
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 
 import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtCCommitmentMsg;
 import edu.biu.scapi.primitives.dlog.GroupElementSendableData;
+import edu.biu.scapi.primitives.dlog.SendableDataCodec;
 
 /**
  * Concrete implementation of commitment message used by Pedersen commitment scheme.
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Yael Ejgenberg)
  *
  */
-class CmtPedersenCommitmentMessage implements CmtCCommitmentMsg, Serializable {
+class CmtPedersenCommitmentMessage implements CmtCCommitmentMsg, Externalizable {
 	private static final long serialVersionUID = -4867238837511177003L;
 	
 	// In Pedersen schemes the commitment object is a groupElement. 
@@ -43,6 +46,12 @@ class CmtPedersenCommitmentMessage implements CmtCCommitmentMsg, Serializable {
 	private GroupElementSendableData c;  
 	private long id; //The id of the commitment
 	
+	/**
+	 * Empty constructor, used by the de-serialization.
+	 */
+	public CmtPedersenCommitmentMessage(){
+	}
+	
 	/**
 	 * Constructor that sets the commitment and id.
 	 * @param c the actual commitment object. In Pedersen schemes the commitment object is a groupElement.
@@ -67,9 +76,14 @@ class CmtPedersenCommitmentMessage implements CmtCCommitmentMsg, Serializable {
 	public long getId() {
 		return id;
 	}
-
-
-
-
-
+	
+	public void writeExternal(ObjectOutput out) throws IOException {
+		SendableDataCodec.writeSendableData(out, c);
+		out.writeLong(id);
+	}
+	
+	public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+		c = SendableDataCodec.readSendableData(in);
+		id = in.readLong();
+	}
 }
\ No newline at end of file
@@ -24,18 +24,22 @@
 */
 package edu.biu.scapi.interactiveMidProtocols.commitmentScheme.pedersen;
 
-import java.io.Serializable;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.math.BigInteger;
 
 import edu.biu.scapi.interactiveMidProtocols.BigIntegerRandomValue;
 import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtCDecommitmentMessage;
+import edu.biu.scapi.primitives.dlog.SendableDataCodec;
 
 /**
  * Concrete implementation of decommitment message used by Pedersen commitment scheme.
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Yael Ejgenberg)
  *
  */
-public class CmtPedersenDecommitmentMessage implements CmtCDecommitmentMessage, Serializable {
+public class CmtPedersenDecommitmentMessage implements CmtCDecommitmentMessage, Externalizable {
 
 	
 	private static final long serialVersionUID = 510887524381013384L;
@@ -43,6 +47,12 @@ public class CmtPedersenDecommitmentMessage implements CmtCDecommitmentMessage,
 	private BigInteger x; 				//Committer's private input x in Zq
 	private BigIntegerRandomValue r; 	//Random value sampled during the sampleRandomValues stage;
 	
+	/**
+	 * Empty constructor, used by the de-serialization.
+	 */
+	public CmtPedersenDecommitmentMessage(){
+	}
+	
 	/**
 	 * Constructor that sets the given committed value and random value.
 	 * @param x the committed value
@@ -68,4 +78,13 @@ public class CmtPedersenDecommitmentMessage implements CmtCDecommitmentMessage,
 		return r;
 	}
 	
+	public void writeExternal(ObjectOutput out) throws IOException {
+		SendableDataCodec.writeBigInteger(out, x);
+		SendableDataCodec.writeBigInteger(out, r.getR());
+	}
+	
+	public void readExternal(ObjectInput in) throws IOException {
+		x = SendableDataCodec.readBigInteger(in);
+		r = new BigIntegerRandomValue(SendableDataCodec.readBigInteger(in));
+	}
 }
@@ -24,19 +24,29 @@
 */
 package edu.biu.scapi.interactiveMidProtocols.commitmentScheme.pedersen;
 
-import java.io.Serializable;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 
 import edu.biu.scapi.primitives.dlog.GroupElementSendableData;
+import edu.biu.scapi.primitives.dlog.SendableDataCodec;
 
 /**
  * This class holds the value sent by the receiver to the committer in the pre-process phase which is part of the initialization stage. 
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Yael Ejgenberg)
  *
  */
-class CmtPedersenPreprocessMessage implements Serializable {
+class CmtPedersenPreprocessMessage implements Externalizable {
 	private static final long serialVersionUID = -3924307031205721761L;
 	GroupElementSendableData h;
 
+	/**
+	 * Empty constructor, used by the de-serialization.
+	 */
+	public CmtPedersenPreprocessMessage(){
+	}
+	
 	/**
 	 * Constructor that sets the given groupElement.
 	 * @param h the value sent by the receiver to the committer in the pre-process phase
@@ -56,4 +66,11 @@ class CmtPedersenPreprocessMessage implements Serializable {
 		return h;
 	}
 	
+	public void writeExternal(ObjectOutput out) throws IOException {
+		SendableDataCodec.writeSendableData(out, h);
+	}
+	
+	public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+		h = SendableDataCodec.readSendableData(in);
+	}
 }
@@ -156,7 +156,7 @@ public abstract class CmtPedersenReceiverCore implements CmtReceiver{
 	 */
 	private void preProcess() throws IOException {
 		trapdoor = BigIntegers.createRandomInRange(BigInteger.ZERO, qMinusOne, random);
-		h = dlog.exponentiate(dlog.getGenerator(), trapdoor);
+		h = dlog.exponentiateWithPreComputedValues(dlog.getGenerator(), trapdoor);
 		
 		CmtPedersenPreprocessMessage msg = new CmtPedersenPreprocessMessage(h.generateSendableData());
 		try{
@@ -241,8 +241,8 @@ public abstract class CmtPedersenReceiverCore implements CmtReceiver{
 		}
 		
 		//Calculate c = g^r * h^x
-		GroupElement gTor = dlog.exponentiate(dlog.getGenerator(),r);
-		GroupElement hTox = dlog.exponentiate(h,x);
+		GroupElement gTor = dlog.exponentiateWithPreComputedValues(dlog.getGenerator(), r);
+		GroupElement hTox = dlog.exponentiateWithPreComputedValues(h, x);
 		
 		GroupElement commitmentElement = dlog.reconstructElement(true, ((CmtPedersenCommitmentMessage)commitmentMsg).getCommitment());
 		if (commitmentElement.equals(dlog.multiplyGroupElements(gTor, hTox)))
@@ -100,7 +100,7 @@ public class CmtPedersenTrapdoorCommitter extends CmtPedersenCommitter implement
 		
 		//Check that g^trapdoor equals to h.
 		CmtRTrapdoorCommitPhaseOutput trapdoor = (CmtRTrapdoorCommitPhaseOutput) trap;
-		GroupElement gToTrap = dlog.exponentiate(dlog.getGenerator(), trapdoor.getTrap());
+		GroupElement gToTrap = dlog.exponentiateWithPreComputedValues(dlog.getGenerator(), trapdoor.getTrap());
 		
 		if (gToTrap.equals(h)){
 			return true;
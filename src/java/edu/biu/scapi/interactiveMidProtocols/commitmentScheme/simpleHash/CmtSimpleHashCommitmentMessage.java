@@ -24,17 +24,21 @@
 */
 package edu.biu.scapi.interactiveMidProtocols.commitmentScheme.simpleHash;
 
-import java.io.Serializable;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.util.Arrays;
 
 import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtCCommitmentMsg;
+import edu.biu.scapi.primitives.dlog.SendableDataCodec;
 
 /**
  * Concrete implementation of commitment message used by SimpleHash commitment scheme.
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Yael Ejgenberg)
  *
  */
-class CmtSimpleHashCommitmentMessage implements CmtCCommitmentMsg, Serializable {
+class CmtSimpleHashCommitmentMessage implements CmtCCommitmentMsg, Externalizable {
 	
 	private static final long serialVersionUID = -4365203740560516693L;
 	
@@ -42,6 +46,12 @@ class CmtSimpleHashCommitmentMessage implements CmtCCommitmentMsg, Serializable
 	private byte[] c;
 	private long id; //The id of the commitment
 	
+	/**
+	 * Empty constructor, used by the de-serialization.
+	 */
+	public CmtSimpleHashCommitmentMessage(){
+	}
+	
 	/**
 	 * Constructor that sets the commitment and id.
 	 * @param c the actual commitment object. In simple hash schemes the commitment object is a byte[].
@@ -73,4 +83,13 @@ class CmtSimpleHashCommitmentMessage implements CmtCCommitmentMsg, Serializable
 				+ ", id=" + id + "]";
 	}
 	
+	public void writeExternal(ObjectOutput out) throws IOException {
+		SendableDataCodec.writeByteArray(out, c);
+		out.writeLong(id);
+	}
+	
+	public void readExternal(ObjectInput in) throws IOException {
+		c = SendableDataCodec.readByteArray(in);
+		id = in.readLong();
+	}
 }
@@ -24,22 +24,32 @@
 */
 package edu.biu.scapi.interactiveMidProtocols.commitmentScheme.simpleHash;
 
-import java.io.Serializable;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.util.Arrays;
 
 import edu.biu.scapi.interactiveMidProtocols.ByteArrayRandomValue;
 import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtCDecommitmentMessage;
+import edu.biu.scapi.primitives.dlog.SendableDataCodec;
 
 /**
  * Concrete implementation of decommitment message used by SimpleHash commitment scheme.
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Yael Ejgenberg)
  *
  */
- class CmtSimpleHashDecommitmentMessage implements CmtCDecommitmentMessage, Serializable {
+ class CmtSimpleHashDecommitmentMessage implements CmtCDecommitmentMessage, Externalizable {
 	private ByteArrayRandomValue r; //Random value sampled during the commitment stage;
 	private byte[] x; //Committer's private input x 
 	private static final long serialVersionUID = 445290722191231848L;
 
+	/**
+	 * Empty constructor, used by the de-serialization.
+	 */
+	public CmtSimpleHashDecommitmentMessage(){
+	}
+	
 	/**
 	 * Constructor that sets the given committed value and random value.
 	 * @param x the committed value
@@ -69,5 +79,14 @@ import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtCDecommitmentMe
 		return "CTCSimpleHashDecommitmentMessage [r=" + Arrays.toString(r.getR())
 				+ ", x=" + Arrays.toString(x) + "]";
 	}
-
+	
+	public void writeExternal(ObjectOutput out) throws IOException {
+		SendableDataCodec.writeByteArray(out, r.getR());
+		SendableDataCodec.writeByteArray(out, x);
+	}
+	
+	public void readExternal(ObjectInput in) throws IOException {
+		r = new ByteArrayRandomValue(SendableDataCodec.readByteArray(in));
+		x = SendableDataCodec.readByteArray(in);
+	}
 }
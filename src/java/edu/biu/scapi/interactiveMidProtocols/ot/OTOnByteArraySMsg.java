@@ -24,7 +24,13 @@
 */
 package edu.biu.scapi.interactiveMidProtocols.ot;
 
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+
 import edu.biu.scapi.primitives.dlog.GroupElementSendableData;
+import edu.biu.scapi.primitives.dlog.SendableDataCodec;
 
 /**
  * Concrete implementation of OT Privacy sender (on byte array) message.<p>
@@ -36,7 +42,7 @@ import edu.biu.scapi.primitives.dlog.GroupElementSendableData;
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Moriya Farbstein)
  *
  */
-public class OTOnByteArraySMsg implements OTSMsg{
+public class OTOnByteArraySMsg implements OTSMsg, Externalizable{
 
 	private static final long serialVersionUID = 4767226698720455158L;
 
@@ -45,6 +51,12 @@ public class OTOnByteArraySMsg implements OTSMsg{
 	private byte[] c0;
 	private byte[] c1;
 	
+	/**
+	 * Empty constructor, used by the de-serialization.
+	 */
+	public OTOnByteArraySMsg(){
+	}
+	
 	/**
 	 * Constructor that sets the tuples (w0,c0), (w1, c1) calculated by the protocol.
 	 * @param w0 
@@ -75,4 +87,18 @@ public class OTOnByteArraySMsg implements OTSMsg{
 	public byte[] getC1(){
 		return c1;
 	}
+	
+	public void writeExternal(ObjectOutput out) throws IOException {
+		SendableDataCodec.writeSendableData(out, w0);
+		SendableDataCodec.writeSendableData(out, w1);
+		SendableDataCodec.writeByteArray(out, c0);
+		SendableDataCodec.writeByteArray(out, c1);
+	}
+	
+	public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+		w0 = SendableDataCodec.readSendableData(in);
+		w1 = SendableDataCodec.readSendableData(in);
+		c0 = SendableDataCodec.readByteArray(in);
+		c1 = SendableDataCodec.readByteArray(in);
+	}
 }
@@ -24,7 +24,13 @@
 */
 package edu.biu.scapi.interactiveMidProtocols.ot;
 
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+
 import edu.biu.scapi.primitives.dlog.GroupElementSendableData;
+import edu.biu.scapi.primitives.dlog.SendableDataCodec;
 
 /**
  * Concrete implementation of OT Privacy sender (on GroupElement) message.<p>
@@ -36,7 +42,7 @@ import edu.biu.scapi.primitives.dlog.GroupElementSendableData;
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Moriya Farbstein)
  *
  */
-public class OTOnGroupElementSMsg implements OTSMsg{
+public class OTOnGroupElementSMsg implements OTSMsg, Externalizable{
 
 	private static final long serialVersionUID = -8148257600652565154L;
 	private GroupElementSendableData w0;
@@ -44,6 +50,12 @@ public class OTOnGroupElementSMsg implements OTSMsg{
 	private GroupElementSendableData c0;
 	private GroupElementSendableData c1;
 	
+	/**
+	 * Empty constructor, used by the de-serialization.
+	 */
+	public OTOnGroupElementSMsg(){
+	}
+	
 	/**
 	 * Constructor that sets the tuples (w0,c0), (w1, c1) calculated by the protocol.
 	 * @param w0 
@@ -76,4 +88,18 @@ public class OTOnGroupElementSMsg implements OTSMsg{
 	public GroupElementSendableData getC1(){
 		return c1;
 	}
+	
+	public void writeExternal(ObjectOutput out) throws IOException {
+		SendableDataCodec.writeSendableData(out, w0);
+		SendableDataCodec.writeSendableData(out, w1);
+		SendableDataCodec.writeSendableData(out, c0);
+		SendableDataCodec.writeSendableData(out, c1);
+	}
+	
+	public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+		w0 = SendableDataCodec.readSendableData(in);
+		w1 = SendableDataCodec.readSendableData(in);
+		c0 = SendableDataCodec.readSendableData(in);
+		c1 = SendableDataCodec.readSendableData(in);
+	}
 }
@@ -24,9 +24,13 @@
 */
 package edu.biu.scapi.interactiveMidProtocols.ot;
 
-import java.io.Serializable;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 
 import edu.biu.scapi.primitives.dlog.GroupElementSendableData;
+import edu.biu.scapi.primitives.dlog.SendableDataCodec;
 
 /**
  * Concrete implementation of OT receiver message. <p>This implementation is common for OT on byteArray and on GroupElement.<p>
@@ -35,13 +39,19 @@ import edu.biu.scapi.primitives.dlog.GroupElementSendableData;
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Moriya Farbstein)
  *
  */
-public class OTRGroupElementPairMsg implements Serializable{
+public class OTRGroupElementPairMsg implements Externalizable{
 
 	private static final long serialVersionUID = 8620542140745898146L;
 	
 	private GroupElementSendableData h0;
 	private GroupElementSendableData h1;
 	
+	/**
+	 * Empty constructor, used by the de-serialization.
+	 */
+	public OTRGroupElementPairMsg(){
+	}
+	
 	public OTRGroupElementPairMsg(GroupElementSendableData h0, GroupElementSendableData h1){
 		this.h0 = h0;
 		this.h1 = h1;
@@ -54,4 +64,14 @@ public class OTRGroupElementPairMsg implements Serializable{
 	public GroupElementSendableData getSecondGE(){
 		return h1;
 	}
+	
+	public void writeExternal(ObjectOutput out) throws IOException {
+		SendableDataCodec.writeSendableData(out, h0);
+		SendableDataCodec.writeSendableData(out, h1);
+	}
+	
+	public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+		h0 = SendableDataCodec.readSendableData(in);
+		h1 = SendableDataCodec.readSendableData(in);
+	}
 }
@@ -24,9 +24,13 @@
 */
 package edu.biu.scapi.interactiveMidProtocols.ot;
 
-import java.io.Serializable;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 
 import edu.biu.scapi.primitives.dlog.GroupElementSendableData;
+import edu.biu.scapi.primitives.dlog.SendableDataCodec;
 
 /**
  * Concrete implementation of OT receiver message used by some OT receivers implementations. <p>
@@ -36,7 +40,7 @@ import edu.biu.scapi.primitives.dlog.GroupElementSendableData;
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Moriya Farbstein)
  *
  */
-public class OTRGroupElementQuadMsg implements Serializable{
+public class OTRGroupElementQuadMsg implements Externalizable{
 	
 	private static final long serialVersionUID = 8620542140745898146L;
 	
@@ -45,6 +49,12 @@ public class OTRGroupElementQuadMsg implements Serializable{
 	private GroupElementSendableData z0;
 	private GroupElementSendableData z1;
 	
+	/**
+	 * Empty constructor, used by the de-serialization.
+	 */
+	public OTRGroupElementQuadMsg(){
+	}
+	
 	public OTRGroupElementQuadMsg(GroupElementSendableData x, GroupElementSendableData y, 
 							 GroupElementSendableData z0, GroupElementSendableData z1){
 		this.x = x;
@@ -68,4 +78,18 @@ public class OTRGroupElementQuadMsg implements Serializable{
 	public GroupElementSendableData getZ1(){
 		return z1;
 	}
+	
+	public void writeExternal(ObjectOutput out) throws IOException {
+		SendableDataCodec.writeSendableData(out, x);
+		SendableDataCodec.writeSendableData(out, y);
+		SendableDataCodec.writeSendableData(out, z0);
+		SendableDataCodec.writeSendableData(out, z1);
+	}
+	
+	public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+		x = SendableDataCodec.readSendableData(in);
+		y = SendableDataCodec.readSendableData(in);
+		z0 = SendableDataCodec.readSendableData(in);
+		z1 = SendableDataCodec.readSendableData(in);
+	}
 }
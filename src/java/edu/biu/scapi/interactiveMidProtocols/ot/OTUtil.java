@@ -61,15 +61,15 @@ public class OTUtil {
 		BigInteger s = BigIntegers.createRandomInRange(BigInteger.ZERO, qMinusOne, random);
 		BigInteger t = BigIntegers.createRandomInRange(BigInteger.ZERO, qMinusOne, random);
 		
+		//Compute w^s, x^s and y^t, z^t
+		GroupElement[] toS = dlog.exponentiateBatch(new GroupElement[]{w, x}, s);
+		GroupElement[] toT = dlog.exponentiateBatch(new GroupElement[]{y, z}, t);
+		
 		//Compute u = w^s * y^t
-		GroupElement wToS = dlog.exponentiate(w, s);
-		GroupElement yToT = dlog.exponentiate(y, t);
-		GroupElement u = dlog.multiplyGroupElements(wToS, yToT);
+		GroupElement u = dlog.multiplyGroupElements(toS[0], toT[0]);
 		
 		//Compute v = x^s * z^t
-		GroupElement xToS = dlog.exponentiate(x, s);
-		GroupElement zToT = dlog.exponentiate(z, t);
-		GroupElement v = dlog.multiplyGroupElements(xToS, zToT);
+		GroupElement v = dlog.multiplyGroupElements(toS[1], toT[1]);
 		
 		return new RandOutput(u,v);
 	}
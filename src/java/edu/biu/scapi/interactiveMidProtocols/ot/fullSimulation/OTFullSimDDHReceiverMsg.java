@@ -24,9 +24,13 @@
 */
 package edu.biu.scapi.interactiveMidProtocols.ot.fullSimulation;
 
-import java.io.Serializable;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 
 import edu.biu.scapi.primitives.dlog.GroupElementSendableData;
+import edu.biu.scapi.primitives.dlog.SendableDataCodec;
 
 /**
  * Concrete implementation of OT with full simulation receiver message. This implementation is common for OT on byteArray and on GroupElement.
@@ -35,7 +39,7 @@ import edu.biu.scapi.primitives.dlog.GroupElementSendableData;
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Moriya Farbstein)
  *
  */
-class OTFullSimDDHReceiverMsg implements Serializable{
+class OTFullSimDDHReceiverMsg implements Externalizable{
 	
 	
 	private static final long serialVersionUID = 694486245423097492L;
@@ -45,6 +49,12 @@ class OTFullSimDDHReceiverMsg implements Serializable{
 	private GroupElementSendableData h1;
 	private GroupElementSendableData g1;
 	
+	/**
+	 * Empty constructor, used by the de-serialization.
+	 */
+	public OTFullSimDDHReceiverMsg(){
+	}
+	
 	public OTFullSimDDHReceiverMsg(GroupElementSendableData g1, GroupElementSendableData h0, 
 			GroupElementSendableData h1){
 		this.h0 = h0;
@@ -63,6 +73,15 @@ class OTFullSimDDHReceiverMsg implements Serializable{
 		return g1;
 	}
 	
+	public void writeExternal(ObjectOutput out) throws IOException {
+		SendableDataCodec.writeSendableData(out, g1);
+		SendableDataCodec.writeSendableData(out, h0);
+		SendableDataCodec.writeSendableData(out, h1);
+	}
 	
-
+	public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+		g1 = SendableDataCodec.readSendableData(in);
+		h0 = SendableDataCodec.readSendableData(in);
+		h1 = SendableDataCodec.readSendableData(in);
+	}
 }
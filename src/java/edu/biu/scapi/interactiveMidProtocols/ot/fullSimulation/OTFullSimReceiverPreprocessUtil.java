@@ -78,8 +78,9 @@ public class OTFullSimReceiverPreprocessUtil {
 		
 		//Calculate tuple elements
 		GroupElement g0 = dlog.getGenerator();
-		GroupElement g1 = dlog.exponentiate(g0, y);
-		GroupElement h0 = dlog.exponentiate(g0, alpha0);
+		GroupElement[] g0Powers = dlog.exponentiateBatch(g0, new BigInteger[]{y, alpha0});
+		GroupElement g1 = g0Powers[0];
+		GroupElement h0 = g0Powers[1];
 		GroupElement h1 = dlog.exponentiate(g1, alpha1);
 		
 		OTFullSimDDHReceiverMsg tuple = new OTFullSimDDHReceiverMsg(g1.generateSendableData(), h0.generateSendableData(), h1.generateSendableData());
@@ -139,18 +139,16 @@ public abstract class OTFullSimReceiverTransferUtilAbs {
 	 * @return OTRFullSimMessage contains the tuple (g,h).
 	 */
 	private OTRGroupElementPairMsg computeSecondTuple(byte sigma, BigInteger r, OTFullSimPreprocessPhaseValues preprocessValues) {
-		GroupElement g, h;
+		GroupElement[] gh;
 		
 		if (sigma == 0){
-			g = dlog.exponentiate(preprocessValues.getG0(), r);
-			h = dlog.exponentiate(preprocessValues.getH0(), r);
+			gh = dlog.exponentiateBatch(new GroupElement[]{preprocessValues.getG0(), preprocessValues.getH0()}, r);
 		}
 		else {
-			g = dlog.exponentiate(preprocessValues.getG1(), r);
-			h = dlog.exponentiate(preprocessValues.getH1(), r);
+			gh = dlog.exponentiateBatch(new GroupElement[]{preprocessValues.getG1(), preprocessValues.getH1()}, r);
 		}
 		
-		return new OTRGroupElementPairMsg(g.generateSendableData(), h.generateSendableData());
+		return new OTRGroupElementPairMsg(gh[0].generateSendableData(), gh[1].generateSendableData());
 	}
 	
 	/**
@@ -236,7 +236,7 @@ abstract class OTOneSidedSimDDHReceiverAbs implements OTReceiver{
 				
 		//Compute g^alpha
 		GroupElement g = dlog.getGenerator();
-		GroupElement gAlpha = dlog.exponentiate(g, alpha);
+		GroupElement gAlpha = dlog.exponentiateWithPreComputedValues(g, alpha);
 		
 		//complete calculations for tuple and create tuple for sender.
 		OTRGroupElementQuadMsg a = computeTuple(sigma, alpha, beta, gAlpha);
@@ -269,11 +269,12 @@ abstract class OTOneSidedSimDDHReceiverAbs implements OTReceiver{
 		//Sample random value gamma in [0, . . . , q-1]
 		BigInteger gamma = BigIntegers.createRandomInRange(BigInteger.ZERO, qMinusOne, random);
 		
-		//Calculates g^beta, g^(alpha*beta), g^gamma.
+		//Calculates g^beta, g^gamma, g^(alpha*beta) as one batch. alpha*beta is reduced modulo q, which does not change g^(alpha*beta).
 		GroupElement g = dlog.getGenerator();
-		GroupElement gBeta = dlog.exponentiate(g, beta);
-		GroupElement gGamma = dlog.exponentiate(g, gamma);
-		GroupElement gAlphaBeta = dlog.exponentiate(g, alpha.multiply(beta));
+		GroupElement[] powers = dlog.exponentiateBatch(g, new BigInteger[]{beta, gamma, alpha.multiply(beta).mod(dlog.getOrder())});
+		GroupElement gBeta = powers[0];
+		GroupElement gGamma = powers[1];
+		GroupElement gAlphaBeta = powers[2];
 		
 		//Create the tuple.
 		if (sigma == 0){
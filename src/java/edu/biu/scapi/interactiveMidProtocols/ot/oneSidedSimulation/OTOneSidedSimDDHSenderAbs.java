@@ -234,15 +234,21 @@ abstract class OTOneSidedSimDDHSenderAbs implements OTSender{
 		//Compute values w0, k0, w1, k1
 		GroupElement g = dlog.getGenerator(); //Get the group generator.
 		
+		//Calculates the exponentiations as batches: x^u0, z0^u0 and x^u1, z1^u1 share the exponent, g^v0, g^v1 and y^v0, y^v1 share the base.
+		GroupElement[] toU0 = dlog.exponentiateBatch(new GroupElement[]{x, z0}, u0);
+		GroupElement[] toU1 = dlog.exponentiateBatch(new GroupElement[]{x, z1}, u1);
+		GroupElement[] gToV = dlog.exponentiateBatch(g, new BigInteger[]{v0, v1});
+		GroupElement[] yToV = dlog.exponentiateBatch(y, new BigInteger[]{v0, v1});
+		
 		//Calculates w0 = x^u0 � g^v0
-		GroupElement w0 = dlog.multiplyGroupElements(dlog.exponentiate(x, u0), dlog.exponentiate(g, v0));
+		GroupElement w0 = dlog.multiplyGroupElements(toU0[0], gToV[0]);
 		//Calculates k0 = (z0)^u0 � y^v0
-		GroupElement k0 = dlog.multiplyGroupElements(dlog.exponentiate(z0, u0), dlog.exponentiate(y, v0));
+		GroupElement k0 = dlog.multiplyGroupElements(toU0[1], yToV[0]);
 		
 		//Calculates w1 = x^u1 � g^v1
-		GroupElement w1 = dlog.multiplyGroupElements(dlog.exponentiate(x, u1), dlog.exponentiate(g, v1));
+		GroupElement w1 = dlog.multiplyGroupElements(toU1[0], gToV[1]);
 		//Calculates k1 = (z1)^u1 � y^v1
-		GroupElement k1 = dlog.multiplyGroupElements(dlog.exponentiate(z1, u1), dlog.exponentiate(y, v1));
+		GroupElement k1 = dlog.multiplyGroupElements(toU1[1], yToV[1]);
 		
 		//Compute c0, c1		
 		OTSMsg messageToSend = computeTuple(input, w0, w1, k0, k1);
@@ -0,0 +1,323 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.interactiveMidProtocols.ot.otBatch.otExtension;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+
+import javax.crypto.Cipher;
+
+import edu.biu.scapi.comm.Channel;
+import edu.biu.scapi.exceptions.CheatAttemptException;
+import edu.biu.scapi.exceptions.FactoriesException;
+import edu.biu.scapi.exceptions.SecurityLevelException;
+import edu.biu.scapi.interactiveMidProtocols.ot.OTOnByteArrayROutput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchOnByteArraySInput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchRInput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchROutput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchReceiver;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.semiHonest.OTSemiHonestDDHBatchOnByteArraySender;
+import edu.biu.scapi.primitives.dlog.DlogGroup;
+import edu.biu.scapi.securityLevel.SemiHonest;
+import edu.biu.scapi.tools.Factories.KdfFactory;
+
+/**
+ * A concrete class for Semi-Honest OT extension receiver, implemented in pure Java. <P>
+ *
+ * This class implements the OT extension of the paper: <p>
+ * "Y. Ishai, J. Kilian, K. Nissim and E. Petrank. Extending Oblivious Transfers Efficiently. CRYPTO 2003." <p>
+ * with the optimizations of "G. Asharov, Y. Lindell, T. Schneier and M. Zohner. More Efficient Oblivious Transfer and Extensions for Faster Secure Computation. ACM CCS 2013." <p>
+ *
+ * Unlike {@link OTSemiHonestExtensionReceiver}, all the messages are sent over the channel given to the transfer function and no native library is needed.
+ * The base OTs are done by {@link OTSemiHonestDDHBatchOnByteArraySender} in the first call to the transfer function.
+ * After that, the transfer function only uses AES and the bit matrix transpose, no matter how much OTs there are.
+ * Later calls to the transfer function must use a channel to the same sender.<p>
+ *
+ * This class supports the general, correlated and random versions of the OT extension;
+ * The particular version is executed according to the given input instance, as in {@link OTSemiHonestExtensionReceiver}.<p>
+ *
+ * Transfers of many OTs are done in chunks, with one round for each chunk, so the memory used by the extension is bounded by the chunk size.
+ * {@link OTExtensionIKNPReceiverSession} runs the OTs chunk by chunk, so that also the inputs and outputs need not be held at once.<p>
+ *
+ * The element size must be a multiple of 8 bits.
+ *
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class OTExtensionIKNPReceiver implements SemiHonest, OTBatchReceiver{
+
+	/*
+	  This class runs the following protocol:
+	  	IN THE FIRST TRANSFER:
+	  		SAMPLE KAPPA pairs of random seeds (k0i, k1i)
+	  		RUN KAPPA base OTs as the sender, with the input (k0i, k1i)
+	  	IN EVERY TRANSFER, FOR EVERY CHUNK OF THE OTS:
+	  		For every i=1,...,KAPPA, COMPUTE:
+	  		*	ti = G(k0i)
+	  		*	ui = ti XOR G(k1i) XOR r, where r holds the choice bits
+	  		SEND (u1,...,uKAPPA) to S
+	  		TRANSPOSE the matrix with the columns ti, to get the rows tj
+	  		In the general scenario:
+	  		*	WAIT for (yj0, yj1) from S and OUTPUT xj = yjr XOR H(j, tj)
+	  		In the correlated scenario:
+	  		*	WAIT for yj from S and OUTPUT xj = H(j, tj) if rj = 0 and xj = yj XOR H(j, tj) otherwise
+	  		In the random scenario:
+	  		*	OUTPUT xj = H(j, tj)
+	 */
+
+	private OTSemiHonestDDHBatchOnByteArraySender baseOT;	//Used to send the seeds in the first transfer.
+	private SecureRandom random;
+	private Cipher[] prgs0;			//The generators of the seeds k0i. Null until the base OTs are done.
+	private Cipher[] prgs1;			//The generators of the seeds k1i.
+	private Cipher aes;				//The fixed key AES of the hash function.
+	private long counter;			//The number of OTs done so far. Used as the tweak of the hash function.
+	private int chunkSize = OTExtensionIKNPUtil.DEFAULT_CHUNK_SIZE;	//The maximal number of OTs that are extended together.
+
+	/**
+	 * Constructor that chooses default values of DlogGroup and SecureRandom for the base OTs.
+	 */
+	public OTExtensionIKNPReceiver(){
+		baseOT = new OTSemiHonestDDHBatchOnByteArraySender();
+		random = new SecureRandom();
+		aes = OTExtensionIKNPUtil.createFixedKeyAes();
+	}
+
+	/**
+	 * Constructor that sets the given dlogGroup and random.
+	 * @param dlog used by the base OTs. Must be DDH secure.
+	 * @param random
+	 * @throws SecurityLevelException if the given dlog is not DDH secure.
+	 */
+	public OTExtensionIKNPReceiver(DlogGroup dlog, SecureRandom random) throws SecurityLevelException{
+		try {
+			baseOT = new OTSemiHonestDDHBatchOnByteArraySender(dlog, KdfFactory.getInstance().getObject("HKDF(HMac(SHA-256))"), random);
+		} catch (FactoriesException e) {
+			// Should not occur since the given KDF name is valid.
+		}
+		this.random = random;
+		aes = OTExtensionIKNPUtil.createFixedKeyAes();
+	}
+
+	/**
+	 * Sets the maximal number of OTs that are extended together. The default is 2^20.<p>
+	 * Larger transfers are done in chunks of this size, so the memory used by the extension does not depend on the number of OTs.
+	 * The sender must use the same chunk size.
+	 * @param chunkSize
+	 */
+	public void setChunkSize(int chunkSize){
+		OTExtensionIKNPUtil.checkChunkSize(chunkSize);
+		this.chunkSize = chunkSize;
+	}
+
+	/**
+	 * @return the maximal number of OTs that are extended together.
+	 */
+	public int getChunkSize(){
+		return chunkSize;
+	}
+
+	/**
+	 * Runs the OT extension as the receiver.<p>
+	 * The first call also runs the base OTs over the given channel.
+	 * The OTs are done in chunks of at most getChunkSize() OTs, one round for each chunk.
+	 * @param channel the channel to the sender.
+	 * @param input MUST be an instance of OTExtensionGeneralRInput, OTExtensionCorrelatedRInput or OTExtensionRandomRInput.
+	 * Every call to the transfer function can run a different OT extension version.
+	 * @return OTOnByteArrayROutput that holds all the xSigma values serially.
+	 * @throws IOException if failed to send or receive a message.
+	 * @throws ClassNotFoundException
+	 * @throws CheatAttemptException
+	 */
+	@Override
+	public OTBatchROutput transfer(Channel channel, OTBatchRInput input) throws CheatAttemptException, IOException, ClassNotFoundException {
+
+		//Check if the input is valid. If input is not instance of OTExtensionRInput, throw Exception.
+		if (!(input instanceof OTExtensionRInput)){
+			throw new IllegalArgumentException("input should be an instance of OTExtensionRInput.");
+		}
+		byte[] sigmaArr = ((OTExtensionRInput) input).getSigmaArr();
+		int numOfOts = sigmaArr.length;
+		int len = OTExtensionIKNPUtil.elementLength(((OTExtensionRInput) input).getElementSize());
+
+		byte[] output = new byte[numOfOts*len];
+		for (int from=0; from<numOfOts; from+=chunkSize){
+			int size = Math.min(chunkSize, numOfOts - from);
+			if (input instanceof OTExtensionGeneralRInput){
+				transferGeneralChunk(channel, sigmaArr, from, size, len, output, from*len);
+			} else if (input instanceof OTExtensionCorrelatedRInput){
+				transferCorrelatedChunk(channel, sigmaArr, from, size, len, output, from*len);
+			} else {
+				transferRandomChunk(channel, sigmaArr, from, size, len, output, from*len);
+			}
+		}
+
+		return new OTOnByteArrayROutput(output);
+	}
+
+	/**
+	 * Runs the general version on one chunk:
+	 * "WAIT for (yj0, yj1) from S and OUTPUT xj = yjr XOR H(j, tj)".
+	 * @param sigmaArr holds the choice bits of the chunk starting at index from.
+	 * @param from the index in sigmaArr of the first OT of the chunk.
+	 * @param numOfOts the number of OTs in the chunk.
+	 * @param len the number of bytes of each output.
+	 * @param output gets the outputs of the chunk, starting at the given offset.
+	 * @param offset
+	 */
+	void transferGeneralChunk(Channel channel, byte[] sigmaArr, int from, int numOfOts, int len, byte[] output, int offset) throws IOException, ClassNotFoundException{
+		extend(channel, sigmaArr, from, numOfOts, len, output, offset);
+		Serializable msg = receiveMsg(channel);
+		if (!(msg instanceof byte[][]) || ((byte[][]) msg).length != 2){
+			throw new IllegalArgumentException("The received message should be an array of two byte arrays");
+		}
+		byte[] y0 = ((byte[][]) msg)[0];
+		byte[] y1 = ((byte[][]) msg)[1];
+		checkLength(y0, numOfOts*len);
+		checkLength(y1, numOfOts*len);
+		for (int j=0; j<numOfOts; j++){
+			OTExtensionIKNPUtil.xor(output, offset + j*len, (sigmaArr[from + j] == 0) ? y0 : y1, j*len, len);
+		}
+	}
+
+	/**
+	 * Runs the correlated version on one chunk:
+	 * "WAIT for yj from S and OUTPUT xj = H(j, tj) if rj = 0 and xj = yj XOR H(j, tj) otherwise".
+	 * The arguments are as in {@link #transferGeneralChunk(Channel, byte[], int, int, int, byte[], int)}.
+	 */
+	void transferCorrelatedChunk(Channel channel, byte[] sigmaArr, int from, int numOfOts, int len, byte[] output, int offset) throws IOException, ClassNotFoundException{
+		extend(channel, sigmaArr, from, numOfOts, len, output, offset);
+		Serializable msg = receiveMsg(channel);
+		if (!(msg instanceof byte[])){
+			throw new IllegalArgumentException("The received message should be a byte array");
+		}
+		byte[] y = (byte[]) msg;
+		checkLength(y, numOfOts*len);
+		for (int j=0; j<numOfOts; j++){
+			if (sigmaArr[from + j] == 1){
+				OTExtensionIKNPUtil.xor(output, offset + j*len, y, j*len, len);
+			}
+		}
+	}
+
+	/**
+	 * Runs the random version on one chunk:
+	 * "OUTPUT xj = H(j, tj)". There is no message from the sender.
+	 * The arguments are as in {@link #transferGeneralChunk(Channel, byte[], int, int, int, byte[], int)}.
+	 */
+	void transferRandomChunk(Channel channel, byte[] sigmaArr, int from, int numOfOts, int len, byte[] output, int offset) throws IOException, ClassNotFoundException{
+		extend(channel, sigmaArr, from, numOfOts, len, output, offset);
+	}
+
+	/**
+	 * Runs the part that is common to all the versions on one chunk:
+	 * "COMPUTE ti = G(k0i) and ui = ti XOR G(k1i) XOR r, SEND (u1,...,uKAPPA) to S and TRANSPOSE the matrix".<p>
+	 * In the first call also runs the base OTs.
+	 * @param output gets H(j, tj) of the chunk, starting at the given offset.
+	 */
+	private void extend(Channel channel, byte[] sigmaArr, int from, int numOfOts, int len, byte[] output, int offset) throws IOException, ClassNotFoundException{
+		//In the first transfer, run the base OTs.
+		if (prgs0 == null){
+			runBaseOts(channel);
+		}
+
+		//Compute the columns ti and ui.
+		long[] r = OTExtensionIKNPUtil.packBits(sigmaArr, from, numOfOts);
+		int numOfWords = r.length;
+		long[][] t = new long[OTExtensionIKNPUtil.KAPPA][numOfWords];
+		long[][] u = new long[OTExtensionIKNPUtil.KAPPA][numOfWords];
+		byte[] buffer = new byte[8*numOfWords];
+		for (int i=0; i<OTExtensionIKNPUtil.KAPPA; i++){
+			OTExtensionIKNPUtil.expand(prgs0[i], t[i], buffer);
+			OTExtensionIKNPUtil.expand(prgs1[i], u[i], buffer);
+			long[] ti = t[i];
+			long[] ui = u[i];
+			for (int w=0; w<numOfWords; w++){
+				ui[w] ^= ti[w] ^ r[w];
+			}
+		}
+
+		//Send the columns ui to the sender.
+		sendMsg(channel, u);
+		u = null;
+
+		//Transpose the matrix and hash its rows.
+		long[] rows = new long[2*64*numOfWords];
+		OTExtensionIKNPUtil.transpose(t, rows);
+		t = null;
+		OTExtensionIKNPUtil.hash(aes, rows, 0, 0, numOfOts, counter, output, offset, len);
+		counter += numOfOts;
+	}
+
+	/**
+	 * Runs the base OTs as the sender, with random pairs of seeds.
+	 */
+	private void runBaseOts(Channel channel) throws IOException, ClassNotFoundException{
+		ArrayList<byte[]> x0Arr = new ArrayList<byte[]>();
+		ArrayList<byte[]> x1Arr = new ArrayList<byte[]>();
+		for (int i=0; i<OTExtensionIKNPUtil.KAPPA; i++){
+			byte[] k0 = new byte[16];
+			byte[] k1 = new byte[16];
+			random.nextBytes(k0);
+			random.nextBytes(k1);
+			x0Arr.add(k0);
+			x1Arr.add(k1);
+		}
+
+		baseOT.transfer(channel, new OTBatchOnByteArraySInput(x0Arr, x1Arr));
+
+		Cipher[] prgs0 = new Cipher[OTExtensionIKNPUtil.KAPPA];
+		Cipher[] prgs1 = new Cipher[OTExtensionIKNPUtil.KAPPA];
+		for (int i=0; i<OTExtensionIKNPUtil.KAPPA; i++){
+			prgs0[i] = OTExtensionIKNPUtil.createPrg(x0Arr.get(i));
+			prgs1[i] = OTExtensionIKNPUtil.createPrg(x1Arr.get(i));
+		}
+		this.prgs1 = prgs1;
+		this.prgs0 = prgs0;
+	}
+
+	private void sendMsg(Channel channel, Serializable msg) throws IOException{
+		try {
+			channel.send(msg);
+		} catch (IOException e) {
+			throw new IOException("failed to send the message. The thrown message is: " + e.getMessage());
+		}
+	}
+
+	private Serializable receiveMsg(Channel channel) throws ClassNotFoundException, IOException{
+		try {
+			return channel.receive();
+		} catch (IOException e) {
+			throw new IOException("Failed to receive message. The thrown message is: " + e.getMessage());
+		}
+	}
+
+	private void checkLength(byte[] y, int length){
+		if (y == null || y.length != length){
+			throw new IllegalArgumentException("The received message should be of length " + length);
+		}
+	}
+}
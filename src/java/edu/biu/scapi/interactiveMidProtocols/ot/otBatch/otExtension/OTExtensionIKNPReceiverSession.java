@@ -0,0 +1,138 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.interactiveMidProtocols.ot.otBatch.otExtension;
+
+import java.io.IOException;
+
+import edu.biu.scapi.comm.Channel;
+
+/**
+ * A session of OT extension on the receiver side, that runs the OTs chunk by chunk.<p>
+ *
+ * The inputs of {@link OTExtensionIKNPReceiver#transfer} hold all the OTs at once, so the memory they take grows with the number of OTs.
+ * A session instead gets the choice bits of one chunk at a time and reuses its output buffer from chunk to chunk.
+ * Therefore it can run any number of OTs, for example the input wires of a large garbled circuit or a pool of random OTs, with constant memory.<p>
+ *
+ * All the chunks are extended from the long lived state of the given receiver; the base OTs are done only once, in the first chunk of the first session.
+ * Each call to a next...Chunk function runs one chunk of at most getChunkSize() OTs in one round,
+ * and must be matched by a call to the corresponding function of {@link OTExtensionIKNPSenderSession} with the same number of OTs.
+ *
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class OTExtensionIKNPReceiverSession {
+
+	private OTExtensionIKNPReceiver receiver;
+	private Channel channel;
+	private int chunkSize;			//The maximal number of OTs in one chunk.
+	private int len;				//The number of bytes of each output.
+	private byte[] output;			//The output buffer, reused by consecutive chunks of the same size.
+	private long numOfOts;			//The number of OTs done by this session so far.
+
+	/**
+	 * Constructor that sets the given receiver and channel.<p>
+	 * The chunk size of the session is the chunk size of the receiver.
+	 * @param receiver the receiver that holds the state of the OT extension.
+	 * @param channel the channel to the sender.
+	 * @param elementSize the size of each output in bits. Must be a multiple of 8.
+	 */
+	public OTExtensionIKNPReceiverSession(OTExtensionIKNPReceiver receiver, Channel channel, int elementSize){
+		this.receiver = receiver;
+		this.channel = channel;
+		this.chunkSize = receiver.getChunkSize();
+		this.len = OTExtensionIKNPUtil.elementLength(elementSize);
+	}
+
+	/**
+	 * @return the maximal number of OTs in one chunk.
+	 */
+	public int getChunkSize(){
+		return chunkSize;
+	}
+
+	/**
+	 * @return the number of OTs done by this session so far.
+	 */
+	public long getNumOfOts(){
+		return numOfOts;
+	}
+
+	/**
+	 * Runs the general version of the OT extension on one chunk.<p>
+	 * The returned array is overwritten by the next chunk of the same size.
+	 * @param sigmaArr the choice bits of the chunk, one in each byte.
+	 * @return the array that holds xSigma of all the OTs in the chunk serially.
+	 * @throws IOException if failed to send or receive a message.
+	 * @throws ClassNotFoundException
+	 */
+	public byte[] nextGeneralChunk(byte[] sigmaArr) throws ClassNotFoundException, IOException{
+		prepareOutput(sigmaArr.length);
+		receiver.transferGeneralChunk(channel, sigmaArr, 0, sigmaArr.length, len, output, 0);
+		numOfOts += sigmaArr.length;
+		return output;
+	}
+
+	/**
+	 * Runs the correlated version of the OT extension on one chunk.<p>
+	 * The returned array is overwritten by the next chunk of the same size.
+	 * @param sigmaArr the choice bits of the chunk, one in each byte.
+	 * @return the array that holds xSigma of all the OTs in the chunk serially.
+	 * @throws IOException if failed to send or receive a message.
+	 * @throws ClassNotFoundException
+	 */
+	public byte[] nextCorrelatedChunk(byte[] sigmaArr) throws ClassNotFoundException, IOException{
+		prepareOutput(sigmaArr.length);
+		receiver.transferCorrelatedChunk(channel, sigmaArr, 0, sigmaArr.length, len, output, 0);
+		numOfOts += sigmaArr.length;
+		return output;
+	}
+
+	/**
+	 * Runs the random version of the OT extension on one chunk.<p>
+	 * The returned array is overwritten by the next chunk of the same size.
+	 * @param sigmaArr the choice bits of the chunk, one in each byte.
+	 * @return the array that holds xSigma of all the OTs in the chunk serially.
+	 * @throws IOException if failed to send or receive a message.
+	 * @throws ClassNotFoundException
+	 */
+	public byte[] nextRandomChunk(byte[] sigmaArr) throws ClassNotFoundException, IOException{
+		prepareOutput(sigmaArr.length);
+		receiver.transferRandomChunk(channel, sigmaArr, 0, sigmaArr.length, len, output, 0);
+		numOfOts += sigmaArr.length;
+		return output;
+	}
+
+	/**
+	 * Checks the size of the chunk and allocates the output buffer, unless the buffer of the previous chunk is of the needed size.
+	 */
+	private void prepareOutput(int size){
+		if (size <= 0 || size > chunkSize){
+			throw new IllegalArgumentException("The number of OTs in a chunk should be between 1 and " + chunkSize);
+		}
+		if (output == null || output.length != size*len){
+			output = new byte[size*len];
+		}
+	}
+}
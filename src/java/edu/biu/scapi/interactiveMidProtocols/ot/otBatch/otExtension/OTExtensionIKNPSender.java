@@ -0,0 +1,365 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.interactiveMidProtocols.ot.otBatch.otExtension;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+
+import javax.crypto.Cipher;
+
+import edu.biu.scapi.comm.Channel;
+import edu.biu.scapi.exceptions.FactoriesException;
+import edu.biu.scapi.exceptions.SecurityLevelException;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchOnByteArrayROutput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchRBasicInput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchSInput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchSOutput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchSender;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.semiHonest.OTSemiHonestDDHBatchOnByteArrayReceiver;
+import edu.biu.scapi.primitives.dlog.DlogGroup;
+import edu.biu.scapi.securityLevel.SemiHonest;
+import edu.biu.scapi.tools.Factories.KdfFactory;
+
+/**
+ * A concrete class for Semi-Honest OT extension sender, implemented in pure Java. <P>
+ *
+ * This class implements the OT extension of the paper: <p>
+ * "Y. Ishai, J. Kilian, K. Nissim and E. Petrank. Extending Oblivious Transfers Efficiently. CRYPTO 2003." <p>
+ * with the optimizations of "G. Asharov, Y. Lindell, T. Schneier and M. Zohner. More Efficient Oblivious Transfer and Extensions for Faster Secure Computation. ACM CCS 2013." <p>
+ *
+ * Unlike {@link OTSemiHonestExtensionSender}, all the messages are sent over the channel given to the transfer function and no native library is needed.
+ * The base OTs are done by {@link OTSemiHonestDDHBatchOnByteArrayReceiver} in the first call to the transfer function.
+ * After that, the transfer function only uses AES and the bit matrix transpose, no matter how much OTs there are.
+ * Later calls to the transfer function must use a channel to the same receiver.<p>
+ *
+ * This class supports the general, correlated and random versions of the OT extension;
+ * The particular version is executed according to the given input instance, as in {@link OTSemiHonestExtensionSender}.<p>
+ *
+ * Transfers of many OTs are done in chunks, with one round for each chunk, so the memory used by the extension is bounded by the chunk size.
+ * {@link OTExtensionIKNPSenderSession} runs the OTs chunk by chunk, so that also the inputs and outputs need not be held at once.<p>
+ *
+ * The length of each x0, x1 must be a whole number of bytes.
+ *
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class OTExtensionIKNPSender implements SemiHonest, OTBatchSender{
+
+	/*
+	  This class runs the following protocol:
+	  	IN THE FIRST TRANSFER:
+	  		SAMPLE random s <- {0,1}^KAPPA
+	  		RUN KAPPA base OTs as the receiver, with the input s, to get the seeds ki = k(si)i
+	  	IN EVERY TRANSFER, FOR EVERY CHUNK OF THE OTS:
+	  		WAIT for (u1,...,uKAPPA) from R
+	  		For every i=1,...,KAPPA, COMPUTE qi = G(ki) XOR si*ui
+	  		TRANSPOSE the matrix with the columns qi, to get the rows qj
+	  		In the general scenario:
+	  		*	SEND yj0 = xj0 XOR H(j, qj) and yj1 = xj1 XOR H(j, qj XOR s) to R
+	  		*	OUTPUT nothing
+	  		In the correlated scenario:
+	  		*	COMPUTE xj0 = H(j, qj) and xj1 = xj0 XOR deltaj
+	  		*	SEND yj = xj1 XOR H(j, qj XOR s) to R
+	  		*	OUTPUT (xj0, xj1)
+	  		In the random scenario:
+	  		*	OUTPUT xj0 = H(j, qj) and xj1 = H(j, qj XOR s)
+	 */
+
+	private OTSemiHonestDDHBatchOnByteArrayReceiver baseOT;	//Used to receive the seeds in the first transfer.
+	private SecureRandom random;
+	private long s0, s1;			//The bits of s.
+	private Cipher[] prgs;			//The generators of the seeds ki. Null until the base OTs are done.
+	private Cipher aes;				//The fixed key AES of the hash function.
+	private long counter;			//The number of OTs done so far. Used as the tweak of the hash function.
+	private int chunkSize = OTExtensionIKNPUtil.DEFAULT_CHUNK_SIZE;	//The maximal number of OTs that are extended together.
+
+	/**
+	 * Constructor that chooses default values of DlogGroup and SecureRandom for the base OTs.
+	 */
+	public OTExtensionIKNPSender(){
+		baseOT = new OTSemiHonestDDHBatchOnByteArrayReceiver();
+		random = new SecureRandom();
+		aes = OTExtensionIKNPUtil.createFixedKeyAes();
+	}
+
+	/**
+	 * Constructor that sets the given dlogGroup and random.
+	 * @param dlog used by the base OTs. Must be DDH secure.
+	 * @param random
+	 * @throws SecurityLevelException if the given dlog is not DDH secure.
+	 */
+	public OTExtensionIKNPSender(DlogGroup dlog, SecureRandom random) throws SecurityLevelException{
+		try {
+			baseOT = new OTSemiHonestDDHBatchOnByteArrayReceiver(dlog, KdfFactory.getInstance().getObject("HKDF(HMac(SHA-256))"), random);
+		} catch (FactoriesException e) {
+			// Should not occur since the given KDF name is valid.
+		}
+		this.random = random;
+		aes = OTExtensionIKNPUtil.createFixedKeyAes();
+	}
+
+	/**
+	 * Sets the maximal number of OTs that are extended together. The default is 2^20.<p>
+	 * Larger transfers are done in chunks of this size, so the memory used by the extension does not depend on the number of OTs.
+	 * The receiver must use the same chunk size.
+	 * @param chunkSize
+	 */
+	public void setChunkSize(int chunkSize){
+		OTExtensionIKNPUtil.checkChunkSize(chunkSize);
+		this.chunkSize = chunkSize;
+	}
+
+	/**
+	 * @return the maximal number of OTs that are extended together.
+	 */
+	public int getChunkSize(){
+		return chunkSize;
+	}
+
+	/**
+	 * Runs the OT extension as the sender.<p>
+	 * The first call also runs the base OTs over the given channel.
+	 * The OTs are done in chunks of at most getChunkSize() OTs, one round for each chunk.
+	 * @param channel the channel to the receiver.
+	 * @param input MUST be an instance of OTExtensionGeneralSInput, OTExtensionCorrelatedSInput or OTExtensionRandomSInput.
+	 * Every call to the transfer function can run a different OT extension version.
+	 * @return OTExtensionSOutput that holds x0 and x1 in the correlated and random versions; null in the general version.
+	 * @throws IOException if failed to send or receive a message.
+	 * @throws ClassNotFoundException
+	 */
+	@Override
+	public OTBatchSOutput transfer(Channel channel, OTBatchSInput input) throws ClassNotFoundException, IOException {
+
+		//In case the given input is general input.
+		if (input instanceof OTExtensionGeneralSInput){
+			byte[] x0 = ((OTExtensionGeneralSInput) input).getX0Arr();
+			byte[] x1 = ((OTExtensionGeneralSInput) input).getX1Arr();
+			int numOfOts = ((OTExtensionGeneralSInput) input).getNumOfOts();
+			if (x0.length != x1.length){
+				throw new IllegalArgumentException("x0 and x1 should be of the same length.");
+			}
+			int len = elementLength(x0.length, numOfOts);
+
+			for (int from=0; from<numOfOts; from+=chunkSize){
+				transferGeneralChunk(channel, x0, x1, from*len, Math.min(chunkSize, numOfOts - from), len);
+			}
+
+			//This version has no output. Return null.
+			return null;
+
+		//In case the given input is correlated input.
+		} else if (input instanceof OTExtensionCorrelatedSInput){
+			byte[] delta = ((OTExtensionCorrelatedSInput) input).getDelta();
+			int numOfOts = ((OTExtensionCorrelatedSInput) input).getNumOfOts();
+			int len = elementLength(delta.length, numOfOts);
+
+			byte[] x0 = new byte[delta.length];
+			byte[] x1 = new byte[delta.length];
+			for (int from=0; from<numOfOts; from+=chunkSize){
+				transferCorrelatedChunk(channel, delta, from*len, Math.min(chunkSize, numOfOts - from), len, x0, x1);
+			}
+			return new OTExtensionSOutput(x0, x1);
+
+		//In case the given input is random input.
+		} else if (input instanceof OTExtensionRandomSInput){
+			int numOfOts = ((OTExtensionRandomSInput) input).getNumOfOts();
+			int bitLength = ((OTExtensionRandomSInput) input).getBitLength();
+			if (numOfOts <= 0){
+				throw new IllegalArgumentException("The number of OTs should be positive.");
+			}
+			int len = OTExtensionIKNPUtil.elementLength(bitLength);
+
+			byte[] x0 = new byte[numOfOts*len];
+			byte[] x1 = new byte[numOfOts*len];
+			for (int from=0; from<numOfOts; from+=chunkSize){
+				transferRandomChunk(channel, from*len, Math.min(chunkSize, numOfOts - from), len, x0, x1);
+			}
+			return new OTExtensionSOutput(x0, x1);
+
+		//If input is not instance of the above inputs, throw Exception.
+		} else {
+			throw new IllegalArgumentException("input should be an instance of OTExtensionGeneralSInput or OTExtensionCorrelatedSInput or OTExtensionRandomSInput.");
+		}
+	}
+
+	/**
+	 * Runs the general version on one chunk:
+	 * "SEND yj0 = xj0 XOR H(j, qj) and yj1 = xj1 XOR H(j, qj XOR s) to R".
+	 * @param x0 holds xj0 of the chunk starting at the given offset.
+	 * @param x1 holds xj1 of the chunk starting at the given offset.
+	 * @param offset the index in x0 and x1 of the first OT of the chunk.
+	 * @param numOfOts the number of OTs in the chunk.
+	 * @param len the number of bytes of each x0, x1.
+	 */
+	void transferGeneralChunk(Channel channel, byte[] x0, byte[] x1, int offset, int numOfOts, int len) throws ClassNotFoundException, IOException{
+		byte[] y0 = new byte[numOfOts*len];
+		byte[] y1 = new byte[numOfOts*len];
+		extend(channel, numOfOts, len, y0, y1, 0);
+		OTExtensionIKNPUtil.xor(y0, 0, x0, offset, y0.length);
+		OTExtensionIKNPUtil.xor(y1, 0, x1, offset, y1.length);
+		sendMsg(channel, new byte[][]{y0, y1});
+	}
+
+	/**
+	 * Runs the correlated version on one chunk:
+	 * "COMPUTE xj0 = H(j, qj) and xj1 = xj0 XOR deltaj and SEND yj = xj1 XOR H(j, qj XOR s) to R".
+	 * @param delta holds deltaj of the chunk starting at the given offset.
+	 * @param offset the index in delta, x0 and x1 of the first OT of the chunk.
+	 * @param numOfOts the number of OTs in the chunk.
+	 * @param len the number of bytes of each x0, x1.
+	 * @param x0 gets xj0 of the chunk.
+	 * @param x1 gets xj1 of the chunk.
+	 */
+	void transferCorrelatedChunk(Channel channel, byte[] delta, int offset, int numOfOts, int len, byte[] x0, byte[] x1) throws ClassNotFoundException, IOException{
+		//x1 gets H(j, qj XOR s) until it is replaced by xj0 XOR deltaj.
+		extend(channel, numOfOts, len, x0, x1, offset);
+		byte[] y = new byte[numOfOts*len];
+		for (int k=0; k<y.length; k++){
+			byte x1k = (byte) (x0[offset + k] ^ delta[offset + k]);
+			y[k] = (byte) (x1[offset + k] ^ x1k);
+			x1[offset + k] = x1k;
+		}
+		sendMsg(channel, y);
+	}
+
+	/**
+	 * Runs the random version on one chunk:
+	 * "OUTPUT xj0 = H(j, qj) and xj1 = H(j, qj XOR s)".
+	 * @param offset the index in x0 and x1 of the first OT of the chunk.
+	 * @param numOfOts the number of OTs in the chunk.
+	 * @param len the number of bytes of each x0, x1.
+	 * @param x0 gets xj0 of the chunk.
+	 * @param x1 gets xj1 of the chunk.
+	 */
+	void transferRandomChunk(Channel channel, int offset, int numOfOts, int len, byte[] x0, byte[] x1) throws ClassNotFoundException, IOException{
+		extend(channel, numOfOts, len, x0, x1, offset);
+	}
+
+	/**
+	 * Runs the part that is common to all the versions on one chunk:
+	 * "WAIT for (u1,...,uKAPPA) from R, COMPUTE qi = G(ki) XOR si*ui and TRANSPOSE the matrix".<p>
+	 * In the first call also runs the base OTs.
+	 * @param h0 gets H(j, qj) of the chunk, starting at the given offset.
+	 * @param h1 gets H(j, qj XOR s) of the chunk, starting at the given offset.
+	 */
+	private void extend(Channel channel, int numOfOts, int len, byte[] h0, byte[] h1, int offset) throws ClassNotFoundException, IOException{
+		//In the first transfer, run the base OTs.
+		if (prgs == null){
+			runBaseOts(channel);
+		}
+
+		//Wait for the columns ui from the receiver.
+		int numOfWords = (numOfOts + 63) / 64;
+		long[][] u = receiveColumns(channel, numOfWords);
+
+		//Compute the columns qi = G(ki) XOR si*ui.
+		long[][] q = new long[OTExtensionIKNPUtil.KAPPA][numOfWords];
+		byte[] buffer = new byte[8*numOfWords];
+		for (int i=0; i<OTExtensionIKNPUtil.KAPPA; i++){
+			OTExtensionIKNPUtil.expand(prgs[i], q[i], buffer);
+			long si = ((i < 64) ? (s0 >>> i) : (s1 >>> (i - 64))) & 1;
+			if (si == 1){
+				long[] qi = q[i];
+				long[] ui = u[i];
+				for (int w=0; w<numOfWords; w++){
+					qi[w] ^= ui[w];
+				}
+			}
+		}
+		u = null;
+
+		//Transpose the matrix and hash its rows, with and without s.
+		long[] rows = new long[2*64*numOfWords];
+		OTExtensionIKNPUtil.transpose(q, rows);
+		q = null;
+		OTExtensionIKNPUtil.hash(aes, rows, 0, 0, numOfOts, counter, h0, offset, len);
+		OTExtensionIKNPUtil.hash(aes, rows, s0, s1, numOfOts, counter, h1, offset, len);
+		counter += numOfOts;
+	}
+
+	/**
+	 * Runs the base OTs as the receiver, with the random choice bits s.
+	 */
+	private void runBaseOts(Channel channel) throws IOException, ClassNotFoundException{
+		s0 = random.nextLong();
+		s1 = random.nextLong();
+		ArrayList<Byte> sigmaArr = new ArrayList<Byte>();
+		for (int i=0; i<OTExtensionIKNPUtil.KAPPA; i++){
+			long si = ((i < 64) ? (s0 >>> i) : (s1 >>> (i - 64))) & 1;
+			sigmaArr.add((byte) si);
+		}
+
+		OTBatchOnByteArrayROutput output = (OTBatchOnByteArrayROutput) baseOT.transfer(channel, new OTBatchRBasicInput(sigmaArr));
+
+		ArrayList<byte[]> seeds = output.getXSigmaArr();
+		Cipher[] prgs = new Cipher[OTExtensionIKNPUtil.KAPPA];
+		for (int i=0; i<OTExtensionIKNPUtil.KAPPA; i++){
+			prgs[i] = OTExtensionIKNPUtil.createPrg(seeds.get(i));
+		}
+		this.prgs = prgs;
+	}
+
+	/**
+	 * Receives the columns ui and checks that there are KAPPA columns of numOfWords words each.
+	 */
+	private long[][] receiveColumns(Channel channel, int numOfWords) throws ClassNotFoundException, IOException{
+		Serializable msg = null;
+		try {
+			msg = channel.receive();
+		} catch (IOException e) {
+			throw new IOException("Failed to receive message. The thrown message is: " + e.getMessage());
+		}
+		if (!(msg instanceof long[][]) || ((long[][]) msg).length != OTExtensionIKNPUtil.KAPPA){
+			throw new IllegalArgumentException("The received message should be an array of " + OTExtensionIKNPUtil.KAPPA + " columns");
+		}
+		long[][] u = (long[][]) msg;
+		for (int i=0; i<u.length; i++){
+			if (u[i] == null || u[i].length != numOfWords){
+				throw new IllegalArgumentException("The received columns should be of " + numOfWords + " words");
+			}
+		}
+		return u;
+	}
+
+	private void sendMsg(Channel channel, Serializable msg) throws IOException{
+		try {
+			channel.send(msg);
+		} catch (IOException e) {
+			throw new IOException("failed to send the message. The thrown message is: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Returns the number of bytes of each element, given the total number of bytes.
+	 */
+	private int elementLength(int totalLength, int numOfOts){
+		if (numOfOts <= 0 || totalLength == 0 || totalLength % numOfOts != 0){
+			throw new IllegalArgumentException("The length of the input should be a positive multiple of the number of OTs.");
+		}
+		return totalLength / numOfOts;
+	}
+}
@@ -0,0 +1,162 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.interactiveMidProtocols.ot.otBatch.otExtension;
+
+import java.io.IOException;
+
+import edu.biu.scapi.comm.Channel;
+
+/**
+ * A session of OT extension on the sender side, that runs the OTs chunk by chunk.<p>
+ *
+ * The inputs of {@link OTExtensionIKNPSender#transfer} hold all the OTs at once, so the memory they take grows with the number of OTs.
+ * A session instead gets the inputs of one chunk at a time and reuses its output buffers from chunk to chunk.
+ * Therefore it can run any number of OTs, for example the input wires of a large garbled circuit or a pool of random OTs, with constant memory.<p>
+ *
+ * All the chunks are extended from the long lived state of the given sender; the base OTs are done only once, in the first chunk of the first session.
+ * Each call to a next...Chunk function runs one chunk of at most getChunkSize() OTs in one round,
+ * and must be matched by a call to the corresponding function of {@link OTExtensionIKNPReceiverSession} with the same number of OTs.
+ *
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class OTExtensionIKNPSenderSession {
+
+	private OTExtensionIKNPSender sender;
+	private Channel channel;
+	private int chunkSize;			//The maximal number of OTs in one chunk.
+	private int len;				//The number of bytes of each x0, x1.
+	private byte[] x0, x1;			//The output buffers, reused by consecutive chunks of the same size.
+	private long numOfOts;			//The number of OTs done by this session so far.
+
+	/**
+	 * Constructor that sets the given sender and channel.<p>
+	 * The chunk size of the session is the chunk size of the sender.
+	 * @param sender the sender that holds the state of the OT extension.
+	 * @param channel the channel to the receiver.
+	 * @param elementSize the size of each x0, x1 in bits. Must be a multiple of 8.
+	 */
+	public OTExtensionIKNPSenderSession(OTExtensionIKNPSender sender, Channel channel, int elementSize){
+		this.sender = sender;
+		this.channel = channel;
+		this.chunkSize = sender.getChunkSize();
+		this.len = OTExtensionIKNPUtil.elementLength(elementSize);
+	}
+
+	/**
+	 * @return the maximal number of OTs in one chunk.
+	 */
+	public int getChunkSize(){
+		return chunkSize;
+	}
+
+	/**
+	 * @return the number of OTs done by this session so far.
+	 */
+	public long getNumOfOts(){
+		return numOfOts;
+	}
+
+	/**
+	 * Runs the general version of the OT extension on one chunk.
+	 * @param x0Arr holds x0 of all the OTs in the chunk serially.
+	 * @param x1Arr holds x1 of all the OTs in the chunk serially.
+	 * @throws IOException if failed to send or receive a message.
+	 * @throws ClassNotFoundException
+	 */
+	public void nextGeneralChunk(byte[] x0Arr, byte[] x1Arr) throws ClassNotFoundException, IOException{
+		if (x0Arr.length != x1Arr.length){
+			throw new IllegalArgumentException("x0 and x1 should be of the same length.");
+		}
+		int size = chunkLength(x0Arr.length);
+		sender.transferGeneralChunk(channel, x0Arr, x1Arr, 0, size, len);
+		numOfOts += size;
+	}
+
+	/**
+	 * Runs the correlated version of the OT extension on one chunk.<p>
+	 * The arrays of the returned output are overwritten by the next chunk of the same size.
+	 * @param delta holds delta of all the OTs in the chunk serially.
+	 * @return OTExtensionSOutput that holds x0 and x1 of the chunk, where x1 = x0 XOR delta.
+	 * @throws IOException if failed to send or receive a message.
+	 * @throws ClassNotFoundException
+	 */
+	public OTExtensionSOutput nextCorrelatedChunk(byte[] delta) throws ClassNotFoundException, IOException{
+		int size = chunkLength(delta.length);
+		prepareOutput(size);
+		sender.transferCorrelatedChunk(channel, delta, 0, size, len, x0, x1);
+		numOfOts += size;
+		return new OTExtensionSOutput(x0, x1);
+	}
+
+	/**
+	 * Runs the random version of the OT extension on one full chunk of getChunkSize() OTs.<p>
+	 * The arrays of the returned output are overwritten by the next chunk.
+	 * @return OTExtensionSOutput that holds the random x0 and x1 of the chunk.
+	 * @throws IOException if failed to send or receive a message.
+	 * @throws ClassNotFoundException
+	 */
+	public OTExtensionSOutput nextRandomChunk() throws ClassNotFoundException, IOException{
+		return nextRandomChunk(chunkSize);
+	}
+
+	/**
+	 * Runs the random version of the OT extension on one chunk of the given size.<p>
+	 * The arrays of the returned output are overwritten by the next chunk of the same size.
+	 * @param size the number of OTs in the chunk. At most getChunkSize().
+	 * @return OTExtensionSOutput that holds the random x0 and x1 of the chunk.
+	 * @throws IOException if failed to send or receive a message.
+	 * @throws ClassNotFoundException
+	 */
+	public OTExtensionSOutput nextRandomChunk(int size) throws ClassNotFoundException, IOException{
+		if (size <= 0 || size > chunkSize){
+			throw new IllegalArgumentException("The number of OTs in a chunk should be between 1 and " + chunkSize);
+		}
+		prepareOutput(size);
+		sender.transferRandomChunk(channel, 0, size, len, x0, x1);
+		numOfOts += size;
+		return new OTExtensionSOutput(x0, x1);
+	}
+
+	/**
+	 * Returns the number of OTs of a chunk, given the length of its input.
+	 */
+	private int chunkLength(int length){
+		if (length == 0 || length % len != 0 || length / len > chunkSize){
+			throw new IllegalArgumentException("The input should hold between 1 and " + chunkSize + " elements of " + len + " bytes");
+		}
+		return length / len;
+	}
+
+	/**
+	 * Allocates the output buffers, unless the buffers of the previous chunk are of the needed size.
+	 */
+	private void prepareOutput(int size){
+		if (x0 == null || x0.length != size*len){
+			x0 = new byte[size*len];
+			x1 = new byte[size*len];
+		}
+	}
+}
@@ -0,0 +1,266 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.interactiveMidProtocols.ot.otBatch.otExtension;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.security.GeneralSecurityException;
+
+import javax.crypto.Cipher;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * This class holds the computations that are shared by the sender and the receiver of the pure Java IKNP OT extension.<p>
+ *
+ * The matrix of the protocol has KAPPA columns and one row for each OT.
+ * The columns are kept as arrays of longs where bit j of column i is bit (j mod 64) of the word j/64;
+ * the rows are kept in a single array of longs where row j occupies the two words 2j and 2j+1.
+ *
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+final class OTExtensionIKNPUtil {
+
+	/**
+	 * The number of base OTs, which is also the number of columns of the matrix.
+	 */
+	static final int KAPPA = 128;
+
+	/**
+	 * The default maximal number of OTs that are extended together.
+	 */
+	static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+
+	//Number of rows that are hashed together, so that the buffers of the hash stay in the cache.
+	private static final int HASH_BATCH = 1024;
+
+	//The public key of the fixed key AES used to hash the rows.
+	//The security of the hash relies on modeling AES as a random permutation and not on the secrecy of the key.
+	private static final byte[] FIXED_KEY = {
+		(byte) 0x61, (byte) 0x7e, (byte) 0x8d, (byte) 0xa2, (byte) 0xa0, (byte) 0x51, (byte) 0x1e, (byte) 0x96,
+		(byte) 0x5e, (byte) 0x41, (byte) 0xc2, (byte) 0x9b, (byte) 0x15, (byte) 0x3f, (byte) 0xc7, (byte) 0x7a };
+
+	private OTExtensionIKNPUtil(){}
+
+	/**
+	 * Creates a pseudorandom generator that outputs the AES-CTR stream of the given seed.<p>
+	 * The generator keeps its position, so that the next call to expand continues the stream.
+	 * @param seed the 16 bytes seed.
+	 */
+	static Cipher createPrg(byte[] seed){
+		try {
+			Cipher prg = Cipher.getInstance("AES/CTR/NoPadding");
+			prg.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(seed, "AES"), new IvParameterSpec(new byte[16]));
+			return prg;
+		} catch (GeneralSecurityException e) {
+			// Should not occur since every Java platform supports AES in CTR mode with a 128 bits key.
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Creates the fixed key AES that is used by the hash function.
+	 */
+	static Cipher createFixedKeyAes(){
+		try {
+			Cipher aes = Cipher.getInstance("AES/ECB/NoPadding");
+			aes.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(FIXED_KEY, "AES"));
+			return aes;
+		} catch (GeneralSecurityException e) {
+			// Should not occur since every Java platform supports AES in ECB mode with a 128 bits key.
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Fills the given column with the next bytes of the given pseudorandom generator.
+	 * @param prg created by createPrg.
+	 * @param column the array to fill.
+	 * @param buffer a buffer of at least 8*column.length bytes.
+	 */
+	static void expand(Cipher prg, long[] column, byte[] buffer){
+		int len = column.length * 8;
+		//The stream of CTR mode is the encryption of zeros.
+		//The buffer is zeroed before every use, since it holds the output of the previous call.
+		for (int i=0; i<len; i++){
+			buffer[i] = 0;
+		}
+		try {
+			prg.update(buffer, 0, len, buffer, 0);
+		} catch (ShortBufferException e) {
+			// Should not occur since the input and the output are of the same length.
+			throw new IllegalStateException(e);
+		}
+		ByteBuffer.wrap(buffer, 0, len).order(ByteOrder.LITTLE_ENDIAN).asLongBuffer().get(column);
+	}
+
+	/**
+	 * Packs the given choice bits, one per byte, into words of 64 bits.
+	 * @param sigmaArr each byte holds 0 or 1.
+	 * @param from the index of the first choice bit to pack.
+	 * @param numOfOts the number of choice bits to pack.
+	 * @return the packed bits. The bits beyond numOfOts are zero.
+	 */
+	static long[] packBits(byte[] sigmaArr, int from, int numOfOts){
+		long[] packed = new long[(numOfOts + 63) / 64];
+		for (int j=0; j<numOfOts; j++){
+			byte sigma = sigmaArr[from + j];
+			//The given sigma should be 0 or 1.
+			if (sigma != 0 && sigma != 1){
+				throw new IllegalArgumentException("Sigma should be 0 or 1");
+			}
+			packed[j >>> 6] |= ((long) sigma) << (j & 63);
+		}
+		return packed;
+	}
+
+	/**
+	 * Returns the number of bytes of each element, given its size in bits.
+	 * @param elementSize must be a positive multiple of 8.
+	 */
+	static int elementLength(int elementSize){
+		if (elementSize <= 0 || elementSize % 8 != 0){
+			throw new IllegalArgumentException("The element size should be a positive multiple of 8.");
+		}
+		return elementSize / 8;
+	}
+
+	/**
+	 * Checks that the given chunk size is positive.
+	 */
+	static void checkChunkSize(int chunkSize){
+		if (chunkSize <= 0){
+			throw new IllegalArgumentException("The chunk size should be positive.");
+		}
+	}
+
+	/**
+	 * Transposes the columns of the matrix into its rows.<p>
+	 * The work is done on tiles of 64x64 bits, which are transposed in registers and written to consecutive rows.
+	 * @param columns KAPPA columns of numOfWords words each.
+	 * @param rows an array of 2*64*numOfWords longs that gets the rows.
+	 */
+	static void transpose(long[][] columns, long[] rows){
+		int numOfWords = columns[0].length;
+		long[] tile = new long[64];
+		for (int w=0; w<numOfWords; w++){
+			for (int c=0; c<KAPPA/64; c++){
+				for (int a=0; a<64; a++){
+					tile[a] = columns[64*c + a][w];
+				}
+				transpose64(tile);
+				int base = 128*w + c;
+				for (int b=0; b<64; b++){
+					rows[base + 2*b] = tile[b];
+				}
+			}
+		}
+	}
+
+	/*
+	 * Transposes a 64x64 bits matrix in place, such that bit b of x[a] is exchanged with bit a of x[b].
+	 * In each level the off diagonal blocks of size j are swapped, for j = 32, 16, ..., 1.
+	 */
+	private static void transpose64(long[] x){
+		long mask = 0x00000000FFFFFFFFL;
+		for (int j=32; j!=0; j >>>= 1, mask ^= (mask << j)){
+			for (int a=0; a<64; a = (a + j + 1) & ~j){
+				long t = ((x[a] >>> j) ^ x[a + j]) & mask;
+				x[a + j] ^= t;
+				x[a] ^= t << j;
+			}
+		}
+	}
+
+	/**
+	 * Computes the correlation robust hash of the rows of the matrix.<p>
+	 * Each row x is hashed to H(i, x) = AES(AES(x) ^ i) ^ AES(x) where AES uses the fixed key and i is the global index of the OT.
+	 * When more than 16 bytes are needed, the block number is added to the tweak i.
+	 * @param aes created by createFixedKeyAes.
+	 * @param rows the rows of the matrix.
+	 * @param s0 the low word of a mask that is xored to every row before the hash.
+	 * @param s1 the high word of a mask that is xored to every row before the hash.
+	 * @param numOfOts the number of rows to hash.
+	 * @param counter the global index of the first row.
+	 * @param out gets the hash of row j at the bytes [offset + j*len, offset + (j+1)*len).
+	 * @param offset the index in out of the hash of the first row.
+	 * @param len the number of bytes of each hash.
+	 */
+	static void hash(Cipher aes, long[] rows, long s0, long s1, int numOfOts, long counter, byte[] out, int offset, int len){
+		int numOfBlocks = (len + 15) / 16;
+		byte[] in = new byte[16*HASH_BATCH];
+		byte[] pi = new byte[16*HASH_BATCH];
+		byte[] enc = new byte[16*HASH_BATCH];
+		LongBuffer inLongs = ByteBuffer.wrap(in).order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+		LongBuffer piLongs = ByteBuffer.wrap(pi).order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+
+		try {
+			for (int from=0; from<numOfOts; from+=HASH_BATCH){
+				int size = Math.min(HASH_BATCH, numOfOts - from);
+
+				//Compute AES(x) for all the rows of the batch.
+				inLongs.clear();
+				for (int j=from; j<from+size; j++){
+					inLongs.put(rows[2*j] ^ s0);
+					inLongs.put(rows[2*j + 1] ^ s1);
+				}
+				aes.update(in, 0, 16*size, pi, 0);
+
+				for (int k=0; k<numOfBlocks; k++){
+					//Compute AES(AES(x) ^ i) ^ AES(x), where the low word of i is the index of the OT and the high word is the block number.
+					inLongs.clear();
+					for (int j=0; j<size; j++){
+						inLongs.put(piLongs.get(2*j) ^ (counter + from + j));
+						inLongs.put(piLongs.get(2*j + 1) ^ k);
+					}
+					aes.update(in, 0, 16*size, enc, 0);
+
+					int blockLen = Math.min(16, len - 16*k);
+					for (int j=0; j<size; j++){
+						int outIndex = offset + (from + j)*len + 16*k;
+						for (int b=0; b<blockLen; b++){
+							out[outIndex + b] = (byte) (enc[16*j + b] ^ pi[16*j + b]);
+						}
+					}
+				}
+			}
+		} catch (ShortBufferException e) {
+			// Should not occur since the output buffers are of the same length as the input buffer.
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Xores the second array into the first one.
+	 */
+	static void xor(byte[] target, int targetOffset, byte[] source, int sourceOffset, int len){
+		for (int i=0; i<len; i++){
+			target[targetOffset + i] ^= source[sourceOffset + i];
+		}
+	}
+}
@@ -0,0 +1,321 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.interactiveMidProtocols.ot.otBatch.otExtension;
+
+import java.io.IOException;
+import java.util.LinkedList;
+import java.util.logging.Level;
+
+import javax.crypto.Cipher;
+import javax.crypto.ShortBufferException;
+
+import edu.biu.scapi.generals.Logging;
+
+/**
+ * An abstract pool of precomputed random OTs, that holds the functionality common to the sender and the receiver pools.<p>
+ *
+ * The random OTs are produced in chunks over the pool channel, either by a background thread or, when the pool runs out, by the thread that asks for them.
+ * Each stored OT consists of a fixed number of fields, such as the random strings of the sender, and each field has a fixed width in bytes.
+ * Since both parties produce the chunks in the same order and consume the OTs in the same order, the i-th OT of the sender pool matches the i-th OT of the receiver pool.
+ *
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+abstract class OTPoolAbs {
+
+	/**
+	 * The size in bits of the random strings of the pool.
+	 */
+	static final int STRING_SIZE = 128;
+
+	private int capacity;					//The number of OTs that the background thread keeps in the pool.
+	private int chunkSize;					//The number of OTs produced together.
+	private int[] widths;					//The number of bytes of each field of an OT.
+	private LinkedList<byte[][]> chunks = new LinkedList<byte[][]>();	//The produced chunks that were not fully used.
+	private int headOffset;					//The number of OTs of the first chunk that were already used.
+	private long produced;					//The number of OTs produced so far.
+	private long consumed;					//The number of OTs used so far.
+	private boolean inTransfer;				//Indicates that an online transfer is running, so the background thread should not use the link.
+	private boolean closed;
+	private Thread filler;					//The background thread. Null if it was not started.
+	private final Object productionLock = new Object();	//Makes the chunks run one after the other over the pool channel.
+	private Cipher aes = OTExtensionIKNPUtil.createFixedKeyAes();	//Expands the random strings to long pads.
+
+	/**
+	 * Sets the capacity, the chunk size and the widths of the fields of an OT.
+	 */
+	OTPoolAbs(int capacity, int chunkSize, int[] widths){
+		if (capacity <= 0){
+			throw new IllegalArgumentException("The capacity should be positive.");
+		}
+		this.capacity = capacity;
+		this.chunkSize = Math.min(chunkSize, capacity);
+		this.widths = widths;
+	}
+
+	/**
+	 * Runs one chunk of random OTs over the pool channel.
+	 * @param size the number of OTs in the chunk.
+	 * @return the fields of the OTs of the chunk. Field i of OT j is at the bytes [j*widths[i], (j+1)*widths[i]) of array i.
+	 */
+	protected abstract byte[][] runRandomChunk(int size) throws IOException, ClassNotFoundException;
+
+	/**
+	 * Starts a background thread that keeps the pool full.<p>
+	 * The thread runs a chunk whenever there is room for it and no online transfer is running.
+	 * The other party should start its thread as well, since each chunk needs both parties.
+	 */
+	public synchronized void start(){
+		if (filler != null || closed){
+			return;
+		}
+		filler = new Thread(new Runnable(){
+			@Override
+			public void run(){
+				runFiller();
+			}
+		}, "OTPool filler");
+		filler.setDaemon(true);
+		filler.start();
+	}
+
+	/**
+	 * Stops the background thread after its current chunk.<p>
+	 * A thread that waits for the other party to run a chunk is released only when the pool channel is closed.
+	 */
+	public synchronized void close(){
+		closed = true;
+		notifyAll();
+	}
+
+	/**
+	 * Runs random OTs until the pool holds the given number of OTs, in the calling thread.<p>
+	 * The other party must call this function with the same number.
+	 * @param numOfOts
+	 * @throws IOException if failed to send or receive a message.
+	 * @throws ClassNotFoundException
+	 */
+	public void fill(int numOfOts) throws IOException, ClassNotFoundException{
+		long target;
+		synchronized (this){
+			target = consumed + numOfOts;
+		}
+		produceUntil(target);
+	}
+
+	/**
+	 * @return the number of precomputed OTs that are ready for use.
+	 */
+	public synchronized long getNumOfAvailableOts(){
+		return produced - consumed;
+	}
+
+	/**
+	 * @return the number of OTs that the background thread keeps in the pool.
+	 */
+	public int getCapacity(){
+		return capacity;
+	}
+
+	/**
+	 * Marks the beginning of an online transfer, so the background thread does not use the link in the meantime.
+	 */
+	synchronized void beginTransfer(){
+		inTransfer = true;
+	}
+
+	/**
+	 * Marks the end of an online transfer.
+	 */
+	synchronized void endTransfer(){
+		inTransfer = false;
+		notifyAll();
+	}
+
+	/**
+	 * Takes the next OTs of the pool. If there are not enough OTs, runs more chunks in the calling thread.
+	 * @param numOfOts
+	 * @return the fields of the taken OTs, in the format of runRandomChunk.
+	 */
+	byte[][] take(int numOfOts) throws IOException, ClassNotFoundException{
+		long target;
+		synchronized (this){
+			target = consumed + numOfOts;
+		}
+		produceUntil(target);
+
+		byte[][] fields = new byte[widths.length][];
+		for (int i=0; i<widths.length; i++){
+			fields[i] = new byte[numOfOts*widths[i]];
+		}
+		synchronized (this){
+			int taken = 0;
+			while (taken < numOfOts){
+				byte[][] chunk = chunks.getFirst();
+				int chunkOts = chunk[0].length / widths[0];
+				int count = Math.min(chunkOts - headOffset, numOfOts - taken);
+				for (int i=0; i<widths.length; i++){
+					System.arraycopy(chunk[i], headOffset*widths[i], fields[i], taken*widths[i], count*widths[i]);
+				}
+				taken += count;
+				headOffset += count;
+				if (headOffset == chunkOts){
+					chunks.removeFirst();
+					headOffset = 0;
+				}
+			}
+			consumed += numOfOts;
+			//There may be room for the background thread.
+			notifyAll();
+		}
+		return fields;
+	}
+
+	/**
+	 * Runs chunks until the given number of OTs were produced.<p>
+	 * The number of OTs is checked before waiting for the production lock. Otherwise a transfer that already has enough OTs could wait
+	 * for a chunk of the background thread, which waits for the other party, whose background thread is paused by its own transfer.
+	 */
+	private void produceUntil(long target) throws IOException, ClassNotFoundException{
+		while (true){
+			synchronized (this){
+				if (produced >= target){
+					return;
+				}
+			}
+			synchronized (productionLock){
+				synchronized (this){
+					if (produced >= target){
+						return;
+					}
+				}
+				produceChunk();
+			}
+		}
+	}
+
+	/**
+	 * Runs one chunk and adds it to the pool. Must be called while holding the production lock.
+	 */
+	private void produceChunk() throws IOException, ClassNotFoundException{
+		byte[][] chunk = runRandomChunk(chunkSize);
+		synchronized (this){
+			chunks.addLast(chunk);
+			produced += chunkSize;
+			notifyAll();
+		}
+	}
+
+	/**
+	 * The loop of the background thread.
+	 */
+	private void runFiller(){
+		try {
+			while (true){
+				synchronized (this){
+					//Wait until there is room for a chunk and the link is idle.
+					while (!closed && (inTransfer || produced - consumed + chunkSize > capacity)){
+						wait();
+					}
+					if (closed){
+						return;
+					}
+				}
+				synchronized (productionLock){
+					synchronized (this){
+						//The room might have been filled by a transfer meanwhile.
+						if (produced - consumed + chunkSize > capacity){
+							continue;
+						}
+					}
+					produceChunk();
+				}
+			}
+		} catch (InterruptedException e) {
+			// The thread was interrupted, stop filling the pool.
+		} catch (Exception e) {
+			Logging.getLogger().log(Level.WARNING, "The OT pool stopped filling: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Expands the given random strings of 16 bytes to pads of the given lengths.<p>
+	 * A pad of at most 16 bytes is a prefix of the string itself. A longer pad consists of the blocks AES(r XOR k) XOR r XOR k, for k = 0, 1, ...,
+	 * where AES uses the fixed key of the OT extension hash. The blocks of all the pads are encrypted together.<p>
+	 * This function is called by the transfer functions, which are not called concurrently.
+	 * @param strings holds string i at the bytes [16i, 16(i+1)).
+	 * @param lengths the length of each pad.
+	 * @return the pads, one after the other.
+	 */
+	byte[] expand(byte[] strings, int[] lengths){
+		int total = 0;
+		int numOfBlocks = 0;
+		for (int i=0; i<lengths.length; i++){
+			total += lengths[i];
+			if (lengths[i] > 16){
+				numOfBlocks += (lengths[i] + 15) / 16;
+			}
+		}
+
+		//Prepare r XOR k for all the blocks of the long pads.
+		byte[] in = new byte[16*numOfBlocks];
+		int block = 0;
+		for (int i=0; i<lengths.length; i++){
+			if (lengths[i] > 16){
+				for (int k=0; k<(lengths[i] + 15) / 16; k++, block++){
+					System.arraycopy(strings, 16*i, in, 16*block, 16);
+					for (int b=0; b<4; b++){
+						in[16*block + b] ^= (byte) (k >>> (8*b));
+					}
+				}
+			}
+		}
+		byte[] enc = new byte[in.length];
+		try {
+			aes.update(in, 0, in.length, enc, 0);
+		} catch (ShortBufferException e) {
+			// Should not occur since the output buffer is of the same length as the input buffer.
+			throw new IllegalStateException(e);
+		}
+
+		byte[] pads = new byte[total];
+		int offset = 0;
+		block = 0;
+		for (int i=0; i<lengths.length; i++){
+			int len = lengths[i];
+			if (len <= 16){
+				System.arraycopy(strings, 16*i, pads, offset, len);
+			} else {
+				for (int k=0; k<len; k++){
+					int index = 16*block + k;
+					pads[offset + k] = (byte) (enc[index] ^ in[index]);
+				}
+				block += (len + 15) / 16;
+			}
+			offset += len;
+		}
+		return pads;
+	}
+}
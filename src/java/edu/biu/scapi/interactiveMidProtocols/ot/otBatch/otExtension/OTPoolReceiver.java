@@ -0,0 +1,247 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.interactiveMidProtocols.ot.otBatch.otExtension;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import edu.biu.scapi.comm.Channel;
+import edu.biu.scapi.exceptions.CheatAttemptException;
+import edu.biu.scapi.interactiveMidProtocols.ot.OTOnByteArrayROutput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchOnByteArrayROutput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchRBasicInput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchRInput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchROutput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchReceiver;
+import edu.biu.scapi.securityLevel.SemiHonest;
+
+/**
+ * A batch OT receiver that serves the OTs from a pool of precomputed random OTs. <P>
+ *
+ * The random OTs are produced by the pure Java OT extension over a dedicated pool channel, ahead of time and preferably by a background thread (see {@link #start()}).
+ * A transfer then uses the derandomization of the paper: <p>
+ * "D. Beaver. Precomputing Oblivious Transfer. CRYPTO 1995." <p>
+ * so that the online phase consists of one message from the receiver with a bit for each OT and one message from the sender with two masked strings for each OT.<p>
+ *
+ * The pool stores a random choice bit and a random string of 16 bytes for each OT.<p>
+ *
+ * The pool channel must not be used for anything else, and the sender must be an {@link OTPoolSender} with the same capacity and chunk size.<p>
+ *
+ * The supported inputs are OTBatchRBasicInput, whose output is OTBatchOnByteArrayROutput,
+ * and OTExtensionGeneralRInput, whose output is OTOnByteArrayROutput.
+ *
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class OTPoolReceiver extends OTPoolAbs implements SemiHonest, OTBatchReceiver{
+
+	/*
+	  This class runs the following protocol:
+	  	OFFLINE:
+	  		SAMPLE random choice bits cj and RUN random OTs as the receiver, to get rj = rj(cj) for every pooled OT j
+	  	ONLINE, for every i=1,...,m, using the next pooled OT j:
+	  		SEND ei = sigmai XOR cj to S
+	  		WAIT for (yi0, yi1) from S
+	  		OUTPUT xi = yi(sigmai) XOR rj
+	 */
+
+	private OTExtensionIKNPReceiverSession session;	//Produces the random OTs over the pool channel.
+	private SecureRandom random;
+
+	/**
+	 * Constructor that sets the given OT extension receiver and pool channel.
+	 * @param receiver produces the random OTs. Its chunk size is also the chunk size of the pool, unless the capacity is smaller.
+	 * @param poolChannel the channel over which the random OTs are produced. Used only by this pool.
+	 * @param capacity the number of OTs that the background thread keeps in the pool.
+	 * @param random used to sample the choice bits of the random OTs.
+	 */
+	public OTPoolReceiver(OTExtensionIKNPReceiver receiver, Channel poolChannel, int capacity, SecureRandom random){
+		super(capacity, receiver.getChunkSize(), new int[]{1, STRING_SIZE/8});
+		session = new OTExtensionIKNPReceiverSession(receiver, poolChannel, STRING_SIZE);
+		this.random = random;
+	}
+
+	/**
+	 * Constructor that sets the given OT extension receiver and pool channel, and a default SecureRandom.
+	 * @param receiver produces the random OTs. Its chunk size is also the chunk size of the pool, unless the capacity is smaller.
+	 * @param poolChannel the channel over which the random OTs are produced. Used only by this pool.
+	 * @param capacity the number of OTs that the background thread keeps in the pool.
+	 */
+	public OTPoolReceiver(OTExtensionIKNPReceiver receiver, Channel poolChannel, int capacity){
+		this(receiver, poolChannel, capacity, new SecureRandom());
+	}
+
+	@Override
+	protected byte[][] runRandomChunk(int size) throws IOException, ClassNotFoundException {
+		//Sample the random choice bits.
+		byte[] c = new byte[size];
+		random.nextBytes(c);
+		for (int j=0; j<size; j++){
+			c[j] &= 1;
+		}
+		//The array of the session is reused by the next chunk.
+		byte[] r = session.nextRandomChunk(c).clone();
+		return new byte[][]{c, r};
+	}
+
+	/**
+	 * Runs the online phase of the OT, using the precomputed random OTs.<p>
+	 * If the pool does not have enough OTs, more random OTs are produced first, over the pool channel.
+	 * @param channel the channel to the sender.
+	 * @param input MUST be an instance of OTBatchRBasicInput or OTExtensionGeneralRInput.
+	 * @return OTBatchOnByteArrayROutput for OTBatchRBasicInput, or OTOnByteArrayROutput that holds all the xSigma values serially for OTExtensionGeneralRInput.
+	 * @throws IOException if failed to send or receive a message.
+	 * @throws ClassNotFoundException
+	 * @throws CheatAttemptException
+	 */
+	@Override
+	public OTBatchROutput transfer(Channel channel, OTBatchRInput input) throws CheatAttemptException, IOException, ClassNotFoundException {
+		beginTransfer();
+		try {
+			if (input instanceof OTExtensionGeneralRInput){
+				return transferFlat(channel, (OTExtensionGeneralRInput) input);
+			} else if (input instanceof OTBatchRBasicInput){
+				return transferList(channel, (OTBatchRBasicInput) input);
+			} else {
+				throw new IllegalArgumentException("input should be an instance of OTBatchRBasicInput or OTExtensionGeneralRInput.");
+			}
+		} finally {
+			endTransfer();
+		}
+	}
+
+	/**
+	 * Runs the online phase when all the outputs are in one array and of the same length.
+	 */
+	private OTBatchROutput transferFlat(Channel channel, OTExtensionGeneralRInput input) throws ClassNotFoundException, IOException{
+		byte[] sigmaArr = input.getSigmaArr();
+		int numOfOts = sigmaArr.length;
+		int len = OTExtensionIKNPUtil.elementLength(input.getElementSize());
+		if (numOfOts == 0){
+			throw new IllegalArgumentException("The number of OTs should be positive.");
+		}
+
+		byte[][] pool = sendBits(channel, sigmaArr);
+
+		Serializable msg = receiveMsg(channel);
+		if (!(msg instanceof byte[][]) || ((byte[][]) msg).length != 2){
+			throw new IllegalArgumentException("The received message should be an array of two byte arrays");
+		}
+		byte[] y0 = ((byte[][]) msg)[0];
+		byte[] y1 = ((byte[][]) msg)[1];
+		if (y0 == null || y1 == null || y0.length != numOfOts*len || y1.length != numOfOts*len){
+			throw new IllegalArgumentException("The received message should be of length " + numOfOts*len);
+		}
+
+		//Compute xi = yi(sigmai) XOR ri.
+		int[] lengths = new int[numOfOts];
+		Arrays.fill(lengths, len);
+		byte[] output = expand(pool[1], lengths);
+		for (int i=0; i<numOfOts; i++){
+			OTExtensionIKNPUtil.xor(output, i*len, (sigmaArr[i] == 0) ? y0 : y1, i*len, len);
+		}
+		return new OTOnByteArrayROutput(output);
+	}
+
+	/**
+	 * Runs the online phase when each output is a separate array.
+	 */
+	private OTBatchROutput transferList(Channel channel, OTBatchRBasicInput input) throws ClassNotFoundException, IOException{
+		ArrayList<Byte> sigmaList = input.getSigmaArr();
+		int numOfOts = sigmaList.size();
+		if (numOfOts == 0){
+			throw new IllegalArgumentException("The number of OTs should be positive.");
+		}
+		byte[] sigmaArr = new byte[numOfOts];
+		for (int i=0; i<numOfOts; i++){
+			sigmaArr[i] = sigmaList.get(i);
+		}
+
+		byte[][] pool = sendBits(channel, sigmaArr);
+
+		Serializable msg = receiveMsg(channel);
+		if (!(msg instanceof byte[][]) || ((byte[][]) msg).length != 2*numOfOts){
+			throw new IllegalArgumentException("The received message should be an array of " + 2*numOfOts + " byte arrays");
+		}
+		byte[][] y = (byte[][]) msg;
+
+		//Compute xi = yi(sigmai) XOR ri.
+		int[] lengths = new int[numOfOts];
+		for (int i=0; i<numOfOts; i++){
+			if (y[2*i] == null || y[2*i + 1] == null || y[2*i].length != y[2*i + 1].length){
+				throw new IllegalArgumentException("The received values yi0 and yi1 should be of the same length");
+			}
+			lengths[i] = y[2*i].length;
+		}
+		byte[] pads = expand(pool[1], lengths);
+		ArrayList<byte[]> output = new ArrayList<byte[]>();
+		int offset = 0;
+		for (int i=0; i<numOfOts; i++){
+			byte[] x = y[2*i + sigmaArr[i]];
+			OTExtensionIKNPUtil.xor(x, 0, pads, offset, x.length);
+			output.add(x);
+			offset += x.length;
+		}
+		return new OTBatchOnByteArrayROutput(output);
+	}
+
+	/**
+	 * Takes the next OTs of the pool and sends ei = sigmai XOR ci, packed in words of 64 bits.
+	 * @return the fields of the taken OTs.
+	 */
+	private byte[][] sendBits(Channel channel, byte[] sigmaArr) throws ClassNotFoundException, IOException{
+		int numOfOts = sigmaArr.length;
+		//Check the input before the pooled OTs are taken, so a wrong input does not make the parties use different OTs.
+		for (int i=0; i<numOfOts; i++){
+			//The given sigma should be 0 or 1.
+			if (sigmaArr[i] != 0 && sigmaArr[i] != 1){
+				throw new IllegalArgumentException("Sigma should be 0 or 1");
+			}
+		}
+		byte[][] pool = take(numOfOts);
+		byte[] c = pool[0];
+		byte[] e = new byte[numOfOts];
+		for (int i=0; i<numOfOts; i++){
+			e[i] = (byte) (sigmaArr[i] ^ c[i]);
+		}
+		try {
+			channel.send(OTExtensionIKNPUtil.packBits(e, 0, numOfOts));
+		} catch (IOException ex) {
+			throw new IOException("failed to send the message. The thrown message is: " + ex.getMessage());
+		}
+		return pool;
+	}
+
+	private Serializable receiveMsg(Channel channel) throws ClassNotFoundException, IOException{
+		try {
+			return channel.receive();
+		} catch (IOException e) {
+			throw new IOException("Failed to receive message. The thrown message is: " + e.getMessage());
+		}
+	}
+}
@@ -0,0 +1,232 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.interactiveMidProtocols.ot.otBatch.otExtension;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import edu.biu.scapi.comm.Channel;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchOnByteArraySInput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchSInput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchSOutput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchSender;
+import edu.biu.scapi.securityLevel.SemiHonest;
+
+/**
+ * A batch OT sender that serves the OTs from a pool of precomputed random OTs. <P>
+ *
+ * The random OTs are produced by the pure Java OT extension over a dedicated pool channel, ahead of time and preferably by a background thread (see {@link #start()}).
+ * A transfer then uses the derandomization of the paper: <p>
+ * "D. Beaver. Precomputing Oblivious Transfer. CRYPTO 1995." <p>
+ * so that the online phase consists of one message from the receiver with a bit for each OT and one message from the sender with two masked strings for each OT.<p>
+ *
+ * The pool stores two random strings of 16 bytes for each OT. Strings longer than 16 bytes are masked by a pad that is expanded from the random string by fixed key AES.<p>
+ *
+ * The pool channel must not be used for anything else, and the receiver must be an {@link OTPoolReceiver} with the same capacity and chunk size.
+ * The online messages are sent over the channel given to the transfer function; it may be a different logical channel over the same connection,
+ * for example a channel of {@link edu.biu.scapi.comm.twoPartyComm.MultiplexedConnection}.<p>
+ *
+ * The supported inputs are OTBatchOnByteArraySInput, that matches OTBatchRBasicInput of the receiver,
+ * and OTExtensionGeneralSInput, that matches OTExtensionGeneralRInput of the receiver.
+ *
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class OTPoolSender extends OTPoolAbs implements SemiHonest, OTBatchSender{
+
+	/*
+	  This class runs the following protocol:
+	  	OFFLINE:
+	  		RUN random OTs as the sender, to get random strings (rj0, rj1) for every pooled OT j
+	  	ONLINE, for every i=1,...,m, using the next pooled OT j:
+	  		WAIT for ei = sigmai XOR cj from R
+	  		SEND yi0 = xi0 XOR rj(ei) and yi1 = xi1 XOR rj(1-ei) to R
+	  		OUTPUT nothing
+	 */
+
+	private OTExtensionIKNPSenderSession session;	//Produces the random OTs over the pool channel.
+
+	/**
+	 * Constructor that sets the given OT extension sender and pool channel.
+	 * @param sender produces the random OTs. Its chunk size is also the chunk size of the pool, unless the capacity is smaller.
+	 * @param poolChannel the channel over which the random OTs are produced. Used only by this pool.
+	 * @param capacity the number of OTs that the background thread keeps in the pool.
+	 */
+	public OTPoolSender(OTExtensionIKNPSender sender, Channel poolChannel, int capacity){
+		super(capacity, sender.getChunkSize(), new int[]{STRING_SIZE/8, STRING_SIZE/8});
+		session = new OTExtensionIKNPSenderSession(sender, poolChannel, STRING_SIZE);
+	}
+
+	@Override
+	protected byte[][] runRandomChunk(int size) throws IOException, ClassNotFoundException {
+		OTExtensionSOutput output = session.nextRandomChunk(size);
+		//The arrays of the session are reused by the next chunk.
+		return new byte[][]{output.getX0Arr().clone(), output.getX1Arr().clone()};
+	}
+
+	/**
+	 * Runs the online phase of the OT, using the precomputed random OTs.<p>
+	 * If the pool does not have enough OTs, more random OTs are produced first, over the pool channel.
+	 * @param channel the channel to the receiver.
+	 * @param input MUST be an instance of OTBatchOnByteArraySInput or OTExtensionGeneralSInput.
+	 * @return null, since this protocol has no output.
+	 * @throws IOException if failed to send or receive a message.
+	 * @throws ClassNotFoundException
+	 */
+	@Override
+	public OTBatchSOutput transfer(Channel channel, OTBatchSInput input) throws ClassNotFoundException, IOException {
+		beginTransfer();
+		try {
+			if (input instanceof OTExtensionGeneralSInput){
+				transferFlat(channel, (OTExtensionGeneralSInput) input);
+			} else if (input instanceof OTBatchOnByteArraySInput){
+				transferList(channel, (OTBatchOnByteArraySInput) input);
+			} else {
+				throw new IllegalArgumentException("input should be an instance of OTBatchOnByteArraySInput or OTExtensionGeneralSInput.");
+			}
+		} finally {
+			endTransfer();
+		}
+
+		//This protocol has no output. Return null.
+		return null;
+	}
+
+	/**
+	 * Runs the online phase when all the x0, x1 are in one array and of the same length.
+	 */
+	private void transferFlat(Channel channel, OTExtensionGeneralSInput input) throws ClassNotFoundException, IOException{
+		byte[] x0 = input.getX0Arr();
+		byte[] x1 = input.getX1Arr();
+		int numOfOts = input.getNumOfOts();
+		if (x0.length != x1.length){
+			throw new IllegalArgumentException("x0 and x1 should be of the same length.");
+		}
+		if (numOfOts <= 0 || x0.length == 0 || x0.length % numOfOts != 0){
+			throw new IllegalArgumentException("The length of the input should be a positive multiple of the number of OTs.");
+		}
+		int len = x0.length / numOfOts;
+
+		byte[][] pool = take(numOfOts);
+		long[] e = receiveBits(channel, numOfOts);
+
+		//Compute yi0 = xi0 XOR ri(ei) and yi1 = xi1 XOR ri(1-ei).
+		int[] lengths = new int[numOfOts];
+		Arrays.fill(lengths, len);
+		byte[][] pads = computePads(pool, e, lengths);
+		byte[] y0 = pads[0];
+		byte[] y1 = pads[1];
+		OTExtensionIKNPUtil.xor(y0, 0, x0, 0, y0.length);
+		OTExtensionIKNPUtil.xor(y1, 0, x1, 0, y1.length);
+		sendMsg(channel, new byte[][]{y0, y1});
+	}
+
+	/**
+	 * Runs the online phase when each x0, x1 is a separate array.
+	 */
+	private void transferList(Channel channel, OTBatchOnByteArraySInput input) throws ClassNotFoundException, IOException{
+		ArrayList<byte[]> x0Arr = input.getX0Arr();
+		ArrayList<byte[]> x1Arr = input.getX1Arr();
+		int numOfOts = x0Arr.size();
+		if (numOfOts == 0 || x1Arr.size() != numOfOts){
+			throw new IllegalArgumentException("x0 and x1 should hold the same positive number of values.");
+		}
+
+		for (int i=0; i<numOfOts; i++){
+			//If x0, x1 are not of the same length, throw Exception.
+			if (x0Arr.get(i).length != x1Arr.get(i).length){
+				throw new IllegalArgumentException("x0 and x1 should be of the same length.");
+			}
+		}
+
+		byte[][] pool = take(numOfOts);
+		long[] e = receiveBits(channel, numOfOts);
+
+		//Compute yi0 = xi0 XOR ri(ei) and yi1 = xi1 XOR ri(1-ei).
+		int[] lengths = new int[numOfOts];
+		for (int i=0; i<numOfOts; i++){
+			lengths[i] = x0Arr.get(i).length;
+		}
+		byte[][] pads = computePads(pool, e, lengths);
+
+		//The message holds yi0 at index 2i and yi1 at index 2i+1.
+		byte[][] y = new byte[2*numOfOts][];
+		int offset = 0;
+		for (int i=0; i<numOfOts; i++){
+			int len = lengths[i];
+			y[2*i] = Arrays.copyOfRange(pads[0], offset, offset + len);
+			y[2*i + 1] = Arrays.copyOfRange(pads[1], offset, offset + len);
+			OTExtensionIKNPUtil.xor(y[2*i], 0, x0Arr.get(i), 0, len);
+			OTExtensionIKNPUtil.xor(y[2*i + 1], 0, x1Arr.get(i), 0, len);
+			offset += len;
+		}
+		sendMsg(channel, y);
+	}
+
+	/**
+	 * Computes the pads ri(ei) and ri(1-ei) of all the OTs.
+	 * @param pool the random strings of the taken OTs.
+	 * @param e the bits received from the receiver.
+	 * @param lengths the length of each pad.
+	 * @return the two arrays of pads.
+	 */
+	private byte[][] computePads(byte[][] pool, long[] e, int[] lengths){
+		int numOfOts = lengths.length;
+		byte[] first = new byte[16*numOfOts];
+		byte[] second = new byte[16*numOfOts];
+		for (int i=0; i<numOfOts; i++){
+			int ei = (int) (e[i >>> 6] >>> (i & 63)) & 1;
+			System.arraycopy(pool[ei], 16*i, first, 16*i, 16);
+			System.arraycopy(pool[1 - ei], 16*i, second, 16*i, 16);
+		}
+		return new byte[][]{expand(first, lengths), expand(second, lengths)};
+	}
+
+	/**
+	 * Receives the bits ei = sigmai XOR ci, packed in words of 64 bits.
+	 */
+	private long[] receiveBits(Channel channel, int numOfOts) throws ClassNotFoundException, IOException{
+		Serializable msg = null;
+		try {
+			msg = channel.receive();
+		} catch (IOException e) {
+			throw new IOException("Failed to receive message. The thrown message is: " + e.getMessage());
+		}
+		if (!(msg instanceof long[]) || ((long[]) msg).length != (numOfOts + 63) / 64){
+			throw new IllegalArgumentException("The received message should be an array of " + ((numOfOts + 63) / 64) + " words");
+		}
+		return (long[]) msg;
+	}
+
+	private void sendMsg(Channel channel, Serializable msg) throws IOException{
+		try {
+			channel.send(msg);
+		} catch (IOException e) {
+			throw new IOException("failed to send the message. The thrown message is: " + e.getMessage());
+		}
+	}
+}
@@ -24,10 +24,15 @@
 */
 package edu.biu.scapi.interactiveMidProtocols.ot.otBatch.semiHonest;
 
-import java.io.Serializable;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.util.ArrayList;
 
 import edu.biu.scapi.interactiveMidProtocols.ot.OTRGroupElementPairMsg;
+import edu.biu.scapi.primitives.dlog.GroupElementSendableData;
+import edu.biu.scapi.primitives.dlog.SendableDataCodec;
 
 /**
  * Concrete implementation of OT receiver message used by batch OT receivers implementations. <p>
@@ -37,12 +42,18 @@ import edu.biu.scapi.interactiveMidProtocols.ot.OTRGroupElementPairMsg;
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Moriya Farbstein)
  *
  */
- class OTRGroupElementBatchMsg implements Serializable{
+ class OTRGroupElementBatchMsg implements Externalizable{
 
 	private static final long serialVersionUID = 8741959627688845620L;
 
 	private ArrayList<OTRGroupElementPairMsg> tuples;
 	
+	/**
+	 * Empty constructor, used by the de-serialization.
+	 */
+	public OTRGroupElementBatchMsg(){
+	}
+	
 	/**
 	 * Sets the array contains messages of the underlying OT.
 	 * @param tuples contains messages of the underlying OT.
@@ -58,4 +69,25 @@ import edu.biu.scapi.interactiveMidProtocols.ot.OTRGroupElementPairMsg;
 	ArrayList<OTRGroupElementPairMsg> getTuples(){
 		return tuples;
 	}
+	
+	public void writeExternal(ObjectOutput out) throws IOException {
+		//Write the pairs contiguously, without the overhead of the list and the pair objects.
+		int size = tuples.size();
+		SendableDataCodec.writeSize(out, size);
+		for (int i = 0; i < size; i++){
+			OTRGroupElementPairMsg tuple = tuples.get(i);
+			SendableDataCodec.writeSendableData(out, tuple.getFirstGE());
+			SendableDataCodec.writeSendableData(out, tuple.getSecondGE());
+		}
+	}
+	
+	public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+		int size = SendableDataCodec.readSize(in);
+		tuples = new ArrayList<OTRGroupElementPairMsg>(Math.min(size, 1024));
+		for (int i = 0; i < size; i++){
+			GroupElementSendableData h0 = SendableDataCodec.readSendableData(in);
+			GroupElementSendableData h1 = SendableDataCodec.readSendableData(in);
+			tuples.add(new OTRGroupElementPairMsg(h0, h1));
+		}
+	}
 }
@@ -96,15 +96,20 @@ public class OTSemiHonestDDHBatchOnByteArrayReceiver extends OTSemiHonestDDHBatc
 		OTSemiHonestDDHBatchOnByteArraySenderMsg msg = (OTSemiHonestDDHBatchOnByteArraySenderMsg)message;
 		int size = sigmaArr.size();
 		ArrayList<byte[]> xSigmaArr = new ArrayList<byte[]> ();
-		GroupElement u, kSigma;
+		GroupElement kSigma;
 		byte[] vSigma, xSigma;
+		GroupElement[] u = new GroupElement[size];
+		
+		for (int i=0; i<size; i++){
+			u[i] = dlog.reconstructElement(true, msg.getTuples().get(i).getU());
+		}
+		//Compute kSigma for all the tuples.
+		GroupElement[] kSigmaArr = computeUPowers(u, alphaArr.toArray(new BigInteger[size]));
 
 		for (int i=0; i<size; i++){
 			
 			OTSemiHonestDDHOnByteArraySenderMsg tuple = msg.getTuples().get(i);
-			//Compute kSigma:
-			u = dlog.reconstructElement(true, tuple.getU());
-			kSigma = dlog.exponentiate(u, alphaArr.get(i));
+			kSigma = kSigmaArr[i];
 			byte[] kBytes = dlog.mapAnyGroupElementToByteArray(kSigma);
 			
 			//Get v0 or v1 according to sigma.
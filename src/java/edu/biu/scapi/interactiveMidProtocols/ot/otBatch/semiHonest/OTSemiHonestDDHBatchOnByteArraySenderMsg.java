@@ -24,10 +24,16 @@
 */
 package edu.biu.scapi.interactiveMidProtocols.ot.otBatch.semiHonest;
 
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.util.ArrayList;
 
 import edu.biu.scapi.interactiveMidProtocols.ot.OTSMsg;
 import edu.biu.scapi.interactiveMidProtocols.ot.semiHonest.OTSemiHonestDDHOnByteArraySenderMsg;
+import edu.biu.scapi.primitives.dlog.GroupElementSendableData;
+import edu.biu.scapi.primitives.dlog.SendableDataCodec;
 
 /**
  * Concrete implementation of batch OT sender (on byteArray) message.<p>
@@ -36,11 +42,17 @@ import edu.biu.scapi.interactiveMidProtocols.ot.semiHonest.OTSemiHonestDDHOnByte
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Moriya Farbstein)
  *
  */
-class OTSemiHonestDDHBatchOnByteArraySenderMsg implements OTSMsg{
+class OTSemiHonestDDHBatchOnByteArraySenderMsg implements OTSMsg, Externalizable{
 	
 	private static final long serialVersionUID = -3200911064233246599L;
 	private ArrayList<OTSemiHonestDDHOnByteArraySenderMsg> tuples;
 	
+	/**
+	 * Empty constructor, used by the de-serialization.
+	 */
+	public OTSemiHonestDDHBatchOnByteArraySenderMsg(){
+	}
+	
 	/**
 	 * Sets the array contains messages of the underlying OT.
 	 * @param tuples contains messages of the underlying OT.
@@ -56,5 +68,27 @@ class OTSemiHonestDDHBatchOnByteArraySenderMsg implements OTSMsg{
 	public ArrayList<OTSemiHonestDDHOnByteArraySenderMsg> getTuples(){
 		return tuples;
 	}
-
+	
+	public void writeExternal(ObjectOutput out) throws IOException {
+		//Write the tuples contiguously, without the overhead of the list and the tuple objects.
+		int size = tuples.size();
+		SendableDataCodec.writeSize(out, size);
+		for (int i = 0; i < size; i++){
+			OTSemiHonestDDHOnByteArraySenderMsg tuple = tuples.get(i);
+			SendableDataCodec.writeSendableData(out, tuple.getU());
+			SendableDataCodec.writeByteArray(out, tuple.getV0());
+			SendableDataCodec.writeByteArray(out, tuple.getV1());
+		}
+	}
+	
+	public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+		int size = SendableDataCodec.readSize(in);
+		tuples = new ArrayList<OTSemiHonestDDHOnByteArraySenderMsg>(Math.min(size, 1024));
+		for (int i = 0; i < size; i++){
+			GroupElementSendableData u = SendableDataCodec.readSendableData(in);
+			byte[] v0 = SendableDataCodec.readByteArray(in);
+			byte[] v1 = SendableDataCodec.readByteArray(in);
+			tuples.add(new OTSemiHonestDDHOnByteArraySenderMsg(u, v0, v1));
+		}
+	}
 }
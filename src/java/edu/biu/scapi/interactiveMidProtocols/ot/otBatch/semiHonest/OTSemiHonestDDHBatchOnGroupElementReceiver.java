@@ -85,17 +85,22 @@ public class OTSemiHonestDDHBatchOnGroupElementReceiver extends OTSemiHonestDDHB
 		OTSemiHonestDDHBatchOnGroupElementSenderMsg msg = (OTSemiHonestDDHBatchOnGroupElementSenderMsg)message;
 		int size = sigmaArr.size();
 		ArrayList<GroupElement> xSigmaArr = new ArrayList<GroupElement>();
-		GroupElement u, kSigma, vSigma;
-		BigInteger beta;
+		GroupElement kSigma, vSigma;
+		GroupElement[] u = new GroupElement[size];
+		BigInteger[] beta = new BigInteger[size];
+		
+		for (int i=0; i<size; i++){
+			OTSemiHonestDDHOnGroupElementSenderMsg tuple = msg.getTuples().get(i);
+			u[i] = dlog.reconstructElement(true, tuple.getU());	//Get u
+			beta[i] = dlog.getOrder().subtract(alphaArr.get(i));	//Get -alpha
+		}
+		//Compute (kSigma)^(-1) = u^(-alpha) for all the tuples.
+		GroupElement[] kSigmaArr = computeUPowers(u, beta);
 
 		for (int i=0; i<size; i++){
 			
 			OTSemiHonestDDHOnGroupElementSenderMsg tuple = msg.getTuples().get(i);
-			//Compute (kSigma)^(-1) = u^(-alpha):
-			u = dlog.reconstructElement(true, tuple.getU());	//Get u
-			beta = dlog.getOrder().subtract(alphaArr.get(i));	//Get -alpha
-			kSigma = dlog.exponentiate(u, beta);
-			
+			kSigma = kSigmaArr[i];
 			
 			//Get v0 or v1 according to sigma.
 			vSigma = null;
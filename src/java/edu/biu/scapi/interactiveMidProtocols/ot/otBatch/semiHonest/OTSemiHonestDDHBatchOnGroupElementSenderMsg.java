@@ -24,10 +24,16 @@
 */
 package edu.biu.scapi.interactiveMidProtocols.ot.otBatch.semiHonest;
 
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.util.ArrayList;
 
 import edu.biu.scapi.interactiveMidProtocols.ot.OTSMsg;
 import edu.biu.scapi.interactiveMidProtocols.ot.semiHonest.OTSemiHonestDDHOnGroupElementSenderMsg;
+import edu.biu.scapi.primitives.dlog.GroupElementSendableData;
+import edu.biu.scapi.primitives.dlog.SendableDataCodec;
 
 /**
  * Concrete implementation of batch OT sender (on group element) message.
@@ -36,12 +42,18 @@ import edu.biu.scapi.interactiveMidProtocols.ot.semiHonest.OTSemiHonestDDHOnGrou
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Moriya Farbstein)
  *
  */
-class OTSemiHonestDDHBatchOnGroupElementSenderMsg implements OTSMsg{
+class OTSemiHonestDDHBatchOnGroupElementSenderMsg implements OTSMsg, Externalizable{
 	
 	private static final long serialVersionUID = -8537704297372436165L;
 	
 	private ArrayList<OTSemiHonestDDHOnGroupElementSenderMsg> tuples;
 	
+	/**
+	 * Empty constructor, used by the de-serialization.
+	 */
+	public OTSemiHonestDDHBatchOnGroupElementSenderMsg(){
+	}
+	
 	/**
 	 * Sets the array contains messages of the underlying OT.
 	 * @param tuples contains messages of the underlying OT.
@@ -57,5 +69,27 @@ class OTSemiHonestDDHBatchOnGroupElementSenderMsg implements OTSMsg{
 	public ArrayList<OTSemiHonestDDHOnGroupElementSenderMsg> getTuples(){
 		return tuples;
 	}
-
+	
+	public void writeExternal(ObjectOutput out) throws IOException {
+		//Write the tuples contiguously, without the overhead of the list and the tuple objects.
+		int size = tuples.size();
+		SendableDataCodec.writeSize(out, size);
+		for (int i = 0; i < size; i++){
+			OTSemiHonestDDHOnGroupElementSenderMsg tuple = tuples.get(i);
+			SendableDataCodec.writeSendableData(out, tuple.getU());
+			SendableDataCodec.writeSendableData(out, tuple.getV0());
+			SendableDataCodec.writeSendableData(out, tuple.getV1());
+		}
+	}
+	
+	public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+		int size = SendableDataCodec.readSize(in);
+		tuples = new ArrayList<OTSemiHonestDDHOnGroupElementSenderMsg>(Math.min(size, 1024));
+		for (int i = 0; i < size; i++){
+			GroupElementSendableData u = SendableDataCodec.readSendableData(in);
+			GroupElementSendableData v0 = SendableDataCodec.readSendableData(in);
+			GroupElementSendableData v1 = SendableDataCodec.readSendableData(in);
+			tuples.add(new OTSemiHonestDDHOnGroupElementSenderMsg(u, v0, v1));
+		}
+	}
 }
@@ -199,9 +199,11 @@ abstract class OTSemiHonestDDHBatchReceiverAbs implements OTBatchReceiver{
 		int size = alphaArr.size();
 		GroupElement g = dlog.getGenerator();
 		ArrayList<OTRGroupElementPairMsg> tuples = new ArrayList<OTRGroupElementPairMsg>();
+		
+		//Calculate g^alphaI for every i, as one batch of exponentiations of the generator.
+		GroupElement[] gAlphaArr = dlog.exponentiateBatch(g, alphaArr.toArray(new BigInteger[size]));
 		for (int i=0; i<size; i++){
-			//Calculate g^alphaI.
-			GroupElement gAlpha = dlog.exponentiate(g, alphaArr.get(i));
+			GroupElement gAlpha = gAlphaArr[i];
 					
 			GroupElement h0 = null;
 			GroupElement h1 = null;
@@ -269,5 +271,31 @@ abstract class OTSemiHonestDDHBatchReceiverAbs implements OTBatchReceiver{
 	 * @return OTROutput contains XSigma
 	 */
 	protected abstract OTBatchROutput computeFinalXSigma(ArrayList<Byte> sigma, ArrayList<BigInteger> alpha, OTSMsg message);
+	
+	/**
+	 * Computes (ui)^exponentI for every i=1,...,m, where ui is the u element of the i-th tuple of the sender's message.<p>
+	 * The sender uses the same u in all the tuples. In that case the exponentiations are computed as one batch of the same base.
+	 * @param u the u elements of the tuples.
+	 * @param exponents the exponents, one for each tuple.
+	 * @return the exponentiation results.
+	 */
+	protected GroupElement[] computeUPowers(GroupElement[] u, BigInteger[] exponents){
+		if (u.length == 0){
+			return new GroupElement[0];
+		}
+		boolean sameBase = true;
+		for (int i=1; i<u.length && sameBase; i++){
+			sameBase = u[i].equals(u[0]);
+		}
+		if (sameBase){
+			return dlog.exponentiateBatch(u[0], exponents);
+		}
+		
+		GroupElement[] powers = new GroupElement[u.length];
+		for (int i=0; i<u.length; i++){
+			powers[i] = dlog.exponentiate(u[i], exponents[i]);
+		}
+		return powers;
+	}
 
 }
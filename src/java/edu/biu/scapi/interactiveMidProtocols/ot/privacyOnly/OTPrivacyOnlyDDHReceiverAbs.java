@@ -244,10 +244,10 @@ abstract class OTPrivacyOnlyDDHReceiverAbs implements OTReceiver{
 		//Calculates g^alpha, g^beta, g^(alpha*beta), g^gamma.
 		GroupElement g = dlog.getGenerator();
 		
-		GroupElement gAlpha = dlog.exponentiate(g, alpha);
-		GroupElement gBeta = dlog.exponentiate(g, beta);
-		GroupElement gGamma = dlog.exponentiate(g, gamma);
-		GroupElement gAlphaBeta = dlog.exponentiate(g, alpha.multiply(beta));
+		GroupElement gAlpha = dlog.exponentiateWithPreComputedValues(g, alpha);
+		GroupElement gBeta = dlog.exponentiateWithPreComputedValues(g, beta);
+		GroupElement gGamma = dlog.exponentiateWithPreComputedValues(g, gamma);
+		GroupElement gAlphaBeta = dlog.exponentiateWithPreComputedValues(g, alpha.multiply(beta));
 		
 		if (sigma == 0){
 			return new OTRGroupElementQuadMsg(gAlpha.generateSendableData(), 
@@ -24,8 +24,14 @@
 */
 package edu.biu.scapi.interactiveMidProtocols.ot.semiHonest;
 
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+
 import edu.biu.scapi.interactiveMidProtocols.ot.OTSMsg;
 import edu.biu.scapi.primitives.dlog.GroupElementSendableData;
+import edu.biu.scapi.primitives.dlog.SendableDataCodec;
 
 /**
  * Concrete implementation of OT sender (on byteArray) message.<p>
@@ -34,13 +40,19 @@ import edu.biu.scapi.primitives.dlog.GroupElementSendableData;
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Moriya Farbstein)
  *
  */
-public class OTSemiHonestDDHOnByteArraySenderMsg implements OTSMsg{
+public class OTSemiHonestDDHOnByteArraySenderMsg implements OTSMsg, Externalizable{
 	
 	private static final long serialVersionUID = -8231788505353019414L;
 	private GroupElementSendableData u;
 	private byte[] v0;
 	private byte[] v1;
 	
+	/**
+	 * Empty constructor, used by the de-serialization.
+	 */
+	public OTSemiHonestDDHOnByteArraySenderMsg(){
+	}
+	
 	/**
 	 * Constructor that sets the given values calculated by the protocol.
 	 * @param u
@@ -64,4 +76,16 @@ public class OTSemiHonestDDHOnByteArraySenderMsg implements OTSMsg{
 	public byte[] getV1(){
 		return v1;
 	}
+	
+	public void writeExternal(ObjectOutput out) throws IOException {
+		SendableDataCodec.writeSendableData(out, u);
+		SendableDataCodec.writeByteArray(out, v0);
+		SendableDataCodec.writeByteArray(out, v1);
+	}
+	
+	public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+		u = SendableDataCodec.readSendableData(in);
+		v0 = SendableDataCodec.readByteArray(in);
+		v1 = SendableDataCodec.readByteArray(in);
+	}
 }
@@ -24,8 +24,14 @@
 */
 package edu.biu.scapi.interactiveMidProtocols.ot.semiHonest;
 
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+
 import edu.biu.scapi.interactiveMidProtocols.ot.OTSMsg;
 import edu.biu.scapi.primitives.dlog.GroupElementSendableData;
+import edu.biu.scapi.primitives.dlog.SendableDataCodec;
 
 /**
  * Concrete implementation of OT sender (on GroupElement) message.<p>
@@ -34,13 +40,19 @@ import edu.biu.scapi.primitives.dlog.GroupElementSendableData;
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Moriya Farbstein)
  *
  */
-public class OTSemiHonestDDHOnGroupElementSenderMsg implements OTSMsg{
+public class OTSemiHonestDDHOnGroupElementSenderMsg implements OTSMsg, Externalizable{
 	
 	private static final long serialVersionUID = -5540829944975370558L;
 	private GroupElementSendableData u;
 	private GroupElementSendableData v0;
 	private GroupElementSendableData v1;
 	
+	/**
+	 * Empty constructor, used by the de-serialization.
+	 */
+	public OTSemiHonestDDHOnGroupElementSenderMsg(){
+	}
+	
 	/**
 	 * SEts the given values calculated by the protocol.
 	 * @param u
@@ -64,4 +76,16 @@ public class OTSemiHonestDDHOnGroupElementSenderMsg implements OTSMsg{
 	public GroupElementSendableData getV1(){
 		return v1;
 	}
+	
+	public void writeExternal(ObjectOutput out) throws IOException {
+		SendableDataCodec.writeSendableData(out, u);
+		SendableDataCodec.writeSendableData(out, v0);
+		SendableDataCodec.writeSendableData(out, v1);
+	}
+	
+	public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+		u = SendableDataCodec.readSendableData(in);
+		v0 = SendableDataCodec.readSendableData(in);
+		v1 = SendableDataCodec.readSendableData(in);
+	}
 }
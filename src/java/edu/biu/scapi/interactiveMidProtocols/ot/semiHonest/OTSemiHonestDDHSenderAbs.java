@@ -198,7 +198,7 @@ abstract class OTSemiHonestDDHSenderAbs implements OTSender{
 		GroupElement g = dlog.getGenerator(); //Get the group generator.
 
 		//Calculate u = g^r.
-		return dlog.exponentiate(g, r);
+		return dlog.exponentiateWithPreComputedValues(g, r);
 	}
 	
 	/**
@@ -0,0 +1,201 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.interactiveMidProtocols.sigmaProtocol;
+
+import java.math.BigInteger;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaCommonInput;
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaProtocolMsg;
+import edu.biu.scapi.primitives.dlog.DlogGroup;
+import edu.biu.scapi.primitives.dlog.GroupElement;
+
+/**
+ * This class verifies many proofs of the same Dlog based sigma protocol together. <p>
+ * 
+ * Instead of checking the equations of each proof separately, each equation is multiplied by a small random exponent rho 
+ * and all the equations are combined into one product that should be equal to the identity element. 
+ * The product is computed using a single call to {@link DlogGroup#simultaneousMultipleExponentiations(GroupElement[], BigInteger[])}, 
+ * where bases that are shared by the equations (like the generator or a public key) are merged.<p>
+ * If the combined check holds then all proofs are valid, except with probability 2^(-l) where l is the bit length of the random exponents. 
+ * Otherwise, each proof is verified separately in order to find the invalid ones.<p>
+ * 
+ * The proofs are verified in the calling thread; the given verifier computation should not be used concurrently while verifying a batch.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class SigmaBatchVerifier {
+	
+	private SigmaBatchVerifiableComputation verifier;	//Underlying verifier computation.
+	private DlogGroup dlog;								//Underlying DlogGroup.
+	private int l;										//Bit length of the random exponents.
+	private SecureRandom random;
+	
+	/**
+	 * Constructor that sets the given verifier computation, DlogGroup, bit length of the random exponents and SecureRandom.
+	 * @param verifier the computation of the proofs to verify.
+	 * @param dlog the DlogGroup the verifier works on.
+	 * @param l bit length of the random exponents. The probability to accept a batch that contains an invalid proof is 2^(-l).
+	 * @param random
+	 * @throws IllegalArgumentException if l is not positive or 2^l >= q.
+	 */
+	public SigmaBatchVerifier(SigmaBatchVerifiableComputation verifier, DlogGroup dlog, int l, SecureRandom random){
+		if (l <= 0 || l >= dlog.getOrder().bitLength()){
+			throw new IllegalArgumentException("l must be positive and satisfy 2^l<q");
+		}
+		this.verifier = verifier;
+		this.dlog = dlog;
+		this.l = l;
+		this.random = random;
+	}
+	
+	/**
+	 * Constructor that sets the given verifier computation and DlogGroup.<p>
+	 * The random exponents are as long as the soundness parameter of the verifier.
+	 * @param verifier the computation of the proofs to verify.
+	 * @param dlog the DlogGroup the verifier works on.
+	 */
+	public SigmaBatchVerifier(SigmaBatchVerifiableComputation verifier, DlogGroup dlog){
+		this(verifier, dlog, verifier.getSoundnessParam(), new SecureRandom());
+	}
+	
+	/**
+	 * Verifies the given proofs.<p>
+	 * The i-th proof is given by inputs[i], the first message a[i], the challenge challenges[i] and the second message z[i].
+	 * @param inputs the common inputs of the proofs.
+	 * @param a the first messages of the prover.
+	 * @param challenges the challenges of the proofs.
+	 * @param z the second messages of the prover.
+	 * @return an array such that the i-th cell is true if the i-th proof has been verified; false, otherwise.
+	 * A proof whose input or messages are rejected by the underlying verifier, for example because the first message 
+	 * contains an element that is not member in the group, is not verified and does not affect the other proofs.
+	 * @throws IllegalArgumentException if the given arrays are not of the same length.
+	 */
+	public boolean[] verify(SigmaCommonInput[] inputs, SigmaProtocolMsg[] a, byte[][] challenges, SigmaProtocolMsg[] z){
+		int size = inputs.length;
+		if (a.length != size || challenges.length != size || z.length != size){
+			throw new IllegalArgumentException("the number of inputs, first messages, challenges and second messages must be equal");
+		}
+		
+		boolean[] verified = new boolean[size];
+		//Indices of the proofs that are verified by the combined check.
+		ArrayList<Integer> batched = new ArrayList<Integer>(size);
+		
+		BigInteger q = dlog.getOrder();
+		//Maps each base to its accumulated exponent. Equal bases of different equations are merged.
+		Map<GroupElement, BigInteger> terms = new HashMap<GroupElement, BigInteger>();
+		
+		for (int i = 0; i < size; i++){
+			SigmaVerificationEquation[] equations;
+			try {
+				equations = verifier.getVerificationEquations(inputs[i], a[i], challenges[i], z[i]);
+			} catch (IllegalArgumentException ex){
+				//The proof is malformed. Mark it as not verified and keep it out of the combined check.
+				verified[i] = false;
+				continue;
+			}
+			if (equations == null){
+				//This proof can not be combined with the others, verify it separately.
+				verified[i] = verifySingle(inputs[i], a[i], challenges[i], z[i]);
+				continue;
+			}
+			batched.add(i);
+			
+			for (int j = 0; j < equations.length; j++){
+				BigInteger rho = sampleRho();
+				//Move the left side to the right side: right^rho * left^(-rho) should be the identity.
+				addTerms(terms, equations[j].getRightBases(), equations[j].getRightExponents(), rho, q, false);
+				addTerms(terms, equations[j].getLeftBases(), equations[j].getLeftExponents(), rho, q, true);
+			}
+		}
+		
+		if (batched.isEmpty()){
+			return verified;
+		}
+		
+		GroupElement[] bases = new GroupElement[terms.size()];
+		BigInteger[] exponents = new BigInteger[terms.size()];
+		int index = 0;
+		for (Map.Entry<GroupElement, BigInteger> term : terms.entrySet()){
+			bases[index] = term.getKey();
+			exponents[index] = term.getValue();
+			index++;
+		}
+		
+		boolean batchVerified = bases.length == 0 || dlog.simultaneousMultipleExponentiations(bases, exponents).isIdentity();
+		
+		for (int i : batched){
+			//If the combined check failed, find the invalid proofs by verifying each one separately.
+			verified[i] = batchVerified || verifySingle(inputs[i], a[i], challenges[i], z[i]);
+		}
+		
+		return verified;
+	}
+	
+	/**
+	 * Verifies a single proof using the underlying verifier.<p>
+	 * A proof that is rejected by the underlying verifier with an exception is not verified.
+	 */
+	private boolean verifySingle(SigmaCommonInput input, SigmaProtocolMsg a, byte[] challenge, SigmaProtocolMsg z){
+		verifier.setChallenge(challenge);
+		try {
+			return verifier.verify(input, a, z);
+		} catch (IllegalArgumentException ex){
+			return false;
+		}
+	}
+	
+	/**
+	 * Samples a random non zero exponent of l bits.
+	 */
+	private BigInteger sampleRho(){
+		BigInteger rho;
+		do {
+			rho = new BigInteger(l, random);
+		} while (rho.signum() == 0);
+		return rho;
+	}
+	
+	/**
+	 * Adds base^(rho*exponent) (or base^(-rho*exponent) if negate is true) for each given base to the accumulated terms.
+	 */
+	private void addTerms(Map<GroupElement, BigInteger> terms, GroupElement[] bases, BigInteger[] exponents, BigInteger rho, BigInteger q, boolean negate){
+		for (int k = 0; k < bases.length; k++){
+			BigInteger exponent = rho.multiply(exponents[k]);
+			if (negate){
+				exponent = exponent.negate();
+			}
+			BigInteger current = terms.get(bases[k]);
+			if (current != null){
+				exponent = exponent.add(current);
+			}
+			terms.put(bases[k], exponent.mod(q));
+		}
+	}
+}
@@ -0,0 +1,81 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.interactiveMidProtocols.sigmaProtocol;
+
+import java.math.BigInteger;
+
+import edu.biu.scapi.primitives.dlog.GroupElement;
+
+/**
+ * This class holds a single verification equation of a Dlog based sigma protocol, in the form<p>
+ * 		leftBases[0]^leftExponents[0] * ... * leftBases[n]^leftExponents[n] = rightBases[0]^rightExponents[0] * ... * rightBases[m]^rightExponents[m].<p>
+ * For example, the Schnorr equation g^z = a*h^e is given by the left side (g; z) and the right side (a, h; 1, e).<p>
+ * 
+ * It is used by {@link SigmaBatchVerifier} in order to combine the equations of many proofs into a single multi-exponentiation.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class SigmaVerificationEquation {
+	
+	private GroupElement[] leftBases;
+	private BigInteger[] leftExponents;
+	private GroupElement[] rightBases;
+	private BigInteger[] rightExponents;
+	
+	/**
+	 * Constructor that sets the bases and exponents of both sides of the equation.
+	 * @param leftBases
+	 * @param leftExponents
+	 * @param rightBases
+	 * @param rightExponents
+	 * @throws IllegalArgumentException if the number of bases and exponents in one of the sides are not equal.
+	 */
+	public SigmaVerificationEquation(GroupElement[] leftBases, BigInteger[] leftExponents, GroupElement[] rightBases, BigInteger[] rightExponents){
+		if (leftBases.length != leftExponents.length || rightBases.length != rightExponents.length){
+			throw new IllegalArgumentException("the number of bases and exponents in each side of the equation must be equal");
+		}
+		this.leftBases = leftBases;
+		this.leftExponents = leftExponents;
+		this.rightBases = rightBases;
+		this.rightExponents = rightExponents;
+	}
+	
+	public GroupElement[] getLeftBases(){
+		return leftBases;
+	}
+	
+	public BigInteger[] getLeftExponents(){
+		return leftExponents;
+	}
+	
+	public GroupElement[] getRightBases(){
+		return rightBases;
+	}
+	
+	public BigInteger[] getRightExponents(){
+		return rightExponents;
+	}
+}
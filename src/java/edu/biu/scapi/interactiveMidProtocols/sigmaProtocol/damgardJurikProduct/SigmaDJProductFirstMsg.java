@@ -24,9 +24,14 @@
 */
 package edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.damgardJurikProduct;
 
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.math.BigInteger;
 
 import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaProtocolMsg;
+import edu.biu.scapi.primitives.dlog.SendableDataCodec;
 
 /**
  * Concrete implementation of SigmaProtocol message. 
@@ -35,13 +40,19 @@ import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaProtocol
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Moriya Farbstein)
  *
  */
-class SigmaDJProductFirstMsg implements SigmaProtocolMsg{
+class SigmaDJProductFirstMsg implements SigmaProtocolMsg, Externalizable{
 
 	
 	private static final long serialVersionUID = -8299363939635996180L;
 	private BigInteger a1;
 	private BigInteger a2;
 	
+	/**
+	 * Empty constructor, used by the de-serialization.
+	 */
+	public SigmaDJProductFirstMsg(){
+	}
+	
 	SigmaDJProductFirstMsg(BigInteger a1, BigInteger a2){
 		this.a1 = a1;
 		this.a2 = a2;
@@ -54,4 +65,14 @@ class SigmaDJProductFirstMsg implements SigmaProtocolMsg{
 	BigInteger getA2(){
 		return a2;
 	}
+	
+	public void writeExternal(ObjectOutput out) throws IOException {
+		SendableDataCodec.writeBigInteger(out, a1);
+		SendableDataCodec.writeBigInteger(out, a2);
+	}
+	
+	public void readExternal(ObjectInput in) throws IOException {
+		a1 = SendableDataCodec.readBigInteger(in);
+		a2 = SendableDataCodec.readBigInteger(in);
+	}
 }
@@ -24,9 +24,14 @@
 */
 package edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.damgardJurikProduct;
 
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.math.BigInteger;
 
 import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaProtocolMsg;
+import edu.biu.scapi.primitives.dlog.SendableDataCodec;
 
 /**
  * Concrete implementation of SigmaProtocol message. 
@@ -35,7 +40,7 @@ import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaProtocol
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Moriya Farbstein)
  *
  */
-class SigmaDJProductSecondMsg implements SigmaProtocolMsg{
+class SigmaDJProductSecondMsg implements SigmaProtocolMsg, Externalizable{
 	
 	private static final long serialVersionUID = -8437524435815994178L;
 	
@@ -43,6 +48,12 @@ class SigmaDJProductSecondMsg implements SigmaProtocolMsg{
 	private BigInteger z2;
 	private BigInteger z3;
 	
+	/**
+	 * Empty constructor, used by the de-serialization.
+	 */
+	public SigmaDJProductSecondMsg(){
+	}
+	
 	SigmaDJProductSecondMsg(BigInteger z1, BigInteger z2, BigInteger z3){
 		this.z1 = z1;
 		this.z2 = z2;
@@ -60,5 +71,16 @@ class SigmaDJProductSecondMsg implements SigmaProtocolMsg{
 	BigInteger getZ3(){
 		return z3;
 	}
-
+	
+	public void writeExternal(ObjectOutput out) throws IOException {
+		SendableDataCodec.writeBigInteger(out, z1);
+		SendableDataCodec.writeBigInteger(out, z2);
+		SendableDataCodec.writeBigInteger(out, z3);
+	}
+	
+	public void readExternal(ObjectInput in) throws IOException {
+		z1 = SendableDataCodec.readBigInteger(in);
+		z2 = SendableDataCodec.readBigInteger(in);
+		z3 = SendableDataCodec.readBigInteger(in);
+	}
 }
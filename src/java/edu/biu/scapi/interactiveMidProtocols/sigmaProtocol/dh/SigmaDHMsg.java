@@ -24,8 +24,14 @@
 */
 package edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.dh;
 
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+
 import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaProtocolMsg;
 import edu.biu.scapi.primitives.dlog.GroupElementSendableData;
+import edu.biu.scapi.primitives.dlog.SendableDataCodec;
 
 /**
  * Concrete implementation SigmaProtocol message. <p>
@@ -34,13 +40,19 @@ import edu.biu.scapi.primitives.dlog.GroupElementSendableData;
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Moriya Farbstein)
  *
  */
-class SigmaDHMsg implements SigmaProtocolMsg {
+class SigmaDHMsg implements SigmaProtocolMsg, Externalizable {
 
 	private static final long serialVersionUID = 1208840175220495797L;
 	
 	private GroupElementSendableData a;
 	private GroupElementSendableData b;
 	
+	/**
+	 * Empty constructor, used by the de-serialization.
+	 */
+	public SigmaDHMsg(){
+	}
+	
 	SigmaDHMsg(GroupElementSendableData a, GroupElementSendableData b){
 		this.a = a;
 		this.b = b;
@@ -53,4 +65,14 @@ class SigmaDHMsg implements SigmaProtocolMsg {
 	GroupElementSendableData getB(){
 		return b;
 	}
+	
+	public void writeExternal(ObjectOutput out) throws IOException {
+		SendableDataCodec.writeSendableData(out, a);
+		SendableDataCodec.writeSendableData(out, b);
+	}
+	
+	public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+		a = SendableDataCodec.readSendableData(in);
+		b = SendableDataCodec.readSendableData(in);
+	}
 }
@@ -129,7 +129,7 @@ public class SigmaDHProverComputation implements SigmaProverComputation, DlogBas
 		r = BigIntegers.createRandomInRange(BigInteger.ZERO, qMinusOne, random);
 		
 		//Compute a = g^r.
-		GroupElement a = dlog.exponentiate(dlog.getGenerator(), r);
+		GroupElement a = dlog.exponentiateWithPreComputedValues(dlog.getGenerator(), r);
 		//Compute b = h^r.
 		GroupElement b = dlog.exponentiate(this.input.getCommonParams().getH(), r);
 		//Create and return SigmaDHMsg with a and b.
@@ -125,7 +125,7 @@ public class SigmaDHSimulator implements SigmaSimulator{
 		BigInteger z = BigIntegers.createRandomInRange(BigInteger.ZERO, qMinusOne, random);
 		
 		//Compute a = g^z*u^(-e) (where e here means e mod q)
-		GroupElement gToZ = dlog.exponentiate(dlog.getGenerator(), z);
+		GroupElement gToZ = dlog.exponentiateWithPreComputedValues(dlog.getGenerator(), z);
 		BigInteger e = new BigInteger(1, challenge);
 		BigInteger minusE = dlog.getOrder().subtract(e);
 		GroupElement uToE = dlog.exponentiate(dhInput.getU(), minusE);
@@ -29,7 +29,8 @@ import java.security.SecureRandom;
 
 import edu.biu.scapi.exceptions.InvalidDlogGroupException;
 import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.DlogBasedSigma;
-import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.SigmaVerifierComputation;
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.SigmaBatchVerifiableComputation;
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.SigmaVerificationEquation;
 import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaBIMsg;
 import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaCommonInput;
 import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaProtocolMsg;
@@ -46,7 +47,7 @@ import edu.biu.scapi.primitives.dlog.GroupElement;
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Moriya Farbstein)
  *
  */
-public class SigmaDHVerifierComputation implements SigmaVerifierComputation, DlogBasedSigma{
+public class SigmaDHVerifierComputation implements SigmaBatchVerifiableComputation, DlogBasedSigma{
 	
 	/*	
 	  This class computes the following calculations:
@@ -175,7 +176,7 @@ public class SigmaDHVerifierComputation implements SigmaVerifierComputation, Dlo
 		
 		//Verify that g^z = au^e:
 		//Compute g^z (left size of the equation).
-		GroupElement left = dlog.exponentiate(dlog.getGenerator(), exponent.getMsg());
+		GroupElement left = dlog.exponentiateWithPreComputedValues(dlog.getGenerator(), exponent.getMsg());
 		//Compute a*u^e (right side of the verify equation).
 		//Convert e to BigInteger.
 		BigInteger eBI = new BigInteger(1, e);
@@ -202,4 +203,53 @@ public class SigmaDHVerifierComputation implements SigmaVerifierComputation, Dlo
 		//Return true if all checks returned true; false, otherwise.
 		return verified;
 	}
+	
+	/**
+	 * Returns the verification equations g^z = au^e and h^z = bv^e of the given proof.<p>
+	 * When the equations of many proofs are combined, elements outside the group may cancel each other. 
+	 * Therefore, if one of h, u, v is not member in the group, returns null.
+	 * @param input MUST be an instance of SigmaDHCommonInput.
+	 * @param a first message from prover
+	 * @param challenge the challenge e of the proof
+	 * @param z second message from prover
+	 * @return the verification equations of the proof, or null if one of h, u, v is not member in the group.
+	 * @throws IllegalArgumentException if input is not an instance of SigmaDHCommonInput.
+	 * @throws IllegalArgumentException if the first message of the prover is not an instance of SigmaDHMsg
+	 * @throws IllegalArgumentException if the second message of the prover is not an instance of SigmaBIMsg
+	 * @throws IllegalArgumentException if an element of the first message is not member in the group
+	 */
+	public SigmaVerificationEquation[] getVerificationEquations(SigmaCommonInput input, SigmaProtocolMsg a, byte[] challenge, SigmaProtocolMsg z) {
+		if (!(input instanceof SigmaDHCommonInput)){
+			throw new IllegalArgumentException("the given input must be an instance of SigmaDHCommonInput");
+		}
+		if (!(a instanceof SigmaDHMsg)){
+			throw new IllegalArgumentException("first message must be an instance of SigmaDHMsg");
+		}
+		if (!(z instanceof SigmaBIMsg)){
+			throw new IllegalArgumentException("second message must be an instance of SigmaBIMsg");
+		}
+		SigmaDHCommonInput dhInput = (SigmaDHCommonInput) input;
+		
+		GroupElement h = dhInput.getH();
+		GroupElement u = dhInput.getU();
+		GroupElement v = dhInput.getV();
+		if (!dlog.isMember(h) || !dlog.isMember(u) || !dlog.isMember(v)){
+			return null;
+		}
+		SigmaDHMsg firstMsg = (SigmaDHMsg) a;
+		GroupElement aElement = dlog.reconstructElement(true, firstMsg.getA());
+		GroupElement bElement = dlog.reconstructElement(true, firstMsg.getB());
+		
+		BigInteger zBI = ((SigmaBIMsg) z).getMsg();
+		BigInteger eBI = new BigInteger(1, challenge);
+		
+		//g^z = a*u^e.
+		SigmaVerificationEquation first = new SigmaVerificationEquation(new GroupElement[]{dlog.getGenerator()}, new BigInteger[]{zBI}, 
+				new GroupElement[]{aElement, u}, new BigInteger[]{BigInteger.ONE, eBI});
+		//h^z = b*v^e.
+		SigmaVerificationEquation second = new SigmaVerificationEquation(new GroupElement[]{h}, new BigInteger[]{zBI}, 
+				new GroupElement[]{bElement, v}, new BigInteger[]{BigInteger.ONE, eBI});
+		
+		return new SigmaVerificationEquation[]{first, second};
+	}
 }
@@ -24,10 +24,15 @@
 */
 package edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.dhExtended;
 
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.util.ArrayList;
 
 import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaProtocolMsg;
 import edu.biu.scapi.primitives.dlog.GroupElementSendableData;
+import edu.biu.scapi.primitives.dlog.SendableDataCodec;
 
 /**
  * Concrete implementation of SigmaProtocol message. 
@@ -36,18 +41,31 @@ import edu.biu.scapi.primitives.dlog.GroupElementSendableData;
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Moriya Farbstein)
  *
  */
-class SigmaDHExtendedMsg implements SigmaProtocolMsg {
+class SigmaDHExtendedMsg implements SigmaProtocolMsg, Externalizable {
 
 	private static final long serialVersionUID = 3688239370237225167L;
 	
 	private ArrayList<GroupElementSendableData> aArray;
 	
+	/**
+	 * Empty constructor, used by the de-serialization.
+	 */
+	public SigmaDHExtendedMsg(){
+	}
+	
 	SigmaDHExtendedMsg(ArrayList<GroupElementSendableData> aArray){
 		this.aArray = aArray;
 	}
 	
 	ArrayList<GroupElementSendableData> getArray(){
 		return aArray;
-	} 
-
+	}
+	
+	public void writeExternal(ObjectOutput out) throws IOException {
+		SendableDataCodec.writeSendableDataList(out, aArray);
+	}
+	
+	public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+		aArray = SendableDataCodec.readSendableDataList(in);
+	}
 }
@@ -128,7 +128,7 @@ public class SigmaDlogProverComputation implements SigmaProverComputation, DlogB
 		r = BigIntegers.createRandomInRange(BigInteger.ZERO, qMinusOne, random);
 		
 		//Compute a = g^r.
-		GroupElement a = dlog.exponentiate(dlog.getGenerator(), r);
+		GroupElement a = dlog.exponentiateWithPreComputedValues(dlog.getGenerator(), r);
 		//Create and return SigmaGroupElementMsg with a.
 		return new SigmaGroupElementMsg(a.generateSendableData());
 	}
@@ -131,7 +131,7 @@ public class SigmaDlogSimulator implements SigmaSimulator{
 		BigInteger z = BigIntegers.createRandomInRange(BigInteger.ZERO, qMinusOne, random);
 		
 		//COMPUTE a = g^z*h^(-e)  (where e here means e mod q)
-		GroupElement gToZ = dlog.exponentiate(dlog.getGenerator(), z);
+		GroupElement gToZ = dlog.exponentiateWithPreComputedValues(dlog.getGenerator(), z);
 		BigInteger e = new BigInteger(1, challenge);
 		BigInteger minusE = dlog.getOrder().subtract(e);
 		GroupElement hToE = dlog.exponentiate(dlogInput.getH(), minusE);
@@ -29,7 +29,8 @@ import java.security.SecureRandom;
 
 import edu.biu.scapi.exceptions.InvalidDlogGroupException;
 import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.DlogBasedSigma;
-import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.SigmaVerifierComputation;
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.SigmaBatchVerifiableComputation;
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.SigmaVerificationEquation;
 import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaBIMsg;
 import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaCommonInput;
 import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaGroupElementMsg;
@@ -47,7 +48,7 @@ import edu.biu.scapi.primitives.dlog.GroupElement;
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Moriya Farbstein)
  *
  */
-public class SigmaDlogVerifierComputation implements SigmaVerifierComputation, DlogBasedSigma{
+public class SigmaDlogVerifierComputation implements SigmaBatchVerifiableComputation, DlogBasedSigma{
 
 	/*	
 	  This class computes the following calculations:
@@ -175,7 +176,7 @@ public class SigmaDlogVerifierComputation implements SigmaVerifierComputation, D
 		verified = verified && dlog.isMember(h);
 		
 		//Compute g^z (left size of the verify equation).
-		GroupElement left = dlog.exponentiate(dlog.getGenerator(), exponent.getMsg());
+		GroupElement left = dlog.exponentiateWithPreComputedValues(dlog.getGenerator(), exponent.getMsg());
 		
 		//Compute a*h^e (right side of the verify equation).
 		//Convert e to BigInteger.
@@ -194,6 +195,45 @@ public class SigmaDlogVerifierComputation implements SigmaVerifierComputation, D
 		return verified;	
 	}
 	
+	/**
+	 * Returns the verification equation g^z = ah^e of the given proof.<p>
+	 * If h is not member in the group, returns null.
+	 * @param input MUST be an instance of SigmaDlogCommonInput.
+	 * @param a first message from prover
+	 * @param challenge the challenge e of the proof
+	 * @param z second message from prover
+	 * @return the verification equation of the proof, or null if h is not member in the group.
+	 * @throws IllegalArgumentException if input is not an instance of SigmaDlogCommonInput.
+	 * @throws IllegalArgumentException if the first message of the prover is not an instance of SigmaGroupElementMsg
+	 * @throws IllegalArgumentException if the second message of the prover is not an instance of SigmaBIMsg
+	 * @throws IllegalArgumentException if an element of the first message is not member in the group
+	 */
+	public SigmaVerificationEquation[] getVerificationEquations(SigmaCommonInput input, SigmaProtocolMsg a, byte[] challenge, SigmaProtocolMsg z) {
+		if (!(input instanceof SigmaDlogCommonInput)){
+			throw new IllegalArgumentException("the given input must be an instance of SigmaDlogCommonInput");
+		}
+		if (!(a instanceof SigmaGroupElementMsg)){
+			throw new IllegalArgumentException("first message must be an instance of SigmaGroupElementMsg");
+		}
+		if (!(z instanceof SigmaBIMsg)){
+			throw new IllegalArgumentException("second message must be an instance of SigmaBIMsg");
+		}
+		
+		GroupElement h = ((SigmaDlogCommonInput) input).getH();
+		if (!dlog.isMember(h)){
+			return null;
+		}
+		GroupElement aElement = dlog.reconstructElement(true, ((SigmaGroupElementMsg) a).getElement());
+		
+		//g^z = a*h^e.
+		GroupElement[] left = {dlog.getGenerator()};
+		BigInteger[] leftExponents = {((SigmaBIMsg) z).getMsg()};
+		GroupElement[] right = {aElement, h};
+		BigInteger[] rightExponents = {BigInteger.ONE, new BigInteger(1, challenge)};
+		
+		return new SigmaVerificationEquation[]{new SigmaVerificationEquation(left, leftExponents, right, rightExponents)};
+	}
+	
 	
 
 }
@@ -28,7 +28,8 @@ import java.security.SecureRandom;
 
 import edu.biu.scapi.exceptions.InvalidDlogGroupException;
 import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.DlogBasedSigma;
-import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.SigmaVerifierComputation;
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.SigmaBatchVerifiableComputation;
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.SigmaVerificationEquation;
 import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.dh.SigmaDHCommonInput;
 import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.dh.SigmaDHVerifierComputation;
 import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaCommonInput;
@@ -46,7 +47,7 @@ import edu.biu.scapi.primitives.dlog.GroupElement;
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Moriya Farbstein)
  *
  */
-public class SigmaElGamalEncryptedValueVerifierComputation implements SigmaVerifierComputation, DlogBasedSigma{
+public class SigmaElGamalEncryptedValueVerifierComputation implements SigmaBatchVerifiableComputation, DlogBasedSigma{
 
 	/*	
 	  There are two versions of SigmaElGamalEncryptedValue protocol, depending upon if the prover knows 
@@ -177,4 +178,17 @@ public class SigmaElGamalEncryptedValueVerifierComputation implements SigmaVerif
 		//Delegates to the underlying Sigma DH verifier.
 		return sigmaDH.verify(input, a, z);
 	}
+	
+	/**
+	 * Returns the verification equations of the given proof.
+	 * @param challenge the challenge of the proof
+	 * @return the verification equations of the proof, or null if the proof can not be verified using equations only.
+	 */
+	public SigmaVerificationEquation[] getVerificationEquations(SigmaCommonInput in, SigmaProtocolMsg a, byte[] challenge, SigmaProtocolMsg z) {
+		//converts the input to the underlying verifier.
+		SigmaDHCommonInput input = convertInput(in);
+		
+		//Delegates to the underlying verifier.
+		return sigmaDH.getVerificationEquations(input, a, challenge, z);
+	}
 }
@@ -24,9 +24,14 @@
 */
 package edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.orMultiple;
 
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.util.ArrayList;
 
 import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaProtocolMsg;
+import edu.biu.scapi.primitives.dlog.SendableDataCodec;
 
 /**
  * Concrete implementation of SigmaProtocol message. 
@@ -37,7 +42,7 @@ import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaProtocol
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Moriya Farbstein)
  *
  */
-class SigmaORMultipleSecondMsg implements SigmaProtocolMsg {
+class SigmaORMultipleSecondMsg implements SigmaProtocolMsg, Externalizable {
 	
 	private static final long serialVersionUID = -348217363547929670L;
 	
@@ -45,6 +50,12 @@ class SigmaORMultipleSecondMsg implements SigmaProtocolMsg {
 	private ArrayList<SigmaProtocolMsg> z;
 	private byte[][] challenges;
 	
+	/**
+	 * Empty constructor, used by the de-serialization.
+	 */
+	public SigmaORMultipleSecondMsg(){
+	}
+	
 	SigmaORMultipleSecondMsg(byte[][] polynomBytes, ArrayList<SigmaProtocolMsg> z, byte[][] challenges){
 		this.polynomial = polynomBytes;
 		this.z = z;
@@ -63,4 +74,23 @@ class SigmaORMultipleSecondMsg implements SigmaProtocolMsg {
 		return challenges;
 	}
 	
+	public void writeExternal(ObjectOutput out) throws IOException {
+		SendableDataCodec.writeByteArrays(out, polynomial);
+		int size = z.size();
+		SendableDataCodec.writeSize(out, size);
+		for (int i = 0; i < size; i++){
+			out.writeObject(z.get(i));
+		}
+		SendableDataCodec.writeByteArrays(out, challenges);
+	}
+	
+	public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+		polynomial = SendableDataCodec.readByteArrays(in);
+		int size = SendableDataCodec.readSize(in);
+		z = new ArrayList<SigmaProtocolMsg>(Math.min(size, 1024));
+		for (int i = 0; i < size; i++){
+			z.add((SigmaProtocolMsg) in.readObject());
+		}
+		challenges = SendableDataCodec.readByteArrays(in);
+	}
 }
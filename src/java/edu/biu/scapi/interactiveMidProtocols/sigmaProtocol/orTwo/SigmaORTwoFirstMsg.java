@@ -24,6 +24,11 @@
 */
 package edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.orTwo;
 
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+
 import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaProtocolMsg;
 
 /**
@@ -34,13 +39,19 @@ import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaProtocol
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Moriya Farbstein)
  *
  */
-class SigmaORTwoFirstMsg implements SigmaProtocolMsg{
+class SigmaORTwoFirstMsg implements SigmaProtocolMsg, Externalizable{
 
 	private static final long serialVersionUID = 5917636619476148404L;
 	
 	private SigmaProtocolMsg a0;
 	private SigmaProtocolMsg a1;
 	
+	/**
+	 * Empty constructor, used by the de-serialization.
+	 */
+	public SigmaORTwoFirstMsg(){
+	}
+	
 	SigmaORTwoFirstMsg(SigmaProtocolMsg a0, SigmaProtocolMsg a1){
 		this.a0 = a0;
 		this.a1 = a1;
@@ -53,4 +64,14 @@ class SigmaORTwoFirstMsg implements SigmaProtocolMsg{
 	SigmaProtocolMsg getA1(){
 		return a1;
 	}
+	
+	public void writeExternal(ObjectOutput out) throws IOException {
+		out.writeObject(a0);
+		out.writeObject(a1);
+	}
+	
+	public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+		a0 = (SigmaProtocolMsg) in.readObject();
+		a1 = (SigmaProtocolMsg) in.readObject();
+	}
 }
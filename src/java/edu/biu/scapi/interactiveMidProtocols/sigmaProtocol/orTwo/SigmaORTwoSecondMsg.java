@@ -24,7 +24,13 @@
 */
 package edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.orTwo;
 
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+
 import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaProtocolMsg;
+import edu.biu.scapi.primitives.dlog.SendableDataCodec;
 
 /**
  * Concrete implementation of SigmaProtocol message. 
@@ -34,7 +40,7 @@ import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaProtocol
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Moriya Farbstein)
  *
  */
-class SigmaORTwoSecondMsg implements SigmaProtocolMsg{
+class SigmaORTwoSecondMsg implements SigmaProtocolMsg, Externalizable{
 	
 	
 	private static final long serialVersionUID = 2105516191595630990L;
@@ -44,6 +50,12 @@ class SigmaORTwoSecondMsg implements SigmaProtocolMsg{
 	private SigmaProtocolMsg z1;
 	private byte[] e1;
 	
+	/**
+	 * Empty constructor, used by the de-serialization.
+	 */
+	public SigmaORTwoSecondMsg(){
+	}
+	
 	SigmaORTwoSecondMsg(SigmaProtocolMsg z0, byte[] e0, SigmaProtocolMsg z1, byte[] e1){
 		this.z0 = z0;
 		this.e0 = e0;
@@ -66,4 +78,18 @@ class SigmaORTwoSecondMsg implements SigmaProtocolMsg{
 	byte[] getE1(){
 		return e1;
 	}
+	
+	public void writeExternal(ObjectOutput out) throws IOException {
+		out.writeObject(z0);
+		SendableDataCodec.writeByteArray(out, e0);
+		out.writeObject(z1);
+		SendableDataCodec.writeByteArray(out, e1);
+	}
+	
+	public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+		z0 = (SigmaProtocolMsg) in.readObject();
+		e0 = SendableDataCodec.readByteArray(in);
+		z1 = (SigmaProtocolMsg) in.readObject();
+		e1 = SendableDataCodec.readByteArray(in);
+	}
 }
@@ -24,9 +24,14 @@
 */
 package edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.pedersenCmtKnowledge;
 
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.math.BigInteger;
 
 import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaProtocolMsg;
+import edu.biu.scapi.primitives.dlog.SendableDataCodec;
 
 /**
  * Concrete implementation of SigmaProtocol message. 
@@ -35,12 +40,18 @@ import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaProtocol
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Moriya Farbstein)
  *
  */
-class SigmaPedersenCmtKnowledgeMsg implements SigmaProtocolMsg {
+class SigmaPedersenCmtKnowledgeMsg implements SigmaProtocolMsg, Externalizable {
 
 	private static final long serialVersionUID = 1443613833827988336L;
 	private BigInteger u;
 	private BigInteger v;
 	
+	/**
+	 * Empty constructor, used by the de-serialization.
+	 */
+	public SigmaPedersenCmtKnowledgeMsg(){
+	}
+	
 	SigmaPedersenCmtKnowledgeMsg(BigInteger u, BigInteger v){
 		this.u = u;
 		this.v = v;
@@ -53,4 +64,14 @@ class SigmaPedersenCmtKnowledgeMsg implements SigmaProtocolMsg {
 	BigInteger getV(){
 		return v;
 	}
+	
+	public void writeExternal(ObjectOutput out) throws IOException {
+		SendableDataCodec.writeBigInteger(out, u);
+		SendableDataCodec.writeBigInteger(out, v);
+	}
+	
+	public void readExternal(ObjectInput in) throws IOException {
+		u = SendableDataCodec.readBigInteger(in);
+		v = SendableDataCodec.readBigInteger(in);
+	}
 }
@@ -126,7 +126,7 @@ public class SigmaPedersenCmtKnowledgeProverComputation implements SigmaProverCo
 		//Compute h^alpha
 		GroupElement hToAlpha = dlog.exponentiate(input.getCommonParams().getH(), alpha);
 		//Compute g^beta
-		GroupElement gToBeta = dlog.exponentiate(dlog.getGenerator(), beta);
+		GroupElement gToBeta = dlog.exponentiateWithPreComputedValues(dlog.getGenerator(), beta);
 		//Compute a = (h^alpha)*(g^beta)
 		GroupElement a = dlog.multiplyGroupElements(hToAlpha, gToBeta);
 		
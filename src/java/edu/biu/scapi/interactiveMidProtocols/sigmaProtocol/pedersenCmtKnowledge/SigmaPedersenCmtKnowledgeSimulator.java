@@ -133,7 +133,7 @@ public class SigmaPedersenCmtKnowledgeSimulator implements SigmaSimulator{
 		//Compute h^u
 		GroupElement hToU = dlog.exponentiate(params.getH(), u);
 		//Compute g^v
-		GroupElement gToV = dlog.exponentiate(dlog.getGenerator(), v);
+		GroupElement gToV = dlog.exponentiateWithPreComputedValues(dlog.getGenerator(), v);
 		//Compute c^(-e) 
 		BigInteger e = new BigInteger(1, challenge);
 		BigInteger minusE = dlog.getOrder().subtract(e);
@@ -179,7 +179,7 @@ public class SigmaPedersenCmtKnowledgeVerifierComputation implements SigmaVerifi
 		//Compute h^u
 		GroupElement hToU = dlog.exponentiate(h, secondMsg.getU());
 		//Compute g^v
-		GroupElement gToV = dlog.exponentiate(dlog.getGenerator(), secondMsg.getV());
+		GroupElement gToV = dlog.exponentiateWithPreComputedValues(dlog.getGenerator(), secondMsg.getV());
 		//compute h^u*g^v (left size of the verify equation)
 		GroupElement left = dlog.multiplyGroupElements(hToU, gToV);
 		
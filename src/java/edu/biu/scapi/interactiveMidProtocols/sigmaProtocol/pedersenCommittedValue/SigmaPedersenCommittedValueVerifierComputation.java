@@ -29,7 +29,8 @@ import java.security.SecureRandom;
 
 import edu.biu.scapi.exceptions.InvalidDlogGroupException;
 import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.DlogBasedSigma;
-import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.SigmaVerifierComputation;
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.SigmaBatchVerifiableComputation;
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.SigmaVerificationEquation;
 import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.dlog.SigmaDlogCommonInput;
 import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.dlog.SigmaDlogVerifierComputation;
 import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaCommonInput;
@@ -47,7 +48,7 @@ import edu.biu.scapi.primitives.dlog.GroupElement;
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Moriya Farbstein)
  *
  */
-public class SigmaPedersenCommittedValueVerifierComputation implements SigmaVerifierComputation, DlogBasedSigma{
+public class SigmaPedersenCommittedValueVerifierComputation implements SigmaBatchVerifiableComputation, DlogBasedSigma{
 	/*	
 	  Since c = g^r*h^x, it suffices to prove knowledge of r s.t. g^r = c*h^(-x). This is just a DLOG Sigma protocol.
 	  
@@ -143,5 +144,18 @@ public class SigmaPedersenCommittedValueVerifierComputation implements SigmaVeri
 		
 		return sigmaDlog.verify(input, a, z);
 	}
+	
+	/**
+	 * Returns the verification equations of the given proof.
+	 * @param challenge the challenge of the proof
+	 * @return the verification equations of the proof, or null if the proof can not be verified using equations only.
+	 */
+	public SigmaVerificationEquation[] getVerificationEquations(SigmaCommonInput in, SigmaProtocolMsg a, byte[] challenge, SigmaProtocolMsg z) {
+		//converts the input to the underlying verifier.
+		SigmaDlogCommonInput input = convertInput(in);
+		
+		//Delegates to the underlying verifier.
+		return sigmaDlog.getVerificationEquations(input, a, challenge, z);
+	}
 
 }
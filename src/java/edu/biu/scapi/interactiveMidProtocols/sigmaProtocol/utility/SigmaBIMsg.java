@@ -24,8 +24,14 @@
 */
 package edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility;
 
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.math.BigInteger;
 
+import edu.biu.scapi.primitives.dlog.SendableDataCodec;
+
 /**
  * Concrete implementation of SigmaProtocol message. <p>
  * This message contains one BigInteger value and used when the prover sends a message to the verifier.
@@ -33,15 +39,29 @@ import java.math.BigInteger;
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Moriya Farbstein)
  *
  */
-public class SigmaBIMsg implements SigmaProtocolMsg{
+public class SigmaBIMsg implements SigmaProtocolMsg, Externalizable{
 	
 	private static final long serialVersionUID = -7686300107301882304L;
 	private BigInteger z;
 	
+	/**
+	 * Empty constructor, used by the de-serialization.
+	 */
+	public SigmaBIMsg(){
+	}
+	
 	public SigmaBIMsg(BigInteger z){
 		this.z = z;
 	}
 	public BigInteger getMsg(){
 		return z;
 	}
+	
+	public void writeExternal(ObjectOutput out) throws IOException {
+		SendableDataCodec.writeBigInteger(out, z);
+	}
+	
+	public void readExternal(ObjectInput in) throws IOException {
+		z = SendableDataCodec.readBigInteger(in);
+	}
 }
@@ -24,7 +24,13 @@
 */
 package edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility;
 
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+
 import edu.biu.scapi.primitives.dlog.GroupElementSendableData;
+import edu.biu.scapi.primitives.dlog.SendableDataCodec;
 
 /**
  * Concrete implementation of SigmaProtocol message. <p>
@@ -33,12 +39,18 @@ import edu.biu.scapi.primitives.dlog.GroupElementSendableData;
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Moriya Farbstein)
  *
  */
-public class SigmaGroupElementMsg implements SigmaProtocolMsg {
+public class SigmaGroupElementMsg implements SigmaProtocolMsg, Externalizable {
 
 	private static final long serialVersionUID = 103982768646661614L;
 	
 	private GroupElementSendableData element;
 	
+	/**
+	 * Empty constructor, used by the de-serialization.
+	 */
+	public SigmaGroupElementMsg(){
+	}
+	
 	public SigmaGroupElementMsg(GroupElementSendableData el){
 		this.element = el;
 	}
@@ -46,4 +58,12 @@ public class SigmaGroupElementMsg implements SigmaProtocolMsg {
 	public GroupElementSendableData getElement(){
 		return element;
 	}
+	
+	public void writeExternal(ObjectOutput out) throws IOException {
+		SendableDataCodec.writeSendableData(out, element);
+	}
+	
+	public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+		element = SendableDataCodec.readSendableData(in);
+	}
 }
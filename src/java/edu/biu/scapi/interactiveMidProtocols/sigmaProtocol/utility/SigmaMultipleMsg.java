@@ -24,8 +24,14 @@
 */
 package edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility;
 
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.util.ArrayList;
 
+import edu.biu.scapi.primitives.dlog.SendableDataCodec;
+
 /**
  * Concrete implementation of SigmaProtocol message. <p>
  * 
@@ -34,13 +40,19 @@ import java.util.ArrayList;
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Moriya Farbstein)
  *
  */
-public class SigmaMultipleMsg implements SigmaProtocolMsg{
+public class SigmaMultipleMsg implements SigmaProtocolMsg, Externalizable{
 	
 	
 	private static final long serialVersionUID = -8652010933123411049L;
 	
 	private ArrayList<SigmaProtocolMsg> messages;
 	
+	/**
+	 * Empty constructor, used by the de-serialization.
+	 */
+	public SigmaMultipleMsg(){
+	}
+	
 	public SigmaMultipleMsg(ArrayList<SigmaProtocolMsg> messages){
 		this.messages = messages;
 	}
@@ -48,5 +60,20 @@ public class SigmaMultipleMsg implements SigmaProtocolMsg{
 	public ArrayList<SigmaProtocolMsg> getMessages(){
 		return messages;
 	}
-
+	
+	public void writeExternal(ObjectOutput out) throws IOException {
+		int size = messages.size();
+		SendableDataCodec.writeSize(out, size);
+		for (int i = 0; i < size; i++){
+			out.writeObject(messages.get(i));
+		}
+	}
+	
+	public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+		int size = SendableDataCodec.readSize(in);
+		messages = new ArrayList<SigmaProtocolMsg>(Math.min(size, 1024));
+		for (int i = 0; i < size; i++){
+			messages.add((SigmaProtocolMsg) in.readObject());
+		}
+	}
 }
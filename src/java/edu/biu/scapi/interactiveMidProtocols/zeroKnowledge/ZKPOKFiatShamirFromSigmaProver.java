@@ -99,6 +99,46 @@ public class ZKPOKFiatShamirFromSigmaProver implements ZKPOKProver{
 		
 	}
 
+	/**
+	 * Runs the prover side of the Zero Knowledge proof on a batch of inputs.<p>
+	 * All the proofs are sent to the verifier in one message, that should be received by 
+	 * {@link ZKPOKFiatShamirFromSigmaVerifier#verifyBatch(ZKCommonInput[])}.
+	 * @param inputs each one can be an instance of ZKPOKFiatShamirInput or input for the underlying Sigma prover.
+	 * @throws IllegalArgumentException if one of the given inputs is not an instance of ZKPOKFiatShamirProverInput or SigmaProverInput.
+	 * @throws IOException if failed to send the message.
+	 * @throws CheatAttemptException if the prover suspects the verifier is trying to cheat.
+	 */
+	public void proveBatch(ZKProverInput[] inputs) throws IOException, CheatAttemptException {
+		ZKPOKFiatShamirProof[] proofs = generateFiatShamirProofs(inputs);
+		
+		//Send all the proofs to V and output nothing.
+		try {
+			channel.send(proofs);
+		} catch (IOException e) {
+			throw new IOException("failed to send the message. The thrown exception is: " + e.getMessage());
+		}
+	}
+	
+	/**
+	 * Computes a Fiat Shamir proof (a,e,z) for each one of the given inputs.<p>
+	 * The proofs are computed one after the other, exactly as by {@link #generateFiatShamirProof(ZKProverInput)}. 
+	 * The exponentiations of the group generator in the Dlog based sigma provers use the precomputed table of the Dlog group, 
+	 * which is shared by all the proofs.
+	 * @param inputs each one can be an instance of ZKPOKFiatShamirInput or input for the underlying Sigma prover.
+	 * @return the proofs of the given inputs.
+	 * @throws IllegalArgumentException if one of the given inputs is not an instance of ZKPOKFiatShamirProverInput or SigmaProverInput.
+	 * @throws CheatAttemptException if the prover suspects the verifier is trying to cheat.
+	 * @throws IOException if there was problem with the serialization of the data on order to achieve a challenge.
+	 */
+	public ZKPOKFiatShamirProof[] generateFiatShamirProofs(ZKProverInput[] inputs) throws CheatAttemptException, IOException{
+		ZKPOKFiatShamirProof[] proofs = new ZKPOKFiatShamirProof[inputs.length];
+		//The underlying sigma prover keeps the state of a single proof, so the proofs are generated one after the other.
+		for (int i = 0; i < inputs.length; i++){
+			proofs[i] = generateFiatShamirProof(inputs[i]);
+		}
+		return proofs;
+	}
+	
 	/**
 	 * Let (a,e,z) denote the prover1, verifier challenge and prover2 messages of the sigma protocol.<p>
 	 * This function computes the following calculations:<p>
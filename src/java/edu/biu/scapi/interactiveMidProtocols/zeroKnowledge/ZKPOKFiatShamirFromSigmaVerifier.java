@@ -28,13 +28,18 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
 
 import edu.biu.scapi.comm.Channel;
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.SigmaBatchVerifier;
 import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.SigmaVerifierComputation;
 import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaCommonInput;
 import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaProtocolMsg;
 import edu.biu.scapi.primitives.randomOracle.HKDFBasedRO;
 import edu.biu.scapi.primitives.randomOracle.RandomOracle;
+import edu.biu.scapi.tools.parallel.BatchExecution;
 
 /**
  * Concrete implementation of Zero Knowledge verifier.<p>
@@ -55,6 +60,9 @@ public class ZKPOKFiatShamirFromSigmaVerifier implements ZKPOKVerifier{
 	private Channel channel;
 	private SigmaVerifierComputation sVerifier; //Underlying verifier that computes the proof of the sigma protocol.
 	private RandomOracle ro;					//Underlying random oracle to use.
+	private ExecutorService executor;			//Computes the challenges of a batch of proofs. If null, they are computed by the calling thread.
+	private RandomOracle[] executorOracles;		//Random oracles of the threads of the executor, one for each concurrent chunk of a batch.
+	private SigmaBatchVerifier batchVerifier;	//Verifies the transcripts of a batch of proofs. If null, they are verified one by one.
 	
 	/**
 	 * Constructor that accepts the underlying channel, sigma protocol's verifier and random oracle to use.
@@ -98,6 +106,148 @@ public class ZKPOKFiatShamirFromSigmaVerifier implements ZKPOKVerifier{
 		return verifyFiatShamirProof(input, msg);
 	}
 	
+	/**
+	 * Sets the executor that computes the challenges e=H(x,a,cont) of a batch of proofs in parallel.<p>
+	 * A random oracle is not thread safe, so each chunk of the batch is hashed with its own random oracle: the calling thread 
+	 * uses the random oracle of this object and the other chunks use the given oracles. Therefore, the number of concurrent 
+	 * chunks is at most the number of given oracles plus one. The given oracles must compute the same function as the random 
+	 * oracle of this object, for example by being created with the same parameters.
+	 * @param executor the executor to use, or null to compute the challenges in the calling thread.
+	 * @param oracles the random oracles of the chunks that are computed by the executor. Ignored if executor is null.
+	 * @throws IllegalArgumentException if executor is not null and there are no oracles.
+	 */
+	public void setExecutor(ExecutorService executor, RandomOracle[] oracles){
+		if (executor != null && (oracles == null || oracles.length == 0)){
+			throw new IllegalArgumentException("the executor needs at least one random oracle");
+		}
+		this.executor = executor;
+		executorOracles = (executor == null) ? null : oracles.clone();
+	}
+	
+	/**
+	 * Sets a batch verifier that checks the transcripts of a batch of proofs using a single combined multi-exponentiation.<p>
+	 * The batch verifier should be created for the same sigma protocol as the underlying sigma verifier.
+	 * @param batchVerifier the batch verifier to use, or null to verify the transcripts one by one.
+	 */
+	public void setBatchVerifier(SigmaBatchVerifier batchVerifier){
+		this.batchVerifier = batchVerifier;
+	}
+	
+	/**
+	 * Runs the verifier side of the Zero Knowledge proof on a batch of inputs.<p>
+	 * Receives an array of Fiat Shamir proofs, as sent by {@link ZKPOKFiatShamirFromSigmaProver#proveBatch(ZKProverInput[])}, and verifies them.
+	 * @param inputs each one can be an instance of ZKPOKFiatShamirInput or input for the underlying sigma protocol.
+	 * @return an array such that the i-th cell is true if the i-th proof is valid; false, otherwise.
+	 * @throws IOException if failed to receive the message.
+	 * @throws ClassNotFoundException if there was a problem with the serialization mechanism.
+	 * @throws IllegalArgumentException if the number of received proofs is different than the number of inputs.
+	 */
+	public boolean[] verifyBatch(ZKCommonInput[] inputs) throws ClassNotFoundException, IOException{
+		
+		//Wait for the proofs from P
+		Serializable msg = null;
+		try {
+			msg = channel.receive();
+		} catch (IOException e) {
+			throw new IOException("failed to receive the proofs. The thrown message is: " + e.getMessage());
+		}
+		if (!(msg instanceof ZKPOKFiatShamirProof[])){
+			throw new IllegalArgumentException("the given message should be an array of ZKPOKFiatShamirProof");
+		}
+		
+		//verify the proofs.
+		return verifyFiatShamirProofs(inputs, (ZKPOKFiatShamirProof[]) msg);
+	}
+	
+	/**
+	 * Verifies a batch of Fiat Shamir proofs.<p>
+	 * The challenges e=H(x,a,cont) are computed in parallel using the executor and the random oracles of this object, if set.
+	 * The transcripts (a, e, z) are then checked by the batch verifier of this object if set, 
+	 * so that all the proofs are verified using one combined multi-exponentiation. Otherwise they are verified one by one.<p>
+	 * The result of each proof is the same as the result of {@link #verifyFiatShamirProof(ZKCommonInput, ZKPOKFiatShamirProof)}, 
+	 * except with negligible probability when using a batch verifier.
+	 * @param inputs each one can be an instance of ZKPOKFiatShamirInput or input for the underlying sigma protocol.
+	 * @param proofs Fiat Shamir proofs received from the prover.
+	 * @return an array such that the i-th cell is true if the i-th proof is valid; false, otherwise.
+	 * @throws IOException if there was problem with the serialization of the data on order to achieve a challenge.
+	 * @throws IllegalArgumentException if the number of proofs is different than the number of inputs.
+	 * @throws IllegalArgumentException if one of the given inputs is not an instance of ZKPOKFiatShamirInput or SigmaCommonInput.
+	 */
+	public boolean[] verifyFiatShamirProofs(ZKCommonInput[] inputs, final ZKPOKFiatShamirProof[] proofs) throws IOException{
+		if (inputs.length != proofs.length){
+			throw new IllegalArgumentException("the number of proofs must be equal to the number of inputs");
+		}
+		
+		final ZKPOKFiatShamirCommonInput[] fsInputs = new ZKPOKFiatShamirCommonInput[inputs.length];
+		for (int i = 0; i < inputs.length; i++){
+			fsInputs[i] = convertInput(inputs[i]);
+		}
+		
+		//Compute e=H(x,a,cont) for each proof.
+		final byte[][] computedE = new byte[proofs.length][];
+		final IOException[] failure = new IOException[1];
+		int chunks = BatchExecution.numChunks(executor, proofs.length);
+		if (executorOracles != null){
+			chunks = Math.min(chunks, executorOracles.length + 1);
+		}
+		BatchExecution.run(executor, proofs.length, chunks, new BatchExecution.ChunkTask() {
+			@Override
+			public void run(int chunk, int from, int to) {
+				//Each chunk runs once, so no two threads use the same random oracle.
+				RandomOracle chunkOracle = (chunk == 0) ? ro : executorOracles[chunk - 1];
+				try {
+					for (int i = from; i < to; i++){
+						byte[] inputToRO = computeROInput(fsInputs[i], proofs[i].getA());
+						computedE[i] = chunkOracle.compute(inputToRO, 0, inputToRO.length, sVerifier.getSoundnessParam()/8);
+					}
+				} catch (IOException e) {
+					synchronized (failure) {
+						failure[0] = e;
+					}
+				}
+			}
+		});
+		if (failure[0] != null){
+			throw failure[0];
+		}
+		
+		boolean[] valid = new boolean[proofs.length];
+		//Indices of the proofs with a valid challenge, whose transcripts should be checked.
+		ArrayList<Integer> indices = new ArrayList<Integer>(proofs.length);
+		for (int i = 0; i < proofs.length; i++){
+			//check that e=H(x,a,cont).
+			if (Arrays.equals(computedE[i], proofs[i].getE())){
+				indices.add(i);
+			}
+		}
+		
+		if (batchVerifier != null){
+			int size = indices.size();
+			SigmaCommonInput[] sigmaInputs = new SigmaCommonInput[size];
+			SigmaProtocolMsg[] a = new SigmaProtocolMsg[size];
+			byte[][] e = new byte[size][];
+			SigmaProtocolMsg[] z = new SigmaProtocolMsg[size];
+			for (int j = 0; j < size; j++){
+				int i = indices.get(j);
+				sigmaInputs[j] = fsInputs[i].getSigmaInput();
+				a[j] = proofs[i].getA();
+				e[j] = computedE[i];
+				z[j] = proofs[i].getZ();
+			}
+			boolean[] verified = batchVerifier.verify(sigmaInputs, a, e, z);
+			for (int j = 0; j < size; j++){
+				valid[indices.get(j)] = verified[j];
+			}
+		} else{
+			for (int i : indices){
+				//If transcript (a, e, z) is accepting in sigma on input x, output ACC
+				valid[i] = proccessVerify(fsInputs[i].getSigmaInput(), proofs[i].getA(), computedE[i], proofs[i].getZ());
+			}
+		}
+		
+		return valid;
+	}
+	
 	/**
 	 * Verifies Fiat Shamir proof.<p>
 	 * Let (a,e,z) denote the prover1, verifier challenge and prover2 messages of the sigma protocol.<p>
@@ -118,19 +268,7 @@ public class ZKPOKFiatShamirFromSigmaVerifier implements ZKPOKVerifier{
 	 * @throws IllegalArgumentException if the given input is not an instance of ZKPOKFiatShamirInput or SigmaCommonInput.
 	 */
 	public boolean verifyFiatShamirProof(ZKCommonInput input, ZKPOKFiatShamirProof msg) throws IOException{
-		//The given input can be an instance of ZKPOKFiatShamirInput that holds input for the underlying sigma protocol and 
-		//possible context information cont, or just the input for the underlying sigma protocol.
-		if (!(input instanceof ZKPOKFiatShamirCommonInput) && !(input instanceof SigmaCommonInput)){
-			throw new IllegalArgumentException("the given input must be an instance of ZKPOKFiatShamirInput or SigmaCommonInput");
-		}
-		
-		ZKPOKFiatShamirCommonInput fsInput;
-		//In case the input is the input for the underlying sigma protocol, create input for this protocol with no context information.
-		if (input instanceof SigmaCommonInput){
-			fsInput = new ZKPOKFiatShamirCommonInput((SigmaCommonInput) input);
-		} else{
-			fsInput = (ZKPOKFiatShamirCommonInput) input;
-		}
+		ZKPOKFiatShamirCommonInput fsInput = convertInput(input);
 		
 		//get the given a
 		SigmaProtocolMsg a = msg.getA();
@@ -165,6 +303,26 @@ public class ZKPOKFiatShamirFromSigmaVerifier implements ZKPOKVerifier{
 		return valid;
 	}
 	
+	/**
+	 * Converts the given input to an instance of ZKPOKFiatShamirCommonInput.
+	 * @param input can be an instance of ZKPOKFiatShamirInput or input for the underlying sigma protocol.
+	 * @return the converted input.
+	 * @throws IllegalArgumentException if the given input is not an instance of ZKPOKFiatShamirInput or SigmaCommonInput.
+	 */
+	private ZKPOKFiatShamirCommonInput convertInput(ZKCommonInput input){
+		//The given input can be an instance of ZKPOKFiatShamirInput that holds input for the underlying sigma protocol and 
+		//possible context information cont, or just the input for the underlying sigma protocol.
+		if (!(input instanceof ZKPOKFiatShamirCommonInput) && !(input instanceof SigmaCommonInput)){
+			throw new IllegalArgumentException("the given input must be an instance of ZKPOKFiatShamirInput or SigmaCommonInput");
+		}
+		
+		//In case the input is the input for the underlying sigma protocol, create input for this protocol with no context information.
+		if (input instanceof SigmaCommonInput){
+			return new ZKPOKFiatShamirCommonInput((SigmaCommonInput) input);
+		} 
+		return (ZKPOKFiatShamirCommonInput) input;
+	}
+	
 	/**
 	 * Waits for a message a from the prover.
 	 * @return the received message
@@ -196,6 +354,19 @@ public class ZKPOKFiatShamirFromSigmaVerifier implements ZKPOKVerifier{
 	 * @throws IOException 
 	 */
 	private byte[] computeChallenge(ZKPOKFiatShamirCommonInput input, SigmaProtocolMsg a) throws IOException {
+		byte[] inputToRO = computeROInput(input, a);
+		
+		return ro.compute(inputToRO, 0, inputToRO.length, sVerifier.getSoundnessParam()/8);
+	}
+	
+	/**
+	 * Computes the input (x,a,cont) to the random oracle.
+	 * @param input 
+	 * @param a first message of the sigma protocol.
+	 * @return the serialized input to the random oracle.
+	 * @throws IOException 
+	 */
+	private byte[] computeROInput(ZKPOKFiatShamirCommonInput input, SigmaProtocolMsg a) throws IOException {
 		byte[] inputArray = convertToBytes(input.getSigmaInput());
 		byte[] messageArray = convertToBytes(a);
 		byte[] cont = input.getContext();
@@ -211,7 +382,7 @@ public class ZKPOKFiatShamirFromSigmaVerifier implements ZKPOKVerifier{
 		System.arraycopy(inputArray, 0, inputToRO, 0, inputArray.length);
 		System.arraycopy(messageArray, 0, inputToRO, inputArray.length, messageArray.length);
 		
-		return ro.compute(inputToRO, 0, inputToRO.length, sVerifier.getSoundnessParam()/8);
+		return inputToRO;
 	}
 	
 	/**
@@ -37,7 +37,7 @@ import edu.biu.scapi.midLayer.ciphertext.AsymmetricCiphertext;
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Yael Ejgenberg)
  *
  */
-public interface AsymAdditiveHomomorphicEnc extends AsymmetricEnc {
+public interface AsymAdditiveHomomorphicEnc extends AsymBatchEnc {
 	/**
 	 * Receives two ciphertexts and return their addition.
 	 * @param cipher1
@@ -87,4 +87,27 @@ public interface AsymAdditiveHomomorphicEnc extends AsymmetricEnc {
 	 * @throws IllegalArgumentException if the given ciphertext does not match this asymmetric encryption.
 	 */
 	public AsymmetricCiphertext multByConst(AsymmetricCiphertext cipher, BigInteger constNumber, BigInteger r);
+	
+	/**
+	 * Receives a vector of ciphertexts and returns the encryption of the sum of their plaintexts.<p>
+	 * The result is re-randomized once, instead of once for each addition as in a loop of add calls.
+	 * @param ciphers the ciphertexts to add. There should be at least one ciphertext.
+	 * @return the addition result.
+	 * @throws IllegalStateException if no public key was set.
+	 * @throws IllegalArgumentException if the given ciphertexts do not match this asymmetric encryption.
+	 */
+	public AsymmetricCiphertext sum(AsymmetricCiphertext[] ciphers);
+	
+	/**
+	 * Receives a vector of ciphertexts and a vector of constant numbers and returns the encryption of the inner product 
+	 * of the plaintexts and the constants, that is, the sum of constNumbers[i] * plaintext[i].<p>
+	 * The computation uses a multi-exponentiation instead of separate multiplications by the constants, and the result is re-randomized once.
+	 * @param ciphers the ciphertexts.
+	 * @param constNumbers the constant numbers, one for each ciphertext.
+	 * @return the inner product result.
+	 * @throws IllegalStateException if no public key was set.
+	 * @throws IllegalArgumentException if the given ciphertexts do not match this asymmetric encryption, 
+	 * 		   or the number of ciphertexts and constant numbers is different.
+	 */
+	public AsymmetricCiphertext innerProduct(AsymmetricCiphertext[] ciphers, BigInteger[] constNumbers);
 }
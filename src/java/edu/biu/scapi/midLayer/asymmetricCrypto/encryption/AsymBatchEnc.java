@@ -0,0 +1,67 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.midLayer.asymmetricCrypto.encryption;
+
+import java.security.KeyException;
+import java.util.concurrent.ExecutorService;
+
+import edu.biu.scapi.midLayer.ciphertext.AsymmetricCiphertext;
+import edu.biu.scapi.midLayer.plaintext.Plaintext;
+
+/**
+ * General interface for asymmetric encryption schemes that can operate on vectors of plaintexts and ciphertexts.<p>
+ * The batch functions give the same results as calling the single element functions in a loop, but they can divide the work 
+ * between the threads of an executor given by the user. If no executor was set, the work is done by the calling thread.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public interface AsymBatchEnc extends AsymmetricEnc {
+	
+	/**
+	 * Sets the executor that performs the batch functions.<p>
+	 * The calling thread also takes part in the work, so an executor with one thread less than the number of cores is enough. 
+	 * @param executor the executor to use, or null to perform the batch functions in the calling thread.
+	 */
+	public void setExecutor(ExecutorService executor);
+	
+	/**
+	 * Encrypts each one of the given plaintexts, using a fresh random value for each one.
+	 * @param plaintexts the messages to encrypt.
+	 * @return the ciphertexts, in the order of the plaintexts.
+	 * @throws IllegalStateException if no public key was set.
+	 * @throws IllegalArgumentException if one of the given plaintexts does not match this asymmetric encryption.
+	 */
+	public AsymmetricCiphertext[] encryptBatch(Plaintext[] plaintexts);
+	
+	/**
+	 * Decrypts each one of the given ciphertexts.
+	 * @param ciphers the ciphertexts to decrypt.
+	 * @return the plaintexts, in the order of the ciphertexts.
+	 * @throws KeyException if no private key was set.
+	 * @throws IllegalArgumentException if one of the given ciphertexts does not match this asymmetric encryption.
+	 */
+	public Plaintext[] decryptBatch(AsymmetricCiphertext[] ciphers) throws KeyException;
+}
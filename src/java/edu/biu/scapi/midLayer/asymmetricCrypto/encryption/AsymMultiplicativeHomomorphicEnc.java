@@ -37,7 +37,7 @@ import edu.biu.scapi.midLayer.ciphertext.AsymmetricCiphertext;
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Moriya Farbstein)
  *
  */
-public interface AsymMultiplicativeHomomorphicEnc extends AsymmetricEnc{
+public interface AsymMultiplicativeHomomorphicEnc extends AsymBatchEnc{
 
 	/**
 	 * Receives two ciphertexts and return their multiplication
@@ -63,4 +63,27 @@ public interface AsymMultiplicativeHomomorphicEnc extends AsymmetricEnc{
 	 * @throws IllegalArgumentException if the given ciphertexts do not match this asymmetric encryption.
 	 */
 	public AsymmetricCiphertext multiply(AsymmetricCiphertext cipher1, AsymmetricCiphertext cipher2, BigInteger r);
+	
+	/**
+	 * Receives a vector of ciphertexts and returns the encryption of the product of their plaintexts.<p>
+	 * The result is re-randomized once, instead of once for each multiplication as in a loop of multiply calls.
+	 * @param ciphers the ciphertexts to multiply. There should be at least one ciphertext.
+	 * @return the multiplication result.
+	 * @throws IllegalStateException if no public key was set.
+	 * @throws IllegalArgumentException if the given ciphertexts do not match this asymmetric encryption.
+	 */
+	public AsymmetricCiphertext product(AsymmetricCiphertext[] ciphers);
+	
+	/**
+	 * Receives a vector of ciphertexts and a vector of exponents and returns the encryption of the product of 
+	 * plaintext[i]^exponents[i].<p>
+	 * This is the multiplicative analogue of an inner product. The computation uses a multi-exponentiation and the result is re-randomized once.
+	 * @param ciphers the ciphertexts.
+	 * @param exponents the exponents, one for each ciphertext.
+	 * @return the result ciphertext.
+	 * @throws IllegalStateException if no public key was set.
+	 * @throws IllegalArgumentException if the given ciphertexts do not match this asymmetric encryption, 
+	 * 		   or the number of ciphertexts and exponents is different.
+	 */
+	public AsymmetricCiphertext powerProduct(AsymmetricCiphertext[] ciphers, BigInteger[] exponents);
 }
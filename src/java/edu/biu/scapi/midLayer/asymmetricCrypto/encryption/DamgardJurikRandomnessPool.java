@@ -0,0 +1,105 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.midLayer.asymmetricCrypto.encryption;
+
+import java.math.BigInteger;
+import java.security.SecureRandom;
+import java.util.concurrent.ArrayBlockingQueue;
+
+import org.bouncycastle.util.BigIntegers;
+
+/**
+ * This class holds a pool of values of the form r^N mod N' for random values r, used by the Damgard Jurik encryption scheme.<p>
+ * The pool is filled by a background daemon thread, so that the expensive exponentiation is done while the application is idle 
+ * and the encryption functions only need to take a ready value.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+class DamgardJurikRandomnessPool implements Runnable {
+	
+	private final BigInteger N;			//n^s
+	private final BigInteger Ntag;		//n^(s+1)
+	private final SecureRandom random;
+	private final ArrayBlockingQueue<BigInteger> pool;
+	private final Thread filler;
+	
+	/**
+	 * Creates the pool. The values are not computed until {@link #start()} is called.
+	 * @param N n^s
+	 * @param Ntag n^(s+1)
+	 * @param capacity the maximal number of values kept in the pool.
+	 * @param random source of randomness.
+	 */
+	DamgardJurikRandomnessPool(BigInteger N, BigInteger Ntag, int capacity, SecureRandom random) {
+		this.N = N;
+		this.Ntag = Ntag;
+		this.random = random;
+		pool = new ArrayBlockingQueue<BigInteger>(capacity);
+		filler = new Thread(this, "DamgardJurikRandomnessPool");
+		filler.setDaemon(true);
+		filler.setPriority(Thread.MIN_PRIORITY);
+	}
+	
+	/**
+	 * Starts the background thread that fills the pool.
+	 */
+	void start() {
+		filler.start();
+	}
+	
+	/**
+	 * Stops the background thread and discards the values in the pool.
+	 */
+	void stop() {
+		filler.interrupt();
+		pool.clear();
+	}
+	
+	/**
+	 * @return a precomputed value r^N mod N' or null if the pool is empty.
+	 */
+	BigInteger poll() {
+		return pool.poll();
+	}
+	
+	/**
+	 * Computes values until the thread is interrupted. When the pool is full, the thread waits until a value is taken.
+	 */
+	@Override
+	public void run() {
+		BigInteger NtagMinus1 = Ntag.subtract(BigInteger.ONE);
+		try {
+			while (!Thread.currentThread().isInterrupted()) {
+				//Chooses a random r in ZNtag*, this can be done by choosing a random value between 1 and Ntag -1 
+				//which is with overwhelming probability in Zntag*.
+				BigInteger r = BigIntegers.createRandomInRange(BigInteger.ONE, NtagMinus1, random);
+				pool.put(r.modPow(N, Ntag));
+			}
+		} catch (InterruptedException e) {
+			//The pool was stopped.
+		}
+	}
+}
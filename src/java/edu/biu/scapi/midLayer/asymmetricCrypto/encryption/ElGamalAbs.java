@@ -225,7 +225,7 @@ public abstract class ElGamalAbs implements ElGamalEnc{
 		BigInteger x = BigIntegers.createRandomInRange(BigInteger.ZERO, qMinusOne, random);
 		GroupElement generator = dlog.getGenerator();
 		//Calculates h = g^x.
-		GroupElement h = dlog.exponentiate(generator, x);
+		GroupElement h = dlog.exponentiateWithPreComputedValues(generator, x);
 		//Creates an ElGamalPublicKey with h and ElGamalPrivateKey with x.
 		ScElGamalPublicKey publicKey = new ScElGamalPublicKey(h);
 		ScElGamalPrivateKey privateKey = new ScElGamalPrivateKey(x);
@@ -327,8 +327,8 @@ public abstract class ElGamalAbs implements ElGamalEnc{
 		
 		//Calculates c1 = g^y and c2 = msg * h^y.
 		GroupElement generator = dlog.getGenerator();
-		GroupElement c1 = dlog.exponentiate(generator, r);
-		GroupElement hy = dlog.exponentiate(publicKey.getH(), r);
+		GroupElement c1 = dlog.exponentiateWithPreComputedValues(generator, r);
+		GroupElement hy = dlog.exponentiateWithPreComputedValues(publicKey.getH(), r);
 		
 		return completeEncryption(c1, hy, plaintext);
 	}
@@ -37,6 +37,8 @@ import java.security.SecureRandom;
 import java.security.spec.AlgorithmParameterSpec;
 import java.security.spec.InvalidParameterSpecException;
 import java.util.Vector;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 
 import org.bouncycastle.util.BigIntegers;
 
@@ -54,6 +56,7 @@ import edu.biu.scapi.midLayer.plaintext.Plaintext;
 import edu.biu.scapi.primitives.trapdoorPermutation.RSAModulus;
 import edu.biu.scapi.primitives.trapdoorPermutation.ScRSAPermutation;
 import edu.biu.scapi.tools.math.MathAlgorithms;
+import edu.biu.scapi.tools.parallel.BatchExecution;
 
 /**
  * Damgard Jurik is an asymmetric encryption scheme based on the Paillier encryption scheme.
@@ -68,6 +71,11 @@ public class ScDamgardJurikEnc implements DamgardJurikEnc {
 	private DamgardJurikPrivateKey privateKey;
 	private SecureRandom random;
 	private boolean isKeySet;
+	//Values that depend only on the keys and on the length parameter s. They are computed once for each s that is used.
+	private ConcurrentHashMap<Integer, PrecomputedValues> precomputedValues = new ConcurrentHashMap<Integer, PrecomputedValues>();
+	//Pools of precomputed r^N mod N' values, for the length parameters requested by the user.
+	private ConcurrentHashMap<Integer, DamgardJurikRandomnessPool> randomnessPools = new ConcurrentHashMap<Integer, DamgardJurikRandomnessPool>();
+	private ExecutorService executor;	//Performs the batch functions. If null, they are performed by the calling thread.
 
 
 	/**
@@ -119,6 +127,9 @@ public class ScDamgardJurikEnc implements DamgardJurikEnc {
 			//Sets the private key
 			this.privateKey = (DamgardJurikPrivateKey) privateKey;
 		}
+		//The precomputed values belong to the previous keys.
+		stopRandomnessPools();
+		precomputedValues.clear();
 		isKeySet = true;
 
 	}
@@ -139,6 +150,38 @@ public class ScDamgardJurikEnc implements DamgardJurikEnc {
 		return isKeySet;
 	}
 	
+	/**
+	 * Starts a background thread that precomputes values of the form r^N mod N' for random values r, for the given length parameter s.<p>
+	 * The functions of this object that choose the random value by themselves (encrypt, reRandomize, add and multByConst) take a 
+	 * precomputed value from the pool, and compute it only if the pool is empty. The functions that get r from the user are not affected.<p>
+	 * The pool is bound to the current public key; setting a new key stops it.
+	 * @param s the length parameter of the ciphertexts that the pool serves. For example, s=1 for plaintexts shorter than the modulus.
+	 * @param capacity the maximal number of values that are kept in the pool.
+	 * @throws IllegalStateException if no public key was set.
+	 */
+	public void startRandomnessPool(int s, int capacity){
+		if (!isKeySet()){
+			throw new IllegalStateException("in order to start a randomness pool this object must be initialized with public key");
+		}
+		PrecomputedValues values = getPrecomputedValues(s);
+		DamgardJurikRandomnessPool pool = new DamgardJurikRandomnessPool(values.N, values.Ntag, capacity, random);
+		DamgardJurikRandomnessPool previous = randomnessPools.put(s, pool);
+		if (previous != null){
+			previous.stop();
+		}
+		pool.start();
+	}
+	
+	/**
+	 * Stops all the randomness pools that were started by {@link #startRandomnessPool(int, int)} and discards their values.
+	 */
+	public void stopRandomnessPools(){
+		for (DamgardJurikRandomnessPool pool : randomnessPools.values()){
+			pool.stop();
+		}
+		randomnessPools.clear();
+	}
+	
 	/**
 	 * Returns the PublicKey of this DamgardJurik encryption scheme.
 	 * This function should not be use to check if the key has been set. 
@@ -234,6 +277,11 @@ public class ScDamgardJurikEnc implements DamgardJurikEnc {
 		 * 		CHOOSE a random r in ZN*.	
 		 */
 		
+		// If there is no public key can not encrypt, throws exception.
+		if (!isKeySet()){
+			throw new IllegalStateException("in order to encrypt a message this object must be initialized with public key");
+		}
+		
 		if(!(plaintext instanceof BigIntegerPlainText)){
 			throw new IllegalArgumentException("The plaintext has to be of type BigIntegerPlainText");
 		}
@@ -243,13 +291,10 @@ public class ScDamgardJurikEnc implements DamgardJurikEnc {
 		//Calculates the length parameter s.
 		int s = (x.bitLength()/(publicKey.getModulus().bitLength() - 1)) + 1;
 		
-		BigInteger Ntag = publicKey.getModulus().pow(s+1);
-		BigInteger NtagMinus1 = Ntag.subtract(BigInteger.ONE);
-		//Chooses a random r in ZNtag*, this can be done by choosing a random value between 1 and Ntag -1 
-		//which is with overwhelming probability in Zntag*.
-		BigInteger r = BigIntegers.createRandomInRange(BigInteger.ONE, NtagMinus1, random);
+		PrecomputedValues values = getPrecomputedValues(s);
 		
-		return encrypt(plaintext, r);
+		//Uses r^N for a random r in ZNtag*, taken from the pool if there is one.
+		return encrypt(x, values, getRandomPowerN(values));
 	}
 	
 	/** 
@@ -292,28 +337,29 @@ public class ScDamgardJurikEnc implements DamgardJurikEnc {
 		//Calculates the length parameter s.
 		int s = (x.bitLength()/(publicKey.getModulus().bitLength() - 1)) + 1;
 		
-		BigInteger N = publicKey.getModulus().pow(s);
-		
-		//Makes sure the x belongs to ZN
-		if(x.compareTo(BigInteger.ZERO) < 0 || x.compareTo(N) >= 0)
-			throw new IllegalArgumentException("Message too big for encryption");
-		
-		BigInteger Ntag = publicKey.getModulus().pow(s+1);
-		BigInteger NtagMinus1 = Ntag.subtract(BigInteger.ONE);
+		PrecomputedValues values = getPrecomputedValues(s);
 		
 		//Check that the random value passed to this function is in Zq.
-		if(!((r.compareTo(BigInteger.ZERO))>=0) && (r.compareTo(NtagMinus1)<=0)) {
+		if(!((r.compareTo(BigInteger.ZERO))>=0) && (r.compareTo(values.NtagMinus1)<=0)) {
 			throw new IllegalArgumentException("r must be in Zq");
 		}
 		
-		//Computes c = ((1 + n) ^x) * r ^N mod N'.
-		BigInteger  mult1= (publicKey.getModulus().add(BigInteger.ONE)).modPow(x, Ntag);
-		BigInteger mult2 = r.modPow(N, Ntag);
-		BigInteger c = (mult1.multiply(mult2)).mod(Ntag);
+		return encrypt(x, values, r.modPow(values.N, values.Ntag));
+		
+	}
+	
+	/*
+	 * Computes c = ((1 + n) ^x) * rN mod N', where rN = r^N mod N' for a random r.
+	 */
+	private AsymmetricCiphertext encrypt(BigInteger x, PrecomputedValues values, BigInteger rN) {
+		//Makes sure the x belongs to ZN
+		if(x.compareTo(BigInteger.ZERO) < 0 || x.compareTo(values.N) >= 0)
+			throw new IllegalArgumentException("Message too big for encryption");
+		
+		BigInteger c = values.onePlusNPow(x).multiply(rN).mod(values.Ntag);
 		
 		//Wraps the BigInteger c with BigIntegerCiphertext and returns it.
 		return new BigIntegerCiphertext(c);
-		
 	}
 
 	/**
@@ -330,7 +376,7 @@ public class ScDamgardJurikEnc implements DamgardJurikEnc {
 		 * 		COMPUTE s=|c| / |n|
 		 * 		CHECK that c is in ZN'.
 		 * 		COMPUTE using the Chinese Remainder Theorem a value d, such that d = 1 mod N, and d=0 mod t. 
-		 *		COMPUTE c^d mod N.
+		 *		COMPUTE c^d mod N (modulo p^(s+1) and q^(s+1) separately, and combine the results using the Chinese Remainder Theorem).
 		 *		COMPUTE x as the discrete logarithm of c^d to the base (1+n) modulo N. This is done by the following computation
 		 *	 	a=c^d
 		 *		x=0
@@ -342,7 +388,7 @@ public class ScDamgardJurikEnc implements DamgardJurikEnc {
 		 *		   begin
 		 *		      x = x  1
 		 *		      t2 = t2 * x mod nj
-		 *		      t1 =  (t1  (t2 * n^(k-1)) / factorial(k) )  mod n^j
+		 *		      t1 =  (t1  (t2 * n^(k-1) * factorial(k)^(-1)) )  mod n^j
 		 *		  end
 		 *		  x = t1
 		 *		end
@@ -363,41 +409,29 @@ public class ScDamgardJurikEnc implements DamgardJurikEnc {
 		//Calculates s = |cipher| / |n|
 		int s = (djCipher).getCipher().bitLength() / publicKey.getModulus().bitLength();
 
-		//Calculates N and N' based on s: N = n^s, N' = n^(s+1)
-		BigInteger n = publicKey.getModulus();
-		BigInteger N = n.pow(s);
-		BigInteger Ntag = n.pow(s+1);
+		//Gets N, N' and the decryption values based on s. They are computed only in the first time that s is used.
+		PrecomputedValues values = getPrecomputedValues(s);
 		
 		//Makes sure the cipher belongs to ZN'
-		if(djCipher.getCipher().compareTo(BigInteger.ZERO) < 0 || djCipher.getCipher().compareTo(Ntag) >= 0)
+		if(djCipher.getCipher().compareTo(BigInteger.ZERO) < 0 || djCipher.getCipher().compareTo(values.Ntag) >= 0)
 			throw new IllegalArgumentException("The cipher is not in ZN'");
 		
-		BigInteger d;
-		//Optimization for the calculation of d:
-		//If s == 1 used the pre-computed d which we have in the private key
-		//else, compute d using the Chinese Remainder Theorem, such that d = 1 mod N, and d = 0 mod t.
-		if(s==1){
-			d = privateKey.getDForS1();
-		}else{
-			d = generateD(N, privateKey.getT());
-		}
-		
 		//Computes (cipher ^ d) mod N'
-		BigInteger a = djCipher.getCipher().modPow(d, Ntag);
+		BigInteger a = values.decryptionPower(djCipher.getCipher());
 		
 		//Computes x as the discrete logarithm of c^d to the base (1+n) modulo N. This is done by the algorithm shown above.
+		BigInteger n = publicKey.getModulus();
 		BigInteger x = BigInteger.ZERO;
 		BigInteger t1, t2;
-		BigInteger nPowJ, factorialK, temp;
+		BigInteger nPowJ, temp;
 		for(int j = 1; j <= s; j++){
-			t1 = (a.mod(n.pow(j+1)).subtract(BigInteger.ONE)).divide(n);
+			t1 = (a.mod(values.nPows[j+1]).subtract(BigInteger.ONE)).divide(n);
 			t2 = x;
-			nPowJ = n.pow(j);
+			nPowJ = values.nPows[j];
 			for(int k = 2; k <=j; k++){
 				x = x.subtract(BigInteger.ONE);
 				t2 = (t2.multiply(x)).mod(nPowJ);
-				factorialK = MathAlgorithms.factorialBI(k);
-				temp = (t2.multiply(n.pow(k-1))).divide(factorialK);
+				temp = t2.multiply(values.nPows[k-1]).multiply(values.factorialInverses[k]);
 				t1 = t1.subtract(temp).mod(nPowJ);
 			}
 			x = t1;
@@ -448,17 +482,11 @@ public class ScDamgardJurikEnc implements DamgardJurikEnc {
 		//Calculates s = |cipher| / |n|.
 		int s = (djCipher).getCipher().bitLength() / publicKey.getModulus().bitLength();
 
-		//Calculates N and N' based on s: N = n^s, N' = n^(s+1).
-		BigInteger n = publicKey.getModulus();
-		BigInteger Ntag = n.pow(s+1);
-		
-		
-		BigInteger NtagMinus1 = Ntag.subtract(BigInteger.ONE);
-		//Chooses a random r in ZNtag*, this can be done by choosing a random value between 1 and Ntag -1 
-		//which is with overwhelming probability in Zntag*.
-		BigInteger r = BigIntegers.createRandomInRange(BigInteger.ONE, NtagMinus1, random);
+		//Gets N and N' based on s: N = n^s, N' = n^(s+1).
+		PrecomputedValues values = getPrecomputedValues(s);
 		
-		return reRandomize(cipher, r);
+		//Uses r^N for a random r in ZNtag*, taken from the pool if there is one.
+		return reRandomize(djCipher.getCipher(), values, getRandomPowerN(values));
 	}
 	
 	/**
@@ -487,24 +515,26 @@ public class ScDamgardJurikEnc implements DamgardJurikEnc {
 		//Calculates s = |cipher| / |n|.
 		int s = (djCipher).getCipher().bitLength() / publicKey.getModulus().bitLength();
 
-		//Calculates N and N' based on s: N = n^s, N' = n^(s+1).
-		BigInteger n = publicKey.getModulus();
-		BigInteger N = n.pow(s);
-		BigInteger Ntag = n.pow(s+1);
+		//Gets N and N' based on s: N = n^s, N' = n^(s+1).
+		PrecomputedValues values = getPrecomputedValues(s);
 		
-		//Makes sure the cipher belongs to ZN'.
-		if(djCipher.getCipher().compareTo(BigInteger.ZERO) < 0 || djCipher.getCipher().compareTo(Ntag) >= 0)
-			throw new IllegalArgumentException("The cipher is not in ZN'");
-		
-		BigInteger NtagMinus1 = Ntag.subtract(BigInteger.ONE);
 		//Check that the r random value passed to this function is in Zntag*.
-		if(!((r.compareTo(BigInteger.ZERO))>=0) && (r.compareTo(NtagMinus1)<=0)) {
+		if(!((r.compareTo(BigInteger.ZERO))>=0) && (r.compareTo(values.NtagMinus1)<=0)) {
 			throw new IllegalArgumentException("r must be in Zq");
 		}
 				
-		BigInteger c = djCipher.getCipher().multiply(r.modPow(N, Ntag)).mod(Ntag);
+		return reRandomize(djCipher.getCipher(), values, r.modPow(values.N, values.Ntag));
+	}
+	
+	/*
+	 * Computes c * rN mod N', where rN = r^N mod N' for a random r.
+	 */
+	private AsymmetricCiphertext reRandomize(BigInteger c, PrecomputedValues values, BigInteger rN) {
+		//Makes sure the cipher belongs to ZN'.
+		if(c.compareTo(BigInteger.ZERO) < 0 || c.compareTo(values.Ntag) >= 0)
+			throw new IllegalArgumentException("The cipher is not in ZN'");
 		
-		return new BigIntegerCiphertext(c);
+		return new BigIntegerCiphertext(c.multiply(rN).mod(values.Ntag));
 	}
 
 	/**
@@ -524,27 +554,18 @@ public class ScDamgardJurikEnc implements DamgardJurikEnc {
 		}
 		
 		//Ciphertexts should be Damgard-Jurik ciphertexts.
-		if (!(cipher1 instanceof BigIntegerCiphertext)){
+		if (!(cipher1 instanceof BigIntegerCiphertext) || !(cipher2 instanceof BigIntegerCiphertext)){
 			throw new IllegalArgumentException("cipher should be instance of BigIntegerCiphertext");
 		}
-		BigIntegerCiphertext djCipher1 = (BigIntegerCiphertext) cipher1;
-		
-		BigInteger c = djCipher1.getCipher();
 		
-		//n is the modulus in the public key.
-		//Calculates s = |cipher|/ |n|.
-		int s = c.bitLength() / publicKey.getModulus().bitLength();
-		
-		//Calculates N and N' based on s: N = n^s, N' = n^(s+1).
-		BigInteger n = publicKey.getModulus();
-		BigInteger Ntag = n.pow(s+1);
-		BigInteger NtagMinus1 = Ntag.subtract(BigInteger.ONE);
+		BigInteger c1 = ((BigIntegerCiphertext) cipher1).getCipher();
+		BigInteger c2 = ((BigIntegerCiphertext) cipher2).getCipher();
 		
-		//Chooses a random r in ZNtag*, this can be done by choosing a random value between 1 and Ntag -1 
-		//which is with overwhelming probability in Zntag*.
-		BigInteger r = BigIntegers.createRandomInRange(BigInteger.ONE, NtagMinus1, random);
+		//Gets N and N' based on s: N = n^s, N' = n^(s+1).
+		PrecomputedValues values = getPrecomputedValues(getCommonLengthParameter(c1, c2));
 		
-		return add(cipher1, cipher2, r);
+		//Uses r^N for a random r in ZNtag*, taken from the pool if there is one.
+		return add(c1, c2, values, getRandomPowerN(values));
 	}
 	
 	/**
@@ -574,42 +595,48 @@ public class ScDamgardJurikEnc implements DamgardJurikEnc {
 		if (!(cipher1 instanceof BigIntegerCiphertext) || !(cipher2 instanceof BigIntegerCiphertext)){
 			throw new IllegalArgumentException("cipher should be instance of BigIntegerCiphertext");
 		}
-		BigIntegerCiphertext djCipher1 = (BigIntegerCiphertext) cipher1;
-		BigIntegerCiphertext djCipher2 = (BigIntegerCiphertext) cipher2;
 		
-		BigInteger c1 = djCipher1.getCipher();
-		BigInteger c2 = djCipher2.getCipher();
-				
-		//n is the modulus in the public key.
-		//Calculates s = |cipher|/ |n|.
-		int s1 = c1.bitLength() / publicKey.getModulus().bitLength();
-		int s2 = c2.bitLength() / publicKey.getModulus().bitLength();
-		if(s1 != s2){
-			throw new IllegalArgumentException("Sizes of ciphertexts do not match");
-		}
+		BigInteger c1 = ((BigIntegerCiphertext) cipher1).getCipher();
+		BigInteger c2 = ((BigIntegerCiphertext) cipher2).getCipher();
 		
-		//Calculates N and N' based on s: N = n^s, N' = n^(s+1).
-		BigInteger n = publicKey.getModulus();
-		BigInteger N = n.pow(s1);
-		BigInteger Ntag = n.pow(s1+1);
-		BigInteger NtagMinus1 = Ntag.subtract(BigInteger.ONE);
+		//Gets N and N' based on s: N = n^s, N' = n^(s+1).
+		PrecomputedValues values = getPrecomputedValues(getCommonLengthParameter(c1, c2));
 		
 		//Check that the r random value passed to this function is in Zntag*.
-		if(!((r.compareTo(BigInteger.ZERO))>=0) && (r.compareTo(NtagMinus1)<=0)) {
+		if(!((r.compareTo(BigInteger.ZERO))>=0) && (r.compareTo(values.NtagMinus1)<=0)) {
 			throw new IllegalArgumentException("r must be in Zq");
 		}
 		
+		return add(c1, c2, values, r.modPow(values.N, values.Ntag));
+	}
+	
+	/*
+	 * Calculates s = |cipher|/ |n| for both ciphertexts and checks that they match.
+	 */
+	private int getCommonLengthParameter(BigInteger c1, BigInteger c2) {
+		//n is the modulus in the public key.
+		int s1 = c1.bitLength() / publicKey.getModulus().bitLength();
+		int s2 = c2.bitLength() / publicKey.getModulus().bitLength();
+		if(s1 != s2){
+			throw new IllegalArgumentException("Sizes of ciphertexts do not match");
+		}
+		return s1;
+	}
+	
+	/*
+	 * Computes c1 * c2 * rN mod N', where rN = r^N mod N' for a random r.
+	 */
+	private AsymmetricCiphertext add(BigInteger c1, BigInteger c2, PrecomputedValues values, BigInteger rN) {
 		//Checks that cipher1 and cipher2 belong to ZN'
-		if(c1.compareTo(BigInteger.ZERO) < 0 || c1.compareTo(Ntag) >= 0)
+		if(c1.compareTo(BigInteger.ZERO) < 0 || c1.compareTo(values.Ntag) >= 0)
 			throw new IllegalArgumentException("cipher1 is not in ZN'");
-		if(c2.compareTo(BigInteger.ZERO) < 0 || c2.compareTo(Ntag) >= 0)
+		if(c2.compareTo(BigInteger.ZERO) < 0 || c2.compareTo(values.Ntag) >= 0)
 			throw new IllegalArgumentException("cipher2 is not in ZN'");
 		
-		BigInteger c = c1.multiply(c2).mod(Ntag);
+		BigInteger c = c1.multiply(c2).mod(values.Ntag);
 		
-		c = c.multiply(r.modPow(N, Ntag)).mod(Ntag);
+		c = c.multiply(rN).mod(values.Ntag);
 		
-		//Call the other function that computes the addition.
 		return new BigIntegerCiphertext(c);
 	}
 
@@ -641,17 +668,11 @@ public class ScDamgardJurikEnc implements DamgardJurikEnc {
 		//Calculates s = |cipher| / |n|.
 		int s = (djCipher).getCipher().bitLength() / publicKey.getModulus().bitLength();
 				
-		//Calculates N and N' based on s: N = n^s, N' = n^(s+1).
-		BigInteger n = publicKey.getModulus();
-		BigInteger Ntag = n.pow(s+1);
-		BigInteger NtagMinus1 = Ntag.subtract(BigInteger.ONE);
-		
-		//Chooses a random r in ZNtag*, this can be done by choosing a random value between 1 and Ntag -1 
-		//which is with overwhelming probability in Zntag*.
-		BigInteger r = BigIntegers.createRandomInRange(BigInteger.ONE, NtagMinus1, random);
+		//Gets N and N' based on s: N = n^s, N' = n^(s+1).
+		PrecomputedValues values = getPrecomputedValues(s);
 		
-		//Call the other function that computes the multiplication.
-		return multByConst(cipher, constNumber, r);
+		//Uses r^N for a random r in ZNtag*, taken from the pool if there is one.
+		return multByConst(djCipher.getCipher(), constNumber, values, getRandomPowerN(values));
 	}
 	
 	/**
@@ -690,36 +711,254 @@ public class ScDamgardJurikEnc implements DamgardJurikEnc {
 		//Calculates s = |cipher| / |n|.
 		int s = (djCipher).getCipher().bitLength() / publicKey.getModulus().bitLength();
 
-		//Calculates N and N' based on s: N = n^s, N' = n^(s+1).
-		BigInteger n = publicKey.getModulus();
-		BigInteger N = n.pow(s);
-		BigInteger Ntag = n.pow(s+1);
-		BigInteger NtagMinus1 = Ntag.subtract(BigInteger.ONE);
+		//Gets N and N' based on s: N = n^s, N' = n^(s+1).
+		PrecomputedValues values = getPrecomputedValues(s);
 		
 		//Check that the r random value passed to this function is in Zntag*.
-		if(!((r.compareTo(BigInteger.ZERO))>=0) && (r.compareTo(NtagMinus1)<=0)) {
+		if(!((r.compareTo(BigInteger.ZERO))>=0) && (r.compareTo(values.NtagMinus1)<=0)) {
 			throw new IllegalArgumentException("r must be in Zq");
 		}
-				
+		
+		return multByConst(djCipher.getCipher(), constNumber, values, r.modPow(values.N, values.Ntag));
+	}
+	
+	/*
+	 * Computes c^constNumber * rN mod N', where rN = r^N mod N' for a random r.
+	 */
+	private AsymmetricCiphertext multByConst(BigInteger c, BigInteger constNumber, PrecomputedValues values, BigInteger rN) {
 		//Makes sure the cipher belongs to ZN'.
-		if(djCipher.getCipher().compareTo(BigInteger.ZERO) < 0 || djCipher.getCipher().compareTo(Ntag) >= 0)
+		if(c.compareTo(BigInteger.ZERO) < 0 || c.compareTo(values.Ntag) >= 0)
 			throw new IllegalArgumentException("The cipher is not in ZN'");
 		
 		//Makes sure the constant number belongs to ZN.
-		if(constNumber.compareTo(BigInteger.ZERO) < 0 || constNumber.compareTo(N) >= 0)
+		if(constNumber.compareTo(BigInteger.ZERO) < 0 || constNumber.compareTo(values.N) >= 0)
 			throw new IllegalArgumentException("The constant number is not in ZN");
 	
-		BigInteger c = djCipher.getCipher().modPow(constNumber, Ntag);
+		c = c.modPow(constNumber, values.Ntag);
 		
-		c = c.multiply(r.modPow(N, Ntag)).mod(Ntag);
+		c = c.multiply(rN).mod(values.Ntag);
 		
 		return new BigIntegerCiphertext(c);
 	}
 	
+	/**
+	 * Sets the executor that performs the batch functions of this object.
+	 * @param executor the executor to use, or null to perform the batch functions in the calling thread.
+	 */
+	@Override
+	public void setExecutor(ExecutorService executor){
+		this.executor = executor;
+	}
+	
+	/**
+	 * Encrypts each one of the given plaintexts, using a fresh random value (or a value of the randomness pool) for each one.
+	 * @param plaintexts MUST be instances of BigIntegerPlainText.
+	 * @return BigIntegerCiphertexts holding the encryptions of the plaintexts.
+	 * @throws IllegalStateException if no public key was set.
+	 * @throws IllegalArgumentException if one of the given plaintexts is not an instance of BigIntegerPlainText.
+	 */
+	@Override
+	public AsymmetricCiphertext[] encryptBatch(final Plaintext[] plaintexts){
+		final AsymmetricCiphertext[] ciphers = new AsymmetricCiphertext[plaintexts.length];
+		int chunks = BatchExecution.numChunks(executor, plaintexts.length);
+		BatchExecution.run(executor, plaintexts.length, chunks, new BatchExecution.ChunkTask() {
+			@Override
+			public void run(int chunk, int from, int to) {
+				for (int i = from; i < to; i++){
+					ciphers[i] = encrypt(plaintexts[i]);
+				}
+			}
+		});
+		return ciphers;
+	}
+	
+	/**
+	 * Decrypts each one of the given ciphertexts.
+	 * @param ciphers have to be instances of BigIntegerCiphertext.
+	 * @return BigIntegerPlainTexts holding the decrypted values.
+	 * @throws KeyException if the Private Key has not been set for this object.
+	 * @throws IllegalArgumentException if one of the ciphers is not an instance of BigIntegerCiphertext.
+	 */
+	@Override
+	public Plaintext[] decryptBatch(final AsymmetricCiphertext[] ciphers) throws KeyException{
+		//If there is no private key, throws exception.
+		if (privateKey == null){
+			throw new KeyException("in order to decrypt a message, this object must be initialized with private key");
+		}
+		
+		final Plaintext[] plaintexts = new Plaintext[ciphers.length];
+		int chunks = BatchExecution.numChunks(executor, ciphers.length);
+		BatchExecution.run(executor, ciphers.length, chunks, new BatchExecution.ChunkTask() {
+			@Override
+			public void run(int chunk, int from, int to) {
+				for (int i = from; i < to; i++){
+					try {
+						plaintexts[i] = decrypt(ciphers[i]);
+					} catch (KeyException e) {
+						// Should not occur since the private key was checked above.
+					}
+				}
+			}
+		});
+		return plaintexts;
+	}
+	
+	/**
+	 * Given ciphers c1 = Enc(p1), ..., ck = Enc(pk) this function returns Enc(p1 + ... + pk).<p>
+	 * All the ciphertexts have to have been generated with the same public key as this encryption's public key, 
+	 * and have the same length parameter s.
+	 * @throws IllegalStateException if no public key was set.
+	 * @throws IllegalArgumentException in the following cases:
+	 * 		1. If there are no ciphertexts, or one of them is not an instance of BigIntegerCiphertext.
+	 * 		2. If the sizes of ciphertexts do not match.
+	 * 		3. If one or more of the BigInteger numbers in the given ciphertexts is not in ZN'.
+	 */
+	@Override
+	public AsymmetricCiphertext sum(AsymmetricCiphertext[] ciphers){
+		final BigInteger[] c = new BigInteger[ciphers.length];
+		final PrecomputedValues values = extractCiphers(ciphers, c);
+		
+		//Each chunk multiplies its ciphertexts modulo N'.
+		final BigInteger[] partialProducts = new BigInteger[BatchExecution.numChunks(executor, c.length)];
+		BatchExecution.run(executor, c.length, partialProducts.length, new BatchExecution.ChunkTask() {
+			@Override
+			public void run(int chunk, int from, int to) {
+				BigInteger product = BigInteger.ONE;
+				for (int i = from; i < to; i++){
+					product = product.multiply(c[i]).mod(values.Ntag);
+				}
+				partialProducts[chunk] = product;
+			}
+		});
+		
+		//Re-randomizes the result once with r^N for a random r.
+		BigInteger result = getRandomPowerN(values);
+		for (int i = 0; i < partialProducts.length; i++){
+			result = result.multiply(partialProducts[i]).mod(values.Ntag);
+		}
+		return new BigIntegerCiphertext(result);
+	}
+	
+	/**
+	 * Given ciphers c1 = Enc(p1), ..., ck = Enc(pk) and constant numbers x1, ..., xk this function returns Enc(x1*p1 + ... + xk*pk).<p>
+	 * Each ciphertext is raised to its constant with BigInteger#modPow, which is faster than a multi-exponentiation written in Java. 
+	 * All the ciphertexts have to have been generated with the same public key as this encryption's public key, 
+	 * and have the same length parameter s.
+	 * @throws IllegalStateException if no public key was set.
+	 * @throws IllegalArgumentException in the following cases:
+	 * 		1. If there are no ciphertexts, or one of them is not an instance of BigIntegerCiphertext.
+	 * 		2. If the sizes of ciphertexts do not match.
+	 * 		3. If one or more of the BigInteger numbers in the given ciphertexts is not in ZN'.
+	 * 		4. If the number of constants is not equal to the number of ciphertexts, or one of the constants is not in ZN.
+	 */
+	@Override
+	public AsymmetricCiphertext innerProduct(AsymmetricCiphertext[] ciphers, final BigInteger[] constNumbers){
+		if (ciphers.length != constNumbers.length){
+			throw new IllegalArgumentException("The number of constant numbers should be equal to the number of ciphertexts");
+		}
+		final BigInteger[] c = new BigInteger[ciphers.length];
+		final PrecomputedValues values = extractCiphers(ciphers, c);
+		
+		//Makes sure the constant numbers belong to ZN.
+		for (int i = 0; i < constNumbers.length; i++){
+			if(constNumbers[i].compareTo(BigInteger.ZERO) < 0 || constNumbers[i].compareTo(values.N) >= 0)
+				throw new IllegalArgumentException("The constant number is not in ZN");
+		}
+		
+		//Each chunk computes the product of c[i]^constNumbers[i] of its range.
+		final BigInteger[] partialProducts = new BigInteger[BatchExecution.numChunks(executor, c.length)];
+		BatchExecution.run(executor, c.length, partialProducts.length, new BatchExecution.ChunkTask() {
+			@Override
+			public void run(int chunk, int from, int to) {
+				BigInteger product = BigInteger.ONE;
+				for (int i = from; i < to; i++){
+					product = product.multiply(c[i].modPow(constNumbers[i], values.Ntag)).mod(values.Ntag);
+				}
+				partialProducts[chunk] = product;
+			}
+		});
+		
+		//Re-randomizes the result once with r^N for a random r.
+		BigInteger result = getRandomPowerN(values);
+		for (int i = 0; i < partialProducts.length; i++){
+			result = result.multiply(partialProducts[i]).mod(values.Ntag);
+		}
+		return new BigIntegerCiphertext(result);
+	}
+	
+	/*
+	 * Puts the BigInteger values of the given ciphertexts in the given array, after checking that they are Damgard-Jurik ciphertexts 
+	 * with the same length parameter s and in ZN'. Returns the precomputed values of s.
+	 */
+	private PrecomputedValues extractCiphers(AsymmetricCiphertext[] ciphers, BigInteger[] c){
+		// If there is no public key can not operate the function, throws exception.
+		if (!isKeySet()){
+			throw new IllegalStateException("in order to add ciphertexts this object must be initialized with public key");
+		}
+		if (ciphers.length == 0){
+			throw new IllegalArgumentException("There should be at least one ciphertext");
+		}
+		
+		for (int i = 0; i < ciphers.length; i++){
+			//Ciphertexts should be Damgard-Jurik ciphertexts.
+			if (!(ciphers[i] instanceof BigIntegerCiphertext)){
+				throw new IllegalArgumentException("cipher should be instance of BigIntegerCiphertext");
+			}
+			c[i] = ((BigIntegerCiphertext) ciphers[i]).getCipher();
+		}
+		
+		//Calculates s = |cipher|/ |n| and checks that it is the same for all the ciphertexts.
+		int s = c[0].bitLength() / publicKey.getModulus().bitLength();
+		for (int i = 1; i < c.length; i++){
+			if (c[i].bitLength() / publicKey.getModulus().bitLength() != s){
+				throw new IllegalArgumentException("Sizes of ciphertexts do not match");
+			}
+		}
+		
+		PrecomputedValues values = getPrecomputedValues(s);
+		//Makes sure the ciphers belong to ZN'.
+		for (int i = 0; i < c.length; i++){
+			if(c[i].compareTo(BigInteger.ZERO) < 0 || c[i].compareTo(values.Ntag) >= 0)
+				throw new IllegalArgumentException("The cipher is not in ZN'");
+		}
+		return values;
+	}
+	
+	/*
+	 * Returns r^N mod N' for a random r in ZN'*. The value is taken from the randomness pool of s if there is one and it is not empty.
+	 */
+	private BigInteger getRandomPowerN(PrecomputedValues values) {
+		DamgardJurikRandomnessPool pool = randomnessPools.get(values.s);
+		if (pool != null){
+			BigInteger rN = pool.poll();
+			if (rN != null){
+				return rN;
+			}
+		}
+		//Chooses a random r in ZNtag*, this can be done by choosing a random value between 1 and Ntag -1 
+		//which is with overwhelming probability in Zntag*.
+		BigInteger r = BigIntegers.createRandomInRange(BigInteger.ONE, values.NtagMinus1, random);
+		return r.modPow(values.N, values.Ntag);
+	}
+	
+	/*
+	 * Returns the values of the given s, and computes them if this is the first time that s is used with the current keys.
+	 */
+	private PrecomputedValues getPrecomputedValues(int s) {
+		PrecomputedValues values = precomputedValues.get(s);
+		if (values == null){
+			//Two threads may compute the values of the same s concurrently; both results are equal, so any of them can be kept.
+			values = new PrecomputedValues(publicKey.getModulus(), s, privateKey);
+			precomputedValues.put(s, values);
+		}
+		return values;
+	}
+	
+	
 	/**
 	 * This function generates a value d such that d = 1 mod N and d = 0 mod t, using the Chinese Remainder Theorem.
 	 */
-	private BigInteger generateD(BigInteger N, BigInteger t){
+	private static BigInteger generateD(BigInteger N, BigInteger t){
 		Vector<BigInteger> congruences = new Vector<BigInteger>();
 		congruences.add(BigInteger.ONE);
 		congruences.add(BigInteger.ZERO);
@@ -773,5 +1012,98 @@ public class ScDamgardJurikEnc implements DamgardJurikEnc {
 	return (DamgardJurikPrivateKey)data;
 	}
 	
+	/**
+	 * This class holds the values of the scheme that depend only on the keys and on the length parameter s, 
+	 * so that they are computed once for each s instead of in every operation.
+	 */
+	private static class PrecomputedValues {
+		final int s;
+		final BigInteger N;					//n^s
+		final BigInteger Ntag;				//n^(s+1)
+		final BigInteger NtagMinus1;
+		final BigInteger[] nPows;			//n^j for j = 0, ..., s+1
+		final BigInteger[] factorialInverses;	//(k!)^(-1) mod N' for k = 0, ..., s
+		
+		//Decryption values. They are null if there is no private key.
+		private BigInteger d;				//d = 1 mod N and d = 0 mod t
+		//CRT values. They are null if the factors of n are not known.
+		private BigInteger pPow, qPow;		//p^(s+1), q^(s+1)
+		private BigInteger dP, dQ;			//d modulo the orders of Zp^(s+1)* and Zq^(s+1)*
+		private BigInteger qPowInverse;		//(q^(s+1))^(-1) mod p^(s+1)
+		
+		PrecomputedValues(BigInteger n, int s, DamgardJurikPrivateKey privateKey) {
+			this.s = s;
+			nPows = new BigInteger[s + 2];
+			nPows[0] = BigInteger.ONE;
+			for (int j = 1; j < nPows.length; j++) {
+				nPows[j] = nPows[j - 1].multiply(n);
+			}
+			N = nPows[s];
+			Ntag = nPows[s + 1];
+			NtagMinus1 = Ntag.subtract(BigInteger.ONE);
+			
+			//k! is invertible modulo N' since all the k's are smaller than the primes of n.
+			factorialInverses = new BigInteger[s + 1];
+			BigInteger factorial = BigInteger.ONE;
+			for (int k = 0; k <= s; k++) {
+				if (k > 0) {
+					factorial = factorial.multiply(BigInteger.valueOf(k));
+				}
+				factorialInverses[k] = factorial.modInverse(Ntag);
+			}
+			
+			if (privateKey != null) {
+				//Optimization for the calculation of d:
+				//If s == 1 used the pre-computed d which we have in the private key
+				//else, compute d using the Chinese Remainder Theorem, such that d = 1 mod N, and d = 0 mod t.
+				if (s == 1) {
+					d = privateKey.getDForS1();
+				} else {
+					d = generateD(N, privateKey.getT());
+				}
+				
+				BigInteger p = privateKey.getP();
+				BigInteger q = privateKey.getQ();
+				if (p != null && q != null) {
+					pPow = p.pow(s + 1);
+					qPow = q.pow(s + 1);
+					//The order of Zp^(s+1)* is p^s * (p-1), so the exponent can be reduced modulo it.
+					dP = d.mod(pPow.divide(p).multiply(p.subtract(BigInteger.ONE)));
+					dQ = d.mod(qPow.divide(q).multiply(q.subtract(BigInteger.ONE)));
+					qPowInverse = qPow.modInverse(pPow);
+				}
+			}
+		}
+		
+		/*
+		 * Computes (1+n)^x mod N' using the binomial expansion sum_{i=0..s} (x choose i) * n^i, since n^i = 0 mod N' for every i > s.
+		 * This takes s multiplications instead of a full exponentiation.
+		 */
+		BigInteger onePlusNPow(BigInteger x) {
+			BigInteger result = BigInteger.ONE;
+			BigInteger fallingFactorial = BigInteger.ONE;	//x*(x-1)*...*(x-i+1)
+			for (int i = 1; i <= s; i++) {
+				fallingFactorial = fallingFactorial.multiply(x.subtract(BigInteger.valueOf(i - 1))).mod(Ntag);
+				BigInteger term = fallingFactorial.multiply(factorialInverses[i]).mod(Ntag);
+				result = result.add(term.multiply(nPows[i]));
+			}
+			return result.mod(Ntag);
+		}
+		
+		/*
+		 * Computes c^d mod N'. If the factors of n are known, the exponentiation is done modulo p^(s+1) and q^(s+1)
+		 * with the reduced exponents, and the results are combined using the Chinese Remainder Theorem.
+		 */
+		BigInteger decryptionPower(BigInteger c) {
+			if (pPow == null) {
+				return c.modPow(d, Ntag);
+			}
+			BigInteger aP = c.mod(pPow).modPow(dP, pPow);
+			BigInteger aQ = c.mod(qPow).modPow(dQ, qPow);
+			//a = aQ + q^(s+1) * ((aP - aQ) * (q^(s+1))^(-1) mod p^(s+1))
+			BigInteger h = aP.subtract(aQ).multiply(qPowInverse).mod(pPow);
+			return aQ.add(qPow.multiply(h));
+		}
+	}
 }
 
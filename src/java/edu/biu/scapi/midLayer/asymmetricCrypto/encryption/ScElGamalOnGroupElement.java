@@ -31,6 +31,7 @@ import java.security.KeyException;
 import java.security.NoSuchAlgorithmException;
 import java.security.PrivateKey;
 import java.security.SecureRandom;
+import java.util.concurrent.ExecutorService;
 
 import org.bouncycastle.util.BigIntegers;
 
@@ -46,6 +47,7 @@ import edu.biu.scapi.midLayer.plaintext.GroupElementPlaintext;
 import edu.biu.scapi.midLayer.plaintext.Plaintext;
 import edu.biu.scapi.primitives.dlog.DlogGroup;
 import edu.biu.scapi.primitives.dlog.GroupElement;
+import edu.biu.scapi.tools.parallel.BatchExecution;
 
 /**
  * This class performs the El Gamal encryption scheme that perform the encryption on a GroupElement. <P>
@@ -59,6 +61,8 @@ import edu.biu.scapi.primitives.dlog.GroupElement;
  */
 public class ScElGamalOnGroupElement extends ElGamalAbs implements AsymMultiplicativeHomomorphicEnc{
 	
+	private ExecutorService executor;	//Performs the batch functions. If null, they are performed by the calling thread.
+	
 	/**
 	 * Default constructor. Uses the default implementations of DlogGroup, CryptographicHash and SecureRandom.
 	 */
@@ -295,18 +299,204 @@ public class ScElGamalOnGroupElement extends ElGamalAbs implements AsymMultiplic
 		}
 				
 		//Calculates u = g^w*u1*u2.
-		GroupElement gExpW = dlog.exponentiate(dlog.getGenerator(), w);
+		GroupElement gExpW = dlog.exponentiateWithPreComputedValues(dlog.getGenerator(), w);
 		GroupElement gExpWmultU1 = dlog.multiplyGroupElements(gExpW, c1.getC1());
 		GroupElement u = dlog.multiplyGroupElements(gExpWmultU1, c2.getC1());
 		
 		//Calculates v = h^w*v1*v2.
-		GroupElement hExpW = dlog.exponentiate(publicKey.getH(), w);
+		GroupElement hExpW = dlog.exponentiateWithPreComputedValues(publicKey.getH(), w);
 		GroupElement hExpWmultV1 = dlog.multiplyGroupElements(hExpW, c1.getC2());
 		GroupElement v = dlog.multiplyGroupElements(hExpWmultV1, c2.getC2());
 		
 		return new ElGamalOnGroupElementCiphertext(u,v);
 	}
 	
+	/**
+	 * Sets the executor that performs the batch functions of this object.
+	 * @param executor the executor to use, or null to perform the batch functions in the calling thread.
+	 */
+	@Override
+	public void setExecutor(ExecutorService executor){
+		this.executor = executor;
+	}
+	
+	/**
+	 * Encrypts each one of the given plaintexts, using a fresh random value for each one.
+	 * @param plaintexts MUST be instances of GroupElementPlaintext.
+	 * @return ElGamalOnGroupElementCiphertexts holding the encryptions of the plaintexts.
+	 * @throws IllegalStateException if no public key was set.
+	 * @throws IllegalArgumentException if one of the given plaintexts is not an instance of GroupElementPlaintext.
+	 */
+	@Override
+	public AsymmetricCiphertext[] encryptBatch(final Plaintext[] plaintexts){
+		final AsymmetricCiphertext[] ciphers = new AsymmetricCiphertext[plaintexts.length];
+		int chunks = BatchExecution.numChunks(executor, plaintexts.length);
+		BatchExecution.run(executor, plaintexts.length, chunks, new BatchExecution.ChunkTask() {
+			@Override
+			public void run(int chunk, int from, int to) {
+				for (int i = from; i < to; i++){
+					ciphers[i] = encrypt(plaintexts[i]);
+				}
+			}
+		});
+		return ciphers;
+	}
+	
+	/**
+	 * Decrypts each one of the given ciphertexts.
+	 * @param ciphers MUST be instances of ElGamalOnGroupElementCiphertext.
+	 * @return GroupElementPlaintexts holding the decrypted messages.
+	 * @throws KeyException if no private key was set.
+	 * @throws IllegalArgumentException if one of the given ciphers is not an instance of ElGamalOnGroupElementCiphertext.
+	 */
+	@Override
+	public Plaintext[] decryptBatch(final AsymmetricCiphertext[] ciphers) throws KeyException{
+		//If there is no private key, throws exception.
+		if (privateKey == null){
+			throw new KeyException("in order to decrypt a message, this object must be initialized with private key");
+		}
+		
+		final Plaintext[] plaintexts = new Plaintext[ciphers.length];
+		int chunks = BatchExecution.numChunks(executor, ciphers.length);
+		BatchExecution.run(executor, ciphers.length, chunks, new BatchExecution.ChunkTask() {
+			@Override
+			public void run(int chunk, int from, int to) {
+				for (int i = from; i < to; i++){
+					try {
+						plaintexts[i] = decrypt(ciphers[i]);
+					} catch (KeyException e) {
+						// Should not occur since the private key was checked above.
+					}
+				}
+			}
+		});
+		return plaintexts;
+	}
+	
+	/**
+	 * Given ciphers c1 = Enc(m1), ..., ck = Enc(mk) this function returns Enc(m1 * ... * mk).<p>
+	 * All the ciphertexts have to have been generated with the same public key and DlogGroup as the underlying objects of this ElGamal object.
+	 * The result is re-randomized once, with a single pair of exponentiations.
+	 * @throws IllegalStateException if no public key was set.
+	 * @throws IllegalArgumentException in the following cases:
+	 * 		1. If there are no ciphertexts, or one of them is not an instance of ElGamalOnGroupElementCiphertext.
+	 * 		2. If one or more of the GroupElements in the given ciphertexts is not a member of the underlying DlogGroup of this ElGamal encryption scheme.
+	 */
+	@Override
+	public AsymmetricCiphertext product(AsymmetricCiphertext[] ciphers){
+		/* 
+		 * Pseudo-Code:
+		 * 	ci = (ui, vi)
+		 * 	COMPUTE u = g^w*u1*...*uk
+		 * 	COMPUTE v = h^w*v1*...*vk
+		 * 	OUTPUT c = (u,v)
+		 */
+		final GroupElement[] u = new GroupElement[ciphers.length];
+		final GroupElement[] v = new GroupElement[ciphers.length];
+		extractCiphers(ciphers, u, v);
+		
+		//Each chunk multiplies the elements of its range.
+		final GroupElement[] partialU = new GroupElement[BatchExecution.numChunks(executor, u.length)];
+		final GroupElement[] partialV = new GroupElement[partialU.length];
+		BatchExecution.run(executor, u.length, partialU.length, new BatchExecution.ChunkTask() {
+			@Override
+			public void run(int chunk, int from, int to) {
+				GroupElement uProduct = u[from];
+				GroupElement vProduct = v[from];
+				for (int i = from + 1; i < to; i++){
+					uProduct = dlog.multiplyGroupElements(uProduct, u[i]);
+					vProduct = dlog.multiplyGroupElements(vProduct, v[i]);
+				}
+				partialU[chunk] = uProduct;
+				partialV[chunk] = vProduct;
+			}
+		});
+		
+		return reRandomizeProduct(partialU, partialV);
+	}
+	
+	/**
+	 * Given ciphers c1 = Enc(m1), ..., ck = Enc(mk) and exponents x1, ..., xk this function returns Enc(m1^x1 * ... * mk^xk).<p>
+	 * The components of the ciphertexts are raised to the exponents using the simultaneous multiple exponentiation of the underlying DlogGroup. 
+	 * All the ciphertexts have to have been generated with the same public key and DlogGroup as the underlying objects of this ElGamal object.
+	 * The result is re-randomized once, with a single pair of exponentiations.
+	 * @throws IllegalStateException if no public key was set.
+	 * @throws IllegalArgumentException in the following cases:
+	 * 		1. If there are no ciphertexts, or one of them is not an instance of ElGamalOnGroupElementCiphertext.
+	 * 		2. If one or more of the GroupElements in the given ciphertexts is not a member of the underlying DlogGroup of this ElGamal encryption scheme.
+	 * 		3. If the number of exponents is not equal to the number of ciphertexts.
+	 */
+	@Override
+	public AsymmetricCiphertext powerProduct(AsymmetricCiphertext[] ciphers, final BigInteger[] exponents){
+		if (ciphers.length != exponents.length){
+			throw new IllegalArgumentException("The number of exponents should be equal to the number of ciphertexts");
+		}
+		final GroupElement[] u = new GroupElement[ciphers.length];
+		final GroupElement[] v = new GroupElement[ciphers.length];
+		extractCiphers(ciphers, u, v);
+		
+		//Each chunk computes the multi-exponentiations of its range.
+		final GroupElement[] partialU = new GroupElement[BatchExecution.numChunks(executor, u.length)];
+		final GroupElement[] partialV = new GroupElement[partialU.length];
+		BatchExecution.run(executor, u.length, partialU.length, new BatchExecution.ChunkTask() {
+			@Override
+			public void run(int chunk, int from, int to) {
+				GroupElement[] uRange = new GroupElement[to - from];
+				GroupElement[] vRange = new GroupElement[to - from];
+				BigInteger[] exponentsRange = new BigInteger[to - from];
+				System.arraycopy(u, from, uRange, 0, to - from);
+				System.arraycopy(v, from, vRange, 0, to - from);
+				System.arraycopy(exponents, from, exponentsRange, 0, to - from);
+				partialU[chunk] = dlog.simultaneousMultipleExponentiations(uRange, exponentsRange);
+				partialV[chunk] = dlog.simultaneousMultipleExponentiations(vRange, exponentsRange);
+			}
+		});
+		
+		return reRandomizeProduct(partialU, partialV);
+	}
+	
+	/*
+	 * Puts the components of the given ciphertexts in the given arrays, after checking that they are ElGamal ciphertexts 
+	 * of members of the underlying DlogGroup.
+	 */
+	private void extractCiphers(AsymmetricCiphertext[] ciphers, GroupElement[] u, GroupElement[] v){
+		// If there is no public key can not encrypt, throws exception.
+		if (!isKeySet()){
+			throw new IllegalStateException("in order to encrypt a message this object must be initialized with public key");
+		}
+		if (ciphers.length == 0){
+			throw new IllegalArgumentException("There should be at least one ciphertext");
+		}
+		
+		for (int i = 0; i < ciphers.length; i++){
+			// Ciphers should be ElGamal ciphertexts.
+			if (!(ciphers[i] instanceof ElGamalOnGroupElementCiphertext)){
+				throw new IllegalArgumentException("ciphertexts should be instance of ElGamalCiphertext");
+			}
+			u[i] = ((ElGamalOnGroupElementCiphertext) ciphers[i]).getC1();
+			v[i] = ((ElGamalOnGroupElementCiphertext) ciphers[i]).getC2();
+			if (!(dlog.isMember(u[i])) || !(dlog.isMember(v[i]))){
+				throw new IllegalArgumentException("GroupElements in the given ciphertexts must be a members in the DlogGroup of type " + dlog.getGroupType());
+			}
+		}
+	}
+	
+	/*
+	 * Returns the ciphertext (g^w*u, h^w*v) for a random w, where u and v are the products of the given partial products.
+	 */
+	private AsymmetricCiphertext reRandomizeProduct(GroupElement[] partialU, GroupElement[] partialV){
+		//Choose a random value in Zq.
+		BigInteger w = BigIntegers.createRandomInRange(BigInteger.ZERO, qMinusOne, random);
+		
+		GroupElement u = dlog.exponentiateWithPreComputedValues(dlog.getGenerator(), w);
+		GroupElement v = dlog.exponentiateWithPreComputedValues(publicKey.getH(), w);
+		for (int i = 0; i < partialU.length; i++){
+			u = dlog.multiplyGroupElements(u, partialU[i]);
+			v = dlog.multiplyGroupElements(v, partialV[i]);
+		}
+		return new ElGamalOnGroupElementCiphertext(u, v);
+	}
+	
 	/** 
 	 * @see edu.biu.scapi.midLayer.asymmetricCrypto.encryption.AsymmetricEnc#generateCiphertext(edu.biu.scapi.midLayer.ciphertext.AsymmetricCiphertextSendableData)
 	 * @deprecated  As of SCAPI-V1-0-2-2 use reconstructCiphertext(AsymmetricCiphertextSendableData data)
@@ -42,12 +42,14 @@ import edu.biu.scapi.midLayer.plaintext.Plaintext;
 import edu.biu.scapi.paddings.BitPadding;
 import edu.biu.scapi.paddings.NoPadding;
 import edu.biu.scapi.paddings.PaddingScheme;
+import edu.biu.scapi.primitives.prf.PrpFixed;
 import edu.biu.scapi.primitives.prf.PseudorandomPermutation;
 import edu.biu.scapi.tools.Factories.PaddingFactory;
 
 /**
  * This class performs the Cipher Block Chaining (CBC) Mode encryption and decryption.
  * By definition, this encryption scheme is CPA-secure.
+ * If the underlying prp is a PrpFixed, the decryption inverts all the blocks of the ciphertext in one call, since they do not depend on each other.
  * 
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Moriya Farbstein)
  *
@@ -169,14 +171,20 @@ public class ScCBCEncRandomIV extends EncWithIVAbs implements CBCEnc {
 		//Number of whole blocks.
 		int numberBlocksInCipher = cipher.length / blockSize;
 		
-		
-		//Process the first block plaintext[0] = prp.invertBlock(cipher[0])^IV.
-		decryptBlock(cipher, 0, iv, 0, paddedPlaintext, 0);
-		
-		//Process the other blocks of the cipher. plaintext[i] : = prp.invert(cipher[i]) XOR ciphertext[i-1] .
-		int i;
-		for (i=1; i<numberBlocksInCipher; i++){
-			decryptBlock(cipher, i*blockSize, cipher, (i-1)*blockSize, paddedPlaintext, i*blockSize);
+		if (prp instanceof PrpFixed){
+			//Inverts all the blocks together, then xores each one with the previous cipher block (or the IV).
+			((PrpFixed) prp).invertBlocks(cipher, 0, paddedPlaintext, 0, numberBlocksInCipher);
+			xorBlocks(paddedPlaintext, iv, 0, blockSize);
+			xorBlocks(paddedPlaintext, cipher, blockSize, (numberBlocksInCipher - 1) * blockSize);
+		} else {
+			//Process the first block plaintext[0] = prp.invertBlock(cipher[0])^IV.
+			decryptBlock(cipher, 0, iv, 0, paddedPlaintext, 0);
+			
+			//Process the other blocks of the cipher. plaintext[i] : = prp.invert(cipher[i]) XOR ciphertext[i-1] .
+			int i;
+			for (i=1; i<numberBlocksInCipher; i++){
+				decryptBlock(cipher, i*blockSize, cipher, (i-1)*blockSize, paddedPlaintext, i*blockSize);
+			}
 		}
 		
 		//Removes pad.
@@ -215,6 +223,19 @@ public class ScCBCEncRandomIV extends EncWithIVAbs implements CBCEnc {
 		
 	}
 
+	/**
+	 * Xores the given bytes to the plaintext.
+	 * @param plaintext the array of the inverted cipher blocks.
+	 * @param xorBytes the bytes to xor. The byte at index i is xored to the plaintext byte at index i + offset.
+	 * @param offset the offset in the plaintext of the first byte to xor.
+	 * @param len the number of bytes to xor.
+	 */
+	private void xorBlocks(byte[] plaintext, byte[] xorBytes, int offset, int len){
+		for(int i=0; i<len; i++){
+			plaintext[offset + i] ^= xorBytes[i];
+		}
+	}
+	
 	/**
 	 * Encrypts the given plaintext using the CBC mode of operation and the underlying prp as the block cipher function.
 	 * The given plaintext can be at any length.
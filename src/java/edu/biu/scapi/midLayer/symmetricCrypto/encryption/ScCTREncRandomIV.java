@@ -37,11 +37,13 @@ import edu.biu.scapi.midLayer.ciphertext.IVCiphertext;
 import edu.biu.scapi.midLayer.ciphertext.SymmetricCiphertext;
 import edu.biu.scapi.midLayer.plaintext.ByteArrayPlaintext;
 import edu.biu.scapi.midLayer.plaintext.Plaintext;
+import edu.biu.scapi.primitives.prf.PrpFixed;
 import edu.biu.scapi.primitives.prf.PseudorandomPermutation;
 
 /**
  * This class performs the randomized Counter Mode encryption and decryption.
  * By definition, this encryption scheme is CPA-secure.
+ * If the underlying prp is a PrpFixed, the prp is computed on the counters of all the full blocks in one call.
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Yael Ejgenberg)
  *
  */
@@ -142,27 +144,20 @@ public class ScCTREncRandomIV extends EncWithIVAbs implements CTREnc {
 		//Calculates the number of blocks in the cipher, so that we can loop over them.
 		int numOfBlocksInCipher = cipherLengthInBytes / prp.getBlockSize();
 
-		int cipherOffset = 0;
-		int plaintextOffset = 0;
-		int blockSize = prp.getBlockSize();
-		//Views the IV passed as the counter.
-		byte[] ctr = ivCipher.getIv();
+		//Copies the IV passed to be the counter, so that the IV of the ciphertext is not changed.
+		byte[] ctr = ivCipher.getIv().clone();
 		
 		//First, process all full blocks. 
 		//If the length of the input is not a multiple of block size, we will take care of the last part of it not here, but in the next step.
-		boolean isFullBlock = true;
-		for(int i = 0; i < numOfBlocksInCipher; i++){
-			ctr = processBlock(ivCipher.getBytes(), cipherOffset, ctr, plaintext, plaintextOffset, isFullBlock);
-			cipherOffset += blockSize; 
-			plaintextOffset += blockSize;
-		}
-		
+		ctr = processFullBlocks(ivCipher.getBytes(), ctr, plaintext, numOfBlocksInCipher);
+		int cipherOffset = numOfBlocksInCipher * prp.getBlockSize();
+		int plaintextOffset = cipherOffset;
 		
 		int remainder = cipherLengthInBytes % prp.getBlockSize();
 		//The last part of the cipher is of size less than blockSize.
 		//Process the remaining bytes not as a full block.
 		if(remainder > 0){
-			isFullBlock = false;
+			boolean isFullBlock = false;
 			ctr = processBlock(ivCipher.getBytes(), cipherOffset, ctr, plaintext, plaintextOffset, isFullBlock);
 		}
 
@@ -192,22 +187,16 @@ public class ScCTREncRandomIV extends EncWithIVAbs implements CTREnc {
 
 		int numOfBlocksInPlaintext = plaintextLengthInBytes / prp.getBlockSize();
 
-		int cipherOffset = 0;
-		int plaintextOffset = 0;
-		int blockSize = prp.getBlockSize();
+		//For each full block in plaintext do:
+		ctr = processFullBlocks(plaintext, ctr, cipher, numOfBlocksInPlaintext);
+		int cipherOffset = numOfBlocksInPlaintext * prp.getBlockSize();
+		int plaintextOffset = cipherOffset;
 
-		//For each block in ciphertext do:
-		boolean isFullBlock = true;
-		for(int i = 0; i < numOfBlocksInPlaintext; i++){
-			ctr = processBlock(plaintext, plaintextOffset, ctr, cipher, cipherOffset, isFullBlock);
-			cipherOffset += blockSize; 
-			plaintextOffset += blockSize;
-		}
 		int remainder = plaintextLengthInBytes % prp.getBlockSize();
 		//The last part of the plaintext is of size less than blockSize.
 		//Process the remaining bytes not as a full block.
 		if(remainder > 0){
-			isFullBlock = false;
+			boolean isFullBlock = false;
 			ctr = processBlock(plaintext, plaintextOffset, ctr, cipher, cipherOffset, isFullBlock);
 		}
 
@@ -257,25 +246,58 @@ public class ScCTREncRandomIV extends EncWithIVAbs implements CTREnc {
 		}
 
 		//Increases the counter by one.
-		int    carry = 1;
-
-		for (int i = blockSize - 1; i >= 0; i--)
-		{
-			int    x = (ctr[i] & 0xff) + carry;
+		increaseCtr(ctr);
+		return ctr;
 
-			if (x > 0xff)
-			{
-				carry = 1;
+	}
+	
+	/* This function processes the full blocks at the beginning of the data. It can be called both by encrypt and by decrypt.<p>
+	 * If the prp is a PrpFixed, the successive counters are written to the output array and the prp is computed on all of them in one call, in place.
+	 * Otherwise, the blocks are processed one by one.
+	 * Pseudo-code:
+	 * 		For each block i: out[i] = prp.computeBlock(ctr + i) XOR in[i]
+	 * 
+	 * @param in a byte array containing the data to be processed
+	 * @param ctr the counter used by the counter mode of operation
+	 * @param out a byte array containing the processed data
+	 * @param numOfBlocks the number of full blocks to process
+	 * 
+	 * @return the incremented counter
+	 */
+	private byte[] processFullBlocks(byte[] in, byte[] ctr, byte[] out, int numOfBlocks){
+		int blockSize = prp.getBlockSize();
+		if (!(prp instanceof PrpFixed)){
+			for(int i = 0; i < numOfBlocks; i++){
+				ctr = processBlock(in, i * blockSize, ctr, out, i * blockSize, true);
 			}
-			else
+			return ctr;
+		}
+		
+		//Writes the counters of all the blocks to the output array.
+		for(int i = 0; i < numOfBlocks; i++){
+			System.arraycopy(ctr, 0, out, i * blockSize, blockSize);
+			increaseCtr(ctr);
+		}
+		//Computes the prp on all the counters.
+		((PrpFixed) prp).computeBlocks(out, 0, out, 0, numOfBlocks);
+		for(int i = 0 ; i < numOfBlocks * blockSize; i++){
+			out[i] ^= in[i]; 
+		}
+		return ctr;
+	}
+	
+	/*
+	 * Increases the given counter by one, modulo 2^n.
+	 */
+	private void increaseCtr(byte[] ctr){
+		//The carry stops at the first byte that does not overflow.
+		for (int i = ctr.length - 1; i >= 0; i--)
+		{
+			if (++ctr[i] != 0)
 			{
-				carry = 0;
+				break;
 			}
-
-			ctr[i] = (byte)x;
 		}
-		return ctr;
-
 	}
 
 }
@@ -211,7 +211,8 @@ public interface DlogGroup {
 	 * Computes the product of several exponentiations of the same base
 	 * and distinct exponents. 
 	 * An optimization is used to compute it more quickly by keeping in memory 
-	 * the result of h1, h2, h4,h8,... and using it in the calculation.<p>
+	 * a fixed-base table of the base (for example, a comb table) and using it in the calculation. 
+	 * Implementations bound the number of bases kept in memory and discard the least recently used ones.<p>
 	 * Note that if we want a one-time exponentiation of h it is preferable to use the basic exponentiation function 
 	 * since there is no point to keep anything in memory if we have no intention to use it. 
 	 * @param base
@@ -220,6 +221,28 @@ public interface DlogGroup {
 	 */
 	public GroupElement exponentiateWithPreComputedValues(GroupElement base, BigInteger exponent);
 	
+	/**
+	 * Raises each one of the given bases to the same exponent.<p>
+	 * Implementations may compute the exponentiations in parallel, so this is preferable to a loop of exponentiate calls 
+	 * when there are many bases.
+	 * @param bases the group elements to raise.
+	 * @param exponent the exponent.
+	 * @return an array such that result[i] = bases[i]^exponent.
+	 * @throws IllegalArgumentException if one of the bases does not match the group.
+	 */
+	public GroupElement[] exponentiateBatch(GroupElement[] bases, BigInteger exponent);
+	
+	/**
+	 * Raises the given base to each one of the given exponents.<p>
+	 * Implementations may compute the exponentiations in parallel, and use the pre-computed values of exponentiateWithPreComputedValues, 
+	 * so this is preferable to a loop of exponentiate calls when there are many exponents.
+	 * @param base the group element to raise.
+	 * @param exponents the exponents.
+	 * @return an array such that result[i] = base^exponents[i].
+	 * @throws IllegalArgumentException if the base does not match the group.
+	 */
+	public GroupElement[] exponentiateBatch(GroupElement base, BigInteger[] exponents);
+	
 	/**
 	 * This function cleans up any resources used by exponentiateWithPreComputedValues for the requested base.
 	 * It is recommended to call it whenever an application does not need to continue calculating exponentiations for this specific base.   
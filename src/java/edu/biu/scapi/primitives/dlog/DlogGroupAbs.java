@@ -28,12 +28,16 @@ package edu.biu.scapi.primitives.dlog;
 
 import java.math.BigInteger;
 import java.security.SecureRandom;
-import java.util.HashMap;
-import java.util.Vector;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
 
 import org.bouncycastle.util.BigIntegers;
 
 import edu.biu.scapi.primitives.dlog.groupParams.GroupParams;
+import edu.biu.scapi.tools.parallel.BatchExecution;
 
 /**
  * DlogGroupAbs is an abstract class that implements common functionality of the Dlog group.
@@ -42,10 +46,21 @@ import edu.biu.scapi.primitives.dlog.groupParams.GroupParams;
  */
 public abstract class DlogGroupAbs implements primeOrderSubGroup{
 
+	private static final int DEFAULT_PRECOMPUTATION_CACHE_SIZE = 16;	//Default number of bases whose fixed-base tables are kept
+	private static final int PIPPENGER_THRESHOLD = 32;					//Number of bases from which the bucket method is used for multi-exponentiations
+	private static final int FIXED_BASE_BATCH_THRESHOLD = 4;			//Number of exponents of one base from which a fixed-base table pays off
+	
+	private static volatile PrecomputationStore defaultStore;			//Store of the groups that are created from now on
+
 	protected GroupParams groupParams;			//group parameters
 	protected GroupElement generator;			//generator of the group
-	//map for multExponentiationsWithSameBase calculations
-	private HashMap<GroupElement, GroupElementsExponentiations> exponentiationsMap = new HashMap<GroupElement, GroupElementsExponentiations>();
+	//Bounded LRU map of the fixed-base tables used by exponentiateWithPreComputedValues
+	private PrecomputationCache exponentiationsMap = new PrecomputationCache(DEFAULT_PRECOMPUTATION_CACHE_SIZE);
+	private int precomputationWindow;			//Window of the fixed-base tables. 0 means it is chosen according to the order.
+	private PrecomputationStore store = defaultStore;	//Keeps the fixed-base tables and validation results on disk. May be null.
+	private volatile boolean validated;			//Indicates whether the group parameters are known to be valid.
+	private ExecutorService executor;			//Executor of the batch functions, used if useSharedExecutor is false.
+	private boolean useSharedExecutor = true;	//Indicates whether the batch functions use the executor shared by the whole application.
 	protected SecureRandom random;				//Source of randomness to use.
 	//k is the maximum length of a string to be converted to a Group Element of this group. If a string exceeds the k length it cannot be converted.
  	protected int k;
@@ -219,6 +234,115 @@ public abstract class DlogGroupAbs implements primeOrderSubGroup{
 		return result;
 	}
 	
+	/*
+	 * Computes the simultaneousMultiplyExponentiate by the LL algorithm for small inputs and by Pippenger's bucket method 
+	 * for inputs of at least PIPPENGER_THRESHOLD bases, where the memory and the multiplications of the LL tables grow too much.
+	 */
+	protected GroupElement computeMultipleExponentiations(GroupElement[] groupElements, BigInteger[] exponentiations){
+		if (groupElements.length >= PIPPENGER_THRESHOLD){
+			return computePippenger(groupElements, exponentiations);
+		}
+		return computeLL(groupElements, exponentiations);
+	}
+	
+	/*
+	 * Computes the simultaneousMultiplyExponentiate by Pippenger's bucket method.
+	 * The exponents are split into windows of c bits. For each window, every base is multiplied into the bucket of its digit, 
+	 * and the buckets are combined with running products to the product of bucket[d]^d. 
+	 * The windows are independent, so they are divided between the threads of the executor. 
+	 * Finally, the results of the windows are combined from the most significant one, with c squarings between windows.
+	 * This costs about (t/c)*(n + 2^(c+1)) multiplications for n bases and t bit exponents, and keeps only 2^c buckets per thread.
+	 */
+	protected GroupElement computePippenger(GroupElement[] groupElements, BigInteger[] exponentiations){
+		final int n = groupElements.length; //number of bases and exponents
+		if (n != exponentiations.length){
+			throw new IllegalArgumentException("the number of bases and exponents must be equal");
+		}
+		final GroupElement[] bases = groupElements;
+		
+		//The group elements are in a group of order q, so negative exponents can be reduced modulo q.
+		final BigInteger[] exponents = new BigInteger[n];
+		int t = 0; //num bits of the biggest exponent.
+		for (int i=0; i<n; i++){
+			exponents[i] = (exponentiations[i].signum() < 0) ? exponentiations[i].mod(getOrder()) : exponentiations[i];
+			t = Math.max(t, exponents[i].bitLength());
+		}
+		if (t == 0){
+			return getIdentity();
+		}
+		
+		final int c = getPippengerWindow(n, t);
+		final int numWindows = (t + c - 1) / c;
+		final GroupElement[] windowResults = new GroupElement[numWindows];
+		
+		ExecutorService batchExecutor = getBatchExecutor();
+		BatchExecution.run(batchExecutor, numWindows, BatchExecution.numChunks(batchExecutor, numWindows), new BatchExecution.ChunkTask() {
+			@Override
+			public void run(int chunk, int from, int to) {
+				//The buckets are reused by the windows of this chunk. A null bucket is the identity.
+				GroupElement[] buckets = new GroupElement[1 << c];
+				for (int window = from; window < to; window++){
+					Arrays.fill(buckets, null);
+					int firstBit = window * c;
+					
+					//Puts every base in the bucket of its digit in this window.
+					for (int i=0; i<n; i++){
+						int digit = 0;
+						for (int bit = c-1; bit >= 0; bit--){
+							digit = (digit << 1) | (exponents[i].testBit(firstBit + bit) ? 1 : 0);
+						}
+						if (digit != 0){
+							buckets[digit] = (buckets[digit] == null) ? bases[i] : multiplyGroupElements(buckets[digit], bases[i]);
+						}
+					}
+					
+					//Computes the product of buckets[d]^d as the product of the running products buckets[top]*...*buckets[d].
+					GroupElement running = null;
+					GroupElement sum = null;
+					for (int d = buckets.length - 1; d > 0; d--){
+						if (buckets[d] != null){
+							running = (running == null) ? buckets[d] : multiplyGroupElements(running, buckets[d]);
+						}
+						if (running != null){
+							sum = (sum == null) ? running : multiplyGroupElements(sum, running);
+						}
+					}
+					windowResults[window] = sum;
+				}
+			}
+		});
+		
+		//Combines the windows: result = result^(2^c) * windowResult, from the most significant window.
+		GroupElement result = null;
+		for (int window = numWindows - 1; window >= 0; window--){
+			if (result != null){
+				for (int i=0; i<c; i++){
+					result = multiplyGroupElements(result, result);
+				}
+			}
+			if (windowResults[window] != null){
+				result = (result == null) ? windowResults[window] : multiplyGroupElements(result, windowResults[window]);
+			}
+		}
+		return (result == null) ? getIdentity() : result;
+	}
+	
+	/*
+	 * Returns the window c that minimizes the number of multiplications of Pippenger's method, (t/c)*(n + 2^(c+1)).
+	 */
+	private int getPippengerWindow(int n, int t){
+		int bestWindow = 1;
+		long bestCost = Long.MAX_VALUE;
+		for (int c = 1; c <= 20; c++){
+			long cost = (long) ((t + c - 1) / c) * (n + (2L << c));
+			if (cost < bestCost){
+				bestCost = cost;
+				bestWindow = c;
+			}
+		}
+		return bestWindow;
+	}
+	
 	/*
 	 * Computes the loop the repeats in the algorithm.
 	 * for k=0 to h-1
@@ -309,11 +433,94 @@ public abstract class DlogGroupAbs implements primeOrderSubGroup{
 		return w;
 	}
 
+	/**
+	 * Sets the window of the fixed-base tables used by exponentiateWithPreComputedValues.<p>
+	 * A table of window w holds 2^w - 1 group elements, and an exponentiation costs about 2t/w group operations where t is the bit length of the order. 
+	 * Changing the window discards the tables that were already computed.
+	 * @param window the window size, between 1 and 16.
+	 * @throws IllegalArgumentException if the window is out of range.
+	 */
+	public void setPrecomputationWindow(int window) {
+		if (window < 1 || window > 16) {
+			throw new IllegalArgumentException("window must be between 1 and 16");
+		}
+		synchronized (exponentiationsMap) {
+			precomputationWindow = window;
+			exponentiationsMap.clear();
+		}
+	}
+	
+	/**
+	 * Sets the maximal number of bases whose fixed-base tables are kept in memory. 
+	 * When a table of a new base is needed and the cache is full, the table of the least recently used base is discarded.
+	 * @param size the maximal number of tables, at least 1.
+	 * @throws IllegalArgumentException if size is not positive.
+	 */
+	public void setPrecomputationCacheSize(int size) {
+		if (size < 1) {
+			throw new IllegalArgumentException("cache size must be positive");
+		}
+		synchronized (exponentiationsMap) {
+			exponentiationsMap.maxSize = size;
+			//Removes the least recently used tables that exceed the new size.
+			Iterator<GroupElement> it = exponentiationsMap.keySet().iterator();
+			while (exponentiationsMap.size() > size) {
+				it.next();
+				it.remove();
+			}
+		}
+	}
+	
+	/**
+	 * Sets the store that keeps the fixed-base tables and the validation result of this group on disk.<p>
+	 * When a table of a base is needed, it is read from the store if a previous process has computed it. 
+	 * Otherwise it is computed and written to the store. Native implementations that keep their own tables do not use the store for them.
+	 * @param store the store to use, or null to compute everything in memory.
+	 */
+	public void setPrecomputationStore(PrecomputationStore store) {
+		this.store = store;
+	}
+	
+	/**
+	 * Sets the store that is used by all the groups that are created from now on (see {@link #setPrecomputationStore(PrecomputationStore)}).
+	 * @param store the store to use, or null to compute everything in memory.
+	 */
+	public static void setDefaultPrecomputationStore(PrecomputationStore store) {
+		defaultStore = store;
+	}
+	
+	/**
+	 * Returns true if the parameters of this group are already known to be valid, 
+	 * because they were validated by this object or stored as valid in the precomputation store.<p>
+	 * Implementations of validateGroup call it in order to skip the validation.
+	 * @return true if the group is known to be valid; false, otherwise.
+	 */
+	protected boolean isGroupValidated() {
+		if (!validated) {
+			PrecomputationStore currentStore = store;
+			validated = currentStore != null && currentStore.isValidated(this);
+		}
+		return validated;
+	}
+	
+	/**
+	 * Records that the parameters of this group are valid, in this object and in the precomputation store.<p>
+	 * Implementations of validateGroup call it after a successful validation. The parameters of a group do not change after its creation.
+	 */
+	protected void setGroupValidated() {
+		validated = true;
+		PrecomputationStore currentStore = store;
+		if (currentStore != null) {
+			currentStore.setValidated(this);
+		}
+	}
+	
 	/*
 	 * Computes the product of several exponentiations of the same base and
-	 * distinct exponents. An optimization is used to compute it more quickly by
-	 * keeping in memory the result of h1, h2, h4,h8,... and using it in the
-	 * calculation.<p> Note that if we want a one-time exponentiation of h it is
+	 * distinct exponents. The first call for a base builds a fixed-base comb table 
+	 * (see FixedBaseExponentiation), and the following calls use it.
+	 * The tables are kept in a bounded LRU cache that can be used by several threads.<p> 
+	 * Note that if we want a one-time exponentiation of h it is
 	 * preferable to use the basic exponentiation function since there is no
 	 * point to keep anything in memory if we have no intention to use it.
 	 * 
@@ -322,16 +529,43 @@ public abstract class DlogGroupAbs implements primeOrderSubGroup{
 	 * @return the exponentiation result
 	 */
 	public GroupElement exponentiateWithPreComputedValues(GroupElement groupElement, BigInteger exponent) {
-		//extracts from the map the GroupElementsExponentiations object corresponding to the accepted base
-		GroupElementsExponentiations exponentiations = exponentiationsMap.get(groupElement);
-	
-		// if there is no object that matches this base - create it and add it to the map
+		int maxBits = getOrder().bitLength();
+		//Exponents that are out of the range of the table are computed by the regular exponentiation.
+		if (exponent.signum() < 0 || exponent.bitLength() > maxBits) {
+			return exponentiate(groupElement, exponent);
+		}
+		
+		//extracts from the map the FixedBaseExponentiation object corresponding to the accepted base
+		FixedBaseExponentiation exponentiations;
+		int window;
+		synchronized (exponentiationsMap) {
+			exponentiations = exponentiationsMap.get(groupElement);
+			window = precomputationWindow;
+		}
+		
+		// if there is no object that matches this base - create it and add it to the map.
+		// The table is built outside the lock so that other bases are not blocked. 
+		// Two threads that build the table of the same base concurrently only do redundant work.
 		if (exponentiations == null) {
-			exponentiations = new GroupElementsExponentiations(groupElement);
-			exponentiationsMap.put(groupElement, exponentiations);
+			if (window == 0) {
+				window = defaultPrecomputationWindow(maxBits);
+			}
+			PrecomputationStore currentStore = store;
+			if (currentStore != null) {
+				exponentiations = currentStore.loadTable(this, groupElement, maxBits, window);
+			}
+			if (exponentiations == null) {
+				exponentiations = new FixedBaseExponentiation(this, groupElement, maxBits, window);
+				if (currentStore != null) {
+					currentStore.saveTable(this, groupElement, maxBits, window, exponentiations);
+				}
+			}
+			synchronized (exponentiationsMap) {
+				exponentiationsMap.put(groupElement, exponentiations);
+			}
 		}
 		// calculates the required exponent
-		return exponentiations.getExponentiation(exponent);
+		return exponentiations.exponentiate(exponent);
 		
 	}
 	
@@ -340,90 +574,120 @@ public abstract class DlogGroupAbs implements primeOrderSubGroup{
 	 */
 	@Override
 	public void endExponentiateWithPreComputedValues(GroupElement base) {
-		exponentiationsMap.remove(base);
+		synchronized (exponentiationsMap) {
+			exponentiationsMap.remove(base);
+		}
 	}
 	
 	/**
-	 * The class GroupElementExponentiations is a nested class of DlogGroupAbs.<p>
-	 * It performs the actual work of pre-computation of the exponentiations for one base.
-	 * It is composed of two main elements. The group element for which the optimized computations 
-	 * are built for, called the base and a vector of group elements that are the result of 
-	 * exponentiations of order 1,2,4,8, 
+	 * Sets the executor that computes the batch exponentiations of this group in parallel.<p>
+	 * By default the executor shared by the whole application is used (see {@link BatchExecution#getSharedExecutor()}). 
+	 * Groups that do not support concurrent operations always compute the batches in the calling thread.
+	 * @param executor the executor to use, or null to compute the batches in the calling thread.
 	 */
-	private class GroupElementsExponentiations {
-		private Vector<GroupElement> exponentiations; //vector of group elements that are the result of exponentiations
-		private GroupElement base;  //group element for which the optimized computations are built for
-		
-		/**
-		 * The constructor creates a map structure in memory. 
-		 * Then calculates the exponentiations of order 1,2,4,8 for the given base and save them in the map.
-		 * @param base
-		 * @throws IllegalArgumentException
-		 */
-		public GroupElementsExponentiations(GroupElement base) {
-			this.base = base;
-			// build new vector of exponentiations
-			exponentiations = new Vector<GroupElement>();
-			exponentiations.add(0, this.base); // add the base - base^1
-			
-			BigInteger two = new BigInteger("2");
-			for (int i=1; i<4; i++) {
-				GroupElement multI;
-				multI = exponentiate(exponentiations.get(i-1), two);
-					
-				exponentiations.add(i, multI);
+	public void setExecutor(ExecutorService executor) {
+		this.executor = executor;
+		useSharedExecutor = false;
+	}
+	
+	/**
+	 * Returns true if the operations of this group can be called concurrently by several threads.<p>
+	 * This is false by default, since the native implementations keep a state per group. 
+	 * Groups that are implemented in Java override it.
+	 */
+	protected boolean supportsConcurrentOperations() {
+		return false;
+	}
+	
+	/*
+	 * Returns the executor of the batch functions, or null if they should be computed in the calling thread.
+	 */
+	private ExecutorService getBatchExecutor() {
+		if (!supportsConcurrentOperations()) {
+			return null;
+		}
+		return useSharedExecutor ? BatchExecution.getSharedExecutor() : executor;
+	}
+	
+	/**
+	 * Raises each one of the given bases to the same exponent. The exponentiations are divided between the threads of the executor.
+	 * @see edu.biu.scapi.primitives.dlog.DlogGroup#exponentiateBatch(edu.biu.scapi.primitives.dlog.GroupElement[], java.math.BigInteger)
+	 */
+	@Override
+	public GroupElement[] exponentiateBatch(final GroupElement[] bases, final BigInteger exponent) {
+		final GroupElement[] results = new GroupElement[bases.length];
+		ExecutorService batchExecutor = getBatchExecutor();
+		BatchExecution.run(batchExecutor, bases.length, BatchExecution.numChunks(batchExecutor, bases.length), new BatchExecution.ChunkTask() {
+			@Override
+			public void run(int chunk, int from, int to) {
+				for (int i = from; i < to; i++) {
+					results[i] = exponentiate(bases[i], exponent);
+				}
 			}
+		});
+		return results;
+	}
+	
+	/**
+	 * Raises the given base to each one of the given exponents. The exponentiations are divided between the threads of the executor.<p>
+	 * If there are enough exponents or the base is the generator, the exponentiations use the fixed-base table of exponentiateWithPreComputedValues.
+	 * @see edu.biu.scapi.primitives.dlog.DlogGroup#exponentiateBatch(edu.biu.scapi.primitives.dlog.GroupElement, java.math.BigInteger[])
+	 */
+	@Override
+	public GroupElement[] exponentiateBatch(final GroupElement base, final BigInteger[] exponents) {
+		final GroupElement[] results = new GroupElement[exponents.length];
+		if (exponents.length == 0) {
+			return results;
 		}
+		final boolean usePrecomputedValues = exponents.length >= FIXED_BASE_BATCH_THRESHOLD || base == generator;
+		//Computes the first exponentiation in the calling thread, so that the fixed-base table is built once before the other threads use it.
+		results[0] = usePrecomputedValues ? exponentiateWithPreComputedValues(base, exponents[0]) : exponentiate(base, exponents[0]);
 		
-		/**
-		 * Calculates the necessary additional exponentiations and fills the exponentiations vector with them.
-		 * @param size - the required exponent
-		 * @throws IllegalArgumentException
-		 */
-		private void prepareExponentiations(BigInteger size) {
-			//find log of the number - this is the index of the size-exponent in the exponentiation array 
-			int index = size.bitLength()-1; 
-			
-			/* calculates the necessary exponentiations and put them in the exponentiations vector */
-			for (int i=exponentiations.size(); i<=index; i++){
-				GroupElement multI;
-				multI = exponentiate(exponentiations.get(i-1), new BigInteger("2"));
-					
-				exponentiations.add(i, multI);	
+		ExecutorService batchExecutor = getBatchExecutor();
+		int size = exponents.length - 1;
+		BatchExecution.run(batchExecutor, size, BatchExecution.numChunks(batchExecutor, size), new BatchExecution.ChunkTask() {
+			@Override
+			public void run(int chunk, int from, int to) {
+				for (int i = from + 1; i < to + 1; i++) {
+					results[i] = usePrecomputedValues ? exponentiateWithPreComputedValues(base, exponents[i]) : exponentiate(base, exponents[i]);
+				}
 			}
+		});
+		return results;
+	}
+	
+	/*
+	 * Returns the default window of the fixed-base tables according to the bit length of the order.
+	 * Larger orders gain more from a larger table, since the table is shared by more columns.
+	 */
+	private static int defaultPrecomputationWindow(int maxBits) {
+		if (maxBits <= 64) {
+			return 4;
+		} else if (maxBits <= 320) {
+			return 6;
+		} else {
+			return 8;
 		}
+	}
+	
+	/**
+	 * The class PrecomputationCache is a nested class of DlogGroupAbs.<p>
+	 * It is a map in access order that discards the least recently used table when it holds more than maxSize tables.
+	 * It is not synchronized, all the accesses are synchronized on the map object.
+	 */
+	private static class PrecomputationCache extends LinkedHashMap<GroupElement, FixedBaseExponentiation> {
+		private static final long serialVersionUID = -2466381476406542373L;
 		
+		private int maxSize;	//Maximal number of tables kept in the cache.
 		
-		/**
-		 * Checks if the exponentiations had already been calculated for the required size. 
-		 * If so, returns them, else it calls the private function prepareExponentiations with the given size.
-		 * @param size - the required exponent
-		 * @return groupElement - the exponentiate result
-		 */
-		public GroupElement getExponentiation(BigInteger size) {
-			/**
-			 * The exponents in the exponents vector are all power of 2.
-			 * In order to achieve the exponent size, we calculate its closest power 2 in the exponents vector 
-			 * and continue the calculations from there.
-			 */
-			// find the the closest power 2 exponent
-			int index = size.bitLength()-1;
-			
-			GroupElement exponent = null;
-			/* if the requested index out of the vector bounds, the exponents have not been calculated yet, so calculates them.*/
-			if (exponentiations.size() <= index)
-				prepareExponentiations(size);
-			
-			exponent = exponentiations.get(index); //get the closest exponent in the exponentiations vector
-			/* if size is not power 2, calculates the additional multiplications */
-			BigInteger lastExp = new BigInteger("2").pow(index);
-			BigInteger difference = size.subtract(lastExp);
-			if (difference.compareTo(BigInteger.ZERO) > 0) {
-				GroupElement diff = getExponentiation(size.subtract(lastExp));
-				exponent = multiplyGroupElements(diff, exponent);
-			}
-			
-			return exponent;
+		PrecomputationCache(int maxSize) {
+			super(16, 0.75f, true);
+			this.maxSize = maxSize;
+		}
+		
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<GroupElement, FixedBaseExponentiation> eldest) {
+			return size() > maxSize;
 		}
 	}
 	
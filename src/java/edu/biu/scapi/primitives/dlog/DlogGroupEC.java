@@ -28,9 +28,13 @@ package edu.biu.scapi.primitives.dlog;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.math.BigInteger;
 import java.security.SecureRandom;
 import java.util.Properties;
 
+import edu.biu.scapi.primitives.dlog.groupParams.ECF2mGroupParams;
+import edu.biu.scapi.primitives.dlog.groupParams.ECFpGroupParams;
+
 
 /**
  * This class manages the creation of NIST recommended elliptic curves.
@@ -161,9 +165,7 @@ public abstract class DlogGroupEC extends DlogGroupAbs implements DlogEllipticCu
 	 * @deprecated As of SCAPI-V2_0_0 use generateElment(boolean bCheckMembership, BigInteger...values)
 	 */
 	@Deprecated public GroupElement generateElement(boolean bCheckMembership, GroupElementSendableData data) {
-		if (!(data instanceof ECElementSendableData))
-			throw new IllegalArgumentException("data type doesn't match the group type");
-		return generateElement(bCheckMembership, ((ECElementSendableData)data).getX(), ((ECElementSendableData)data).getY());
+		return reconstructElement(bCheckMembership, data);
 	}
 	/**
 	 * @see edu.biu.scapi.primitives.dlog.DlogGroup#reconstructElement(boolean, edu.biu.scapi.primitives.dlog.GroupElementSendableData)
@@ -172,6 +174,16 @@ public abstract class DlogGroupEC extends DlogGroupAbs implements DlogEllipticCu
 	public GroupElement reconstructElement(boolean bCheckMembership, GroupElementSendableData data) {
 		if (!(data instanceof ECElementSendableData))
 			throw new IllegalArgumentException("data type doesn't match the group type");
-		return generateElement(bCheckMembership, ((ECElementSendableData)data).getX(), ((ECElementSendableData)data).getY());
+		ECElementSendableData ecData = (ECElementSendableData) data;
+		BigInteger y = ecData.getY();
+		//Data that was read from a compressed encoding has only x, so y is recovered from the curve equation.
+		if (y == null && ecData.getCompressedPoint() != null){
+			if (groupParams instanceof ECFpGroupParams){
+				y = new ECFpUtility().findYOfCompressedPoint((ECFpGroupParams) groupParams, ecData.getCompressedPoint());
+			} else{
+				y = new ECF2mUtility().findYOfCompressedPoint((ECF2mGroupParams) groupParams, ecData.getCompressedPoint());
+			}
+		}
+		return generateElement(bCheckMembership, ecData.getX(), y);
 	}
 }
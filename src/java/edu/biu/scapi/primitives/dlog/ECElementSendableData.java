@@ -26,29 +26,97 @@
 
 package edu.biu.scapi.primitives.dlog;
 
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.math.BigInteger;
+import java.util.Arrays;
 
 /**
+ * This class holds the coordinates of an elliptic curve point.<p>
+ * It is written using {@link SendableDataCodec} instead of the default serialization. If the point was created with its 
+ * compressed encoding, only the encoding is written: a byte that holds the sign of y followed by x in the fixed length 
+ * of the field (33 bytes for P-256). In this case, the data that is read holds only x, and the y coordinate is recovered 
+ * from the curve equation by the group's reconstructElement function.
+ * 
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Yael Ejgenberg)
  *
  */
-public class ECElementSendableData implements GroupElementSendableData {
+public class ECElementSendableData implements GroupElementSendableData, Externalizable {
 
 	private static final long serialVersionUID = 3494666921421090306L;
 
 	BigInteger x;
 	BigInteger y;
+	byte[] compressedPoint;	//The compressed encoding of the point. May be null.
+	
+	/**
+	 * Empty constructor, used by the de-serialization.
+	 */
+	public ECElementSendableData() {
+		super();
+	}
+	
 	public ECElementSendableData(BigInteger x, BigInteger y) {
 		super();
 		this.x = x;
 		this.y = y;
 	}
+	
+	/**
+	 * Constructor that gets the coordinates of the point and its compressed encoding, which is the one that is written.
+	 * @param x the x coordinate of the point.
+	 * @param y the y coordinate of the point.
+	 * @param compressedPoint the compressed encoding of the point, as returned by the compressPoint function of 
+	 * 		  {@link ECFpUtility} or {@link ECF2mUtility}. May be null, in which case both coordinates are written.
+	 */
+	public ECElementSendableData(BigInteger x, BigInteger y, byte[] compressedPoint) {
+		this(x, y);
+		this.compressedPoint = compressedPoint;
+	}
+	
 	public BigInteger getX() {
 		return x;
 	}
+	
+	/**
+	 * @return the y coordinate of the point, or null if the data was read from its compressed encoding.
+	 */
 	public BigInteger getY() {
 		return y;
 	}
+	
+	/**
+	 * @return the compressed encoding of the point, or null if there is no such encoding.
+	 */
+	public byte[] getCompressedPoint() {
+		return compressedPoint;
+	}
+	
+	public void writeExternal(ObjectOutput out) throws IOException {
+		//A null encoding marks that the coordinates follow.
+		SendableDataCodec.writeByteArray(out, compressedPoint);
+		if (compressedPoint == null){
+			SendableDataCodec.writeBigInteger(out, x);
+			SendableDataCodec.writeBigInteger(out, y);
+		}
+	}
+	
+	public void readExternal(ObjectInput in) throws IOException {
+		compressedPoint = SendableDataCodec.readByteArray(in);
+		if (compressedPoint == null){
+			x = SendableDataCodec.readBigInteger(in);
+			y = SendableDataCodec.readBigInteger(in);
+		} else{
+			if (compressedPoint.length < 2 || (compressedPoint[0] != 2 && compressedPoint[0] != 3)){
+				throw new IOException("malformed compressed point");
+			}
+			x = new BigInteger(1, Arrays.copyOfRange(compressedPoint, 1, compressedPoint.length));
+			y = null;
+		}
+	}
+	
 	@Override
 	public String toString() {
 		return "ECElementSendableData [x=" + x + ", y=" + y + "]";
@@ -29,6 +29,8 @@ package edu.biu.scapi.primitives.dlog;
 import java.math.BigInteger;
 import java.util.Properties;
 
+import org.bouncycastle.math.ec.ECCurve;
+import org.bouncycastle.math.ec.ECFieldElement;
 import org.bouncycastle.util.encoders.Hex;
 
 import edu.biu.scapi.primitives.dlog.groupParams.ECF2mGroupParams;
@@ -186,6 +188,79 @@ public class ECF2mUtility {
 		return "ECF2m";
 	}
 	
+	/**
+	 * Returns the compressed encoding of the given point: a byte that is 2 or 3 according to the last bit of y/x 
+	 * (the compression of SEC 1), followed by x in the fixed length of the field.
+	 * @param params the parameters of the group
+	 * @param x coordinate of a point in the curve (this function does not check for membership)
+	 * @param y coordinate of a point in the curve (this function does not check for membership)
+	 * @return the compressed encoding of the point
+	 */
+	public byte[] compressPoint(ECF2mGroupParams params, BigInteger x, BigInteger y){
+		int m = params.getM();
+		int length = (m + 7) / 8;
+		if (x.signum() < 0 || x.bitLength() > m){
+			throw new IllegalArgumentException("x is not an element of the field");
+		}
+		int[] k = getBasis(params);
+		
+		//For x = 0 there is only one point, and the bit is 0.
+		boolean bit = false;
+		if (x.signum() != 0){
+			// elements in the binary field are polynomials, so the division is done by BC's field elements.
+			ECCurve.F2m curve = new ECCurve.F2m(m, k[0], k[1], k[2], params.getA(), params.getB());
+			ECFieldElement xElement = curve.fromBigInteger(x);
+			ECFieldElement yElement = curve.fromBigInteger(y);
+			bit = yElement.divide(xElement).testBitZero();
+		}
+		byte[] xBytes = x.toByteArray();
+		//Remove the sign byte, if there is one.
+		int xLength = (xBytes.length > 1 && xBytes[0] == 0) ? xBytes.length - 1 : xBytes.length;
+		byte[] encoded = new byte[length + 1];
+		encoded[0] = (byte) (bit ? 3 : 2);
+		System.arraycopy(xBytes, xBytes.length - xLength, encoded, encoded.length - xLength, xLength);
+		return encoded;
+	}
+	
+	/**
+	 * Finds the y coordinate of a point from its compressed encoding, as returned by {@link #compressPoint(ECF2mGroupParams, BigInteger, BigInteger)}.
+	 * @param params the parameters of the group
+	 * @param compressedPoint the compressed encoding of the point
+	 * @return the y coordinate of the point
+	 * @throws IllegalArgumentException if the encoding does not match the field or there is no point in the curve with the encoded x.
+	 */
+	public BigInteger findYOfCompressedPoint(ECF2mGroupParams params, byte[] compressedPoint){
+		int m = params.getM();
+		if (compressedPoint.length != (m + 7) / 8 + 1 || (compressedPoint[0] != 2 && compressedPoint[0] != 3)){
+			throw new IllegalArgumentException("the compressed point does not match the field of the curve");
+		}
+		int[] k = getBasis(params);
+		//Solving the curve equation for y requires solving a quadratic equation over F2m, which is done by BC's curve.
+		ECCurve.F2m curve = new ECCurve.F2m(m, k[0], k[1], k[2], params.getA(), params.getB());
+		return curve.decodePoint(compressedPoint).getAffineYCoord().toBigInteger();
+	}
+	
+	/**
+	 * Returns the reduction polynomial of the given curve.
+	 * @param params the parameters of the group
+	 * @return the integers k1, k2, k3 of the reduction polynomial, where k2 and k3 are 0 for a trinomial basis.
+	 */
+	private int[] getBasis(ECF2mGroupParams params){
+		if (params instanceof ECF2mKoblitz){
+			params = ((ECF2mKoblitz) params).getCurve();
+		}
+		int[] k = new int[3];
+		if (params instanceof ECF2mTrinomialBasis){
+			k[0] = ((ECF2mTrinomialBasis) params).getK1();
+		}
+		if (params instanceof ECF2mPentanomialBasis){
+			k[0] = ((ECF2mPentanomialBasis) params).getK1();
+			k[1] = ((ECF2mPentanomialBasis) params).getK2();
+			k[2] = ((ECF2mPentanomialBasis) params).getK3();
+		}
+		return k;
+	}
+	
 	/**
 	 * This function maps any group element to a byte array. This function does not have an inverse,<p>
 	 * that is, it is not possible to re-construct the original group element from the resulting byte array.
@@ -28,6 +28,7 @@ package edu.biu.scapi.primitives.dlog;
 
 import java.math.BigInteger;
 import java.security.SecureRandom;
+import java.util.Arrays;
 import java.util.Properties;
 
 import org.bouncycastle.math.ec.ECFieldElement;
@@ -120,6 +121,55 @@ public class ECFpUtility {
 		}
 	}
 
+	/**
+	 * Returns the compressed encoding of the given point: a byte that is 2 if y is even and 3 if y is odd, followed by x 
+	 * in the fixed length of p.
+	 * @param params the parameters of the group
+	 * @param x coordinate of a point in the curve (this function does not check for membership)
+	 * @param y coordinate of a point in the curve (this function does not check for membership)
+	 * @return the compressed encoding of the point
+	 */
+	public byte[] compressPoint(ECFpGroupParams params, BigInteger x, BigInteger y){
+		int length = (params.getP().bitLength() + 7) / 8;
+		byte[] xBytes = x.toByteArray();
+		//Remove the sign byte, if there is one.
+		int xLength = (xBytes.length > 1 && xBytes[0] == 0) ? xBytes.length - 1 : xBytes.length;
+		if (xLength > length){
+			throw new IllegalArgumentException("x is not an element of the field");
+		}
+		byte[] encoded = new byte[length + 1];
+		encoded[0] = (byte) (y.testBit(0) ? 3 : 2);
+		System.arraycopy(xBytes, xBytes.length - xLength, encoded, encoded.length - xLength, xLength);
+		return encoded;
+	}
+	
+	/**
+	 * Finds the y coordinate of a point from its compressed encoding, as returned by {@link #compressPoint(ECFpGroupParams, BigInteger, BigInteger)}.
+	 * @param params the parameters of the group
+	 * @param compressedPoint the compressed encoding of the point
+	 * @return the y coordinate of the point
+	 * @throws IllegalArgumentException if the encoding does not match the field or there is no point in the curve with the encoded x.
+	 */
+	public BigInteger findYOfCompressedPoint(ECFpGroupParams params, byte[] compressedPoint){
+		BigInteger p = params.getP();
+		if (compressedPoint.length != (p.bitLength() + 7) / 8 + 1 || (compressedPoint[0] != 2 && compressedPoint[0] != 3)){
+			throw new IllegalArgumentException("the compressed point does not match the field of the curve");
+		}
+		BigInteger x = new BigInteger(1, Arrays.copyOfRange(compressedPoint, 1, compressedPoint.length));
+		if (x.compareTo(p) >= 0){
+			throw new IllegalArgumentException("x is not an element of the field");
+		}
+		BigInteger y = findYInCurveEquationForX(params, x);
+		if (y == null){
+			throw new IllegalArgumentException("there is no point in the curve with the given x");
+		}
+		//The two square roots are y and p-y, where exactly one of them is odd.
+		if (y.testBit(0) != (compressedPoint[0] == 3)){
+			y = p.subtract(y).mod(p);
+		}
+		return y;
+	}
+
 	//Auxiliary class used to hold the (x,y) coordinates of a point.It does not have any information about the curve and any further checks regarding membership
 	//to any specific curve should be performed by the user of this auxiliary class.
 	public class FpPoint {
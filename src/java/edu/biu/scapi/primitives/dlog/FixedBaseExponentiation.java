@@ -0,0 +1,140 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+
+
+package edu.biu.scapi.primitives.dlog;
+
+import java.math.BigInteger;
+
+/**
+ * This class holds the pre-computation of a fixed base and computes exponentiations of that base using the Lim-Lee comb method.<p>
+ * The exponent of t bits is viewed as a matrix of h rows (the window) and a = ceil(t/h) columns, where bit j*a+k is in row j and column k. 
+ * The table holds, for every non zero h bit index i, the product of base^(2^(j*a)) over the bits j that are set in i. 
+ * An exponentiation then processes the columns from the most significant, with one squaring and at most one multiplication per column. 
+ * This costs about 2t/h group operations instead of about 1.2t for a regular exponentiation, at the cost of keeping 2^h - 1 group elements. <p>
+ * 
+ * Once built, the object is immutable and can be used by several threads.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+final class FixedBaseExponentiation {
+	
+	private final DlogGroup dlog;			//The group of the base.
+	private final int window;				//Number of rows of the comb (h).
+	private final int columns;				//Number of columns of the comb (a).
+	private final GroupElement[] table;		//table[i] = product of base^(2^(j*a)) for the bits j set in i.
+	
+	/**
+	 * Builds the comb table of the given base.
+	 * @param dlog the group of the base.
+	 * @param base the fixed base.
+	 * @param maxBits the maximal bit length of the exponents.
+	 * @param window the number of rows of the comb. The table holds 2^window - 1 elements.
+	 */
+	FixedBaseExponentiation(DlogGroup dlog, GroupElement base, int maxBits, int window) {
+		this.dlog = dlog;
+		//There is no point in more rows than bits.
+		this.window = Math.max(1, Math.min(window, maxBits));
+		columns = (maxBits + this.window - 1) / this.window;
+		
+		table = new GroupElement[1 << this.window];
+		GroupElement power = base;
+		for (int j = 0; j < this.window; j++) {
+			//Calculates power = base^(2^(j*a)) by squaring the previous one a times.
+			if (j > 0) {
+				for (int k = 0; k < columns; k++) {
+					power = dlog.multiplyGroupElements(power, power);
+				}
+			}
+			int bit = 1 << j;
+			table[bit] = power;
+			for (int i = 1; i < bit; i++) {
+				table[bit | i] = dlog.multiplyGroupElements(table[i], power);
+			}
+		}
+	}
+	
+	/**
+	 * Constructor that sets a table that was computed before, for example by another process.
+	 * @param dlog the group of the base.
+	 * @param table the comb table. Its size is 2^window.
+	 * @param columns the number of columns of the comb.
+	 * @throws IllegalArgumentException if the size of the table is not a power of two.
+	 */
+	FixedBaseExponentiation(DlogGroup dlog, GroupElement[] table, int columns) {
+		if (table.length < 2 || Integer.bitCount(table.length) != 1 || columns < 1) {
+			throw new IllegalArgumentException("the size of the table must be a power of two");
+		}
+		this.dlog = dlog;
+		this.window = Integer.numberOfTrailingZeros(table.length);
+		this.columns = columns;
+		this.table = table;
+	}
+	
+	/**
+	 * Returns the comb table. Index 0 is not used.
+	 */
+	GroupElement[] getTable() {
+		return table;
+	}
+	
+	/**
+	 * Returns the number of columns of the comb.
+	 */
+	int getColumns() {
+		return columns;
+	}
+	
+	/**
+	 * Returns the maximal bit length of the exponents that this object supports.
+	 */
+	int getMaxBits() {
+		return window * columns;
+	}
+	
+	/**
+	 * Computes base^exponent.
+	 * @param exponent non negative exponent with at most getMaxBits() bits.
+	 * @return the exponentiation result.
+	 */
+	GroupElement exponentiate(BigInteger exponent) {
+		GroupElement result = null;
+		for (int k = columns - 1; k >= 0; k--) {
+			if (result != null) {
+				result = dlog.multiplyGroupElements(result, result);
+			}
+			//Collects bit k of every row into the index of the table.
+			int index = 0;
+			for (int j = window - 1; j >= 0; j--) {
+				index = (index << 1) | (exponent.testBit(j * columns + k) ? 1 : 0);
+			}
+			if (index != 0) {
+				result = (result == null) ? table[index] : dlog.multiplyGroupElements(result, table[index]);
+			}
+		}
+		return (result == null) ? dlog.getIdentity() : result;
+	}
+}
@@ -0,0 +1,240 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.primitives.dlog;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * This class keeps the results of expensive group computations in a directory on disk, so that they can be reused by later processes.<p>
+ * It stores:
+ * <ul>
+ * <li>The fixed-base tables used by {@link DlogGroup#exponentiateWithPreComputedValues(GroupElement, java.math.BigInteger)}, keyed by the group parameters, the base and the window.</li>
+ * <li>The groups whose parameters passed {@link DlogGroup#validateGroup()}, keyed by the group parameters.</li>
+ * </ul>
+ * The store is a cache: a missing, unreadable or corrupted file is ignored and the value is computed again.<p>
+ * 
+ * The content of the directory is trusted. A table or a validation result written by an attacker causes wrong results, 
+ * therefore the directory should be writable only by the user that runs the application.<p>
+ * 
+ * A store can be shared by several groups and processes. Each file is written to a temporary file first and then renamed, 
+ * so that a reader never sees a partially written file.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class PrecomputationStore {
+	
+	private static final String TABLE_SUFFIX = ".tbl";
+	private static final String VALID_SUFFIX = ".valid";
+	
+	private File directory;
+	
+	/**
+	 * Constructor that sets the directory of the store. The directory is created if it does not exist.
+	 * @param directory the directory that holds the stored values.
+	 * @throws IllegalArgumentException if the directory does not exist and can not be created.
+	 */
+	public PrecomputationStore(File directory) {
+		if (!directory.isDirectory() && !directory.mkdirs()) {
+			throw new IllegalArgumentException("can not create the directory " + directory);
+		}
+		this.directory = directory;
+	}
+	
+	/**
+	 * Returns the directory of the store.
+	 * @return the directory of the store.
+	 */
+	public File getDirectory() {
+		return directory;
+	}
+	
+	/**
+	 * Deletes all the values of this store.
+	 */
+	public void clear() {
+		File[] files = directory.listFiles();
+		if (files == null) {
+			return;
+		}
+		for (File file : files) {
+			if (file.getName().endsWith(TABLE_SUFFIX) || file.getName().endsWith(VALID_SUFFIX)) {
+				file.delete();
+			}
+		}
+	}
+	
+	/**
+	 * Returns the stored fixed-base table of the given base, or null if there is no such table.
+	 */
+	FixedBaseExponentiation loadTable(DlogGroup dlog, GroupElement base, int maxBits, int window) {
+		File file;
+		try {
+			file = new File(directory, computeKey(dlog, base.generateSendableData(), maxBits, window) + TABLE_SUFFIX);
+		} catch (IOException e) {
+			return null;
+		}
+		if (!file.isFile()) {
+			return null;
+		}
+		
+		try {
+			ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(file)));
+			try {
+				int columns = in.readInt();
+				GroupElementSendableData[] data = (GroupElementSendableData[]) in.readObject();
+				GroupElement[] table = new GroupElement[data.length];
+				for (int i = 1; i < data.length; i++) {
+					//The elements were computed by this group, so there is no need to check their membership.
+					table[i] = dlog.reconstructElement(false, data[i]);
+				}
+				//The first entry of the table is the base itself. This detects a table that belongs to another base.
+				if (!table[1].equals(base)) {
+					return null;
+				}
+				if (columns * Integer.numberOfTrailingZeros(table.length) < maxBits) {
+					return null;
+				}
+				return new FixedBaseExponentiation(dlog, table, columns);
+			} finally {
+				in.close();
+			}
+		} catch (IOException e) {
+			//The store is only a cache, a table that can not be read is computed again.
+			return null;
+		} catch (ClassNotFoundException e) {
+			return null;
+		} catch (RuntimeException e) {
+			//A corrupted table, for example with elements of another group or a wrong size.
+			return null;
+		}
+	}
+	
+	/**
+	 * Stores the fixed-base table of the given base.
+	 */
+	void saveTable(DlogGroup dlog, GroupElement base, int maxBits, int window, FixedBaseExponentiation exponentiations) {
+		GroupElement[] table = exponentiations.getTable();
+		GroupElementSendableData[] data = new GroupElementSendableData[table.length];
+		for (int i = 1; i < table.length; i++) {
+			data[i] = table[i].generateSendableData();
+		}
+		
+		try {
+			ByteArrayOutputStream bOut = new ByteArrayOutputStream();
+			ObjectOutputStream out = new ObjectOutputStream(bOut);
+			out.writeInt(exponentiations.getColumns());
+			out.writeObject(data);
+			out.close();
+			write(computeKey(dlog, base.generateSendableData(), maxBits, window) + TABLE_SUFFIX, bOut.toByteArray());
+		} catch (IOException e) {
+			//The store is only a cache, a table that can not be written is computed again by the next process.
+		}
+	}
+	
+	/**
+	 * Returns true if the parameters of the given group were stored as valid.
+	 */
+	boolean isValidated(DlogGroup dlog) {
+		try {
+			return new File(directory, computeKey(dlog, null, 0, 0) + VALID_SUFFIX).isFile();
+		} catch (IOException e) {
+			return false;
+		}
+	}
+	
+	/**
+	 * Stores the parameters of the given group as valid.
+	 */
+	void setValidated(DlogGroup dlog) {
+		try {
+			write(computeKey(dlog, null, 0, 0) + VALID_SUFFIX, new byte[0]);
+		} catch (IOException e) {
+			//The store is only a cache, the group is validated again by the next process.
+		}
+	}
+	
+	/**
+	 * Writes the given content to a file of the given name, through a temporary file.
+	 */
+	private void write(String name, byte[] content) throws IOException {
+		File temp = File.createTempFile(name, ".tmp", directory);
+		try {
+			BufferedOutputStream out = new BufferedOutputStream(new FileOutputStream(temp));
+			try {
+				out.write(content);
+			} finally {
+				out.close();
+			}
+			File file = new File(directory, name);
+			//On some platforms renameTo does not replace an existing file. In this case another process has already written the same value.
+			if (!temp.renameTo(file) && !file.isFile()) {
+				throw new IOException("can not write " + file);
+			}
+		} finally {
+			temp.delete();
+		}
+	}
+	
+	/**
+	 * Computes the name of the file of a stored value: the hex encoded SHA-256 digest of 
+	 * the group implementation, its type and parameters and (for tables) the base, the maximal bit length and the window.
+	 */
+	private String computeKey(DlogGroup dlog, Serializable base, int maxBits, int window) throws IOException {
+		ByteArrayOutputStream bOut = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(bOut);
+		out.writeUTF(dlog.getClass().getName());
+		out.writeUTF(dlog.getGroupType());
+		out.writeObject(dlog.getGroupParams());
+		out.writeObject(base);
+		out.writeInt(maxBits);
+		out.writeInt(window);
+		out.close();
+		
+		byte[] digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256").digest(bOut.toByteArray());
+		} catch (NoSuchAlgorithmException e) {
+			// Should not occur since every Java platform supports SHA-256.
+			throw new IllegalStateException(e);
+		}
+		StringBuilder key = new StringBuilder(2 * digest.length);
+		for (byte b : digest) {
+			key.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+		}
+		return key.toString();
+	}
+}
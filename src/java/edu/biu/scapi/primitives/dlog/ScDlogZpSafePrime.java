@@ -0,0 +1,506 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.primitives.dlog;
+
+import java.math.BigInteger;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+
+import edu.biu.scapi.primitives.dlog.groupParams.ZpGroupParams;
+import edu.biu.scapi.securityLevel.DDH;
+import edu.biu.scapi.tools.math.MathAlgorithms;
+import edu.biu.scapi.tools.math.MontgomeryModulus;
+
+/**
+ * This class implements a Dlog group over Zp* in pure Java, so it can be used on platforms where the native libraries are not available.<p>
+ * The elements of the group are kept in Montgomery form relative to p (see {@link MontgomeryModulus}). The Montgomery constants of p 
+ * are computed once upon construction of the group and used for the multiplications, so the chains of multiplications done by 
+ * the multiple exponentiations and the fixed base exponentiations do not reduce each product separately. 
+ * A single exponentiation is delegated to {@link BigInteger#modPow}, which is faster than a Java Montgomery exponentiation.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ */
+public class ScDlogZpSafePrime extends DlogGroupAbs implements DlogZpSafePrime, DDH{
+
+	private static final int PIPPENGER_THRESHOLD = 128;	//Number of bases from which the bucket method beats a modPow per base
+	private MontgomeryModulus modulus;	//Montgomery context of the safe prime p.
+	
+	/**
+	 * Initializes the pure Java implementation of Dlog over Zp* with the given groupParams
+	 * @param groupParams - contains the group parameters
+	 */
+	public ScDlogZpSafePrime(ZpGroupParams groupParams) {
+
+		this(groupParams, new SecureRandom());
+	}
+	
+	/**
+	 * Initializes the pure Java implementation of Dlog over Zp* with the given groupParams
+	 * @param groupParams - contains the group parameters
+	 * @param random source of randomness to use.
+	 */
+	public ScDlogZpSafePrime(ZpGroupParams groupParams, SecureRandom random) {
+
+		this.random = random;
+		BigInteger p = groupParams.getP();
+		BigInteger q = groupParams.getQ();
+		BigInteger g = groupParams.getXg();
+
+		// if p is not 2q+1 throw exception
+		if (!q.multiply(new BigInteger("2")).add(BigInteger.ONE).equals(p)) {
+			throw new IllegalArgumentException("p must be equal to 2q+1");
+		}
+		// set the inner parameters
+		this.groupParams = groupParams;
+		//The primality tests are skipped if these parameters were validated by a previous process that used the same precomputation store.
+		boolean knownValid = isGroupValidated();
+		// if p is not a prime throw exception
+		if (!knownValid && !p.isProbablePrime(40)) {
+			throw new IllegalArgumentException("p must be a prime");
+		}
+		// if q is not a prime throw exception
+		if (!knownValid && !q.isProbablePrime(40)) {
+			throw new IllegalArgumentException("q must be a prime");
+		}
+		modulus = new MontgomeryModulus(p);
+		
+		//Create the generator. Since the group has a prime order, any element of the group other than the identity is a generator.
+		try {
+			generator = new ScZpSafePrimeElement(g, modulus, true);
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException("generator value is not valid");
+		}
+		if (generator.isIdentity()) {
+			throw new IllegalArgumentException("generator value is not valid");
+		}
+		//The checks above are the same as the checks of validateGroup.
+		if (!knownValid) {
+			setGroupValidated();
+		}
+		
+		//Now that we have p, we can calculate k which is the maximum length of a string to be converted to a Group Element of this group.
+		k = calcK(p);
+	}
+
+	/**
+	 * Initializes the pure Java implementation of Dlog over Zp* with the given groupParams
+	 * @param q the order of the group
+	 * @param g the generator of the group
+	 * @param p the prime of the group
+	 */
+	public ScDlogZpSafePrime(String q, String g, String p) {
+		//creates ZpGroupParams from the given arguments and call the appropriate constructor
+		this(new ZpGroupParams(new BigInteger(q), new BigInteger(g), new BigInteger(p)));
+	}
+	
+	/**
+	 * Initializes the pure Java implementation of Dlog over Zp* with the given groupParams
+	 * @param q the order of the group
+	 * @param g the generator of the group
+	 * @param p the prime of the group
+	 * @param randNumGenAlg the name of the random number generation algorithm to use.
+	 * @throws NoSuchAlgorithmException 
+	 */
+	public ScDlogZpSafePrime(String q, String g, String p, String randNumGenAlg) throws NoSuchAlgorithmException {
+		//creates ZpGroupParams from the given arguments and call the appropriate constructor
+		this(new ZpGroupParams(new BigInteger(q), new BigInteger(g), new BigInteger(p)), SecureRandom.getInstance(randNumGenAlg));
+	}
+
+	/**
+	 * Default constructor. Initializes this object with 1024 bit size.
+	 */
+	public ScDlogZpSafePrime() {
+		this(1024);
+	}
+
+	/**
+	 * Initializes the pure Java implementation of Dlog over Zp* with random elements
+	 * @param numBits - number of the prime p bits to generate
+	 */
+	public ScDlogZpSafePrime(int numBits) {
+
+		this(numBits, new SecureRandom());
+	}
+	
+	/**
+	 * Initializes the pure Java implementation of Dlog over Zp* with random elements.<p>
+	 * Note that finding a safe prime of a common size takes a considerable amount of time. 
+	 * If the group is used more than once, it is better to keep its parameters and use the constructor that accepts them.
+	 * @param numBits - number of the prime p bits to generate
+	 * @param random source of randomness to use.
+	 */
+	public ScDlogZpSafePrime(int numBits, SecureRandom random){
+		
+		this.random = random;
+		
+		//Find a safe prime p=2q+1 with the requested length.
+		BigInteger p, q;
+		do {
+			q = BigInteger.probablePrime(numBits - 1, random);
+			p = q.shiftLeft(1).add(BigInteger.ONE);
+		} while (!p.isProbablePrime(40));
+		modulus = new MontgomeryModulus(p);
+		
+		//The square of any element other than +-1 is a generator of the subgroup of order q.
+		do {
+			generator = new ScZpSafePrimeElement(modulus, random);
+		} while (generator.isIdentity());
+		
+		BigInteger xG = ((ZpElement) generator).getElementValue();
+		groupParams = new ZpGroupParams(q, xG, p);
+
+		//Now that we have p, we can calculate k which is the maximum length in bytes of a string to be converted to a Group Element of this group. 
+		k = calcK(p);
+	}
+
+	public ScDlogZpSafePrime(String numBits) {
+		//creates an int from the given string and calls the appropriate constructor
+		this(Integer.parseInt(numBits));
+	}
+	
+	public ScDlogZpSafePrime(String numBits, String randNumGenAlg) throws NoSuchAlgorithmException {
+		//creates an int from the given string and calls the appropriate constructor
+		this(Integer.parseInt(numBits), SecureRandom.getInstance(randNumGenAlg));
+	}
+	
+	private int calcK(BigInteger p){
+		int bitsInp = p.bitLength();
+		//any string of length k has a numeric value that is less than (p-1)/2 - 1
+		int k = (bitsInp - 3)/8; 
+		//The actual k that we allow is one byte less. This will give us an extra byte to pad the binary string passed to encode to a group element with a 01 byte
+		//and at decoding we will remove that extra byte. This way, even if the original string translates to a negative BigInteger the encode and decode functions
+		//always work with positive numbers. The encoding will be responsible for padding and the decoding will be responsible for removing the pad.
+		k--; 
+		//For technical reasons of how we chose to do the padding for encoding and decoding (the least significant byte of the encoded string contains the size of the 
+		//the original binary string sent for encoding, which is used to remove the padding when decoding) k has to be <= 255 bytes so that the size can be encoded in the padding.
+		if( k > 255){
+			k = 255;
+		}
+		return k;
+	}
+	
+	/**
+	 * @return the type of the group - Zp*
+	 */
+	public String getGroupType() {
+		return "Zp*";
+	}
+
+	/**
+	 * 
+	 * @return the identity of this Zp group - 1
+	 */
+	public GroupElement getIdentity() {
+		return new ScZpSafePrimeElement(modulus.one(), modulus);
+	}
+	
+	/**
+	 * Creates a random member of this Dlog group
+	 * 
+	 * @return the random element
+	 */
+	public GroupElement createRandomElement() {
+		//This function overrides the basic implementation of DlogGroupAbs. For the case of Zp Safe Prime this is a more efficient implementation.
+		//It calls the package private constructor of ScZpSafePrimeElement, which randomly creates an element in Zp.
+		return new ScZpSafePrimeElement(modulus, random);
+	}
+
+	/**
+	 * Checks if the given element is member of this Dlog group
+	 * @param element 
+	 * @return true if the given element is member of that group. false, otherwise.
+	 * @throws IllegalArgumentException
+	 */
+	public boolean isMember(GroupElement element) {
+
+		// check if element is ScZpSafePrimeElement
+		if (!(element instanceof ScZpSafePrimeElement)) {
+			throw new IllegalArgumentException("element type doesn't match the group type");
+		}
+		BigInteger x = ((ScZpSafePrimeElement) element).getElementValue();
+		if (x.signum() <= 0 || x.compareTo(modulus.getModulus()) >= 0) {
+			return false;
+		}
+		//The element is in the subgroup of order q if and only if it is a quadratic residue modulo the safe prime p.
+		//The Legendre symbol checks it much faster than computing x^q.
+		return MathAlgorithms.jacobiSymbol(x, modulus.getModulus()) == 1;
+	}
+
+	/**
+	 * Checks if the given generator is indeed the generator of the group
+	 * @return true, is the generator is valid, false otherwise.
+	 */
+	public boolean isGenerator() {
+		//Since the order of the group is prime, every member other than the identity is a generator.
+		return isMember(generator) && !generator.isIdentity();
+	}
+
+	/**
+	 * Checks if the parameters of the group are correct.
+	 * @return true if valid, false otherwise.
+	 */
+	public boolean validateGroup() {
+		//The parameters were already validated by this object or by a previous process that used the same precomputation store.
+		if (isGroupValidated()) {
+			return true;
+		}
+		BigInteger p = ((ZpGroupParams) groupParams).getP();
+		BigInteger q = getOrder();
+		
+		if (!q.shiftLeft(1).add(BigInteger.ONE).equals(p)) {
+			return false;
+		}
+		if (!p.isProbablePrime(40) || !q.isProbablePrime(40)) {
+			return false;
+		}
+		if (!isGenerator()) {
+			return false;
+		}
+		setGroupValidated();
+		return true;
+	}
+
+	/**
+	 * Calculates the inverse of the given GroupElement
+	 * @param groupElement to inverse
+	 * @return the inverse element of the given GroupElement
+	 * @throws IllegalArgumentException
+	 */
+	public GroupElement getInverse(GroupElement groupElement) throws IllegalArgumentException{
+		
+		if (groupElement instanceof ScZpSafePrimeElement){
+			BigInteger inverse = ((ScZpSafePrimeElement) groupElement).getElementValue().modInverse(modulus.getModulus());
+			return new ScZpSafePrimeElement(inverse, modulus, false);
+			
+		}else throw new IllegalArgumentException("element type doesn't match the group type");
+	}
+
+	/**
+	 * Raises the base GroupElement to the exponent. The result is another GroupElement.
+	 * @param exponent
+	 * @param base
+	 * @return the result of the exponentiation
+	 * @throws IllegalArgumentException
+	 */
+	public GroupElement exponentiate(GroupElement base, BigInteger exponent) throws IllegalArgumentException{
+		
+		if (base instanceof ScZpSafePrimeElement){
+			//modPow computes a negative exponent as the exponentiation of the inverse.
+			BigInteger result = ((ScZpSafePrimeElement) base).getElementValue().modPow(exponent, modulus.getModulus());
+			return new ScZpSafePrimeElement(result, modulus, false);
+			
+		}else throw new IllegalArgumentException("element type doesn't match the group type");
+	}
+
+	/**
+	 * Multiplies two GroupElements
+	 * 
+	 * @param groupElement1
+	 * @param groupElement2
+	 * @return the multiplication result
+	 * @throws IllegalArgumentException
+	 */
+	public GroupElement multiplyGroupElements(GroupElement groupElement1,
+			GroupElement groupElement2) throws IllegalArgumentException {
+
+		if ((groupElement1 instanceof ScZpSafePrimeElement) && (groupElement2 instanceof ScZpSafePrimeElement)){
+			int[] result = modulus.multiply(toMontgomery((ScZpSafePrimeElement) groupElement1), toMontgomery((ScZpSafePrimeElement) groupElement2));
+			return new ScZpSafePrimeElement(result, modulus);
+			
+		}else throw new IllegalArgumentException("element type doesn't match the group type");
+	}
+
+	/**
+	 * Computes the product of several exponentiations with distinct bases 
+	 * and distinct exponents. 
+	 * Instead of computing each part separately, an optimization is used to 
+	 * compute it simultaneously. 
+	 * @param groupElements
+	 * @param exponentiations
+	 * @return the exponentiation result
+	 */
+	@Override
+	public GroupElement simultaneousMultipleExponentiations
+				(GroupElement[] groupElements, BigInteger[] exponentiations){
+		
+		for (int i=0; i < groupElements.length; i++){
+			if (!(groupElements[i] instanceof ScZpSafePrimeElement)){
+				throw new IllegalArgumentException("groupElement doesn't match the DlogGroup");
+			}
+		}
+		
+		return computeMultipleExponentiations(groupElements, exponentiations);
+	}
+	
+	/*
+	 * The LL algorithm squares by exponentiate, which is a modPow call here, so it is never used in this group. 
+	 * Below PIPPENGER_THRESHOLD bases a modPow per base is faster than the Java multiplications of the bucket method 
+	 * (measured on 1024 and 2048 bit groups), so the naive algorithm is used for small inputs.
+	 */
+	@Override
+	protected GroupElement computeMultipleExponentiations(GroupElement[] groupElements, BigInteger[] exponentiations){
+		if (groupElements.length >= PIPPENGER_THRESHOLD){
+			return computePippenger(groupElements, exponentiations);
+		}
+		return computeNaive(groupElements, exponentiations);
+	}
+	
+	/**
+	 * This group is implemented in Java and keeps no mutable state, so it can be used by several threads concurrently.
+	 */
+	@Override
+	protected boolean supportsConcurrentOperations() {
+		return true;
+	}
+
+	/**
+	 * @deprecated As of SCAPI-V2_0_0 use generateElment(boolean bCheckMembership, BigInteger...values)
+	 */
+	@Deprecated public ZpElement generateElement(Boolean bCheckMembership, BigInteger x) {
+
+		return new ScZpSafePrimeElement(x, modulus, bCheckMembership);
+	}
+	
+	
+	/* (non-Javadoc)
+	 * @see edu.biu.scapi.primitives.dlog.DlogGroup#generateElement(boolean, java.math.BigInteger[])
+	 */
+	@Override
+	public GroupElement generateElement(boolean bCheckMembership, BigInteger... values) throws IllegalArgumentException {
+		if(values.length != 1){
+			throw new IllegalArgumentException("To generate an ZpElement you should pass the x value of the point");
+		}
+				
+		return new ScZpSafePrimeElement(values[0], modulus, bCheckMembership);
+	}
+	
+	/**
+	 * @see edu.biu.scapi.primitives.dlog.DlogGroup#generateElement(boolean, edu.biu.scapi.primitives.dlog.GroupElementSendableData)
+	 * @deprecated The name of this function was changed.As of SCAPI-V1-0-2-2 use {@link reconstructElement(boolean bCheckMembership, GroupElementSendableData data)} instead.
+	 */
+	@Override
+	@Deprecated public GroupElement generateElement(boolean bCheckMembership, GroupElementSendableData data) {
+		return reconstructElement(bCheckMembership, data);
+	}
+
+	/**
+	 * @see edu.biu.scapi.primitives.dlog.DlogGroup#reconstructElement(boolean, edu.biu.scapi.primitives.dlog.GroupElementSendableData)
+	 * @throws IllegalArgumentException if bCheckMembership is true and the data does not correspond to an illegal value of this group
+	 */
+	@Override
+	public GroupElement reconstructElement(boolean bCheckMembership, GroupElementSendableData data) {
+		if (!(data instanceof ZpElementSendableData))
+			throw new IllegalArgumentException("data type doesn't match the group type");
+		return generateElement(bCheckMembership, ((ZpElementSendableData)data).getX());
+	}
+
+	/**
+	 * This function takes any string of length up to k bytes and encodes it to a Group Element.<p>
+	 * k is calculated upon construction of this group and it depends on the length in bits of p.<p>
+	 * The encoding-decoding functionality is not a bijection, that is, it is a 1-1 function but is not onto.<p>
+	 * Therefore, any string of length in bytes up to k can be encoded to a group element but not<p>
+	 * every group element can be decoded to a binary string in the group of binary strings of length up to 2^k.<p>
+	 * Thus, the right way to use this functionality is first to encode a byte array and the to decode it, and not the opposite.
+	 * @throws IndexOutOfBoundsException if the length of the binary array to encode is longer than k
+	 */
+	public GroupElement encodeByteArrayToGroupElement(byte[] binaryString) {
+		//Any string of length up to k has numeric value that is less than (p-1)/2 - 1.
+		//If longer than k then throw exception.
+		if (binaryString.length > k){
+			throw new IndexOutOfBoundsException("The binary array to encode is too long.");
+		}
+	
+		//Pad the binaryString with a x01 byte in the most significant byte to ensure that the 
+		//encoding and decoding always work with positive numbers.
+		byte[] newString = new byte[binaryString.length + 1];
+		newString[0] = 1;
+		System.arraycopy(binaryString, 0, newString, 1, binaryString.length);
+	
+		//Denote the string of length k by s.
+		//Set the group element to be y=(s+1)^2 (this ensures that the result is not 0 and is a square)
+		BigInteger s = new BigInteger(newString);
+		BigInteger y = (s.add(BigInteger.ONE)).pow(2).mod(modulus.getModulus());
+		//There is no need to check membership since the "element" was generated so that it is always an element.
+		return new ScZpSafePrimeElement(y, modulus, false);
+	}
+	
+	/**
+	 * This function decodes a group element to a byte array.<p> 
+	 * This function is guaranteed to work properly ONLY if the group element was obtained as a result
+	 * of encoding a binary string of length in bytes up to k. This is because the encoding-decoding functionality is not a bijection, that is, it is a 1-1 function but is not onto.<p>
+	 * Therefore, any string of length in bytes up to k can be encoded to a group element but not<p>
+	 * any group element can be decoded to a binary sting in the group of binary strings of length up to 2^k.
+	 * @param groupElement the GroupElement to decode
+	 * @return a byte[] decoding of the group element
+	 */
+	public byte[] decodeGroupElementToByteArray(GroupElement groupElement) {
+		if (!(groupElement instanceof ScZpSafePrimeElement)){
+			throw new IllegalArgumentException("element type doesn't match the group type");
+		}
+		
+		//Given a group element y, find the two inverses z,-z. Take z to be the value between 1 and (p-1)/2. Return s=z-1
+		BigInteger y = ((ZpElement) groupElement).getElementValue();
+		BigInteger p = modulus.getModulus();
+		MathAlgorithms.SquareRootResults roots = MathAlgorithms.sqrtModP_3_4(y, p);
+	
+		BigInteger goodRoot;
+		BigInteger halfP = (p.subtract(BigInteger.ONE)).divide(BigInteger.valueOf(2));
+		if(roots.getRoot1().compareTo(BigInteger.ONE)>= 0 && roots.getRoot1().compareTo(halfP) < 0)
+			goodRoot = roots.getRoot1();
+		else 
+			goodRoot = roots.getRoot2();
+		
+		goodRoot = goodRoot.subtract(BigInteger.ONE);
+	
+		//Remove the padding byte at the most significant position (that was added while encoding)
+		byte[] rootByteArray = goodRoot.toByteArray();
+		byte[] oneByteLess = new byte[rootByteArray.length -1];
+		System.arraycopy(rootByteArray, 1, oneByteLess, 0,oneByteLess.length );
+		return oneByteLess;
+	}
+
+	/**
+	 * This function maps a group element of this dlog group to a byte array.<p>
+	 * This function does not have an inverse function, that is, it is not possible to re-construct the original group element from the resulting byte array. 
+	 * @return a byte array representation of the given group element
+	 */
+	public byte[] mapAnyGroupElementToByteArray(GroupElement groupElement){
+		if (!(groupElement instanceof ScZpSafePrimeElement)){
+			throw new IllegalArgumentException("element type doesn't match the group type");
+		}
+		return ((ZpElement) groupElement).getElementValue().toByteArray();		
+	}
+	
+	/*
+	 * Returns the Montgomery form of the given element relative to the modulus of this group.
+	 * Elements that were created by another instance of this group with the same p are converted.
+	 */
+	private int[] toMontgomery(ScZpSafePrimeElement element) {
+		if (element.getModulus() == modulus) {
+			return element.getMontgomeryValue();
+		}
+		return modulus.toMontgomery(element.getElementValue());
+	}
+}
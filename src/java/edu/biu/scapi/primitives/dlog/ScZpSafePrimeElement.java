@@ -0,0 +1,169 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.primitives.dlog;
+
+import java.math.BigInteger;
+import java.security.SecureRandom;
+import java.util.Arrays;
+
+import org.bouncycastle.util.BigIntegers;
+
+import edu.biu.scapi.tools.math.MathAlgorithms;
+import edu.biu.scapi.tools.math.MontgomeryModulus;
+
+/**
+ * This class is the pure Java implementation of a ZpElement in SCAPI.<p>
+ * It holds the value of the element in Montgomery form relative to the modulus of the group, so that consecutive group operations 
+ * do not need to convert the value back and forth. The integer value is computed only when it is requested.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class ScZpSafePrimeElement implements ZpSafePrimeElement {
+
+	private final int[] montValue;				//The value of the element in Montgomery form.
+	private final MontgomeryModulus modulus;	//The Montgomery context of the group.
+	private BigInteger x;						//The integer value of the element, computed lazily.
+	
+	/**
+	 * This constructor accepts x value, the Montgomery context of the safe prime p and a boolean indicates if the x values needs to be checked.
+	 * If x is needs to be checked and it is valid element in the group, sets it; else, throws exception.
+	 * If x does not need to be checked, it is set without checking.
+	 * @param x element in the group.
+	 * @param modulus Montgomery context of the safe prime of the group.
+	 * @param bCheckMembership indicates if x is needs to be checked.
+	 * @throws IllegalArgumentException
+	 */
+	ScZpSafePrimeElement(BigInteger x, MontgomeryModulus modulus, boolean bCheckMembership) throws IllegalArgumentException{
+		this.modulus = modulus;
+		if(bCheckMembership){
+			BigInteger p = modulus.getModulus();
+			//If the element is not in the expected range, throw exception.
+			if ((x.compareTo(BigInteger.ZERO) <= 0) || (x.compareTo(p.subtract(BigInteger.ONE)) > 0)){
+				throw new IllegalArgumentException("Cannot create Zp element. Requested value " + x + " is not in the range of this group.");
+			}
+			//The element belongs to the subgroup of order q=(p-1)/2 if and only if it is a quadratic residue.
+			if (MathAlgorithms.jacobiSymbol(x, p) != 1){
+				throw new IllegalArgumentException("Cannot create Zp element. Requested value " + x + " is not a quadratic residue.");
+			}
+		}
+		montValue = modulus.toMontgomery(x);
+		this.x = x.mod(modulus.getModulus());
+	}
+	
+	/**
+	 * Constructor that chooses a random element with order q.
+	 * The algorithm is: 
+	 * input: modulus p.
+	 * choose a random element between 1 to p-1.
+	 * calculate element^2 mod p.
+	 * @param modulus Montgomery context of the safe prime of the group.
+	 * @param random source of randomness.
+	 */
+	ScZpSafePrimeElement(MontgomeryModulus modulus, SecureRandom random){
+		this.modulus = modulus;
+		//Find a number in the range [1, ..., p-1].
+		BigInteger element = BigIntegers.createRandomInRange(BigInteger.ONE, modulus.getModulus().subtract(BigInteger.ONE), random);
+		
+		//Calculate its power to get a number in the subgroup and set the power as the element.
+		int[] mont = modulus.toMontgomery(element);
+		montValue = modulus.multiply(mont, mont);
+	}
+	
+	/*
+	 * Constructor that gets the Montgomery form of the element.
+	 * Only the group uses this constructor, to set the results of the group operations.
+	 */
+	ScZpSafePrimeElement(int[] montValue, MontgomeryModulus modulus) {
+		this.montValue = montValue;
+		this.modulus = modulus;
+	}
+	
+	/*
+	 * Returns the value of the element in Montgomery form. The returned array must not be changed.
+	 */
+	int[] getMontgomeryValue() {
+		return montValue;
+	}
+	
+	/*
+	 * Returns the Montgomery context this element belongs to.
+	 */
+	MontgomeryModulus getModulus() {
+		return modulus;
+	}
+	
+	/**
+	 * @return BigInteger - value of the element
+	 */
+	public BigInteger getElementValue() {
+		//BigInteger is immutable, so computing the value more than once in concurrent calls is harmless.
+		if (x == null){
+			x = modulus.fromMontgomery(montValue);
+		}
+		return x;
+	}
+	
+	/**
+	 * This function checks if this element is the identity of the Dlog group.
+	 * @return <code>true</code> if this element is the identity of the group; <code>false</code> otherwise.
+	 */
+	public boolean isIdentity(){
+		
+		return Arrays.equals(montValue, modulus.one());
+	}
+
+	/**
+	 * Checks if the given GroupElement is equal to this groupElement.
+	 * 
+	 * @param elementToCompare
+	 * @return true if the given element is equal to this element. false, otherwise.
+	 */
+	public boolean equals(Object elementToCompare) {
+		if (!(elementToCompare instanceof ScZpSafePrimeElement)) {
+			return false;
+		}
+		ScZpSafePrimeElement element = (ScZpSafePrimeElement) elementToCompare;
+		return element.getElementValue().equals(getElementValue());
+	}
+	
+	@Override
+	public int hashCode() {
+		return getElementValue().hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return "ScZpSafePrimeElement [element value=" + getElementValue() + "]";
+	}
+
+	/** 
+	 * @see edu.biu.scapi.primitives.dlog.GroupElement#generateSendableData()
+	 */
+	@Override
+	public GroupElementSendableData generateSendableData() {
+		return new ZpElementSendableData(getElementValue(), modulus.getModulus());
+	}
+}
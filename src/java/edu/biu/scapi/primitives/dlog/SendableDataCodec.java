@@ -0,0 +1,329 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+
+package edu.biu.scapi.primitives.dlog;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class encodes the data that is sent by the protocols in a compact binary format.<p>
+ * The default Java serialization writes a class descriptor, an object header and several unused fields for every BigInteger 
+ * and every group element, which takes a few times more bytes than the values themselves. 
+ * The sendable data classes and the protocol messages implement {@link java.io.Externalizable} and use the functions of 
+ * this class in order to write only the values: 
+ * <ul>
+ * <li>BigIntegers and byte arrays are written as a variable-length size followed by the bytes.</li>
+ * <li>Group elements are written as a one-byte tag that identifies the type of the element followed by its value: 
+ * Zp elements in the fixed length of p, and elliptic curve points in their compressed encoding.</li>
+ * <li>Lists and arrays are written as their size followed by the contiguous elements.</li>
+ * </ul> 
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public final class SendableDataCodec {
+	
+	//Tags that identify the type of an encoded GroupElementSendableData.
+	private static final byte NULL_TAG = 0;
+	private static final byte EC_TAG = 1;
+	private static final byte ZP_TAG = 2;
+	private static final byte OBJECT_TAG = 3;
+	
+	/**
+	 * This class holds only static functions.
+	 */
+	private SendableDataCodec(){}
+	
+	/**
+	 * Writes the given non negative size using 7 bits in each byte, where the high bit marks that more bytes follow.
+	 * Small sizes, which are the common case, take a single byte.
+	 * @param out the output to write to.
+	 * @param size the size to write.
+	 * @throws IOException Any of the usual Input/Output related exceptions.
+	 */
+	public static void writeSize(ObjectOutput out, int size) throws IOException{
+		if (size < 0){
+			throw new IllegalArgumentException("size should be non negative");
+		}
+		while ((size & ~0x7F) != 0){
+			out.writeByte((size & 0x7F) | 0x80);
+			size >>>= 7;
+		}
+		out.writeByte(size);
+	}
+	
+	/**
+	 * Reads a size that was written by {@link #writeSize(ObjectOutput, int)}.
+	 * @param in the input to read from.
+	 * @return the read size.
+	 * @throws IOException Any of the usual Input/Output related exceptions.
+	 */
+	public static int readSize(ObjectInput in) throws IOException{
+		int size = 0;
+		int shift = 0;
+		while (true){
+			int b = in.readUnsignedByte();
+			size |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0){
+				break;
+			}
+			shift += 7;
+			if (shift > 28){
+				throw new IOException("malformed size");
+			}
+		}
+		if (size < 0){
+			throw new IOException("malformed size");
+		}
+		return size;
+	}
+	
+	/**
+	 * Writes the given byte array. The array may be null.
+	 * @param out the output to write to.
+	 * @param bytes the array to write.
+	 * @throws IOException Any of the usual Input/Output related exceptions.
+	 */
+	public static void writeByteArray(ObjectOutput out, byte[] bytes) throws IOException{
+		//Size 0 marks a null array, so the sizes are shifted by one.
+		if (bytes == null){
+			writeSize(out, 0);
+		} else{
+			writeSize(out, bytes.length + 1);
+			out.write(bytes);
+		}
+	}
+	
+	/**
+	 * Reads a byte array that was written by {@link #writeByteArray(ObjectOutput, byte[])}.
+	 * @param in the input to read from.
+	 * @return the read array. May be null.
+	 * @throws IOException Any of the usual Input/Output related exceptions.
+	 */
+	public static byte[] readByteArray(ObjectInput in) throws IOException{
+		int size = readSize(in);
+		if (size == 0){
+			return null;
+		}
+		byte[] bytes = new byte[size - 1];
+		in.readFully(bytes);
+		return bytes;
+	}
+	
+	/**
+	 * Writes the given two-dimensional byte array. The array and its rows may be null.
+	 * @param out the output to write to.
+	 * @param bytes the array to write.
+	 * @throws IOException Any of the usual Input/Output related exceptions.
+	 */
+	public static void writeByteArrays(ObjectOutput out, byte[][] bytes) throws IOException{
+		if (bytes == null){
+			writeSize(out, 0);
+		} else{
+			writeSize(out, bytes.length + 1);
+			for (int i = 0; i < bytes.length; i++){
+				writeByteArray(out, bytes[i]);
+			}
+		}
+	}
+	
+	/**
+	 * Reads a two-dimensional byte array that was written by {@link #writeByteArrays(ObjectOutput, byte[][])}.
+	 * @param in the input to read from.
+	 * @return the read array. May be null.
+	 * @throws IOException Any of the usual Input/Output related exceptions.
+	 */
+	public static byte[][] readByteArrays(ObjectInput in) throws IOException{
+		int size = readSize(in);
+		if (size == 0){
+			return null;
+		}
+		byte[][] bytes = new byte[size - 1][];
+		for (int i = 0; i < bytes.length; i++){
+			bytes[i] = readByteArray(in);
+		}
+		return bytes;
+	}
+	
+	/**
+	 * Writes the given BigInteger as its two's-complement bytes. The value may be null.
+	 * @param out the output to write to.
+	 * @param value the value to write.
+	 * @throws IOException Any of the usual Input/Output related exceptions.
+	 */
+	public static void writeBigInteger(ObjectOutput out, BigInteger value) throws IOException{
+		writeByteArray(out, (value == null) ? null : value.toByteArray());
+	}
+	
+	/**
+	 * Reads a BigInteger that was written by {@link #writeBigInteger(ObjectOutput, BigInteger)}.
+	 * @param in the input to read from.
+	 * @return the read value. May be null.
+	 * @throws IOException Any of the usual Input/Output related exceptions.
+	 */
+	public static BigInteger readBigInteger(ObjectInput in) throws IOException{
+		byte[] bytes = readByteArray(in);
+		if (bytes == null){
+			return null;
+		}
+		if (bytes.length == 0){
+			throw new IOException("malformed BigInteger");
+		}
+		return new BigInteger(bytes);
+	}
+	
+	/**
+	 * Writes the given non negative BigInteger as its unsigned bytes, padded with leading zeros to the given length. 
+	 * This gives a fixed size to values that are bounded by a known modulus. The value may be null.
+	 * @param out the output to write to.
+	 * @param value the value to write.
+	 * @param length the minimal number of bytes to write the value in.
+	 * @throws IOException Any of the usual Input/Output related exceptions.
+	 */
+	public static void writeUnsignedBigInteger(ObjectOutput out, BigInteger value, int length) throws IOException{
+		if (value == null){
+			writeByteArray(out, null);
+			return;
+		}
+		if (value.signum() < 0){
+			throw new IllegalArgumentException("value should be non negative");
+		}
+		byte[] bytes = value.toByteArray();
+		//Remove the sign byte, if there is one.
+		int offset = (bytes.length > 1 && bytes[0] == 0) ? 1 : 0;
+		int size = Math.max(length, bytes.length - offset);
+		writeSize(out, size + 1);
+		for (int i = bytes.length - offset; i < size; i++){
+			out.writeByte(0);
+		}
+		out.write(bytes, offset, bytes.length - offset);
+	}
+	
+	/**
+	 * Reads a BigInteger that was written by {@link #writeUnsignedBigInteger(ObjectOutput, BigInteger, int)}.
+	 * @param in the input to read from.
+	 * @return the read value. May be null.
+	 * @throws IOException Any of the usual Input/Output related exceptions.
+	 */
+	public static BigInteger readUnsignedBigInteger(ObjectInput in) throws IOException{
+		byte[] bytes = readByteArray(in);
+		if (bytes == null){
+			return null;
+		}
+		return new BigInteger(1, bytes);
+	}
+	
+	/**
+	 * Writes the given group element data. EC and Zp elements are written as their coordinates; other implementations 
+	 * are written using the regular serialization. The data may be null.
+	 * @param out the output to write to.
+	 * @param data the data to write.
+	 * @throws IOException Any of the usual Input/Output related exceptions.
+	 */
+	public static void writeSendableData(ObjectOutput out, GroupElementSendableData data) throws IOException{
+		//Check the exact class, since a subclass may hold additional data.
+		if (data == null){
+			out.writeByte(NULL_TAG);
+		} else if (data.getClass() == ECElementSendableData.class){
+			out.writeByte(EC_TAG);
+			((ECElementSendableData) data).writeExternal(out);
+		} else if (data.getClass() == ZpElementSendableData.class){
+			out.writeByte(ZP_TAG);
+			((ZpElementSendableData) data).writeExternal(out);
+		} else{
+			out.writeByte(OBJECT_TAG);
+			out.writeObject(data);
+		}
+	}
+	
+	/**
+	 * Reads group element data that was written by {@link #writeSendableData(ObjectOutput, GroupElementSendableData)}.
+	 * @param in the input to read from.
+	 * @return the read data. May be null.
+	 * @throws IOException Any of the usual Input/Output related exceptions.
+	 * @throws ClassNotFoundException if the class of a serialized element cannot be found.
+	 */
+	public static GroupElementSendableData readSendableData(ObjectInput in) throws IOException, ClassNotFoundException{
+		byte tag = in.readByte();
+		switch (tag){
+			case NULL_TAG:
+				return null;
+			case EC_TAG:
+				ECElementSendableData ec = new ECElementSendableData();
+				ec.readExternal(in);
+				return ec;
+			case ZP_TAG:
+				ZpElementSendableData zp = new ZpElementSendableData();
+				zp.readExternal(in);
+				return zp;
+			case OBJECT_TAG:
+				return (GroupElementSendableData) in.readObject();
+			default:
+				throw new IOException("unknown group element tag " + tag);
+		}
+	}
+	
+	/**
+	 * Writes the given list of group elements data contiguously. The list may be null.
+	 * @param out the output to write to.
+	 * @param list the list to write.
+	 * @throws IOException Any of the usual Input/Output related exceptions.
+	 */
+	public static void writeSendableDataList(ObjectOutput out, List<? extends GroupElementSendableData> list) throws IOException{
+		if (list == null){
+			writeSize(out, 0);
+		} else{
+			int size = list.size();
+			writeSize(out, size + 1);
+			for (int i = 0; i < size; i++){
+				writeSendableData(out, list.get(i));
+			}
+		}
+	}
+	
+	/**
+	 * Reads a list of group elements data that was written by {@link #writeSendableDataList(ObjectOutput, List)}.
+	 * @param in the input to read from.
+	 * @return the read list. May be null.
+	 * @throws IOException Any of the usual Input/Output related exceptions.
+	 * @throws ClassNotFoundException if the class of a serialized element cannot be found.
+	 */
+	public static ArrayList<GroupElementSendableData> readSendableDataList(ObjectInput in) throws IOException, ClassNotFoundException{
+		int size = readSize(in);
+		if (size == 0){
+			return null;
+		}
+		ArrayList<GroupElementSendableData> list = new ArrayList<GroupElementSendableData>(Math.min(size - 1, 1024));
+		for (int i = 0; i < size - 1; i++){
+			list.add(readSendableData(in));
+		}
+		return list;
+	}
+}
@@ -26,27 +26,71 @@
 
 package edu.biu.scapi.primitives.dlog;
 
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.math.BigInteger;
 
 /**
+ * This class holds the value of a Zp element.<p>
+ * It is written using {@link SendableDataCodec} instead of the default serialization, in order to send only the bytes 
+ * of the value. If the data was created with the modulus of the group, the value is written in the fixed length of p.
+ * Data that is read keeps the length it was written in, so that writing it again gives the same bytes as the sender wrote. 
+ * This matters to protocols that hash the serialized messages, such as the Fiat-Shamir transformation.
+ * 
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Yael Ejgenberg)
  *
  */
-public class ZpElementSendableData implements GroupElementSendableData {
+public class ZpElementSendableData implements GroupElementSendableData, Externalizable {
 
 	private static final long serialVersionUID = -4297988366522382659L;
 
 	BigInteger x;
+	int length;	//The number of bytes to which the value is padded when it is written. 0 if unknown.
 
+	/**
+	 * Empty constructor, used by the de-serialization.
+	 */
+	public ZpElementSendableData() {
+		super();
+	}
+	
 	public ZpElementSendableData(BigInteger x) {
 		super();
 		this.x = x;
 	}
+	
+	/**
+	 * Constructor that gets the value and the modulus of the group, which sets the length of the written value.
+	 * @param x the value of the element.
+	 * @param p the modulus of the group.
+	 */
+	public ZpElementSendableData(BigInteger x, BigInteger p) {
+		this(x);
+		length = (p.bitLength() + 7) / 8;
+	}
 
 	public BigInteger getX() {
 		return x;
 	}
 
+	public void writeExternal(ObjectOutput out) throws IOException {
+		SendableDataCodec.writeUnsignedBigInteger(out, x, length);
+	}
+	
+	public void readExternal(ObjectInput in) throws IOException {
+		byte[] bytes = SendableDataCodec.readByteArray(in);
+		if (bytes == null){
+			x = null;
+			length = 0;
+		} else{
+			//Keep the written length, including the leading zeros.
+			x = new BigInteger(1, bytes);
+			length = bytes.length;
+		}
+	}
+
 	@Override
 	public String toString() {
 		return "ZpElementSendableData [x=" + x + "]";
@@ -197,8 +197,16 @@ public abstract class BcAdapterDlogEC extends DlogGroupEC
 				throw new IllegalArgumentException("groupElement doesn't match the DlogGroup");
 			}
 		}
-		//Our test results show that for BC elliptic curve the LL algorithm always gives the best performances
-		return computeLL(groupElements, exponentiations);
+		//Our test results show that for BC elliptic curve the LL algorithm gives the best performances for small inputs. Large inputs use the bucket method.
+		return computeMultipleExponentiations(groupElements, exponentiations);
+	}
+	
+	/**
+	 * BC elliptic curves are implemented in Java and keep no mutable state in the group, so they can be used by several threads concurrently.
+	 */
+	@Override
+	protected boolean supportsConcurrentOperations() {
+		return true;
 	}
 	
 	/*
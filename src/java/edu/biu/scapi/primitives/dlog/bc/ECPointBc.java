@@ -99,7 +99,8 @@ public abstract class ECPointBc implements ECElement{
 	 */
 	@Override
 	public GroupElementSendableData generateSendableData() {
-		return new ECElementSendableData(getX(), getY());
+		//BC's compressed encoding is the one of ECFpUtility and ECF2mUtility, in the fixed length of the field.
+		return new ECElementSendableData(getX(), getY(), isInfinity() ? null : point.getEncoded(true));
 	}
 	
 	@Override
@@ -169,10 +169,10 @@ public class CryptoPpDlogZpSafePrime extends DlogGroupAbs implements DlogZpSafeP
 
 		// get the generator value
 		long pGenerator = getGenerator(pointerToGroup);
+		BigInteger p = new BigInteger(getP(pointerToGroup));
 		//create the GroupElement - generator with the pointer that returned from the native function
-		generator = new ZpSafePrimeElementCryptoPp(pGenerator);
+		generator = new ZpSafePrimeElementCryptoPp(pGenerator, p);
 
-		BigInteger p = new BigInteger(getP(pointerToGroup));
 		BigInteger q = new BigInteger(getQ(pointerToGroup));
 		BigInteger xG = ((ZpElement) generator).getElementValue();
 
@@ -266,8 +266,15 @@ public class CryptoPpDlogZpSafePrime extends DlogGroupAbs implements DlogZpSafeP
 	 * @return true if valid, false otherwise.
 	 */
 	public boolean validateGroup() {
-
-		return validateZpGroup(pointerToGroup);
+		//The parameters were already validated by this object or by a previous process that used the same precomputation store.
+		if (isGroupValidated()) {
+			return true;
+		}
+		boolean valid = validateZpGroup(pointerToGroup);
+		if (valid) {
+			setGroupValidated();
+		}
+		return valid;
 	}
 
 	/**
@@ -283,7 +290,7 @@ public class CryptoPpDlogZpSafePrime extends DlogGroupAbs implements DlogZpSafeP
 			long invertVal = inverseElement(pointerToGroup, ((ZpSafePrimeElementCryptoPp) groupElement).getPointerToElement());
 			
 			//build a ZpElementCryptoPp element from the result value
-			ZpSafePrimeElementCryptoPp inverseElement = new ZpSafePrimeElementCryptoPp(invertVal);
+			ZpSafePrimeElementCryptoPp inverseElement = new ZpSafePrimeElementCryptoPp(invertVal, ((ZpGroupParams) groupParams).getP());
 			
 			return inverseElement;
 			
@@ -304,7 +311,7 @@ public class CryptoPpDlogZpSafePrime extends DlogGroupAbs implements DlogZpSafeP
 			long exponentiateVal = exponentiateElement(pointerToGroup, ((ZpSafePrimeElementCryptoPp) base).getPointerToElement(), exponent.toByteArray());
 			
 			//build a ZpElementCryptoPp element from the result value
-			ZpSafePrimeElementCryptoPp exponentiateElement = new ZpSafePrimeElementCryptoPp(exponentiateVal);
+			ZpSafePrimeElementCryptoPp exponentiateElement = new ZpSafePrimeElementCryptoPp(exponentiateVal, ((ZpGroupParams) groupParams).getP());
 			
 			return exponentiateElement;
 			
@@ -328,7 +335,7 @@ public class CryptoPpDlogZpSafePrime extends DlogGroupAbs implements DlogZpSafeP
 										  ((ZpSafePrimeElementCryptoPp) groupElement2).getPointerToElement());
 
 			// build a ZpElementCryptoPp element from the result value
-			ZpSafePrimeElementCryptoPp mulElement = new ZpSafePrimeElementCryptoPp(mulVal);
+			ZpSafePrimeElementCryptoPp mulElement = new ZpSafePrimeElementCryptoPp(mulVal, ((ZpGroupParams) groupParams).getP());
 			
 			return mulElement;
 			
@@ -44,6 +44,7 @@ import edu.biu.scapi.primitives.dlog.ZpSafePrimeElement;
 public class ZpSafePrimeElementCryptoPp implements ZpSafePrimeElement {
 
 	private long pointerToElement;
+	private BigInteger p;	//The safe prime of the group, which sets the length of the sendable data.
 
 	private native long getPointerToElement(byte[] element);
 	private native long deleteElement(long element);
@@ -57,6 +58,7 @@ public class ZpSafePrimeElementCryptoPp implements ZpSafePrimeElement {
 	 * @throws IllegalArgumentException
 	 */
 	ZpSafePrimeElementCryptoPp(BigInteger x, BigInteger p, Boolean bCheckMembership) throws IllegalArgumentException{
+		this.p = p;
 		if(bCheckMembership){
 			BigInteger q = p.subtract(BigInteger.ONE).divide(new BigInteger("2"));
 			//if the element is in the expected range, set it. else, throw exception
@@ -97,6 +99,7 @@ public class ZpSafePrimeElementCryptoPp implements ZpSafePrimeElement {
 	 * @throws IllegalArgumentException
 	 */
 	ZpSafePrimeElementCryptoPp(BigInteger p, SecureRandom random){
+		this.p = p;
 		BigInteger element = null;
 		// find a number in the range [1, ..., p-1]
 		element = BigIntegers.createRandomInRange(BigInteger.ONE, p.subtract(BigInteger.ONE), random);
@@ -112,9 +115,11 @@ public class ZpSafePrimeElementCryptoPp implements ZpSafePrimeElement {
 	 * Only our inner functions uses this constructor to set an element. 
 	 * The long value is a pointer which excepted by our native functions.
 	 * @param ptr
+	 * @param p safe prime of the group.
 	 */
-	ZpSafePrimeElementCryptoPp(long ptr) {
+	ZpSafePrimeElementCryptoPp(long ptr, BigInteger p) {
 		pointerToElement = ptr;
+		this.p = p;
 	}
 
 	/*
@@ -188,6 +193,6 @@ public class ZpSafePrimeElementCryptoPp implements ZpSafePrimeElement {
 	 */
 	@Override
 	public GroupElementSendableData generateSendableData() {
-		return new ZpElementSendableData(getElementValue());
+		return new ZpElementSendableData(getElementValue(), p);
 	}
 }
@@ -31,7 +31,9 @@ import java.math.BigInteger;
 import edu.biu.scapi.primitives.dlog.ECElement;
 import edu.biu.scapi.primitives.dlog.ECElementSendableData;
 import edu.biu.scapi.primitives.dlog.ECF2mPoint;
+import edu.biu.scapi.primitives.dlog.ECF2mUtility;
 import edu.biu.scapi.primitives.dlog.GroupElementSendableData;
+import edu.biu.scapi.primitives.dlog.groupParams.ECF2mGroupParams;
 /**
  * This class is an adapter for F2m points of miracl
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Moriya Farbstein)
@@ -59,6 +61,7 @@ public class ECF2mPointMiracl implements ECElement, ECF2mPoint{
 	private long mip = 0;
 	private String curveName;
 	private String fileName;
+	private ECF2mGroupParams params;	//The parameters of the curve, used to compress the point.
 	
 	/**
 	 * Constructor that accepts x,y values of a point. 
@@ -73,6 +76,7 @@ public class ECF2mPointMiracl implements ECElement, ECF2mPoint{
 	ECF2mPointMiracl(BigInteger x, BigInteger y, MiraclDlogECF2m curve){
 		
 		mip = curve.getMip();
+		params = (ECF2mGroupParams) curve.getGroupParams();
 		curveName = curve.getCurveName();
 		fileName = curve.getFileName();
 		
@@ -98,6 +102,7 @@ public class ECF2mPointMiracl implements ECElement, ECF2mPoint{
 	ECF2mPointMiracl(long ptr, MiraclDlogECF2m curve){
 		this.point = ptr;
 		mip = curve.getMip();
+		params = (ECF2mGroupParams) curve.getGroupParams();
 		curveName = curve.getCurveName();
 		fileName = curve.getFileName();
 		//Set X and Y coordinates:
@@ -142,7 +147,7 @@ public class ECF2mPointMiracl implements ECElement, ECF2mPoint{
 	 */
 	@Override
 	public GroupElementSendableData generateSendableData() {
-		return new ECElementSendableData(getX(), getY());
+		return new ECElementSendableData(getX(), getY(), isInfinity() ? null : new ECF2mUtility().compressPoint(params, getX(), getY()));
 	}
 	
 	@Override
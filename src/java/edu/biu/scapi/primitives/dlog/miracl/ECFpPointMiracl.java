@@ -31,7 +31,9 @@ import java.math.BigInteger;
 import edu.biu.scapi.primitives.dlog.ECElement;
 import edu.biu.scapi.primitives.dlog.ECElementSendableData;
 import edu.biu.scapi.primitives.dlog.ECFpPoint;
+import edu.biu.scapi.primitives.dlog.ECFpUtility;
 import edu.biu.scapi.primitives.dlog.GroupElementSendableData;
+import edu.biu.scapi.primitives.dlog.groupParams.ECFpGroupParams;
 
 /**
  * This class is an adapter for Fp points of miracl
@@ -58,6 +60,7 @@ public class ECFpPointMiracl implements ECElement, ECFpPoint{
 	private BigInteger x;
 	private BigInteger y;
 	private long mip;
+	private ECFpGroupParams params;	//The parameters of the curve, used to compress the point.
 	
 	 
 	/**
@@ -72,6 +75,7 @@ public class ECFpPointMiracl implements ECElement, ECFpPoint{
 	 */
 	ECFpPointMiracl(BigInteger x, BigInteger y, MiraclDlogECFp curve) throws IllegalArgumentException{
 		mip = curve.getMip();
+		params = (ECFpGroupParams) curve.getGroupParams();
 		
 		//Create a point in the field with the given parameters, done by Miracl's native code.
 		//Miracl always checks validity of (x,y).
@@ -94,6 +98,7 @@ public class ECFpPointMiracl implements ECElement, ECFpPoint{
 	ECFpPointMiracl(long ptr, MiraclDlogECFp curve){
 		this.point = ptr;
 		mip = curve.getMip();
+		params = (ECFpGroupParams) curve.getGroupParams();
 		//Set X and Y coordinates:
 		//in case of infinity, there are no coordinates and we set them to null
 		if (checkInfinityFp(ptr)){
@@ -135,7 +140,7 @@ public class ECFpPointMiracl implements ECElement, ECFpPoint{
 	 */
 	@Override
 	public GroupElementSendableData generateSendableData() {
-		return new ECElementSendableData(getX(), getY());
+		return new ECElementSendableData(getX(), getY(), isInfinity() ? null : new ECFpUtility().compressPoint(params, getX(), getY()));
 	}
 	
 	@Override
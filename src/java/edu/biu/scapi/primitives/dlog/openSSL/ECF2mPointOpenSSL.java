@@ -28,7 +28,9 @@ import java.math.BigInteger;
 
 import edu.biu.scapi.primitives.dlog.ECElementSendableData;
 import edu.biu.scapi.primitives.dlog.ECF2mPoint;
+import edu.biu.scapi.primitives.dlog.ECF2mUtility;
 import edu.biu.scapi.primitives.dlog.GroupElementSendableData;
+import edu.biu.scapi.primitives.dlog.groupParams.ECF2mGroupParams;
 
 /**
  * This class is an adapter for F2m points of OpenSSL library.
@@ -57,6 +59,7 @@ public class ECF2mPointOpenSSL implements ECF2mPoint{
 	//class is immutable and once it is constructed there is not external way of re-setting the X and Y coordinates.
 	private BigInteger x;
 	private BigInteger y;
+	private ECF2mGroupParams params;	//The parameters of the curve, used to compress the point.
 	
 	/**
 	 * Constructor that accepts x,y values of a point. 
@@ -70,6 +73,7 @@ public class ECF2mPointOpenSSL implements ECF2mPoint{
 	 */
 	ECF2mPointOpenSSL(BigInteger x, BigInteger y, OpenSSLDlogECF2m curve, boolean bCheckMembership) throws IllegalArgumentException{
 		//Create a point in the field with the given parameters, done by OpenSSL's native code.
+		params = (ECF2mGroupParams) curve.getGroupParams();
 		point = createPoint(curve.getCurve(), x.toByteArray(), y.toByteArray());
 		//If the validity check done by OpenSSL did not succeed, then createF2mPoint returns 0,
 		//indicating that this is not a valid point
@@ -94,19 +98,21 @@ public class ECF2mPointOpenSSL implements ECF2mPoint{
 	 * Constructor that gets an element and sets it. 
 	 * Our inner functions only use this constructor to set an element. 
 	 * The point is a result of our DlogGroup functions, such as multiply.
+	 * @param curve the DlogGroup of the point.
 	 * @param point native element that need to be set.
 	 */
-	ECF2mPointOpenSSL(long curve, long point) {
+	ECF2mPointOpenSSL(OpenSSLDlogECF2m curve, long point) {
 		this.point = point;
+		params = (ECF2mGroupParams) curve.getGroupParams();
 		
-		if (checkInfinity(curve, point)){
+		if (checkInfinity(curve.getCurve(), point)){
 			x = null;
 			y = null;
 		} else{
 			//Set X and Y coordinates:
 			//in case of infinity, there are no coordinates and we set them to null
-			x = new BigInteger(1, getX(curve, point));
-			y = new BigInteger(1, getY(curve, point));
+			x = new BigInteger(1, getX(curve.getCurve(), point));
+			y = new BigInteger(1, getY(curve.getCurve(), point));
 		}
 	}
 	
@@ -144,7 +150,7 @@ public class ECF2mPointOpenSSL implements ECF2mPoint{
 
 	@Override
 	public GroupElementSendableData generateSendableData() {
-		return new ECElementSendableData(getX(), getY());
+		return new ECElementSendableData(getX(), getY(), isInfinity() ? null : new ECF2mUtility().compressPoint(params, getX(), getY()));
 	}
 	
 	/**
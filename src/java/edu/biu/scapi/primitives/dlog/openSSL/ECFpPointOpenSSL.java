@@ -59,6 +59,7 @@ public class ECFpPointOpenSSL implements ECFpPoint{
 	//this class is immutable and once it is constructed there is not external way of re-setting the X and Y coordinates.
 	private BigInteger x;
 	private BigInteger y;
+	private ECFpGroupParams params;	//The parameters of the curve, used to compress the point.
 	
 	/**
 	 * Constructor that accepts x,y values of a point. 
@@ -79,6 +80,7 @@ public class ECFpPointOpenSSL implements ECFpPoint{
 				throw new IllegalArgumentException("x, y values are not a point on this curve");
 		}
 		//Create a point in the field with the given parameters, done by OpenSSL's native code.
+		params = (ECFpGroupParams) curve.getGroupParams();
 		point = createPoint(curve.getCurve(), x.toByteArray(), y.toByteArray());
 		//If the validity check done by OpenSSL did not succeed, then createFpPoint returns 0,
 		//indicating that this is not a valid point
@@ -93,19 +95,21 @@ public class ECFpPointOpenSSL implements ECFpPoint{
 	 * Constructor that gets an element and sets it. 
 	 * Our inner functions only use this constructor to set an element. 
 	 * The point is a result of our DlogGroup functions, such as multiply.
+	 * @param curve the DlogGroup of the point.
 	 * @param point native element that need to be set.
 	 */
-	ECFpPointOpenSSL(long curve, long point) {
+	ECFpPointOpenSSL(OpenSSLDlogECFp curve, long point) {
 		this.point = point;
+		params = (ECFpGroupParams) curve.getGroupParams();
 		
-		if (checkInfinity(curve, point)){
+		if (checkInfinity(curve.getCurve(), point)){
 			x = null;
 			y = null;
 		} else{
 			//Set X and Y coordinates:
 			//in case of infinity, there are no coordinates and we set them to null
-			x = new BigInteger(1, getX(curve, point));
-			y = new BigInteger(1, getY(curve, point));
+			x = new BigInteger(1, getX(curve.getCurve(), point));
+			y = new BigInteger(1, getY(curve.getCurve(), point));
 		}
 	}
 	
@@ -143,7 +147,7 @@ public class ECFpPointOpenSSL implements ECFpPoint{
 
 	@Override
 	public GroupElementSendableData generateSendableData() {
-		return new ECElementSendableData(getX(), getY());
+		return new ECElementSendableData(getX(), getY(), isInfinity() ? null : new ECFpUtility().compressPoint(params, getX(), getY()));
 	}
 	
 	/**
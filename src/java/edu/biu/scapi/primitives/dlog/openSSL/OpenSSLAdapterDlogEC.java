@@ -110,7 +110,15 @@ public abstract class OpenSSLAdapterDlogEC extends DlogGroupEC{
 	
 	@Override
 	public boolean validateGroup(){
-		return validate(curve);
+		//The parameters were already validated by this object or by a previous process that used the same precomputation store.
+		if (isGroupValidated()) {
+			return true;
+		}
+		boolean valid = validate(curve);
+		if (valid) {
+			setGroupValidated();
+		}
+		return valid;
 	}
 	
 	/**
@@ -149,7 +149,7 @@ public class OpenSSLDlogECF2m extends OpenSSLAdapterDlogEC implements DlogECF2m,
 	public ECElement getInfinity() {
 		//Create an infinity point and return it.
 		long infinity = createInfinityPoint(curve);
-		return new ECF2mPointOpenSSL(curve, infinity);
+		return new ECF2mPointOpenSSL(this, infinity);
 	}
 
 	/**
@@ -175,7 +175,7 @@ public class OpenSSLDlogECF2m extends OpenSSLAdapterDlogEC implements DlogECF2m,
 		// Call the native inverse function.
 		long result = inversePoint(curve, point);
 		// Build a ECF2mPointOpenSSL element from the result.
-		return new ECF2mPointOpenSSL(curve, result);
+		return new ECF2mPointOpenSSL(this, result);
 	}
 
 	@Override
@@ -200,7 +200,7 @@ public class OpenSSLDlogECF2m extends OpenSSLAdapterDlogEC implements DlogECF2m,
 		// Call the native exponentiate function.
 		long result = exponentiate(curve, point, exponent.toByteArray());
 		// Build a ECF2mPointOpenSSL element from the result.
-		return new ECF2mPointOpenSSL(curve, result);
+		return new ECF2mPointOpenSSL(this, result);
 	}
 
 	@Override
@@ -227,7 +227,7 @@ public class OpenSSLDlogECF2m extends OpenSSLAdapterDlogEC implements DlogECF2m,
 		// Call the native multiply function.
 		long result = multiply(curve, point1, point2);
 		// Build a ECF2mPointOpenSSL element from the result.
-		return new ECF2mPointOpenSSL(curve, result);
+		return new ECF2mPointOpenSSL(this, result);
 
 	}
 
@@ -341,7 +341,7 @@ public class OpenSSLDlogECF2m extends OpenSSLAdapterDlogEC implements DlogECF2m,
 		// Call the native exponentiate function.
 		long result = exponentiateWithPreComputedValues(curve, exponent.toByteArray());
 		// Build a ECF2mPointOpenSSL element from the result.
-		return new ECF2mPointOpenSSL(curve, result);
+		return new ECF2mPointOpenSSL(this, result);
 		
 	}
 }
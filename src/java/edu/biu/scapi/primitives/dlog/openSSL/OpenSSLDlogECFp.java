@@ -128,7 +128,7 @@ public class OpenSSLDlogECFp extends OpenSSLAdapterDlogEC implements DlogECFp, D
 	public ECElement getInfinity() {
 		//Create an infinity point and return it.
 		long infinity = createInfinityPoint(curve);
-		return new ECFpPointOpenSSL(curve, infinity);
+		return new ECFpPointOpenSSL(this, infinity);
 	}
 
 	/**
@@ -155,7 +155,7 @@ public class OpenSSLDlogECFp extends OpenSSLAdapterDlogEC implements DlogECFp, D
 		// Call the native inverse function.
 		long result = inversePoint(curve, point);
 		// Build a ECFpPointOpenSSL element from the result.
-		return new ECFpPointOpenSSL(curve, result);
+		return new ECFpPointOpenSSL(this, result);
 	}
 
 	@Override
@@ -180,7 +180,7 @@ public class OpenSSLDlogECFp extends OpenSSLAdapterDlogEC implements DlogECFp, D
 		// Call the native exponentiate function.
 		long result = exponentiate(curve, point, exponent.toByteArray());
 		// Build a ECFpPointOpenSSL element from the result.
-		return new ECFpPointOpenSSL(curve, result);
+		return new ECFpPointOpenSSL(this, result);
 	}
 
 	@Override
@@ -207,7 +207,7 @@ public class OpenSSLDlogECFp extends OpenSSLAdapterDlogEC implements DlogECFp, D
 		// Call the native multiply function.
 		long result = multiply(curve, point1, point2);
 		// Build a ECFpPointOpenSSL element from the result.
-		return new ECFpPointOpenSSL(curve, result);
+		return new ECFpPointOpenSSL(this, result);
 
 	}
 
@@ -268,7 +268,7 @@ public class OpenSSLDlogECFp extends OpenSSLAdapterDlogEC implements DlogECFp, D
 		// Call the native simultaneousMultiply function.
 		long result = simultaneousMultiply(curve, nativePoints, exponents);
 		// Build a ECFpPointOpenSSL element from the result value.
-		return new ECFpPointOpenSSL(curve, result);
+		return new ECFpPointOpenSSL(this, result);
 	}
 
 	@Override
@@ -281,7 +281,7 @@ public class OpenSSLDlogECFp extends OpenSSLAdapterDlogEC implements DlogECFp, D
 			return null;
 		
 		 // Build a ECFpPointOpenSSL element from the result.
-		return new ECFpPointOpenSSL(curve, point);
+		return new ECFpPointOpenSSL(this, point);
 	}
 
 	@Override
@@ -334,6 +334,6 @@ public class OpenSSLDlogECFp extends OpenSSLAdapterDlogEC implements DlogECFp, D
 		// Call the native exponentiate function.
 		long result = exponentiateWithPreComputedValues(curve, exponent.toByteArray());
 		// Build a ECFpPointOpenSSL element from the result.
-		return new ECFpPointOpenSSL(curve, result);
+		return new ECFpPointOpenSSL(this, result);
 	}
 }
\ No newline at end of file
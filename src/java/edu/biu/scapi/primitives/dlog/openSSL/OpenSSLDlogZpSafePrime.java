@@ -165,11 +165,11 @@ public class OpenSSLDlogZpSafePrime extends DlogGroupAbs implements DlogZpSafePr
 		dlog = createRandomDlogZp(numBits);
 		// Get the generator value.
 		long pGenerator = getGenerator(dlog);
-		//Create the GroupElement - generator with the pointer that returned from the native function.
-		generator = new OpenSSLZpSafePrimeElement(pGenerator);
-		
 		//Get the generated parameters and create a ZpGroupParams object.
 		BigInteger p = new BigInteger(1, getP(dlog));
+		//Create the GroupElement - generator with the pointer that returned from the native function.
+		generator = new OpenSSLZpSafePrimeElement(pGenerator, p);
+		
 		BigInteger q = new BigInteger(1, getQ(dlog));
 		BigInteger xG = ((ZpElement) generator).getElementValue();
 		groupParams = new ZpGroupParams(q, xG, p);
@@ -273,8 +273,15 @@ public class OpenSSLDlogZpSafePrime extends DlogGroupAbs implements DlogZpSafePr
 	 * @return true if valid, false otherwise.
 	 */
 	public boolean validateGroup() {
-
-		return validateZpGroup(dlog);
+		//The parameters were already validated by this object or by a previous process that used the same precomputation store.
+		if (isGroupValidated()) {
+			return true;
+		}
+		boolean valid = validateZpGroup(dlog);
+		if (valid) {
+			setGroupValidated();
+		}
+		return valid;
 	}
 
 	/**
@@ -293,7 +300,7 @@ public class OpenSSLDlogZpSafePrime extends DlogGroupAbs implements DlogZpSafePr
 		long invertVal = inverseElement(dlog, ((OpenSSLZpSafePrimeElement) groupElement).getNativeElement());
 		
 		//Build an OpenSSLZpSafePrimeElement element with the result value.
-		OpenSSLZpSafePrimeElement inverseElement = new OpenSSLZpSafePrimeElement(invertVal);
+		OpenSSLZpSafePrimeElement inverseElement = new OpenSSLZpSafePrimeElement(invertVal, ((ZpGroupParams) groupParams).getP());
 		
 		return inverseElement;
 			
@@ -310,7 +317,7 @@ public class OpenSSLDlogZpSafePrime extends DlogGroupAbs implements DlogZpSafePr
 		long exponentiateVal = exponentiateElement(dlog, ((OpenSSLZpSafePrimeElement) base).getNativeElement(), exponent.toByteArray());
 		
 		//Build an OpenSSLZpSafePrimeElement element with the result value.
-		OpenSSLZpSafePrimeElement exponentiateElement = new OpenSSLZpSafePrimeElement(exponentiateVal);
+		OpenSSLZpSafePrimeElement exponentiateElement = new OpenSSLZpSafePrimeElement(exponentiateVal, ((ZpGroupParams) groupParams).getP());
 		
 		return exponentiateElement;
 			
@@ -333,7 +340,7 @@ public class OpenSSLDlogZpSafePrime extends DlogGroupAbs implements DlogZpSafePr
 									  ((OpenSSLZpSafePrimeElement) groupElement2).getNativeElement());
 
 		// Build an OpenSSLZpSafePrimeElement element with the result value.
-		OpenSSLZpSafePrimeElement mulElement = new OpenSSLZpSafePrimeElement(mulVal);
+		OpenSSLZpSafePrimeElement mulElement = new OpenSSLZpSafePrimeElement(mulVal, ((ZpGroupParams) groupParams).getP());
 		
 		return mulElement;
 			
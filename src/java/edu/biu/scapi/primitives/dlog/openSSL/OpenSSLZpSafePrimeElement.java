@@ -43,6 +43,7 @@ import edu.biu.scapi.primitives.dlog.ZpSafePrimeElement;
 public class OpenSSLZpSafePrimeElement implements ZpSafePrimeElement{
 	
 	private long zpElement; // Pointer to the native element.
+	private BigInteger p;	//The safe prime of the group, which sets the length of the sendable data.
 
 	//Native functions that calls the OpenSSL functionalities.
 	private native long createElement(byte[] element);	//Creates the native element.
@@ -59,6 +60,7 @@ public class OpenSSLZpSafePrimeElement implements ZpSafePrimeElement{
 	 * @throws IllegalArgumentException
 	 */
 	OpenSSLZpSafePrimeElement(BigInteger x, BigInteger p, Boolean bCheckMembership) throws IllegalArgumentException{
+		this.p = p;
 		if(bCheckMembership){
 			BigInteger q = p.subtract(BigInteger.ONE).divide(new BigInteger("2"));
 			//If the element is in the expected range, set it. else, throw exception.
@@ -97,6 +99,7 @@ public class OpenSSLZpSafePrimeElement implements ZpSafePrimeElement{
 	 * @param random The source of randomness to use.
 	 */
 	OpenSSLZpSafePrimeElement(BigInteger p, SecureRandom random){
+		this.p = p;
 		BigInteger element = null;
 		// find a number in the range [1, ..., p-1]
 		element = BigIntegers.createRandomInRange(BigInteger.ONE, p.subtract(BigInteger.ONE), random);
@@ -112,9 +115,11 @@ public class OpenSSLZpSafePrimeElement implements ZpSafePrimeElement{
 	 * Only our inner functions uses this constructor to set an element. 
 	 * The long value is a pointer which excepted by our native functions.
 	 * @param ptr
+	 * @param p safe prime of the group.
 	 */
-	OpenSSLZpSafePrimeElement(long ptr) {
+	OpenSSLZpSafePrimeElement(long ptr, BigInteger p) {
 		zpElement = ptr;
+		this.p = p;
 	}
 
 	/*
@@ -184,7 +189,7 @@ public class OpenSSLZpSafePrimeElement implements ZpSafePrimeElement{
 	 */
 	@Override
 	public GroupElementSendableData generateSendableData() {
-		return new ZpElementSendableData(getElementValue());
+		return new ZpElementSendableData(getElementValue(), p);
 	}
 	
 	static {
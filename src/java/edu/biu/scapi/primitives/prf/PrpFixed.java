@@ -26,6 +26,8 @@
 
 package edu.biu.scapi.primitives.prf;
 
+import java.nio.ByteBuffer;
+
 /** 
  * General interface for pseudorandom permutation with fixed input and output lengths.
  * A pseudorandom permutation with fixed lengths predefined input and output lengths, and there is no need to specify it for each function call. 
@@ -34,4 +36,44 @@ package edu.biu.scapi.primitives.prf;
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Meital Levy)
  */
 public interface PrpFixed extends PseudorandomPermutation, PrfFixed {
+	
+	/** 
+	 * Computes the permutation on consecutive blocks using the given key. <p>
+	 * The result is the same as calling computeBlock(inBytes, inOff, outBytes, outOff) on each block, 
+	 * but the blocks are processed together, for example by one call to the native code or to the AES instructions of the processor.
+	 * @param inBytes input bytes to compute.
+	 * @param inOff input offset in the inBytes array, where the first block begins.
+	 * @param outBytes output bytes. The resulted bytes of compute. May be the inBytes array, with the same offset.
+	 * @param outOff output offset in the outBytes array to put the result from.
+	 * @param numBlocks the number of blocks to compute.
+	 * @throws IllegalStateException if no key was set.
+	 * @throws ArrayIndexOutOfBoundsException if the given offsets and number of blocks do not fit the arrays.
+	 */
+	public void computeBlocks(byte[] inBytes, int inOff, byte[] outBytes, int outOff, int numBlocks);
+	
+	/** 
+	 * Computes the permutation on consecutive blocks using the given key. <p>
+	 * The blocks are read from the current position of the input buffer and written at the current position of the output buffer. 
+	 * The positions of both buffers are advanced by the number of processed bytes.
+	 * @param inBuffer holds the input blocks.
+	 * @param outBuffer the buffer to put the result in.
+	 * @param numBlocks the number of blocks to compute.
+	 * @throws IllegalStateException if no key was set.
+	 * @throws java.nio.BufferUnderflowException if the input buffer does not have numBlocks blocks remaining.
+	 * @throws java.nio.BufferOverflowException if the output buffer does not have room for numBlocks blocks.
+	 */
+	public void computeBlocks(ByteBuffer inBuffer, ByteBuffer outBuffer, int numBlocks);
+	
+	/** 
+	 * Inverts the permutation on consecutive blocks using the given key. <p>
+	 * The result is the same as calling invertBlock(inBytes, inOff, outBytes, outOff) on each block, but the blocks are processed together.
+	 * @param inBytes input bytes to invert.
+	 * @param inOff input offset in the inBytes array, where the first block begins.
+	 * @param outBytes output bytes. The resulted bytes of invert. May be the inBytes array, with the same offset.
+	 * @param outOff output offset in the outBytes array to put the result from.
+	 * @param numBlocks the number of blocks to invert.
+	 * @throws IllegalStateException if no key was set.
+	 * @throws ArrayIndexOutOfBoundsException if the given offsets and number of blocks do not fit the arrays.
+	 */
+	public void invertBlocks(byte[] inBytes, int inOff, byte[] outBytes, int outOff, int numBlocks);
 }
@@ -26,6 +26,9 @@
 
 package edu.biu.scapi.primitives.prf;
 
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
 import java.security.InvalidKeyException;
 
 import javax.crypto.IllegalBlockSizeException;
@@ -167,4 +170,106 @@ public abstract class PrpFromPrfFixed implements PrpFixed {
 	}
 	
 	
+	/** 
+	 * Computes the permutation on consecutive blocks. <p>
+	 * The blocks are computed one by one, by the computeBlock function of the derived class.
+	 * 
+	 * @param inBytes input bytes to compute
+	 * @param inOff input offset in the inBytes array, where the first block begins
+	 * @param outBytes output bytes. The resulted bytes of compute. May be the inBytes array, with the same offset.
+	 * @param outOff output offset in the outBytes array to put the result from
+	 * @param numBlocks the number of blocks to compute
+	 */
+	public void computeBlocks(byte[] inBytes, int inOff, byte[] outBytes, int outOff, int numBlocks){
+		int len = checkBlocks(inBytes, inOff, outBytes, outOff, numBlocks);
+		for (int i = 0; i < len; i += getBlockSize()){
+			try {
+				computeBlock(inBytes, inOff + i, outBytes, outOff + i);
+			} catch (IllegalBlockSizeException e) {
+				// Should not occur since the blocks are of the block size.
+				throw new IllegalStateException(e);
+			}
+		}
+	}
+	
+	/** 
+	 * Computes the permutation on consecutive blocks, from the position of the input buffer to the position of the output buffer.
+	 * The positions of both buffers are advanced by the number of processed bytes.
+	 * 
+	 * @param inBuffer holds the input blocks
+	 * @param outBuffer the buffer to put the result in
+	 * @param numBlocks the number of blocks to compute
+	 */
+	public void computeBlocks(ByteBuffer inBuffer, ByteBuffer outBuffer, int numBlocks){
+		if (!isKeySet()){
+			throw new IllegalStateException("secret key isn't set");
+		}
+		if (numBlocks < 0){
+			throw new IllegalArgumentException("the number of blocks should not be negative");
+		}
+		int len = numBlocks * getBlockSize();
+		if (inBuffer.remaining() < len){
+			throw new BufferUnderflowException();
+		}
+		if (outBuffer.remaining() < len){
+			throw new BufferOverflowException();
+		}
+		if (inBuffer.hasArray() && outBuffer.hasArray()){
+			//computes directly on the arrays of the buffers
+			computeBlocks(inBuffer.array(), inBuffer.arrayOffset() + inBuffer.position(), outBuffer.array(), outBuffer.arrayOffset() + outBuffer.position(), numBlocks);
+			inBuffer.position(inBuffer.position() + len);
+			outBuffer.position(outBuffer.position() + len);
+		} else {
+			//direct buffers are copied to an array
+			byte[] blocks = new byte[len];
+			inBuffer.get(blocks);
+			computeBlocks(blocks, 0, blocks, 0, numBlocks);
+			outBuffer.put(blocks);
+		}
+	}
+	
+	/** 
+	 * Inverts the permutation on consecutive blocks. <p>
+	 * The blocks are inverted one by one, by the invertBlock function of the derived class.
+	 * 
+	 * @param inBytes input bytes to invert
+	 * @param inOff input offset in the inBytes array, where the first block begins
+	 * @param outBytes output bytes. The resulted bytes of invert. May be the inBytes array, with the same offset.
+	 * @param outOff output offset in the outBytes array to put the result from
+	 * @param numBlocks the number of blocks to invert
+	 */
+	public void invertBlocks(byte[] inBytes, int inOff, byte[] outBytes, int outOff, int numBlocks){
+		int len = checkBlocks(inBytes, inOff, outBytes, outOff, numBlocks);
+		for (int i = 0; i < len; i += getBlockSize()){
+			try {
+				invertBlock(inBytes, inOff + i, outBytes, outOff + i);
+			} catch (IllegalBlockSizeException e) {
+				// Should not occur since the blocks are of the block size.
+				throw new IllegalStateException(e);
+			}
+		}
+	}
+	
+	/**
+	 * Checks that the key is set and that the given blocks fit the given arrays.
+	 * @return the number of bytes in the given blocks.
+	 */
+	private int checkBlocks(byte[] inBytes, int inOff, byte[] outBytes, int outOff, int numBlocks){
+		if (!isKeySet()){
+			throw new IllegalStateException("secret key isn't set");
+		}
+		if (numBlocks < 0){
+			throw new IllegalArgumentException("the number of blocks should not be negative");
+		}
+		int len = numBlocks * getBlockSize();
+		// checks that the offsets and length are correct 
+		if ((inOff < 0) || (inOff+len > inBytes.length)){
+			throw new ArrayIndexOutOfBoundsException("wrong offset for the given input buffer");
+		}
+		if ((outOff < 0) || (outOff+len > outBytes.length)){
+			throw new ArrayIndexOutOfBoundsException("wrong offset for the given output buffer");
+		}
+		return len;
+	}
+	
 }
@@ -26,14 +26,20 @@
 
 package edu.biu.scapi.primitives.prf.bc;
 
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
 import java.security.InvalidKeyException;
 import java.security.InvalidParameterException;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 
+import javax.crypto.Cipher;
 import javax.crypto.IllegalBlockSizeException;
 import javax.crypto.KeyGenerator;
 import javax.crypto.SecretKey;
+import javax.crypto.ShortBufferException;
 import javax.crypto.spec.SecretKeySpec;
 
 import org.bouncycastle.crypto.BlockCipher;
@@ -46,7 +52,10 @@ import edu.biu.scapi.tools.Translation.BCParametersTranslator;
  * A general adapter class of PrpFixed for Bouncy Castle. 
  * This class implements all the functionality by passing requests to the adaptee interface BlockCipher. 
  * A concrete PRP such as AES represented by the class BcAES only passes the AESEngine object in the constructor 
- * to the base class. 
+ * to the base class. <p>
+ * 
+ * Multiple blocks are computed by the block cipher of the Java platform in ECB mode, which uses the AES instructions of the processor when they exist.
+ * If the Java platform does not support the algorithm or the key, the blocks are computed one by one by the BC block cipher.
  * 
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Meital Levy)
  * 
@@ -59,6 +68,11 @@ public abstract class BcPRP implements PrpFixed{
 	protected SecretKey secretKey = null;
 	private SecureRandom random;
 	protected boolean isKeySet = false;//until init is called set to false.
+	private Cipher jceCompute = null;//block cipher of the Java platform in ECB mode, used to compute multiple blocks. Created on first use.
+	private Cipher jceInvert = null;//block cipher of the Java platform in ECB mode, used to invert multiple blocks. Created on first use.
+	private SecretKey jceComputeKey = null;//the key that jceCompute is initialized with.
+	private SecretKey jceInvertKey = null;//the key that jceInvert is initialized with.
+	private boolean isJceSupported;//set to false if the Java platform cannot use the current key.
 	
 
 	/** 
@@ -106,6 +120,9 @@ public abstract class BcPRP implements PrpFixed{
 		bcBlockCipher.init(forEncryption, bcParams);
 			
 		isKeySet = true; //marks this object as initialized
+		//the Java block ciphers are initialized with the new key only when multiple blocks are needed, 
+		//so that objects whose key is replaced for every block do not pay for it.
+		isJceSupported = true;
 			
 		
 	}
@@ -209,6 +226,149 @@ public abstract class BcPRP implements PrpFixed{
 		bcBlockCipher.processBlock(inBytes, inOff, outBytes, outOff);
 	}
 	
+	/** 
+	 * Computes the underlying permutation on consecutive blocks. <p>
+	 * The blocks are computed together by the block cipher of the Java platform, if it supports the algorithm and the key.
+	 * 
+	 * @param inBytes input bytes to compute
+	 * @param inOff input offset in the inBytes array, where the first block begins
+	 * @param outBytes output bytes. The resulted bytes of compute. May be the inBytes array, with the same offset.
+	 * @param outOff output offset in the outBytes array to put the result from
+	 * @param numBlocks the number of blocks to compute
+	 */
+	public void computeBlocks(byte[] inBytes, int inOff, byte[] outBytes, int outOff, int numBlocks) {
+		processBlocks(true, inBytes, inOff, outBytes, outOff, numBlocks);
+	}
+	
+	/** 
+	 * Computes the underlying permutation on consecutive blocks, from the position of the input buffer to the position of the output buffer.
+	 * The positions of both buffers are advanced by the number of processed bytes.
+	 * 
+	 * @param inBuffer holds the input blocks
+	 * @param outBuffer the buffer to put the result in
+	 * @param numBlocks the number of blocks to compute
+	 */
+	public void computeBlocks(ByteBuffer inBuffer, ByteBuffer outBuffer, int numBlocks) {
+		if (!isKeySet()){
+			throw new IllegalStateException("secret key isn't set");
+		}
+		if (numBlocks < 0){
+			throw new IllegalArgumentException("the number of blocks should not be negative");
+		}
+		int len = numBlocks * getBlockSize();
+		if (inBuffer.remaining() < len){
+			throw new BufferUnderflowException();
+		}
+		if (outBuffer.remaining() < len){
+			throw new BufferOverflowException();
+		}
+		if (inBuffer.hasArray() && outBuffer.hasArray()){
+			//computes directly on the arrays of the buffers
+			computeBlocks(inBuffer.array(), inBuffer.arrayOffset() + inBuffer.position(), outBuffer.array(), outBuffer.arrayOffset() + outBuffer.position(), numBlocks);
+			inBuffer.position(inBuffer.position() + len);
+			outBuffer.position(outBuffer.position() + len);
+		} else {
+			//direct buffers are copied to an array
+			byte[] blocks = new byte[len];
+			inBuffer.get(blocks);
+			computeBlocks(blocks, 0, blocks, 0, numBlocks);
+			outBuffer.put(blocks);
+		}
+	}
+	
+	/** 
+	 * Inverts the underlying permutation on consecutive blocks. <p>
+	 * The blocks are inverted together by the block cipher of the Java platform, if it supports the algorithm and the key.
+	 * 
+	 * @param inBytes input bytes to invert
+	 * @param inOff input offset in the inBytes array, where the first block begins
+	 * @param outBytes output bytes. The resulted bytes of invert. May be the inBytes array, with the same offset.
+	 * @param outOff output offset in the outBytes array to put the result from
+	 * @param numBlocks the number of blocks to invert
+	 */
+	public void invertBlocks(byte[] inBytes, int inOff, byte[] outBytes, int outOff, int numBlocks) {
+		processBlocks(false, inBytes, inOff, outBytes, outOff, numBlocks);
+	}
+	
+	/**
+	 * Computes or inverts the permutation on consecutive blocks.
+	 * @param encrypt true to compute the permutation, false to invert it.
+	 */
+	private void processBlocks(boolean encrypt, byte[] inBytes, int inOff, byte[] outBytes, int outOff, int numBlocks) {
+		if (!isKeySet()){
+			throw new IllegalStateException("secret key isn't set");
+		}
+		if (numBlocks < 0){
+			throw new IllegalArgumentException("the number of blocks should not be negative");
+		}
+		int len = numBlocks * getBlockSize();
+		// checks that the offsets and length are correct 
+		if ((inOff < 0) || (inOff+len > inBytes.length)){
+			throw new ArrayIndexOutOfBoundsException("wrong offset for the given input buffer");
+		}
+		if ((outOff < 0) || (outOff+len > outBytes.length)){
+			throw new ArrayIndexOutOfBoundsException("wrong offset for the given output buffer");
+		}
+		
+		Cipher cipher = getJceCipher(encrypt);
+		if (cipher != null){
+			try {
+				cipher.update(inBytes, inOff, len, outBytes, outOff);
+			} catch (ShortBufferException e) {
+				// Should not occur since the length of the output buffer was checked.
+				throw new IllegalStateException(e);
+			}
+			return;
+		}
+		
+		//the Java platform cannot use the key. Processes the blocks one by one using the bc block cipher.
+		if(forEncryption!=encrypt){
+			forEncryption = encrypt;
+			bcBlockCipher.init(forEncryption, bcParams);
+		}
+		for (int i = 0; i < len; i += getBlockSize()){
+			bcBlockCipher.processBlock(inBytes, inOff + i, outBytes, outOff + i);
+		}
+	}
+	
+	/**
+	 * Returns the block cipher of the Java platform in ECB mode, initialized with the current key.
+	 * @param encrypt true for the cipher that computes the permutation, false for the cipher that inverts it.
+	 * @return the cipher, or null if the Java platform does not support the algorithm or the key.
+	 */
+	private Cipher getJceCipher(boolean encrypt) {
+		if (!isJceSupported){
+			return null;
+		}
+		try {
+			if (encrypt){
+				if (jceCompute == null){
+					jceCompute = Cipher.getInstance(getAlgorithmName() + "/ECB/NoPadding");
+				}
+				if (jceComputeKey != secretKey){
+					jceComputeKey = null;//in case the initialization fails
+					jceCompute.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(secretKey.getEncoded(), getAlgorithmName()));
+					jceComputeKey = secretKey;
+				}
+				return jceCompute;
+			} else {
+				if (jceInvert == null){
+					jceInvert = Cipher.getInstance(getAlgorithmName() + "/ECB/NoPadding");
+				}
+				if (jceInvertKey != secretKey){
+					jceInvertKey = null;//in case the initialization fails
+					jceInvert.init(Cipher.DECRYPT_MODE, new SecretKeySpec(secretKey.getEncoded(), getAlgorithmName()));
+					jceInvertKey = secretKey;
+				}
+				return jceInvert;
+			}
+		} catch (GeneralSecurityException e) {
+			//for example, a key of 256 bits without the unlimited strength policy files, or a two-key TripleDES.
+			isJceSupported = false;
+			return null;
+		}
+	}
+	
 	/**
 	 * This function is provided in the interface especially for the sub-family PrfVaryingInputLength, which may have variable input length.
 	 * Since this is a prp, the input length is fixed with the block size, so this function normally shouldn't be called. 
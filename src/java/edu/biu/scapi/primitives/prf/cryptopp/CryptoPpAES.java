@@ -26,6 +26,9 @@
 
 package edu.biu.scapi.primitives.prf.cryptopp;
 
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
@@ -50,12 +53,15 @@ public class CryptoPpAES implements AES{
 	private long aesCompute;		//native object used for compute blocks
 	private long aesInvert;			//native object used for invert blocks
 	private SecureRandom random;
+	//Libraries that were built before processBlocks was added do not have it. In this case the blocks are computed by optimizedCompute.
+	private static boolean isProcessBlocksSupported = true;
 	
 	private native long createAESCompute();
 	private native long createAESInvert();
 	private native void setNativeKey(long aesCompute, long aesInvert, byte[] key);
 	private native void computeBlock(long aesCompute, byte[] in, byte[] out, int outOffset, boolean forEncrypt);
 	private native void optimizedCompute(long aesCompute, byte[] in, byte[] out, boolean forEncrypt);
+	private native void processBlocks(long aes, byte[] in, int inOffset, byte[] out, int outOffset, int numBlocks, boolean forEncrypt);
 	private native String getName(long aes);
 	private native int getBlockSize(long aes);
 	private native void deleteAES(long aesCompute, long aesInvert);
@@ -185,16 +191,76 @@ public class CryptoPpAES implements AES{
 			throw new ArrayIndexOutOfBoundsException("wrong offset for the given output buffer");
 		}
 		
-		// The native AES object needs the message to begin at offset 0.
-		// If the given offset is not 0 copy the msg to a new array. 
+		// The native AES object reads the block from offset 0 and writes the result at offset 0 of the output array.
+		// If the given offsets are not 0, use new arrays of one block. 
+		int blockSize = getBlockSize();
 		byte[] newIn = inBytes;
 		if (inOff > 0){
-			newIn = new byte[inBytes.length];
-			System.arraycopy(inBytes, inOff, newIn, 0, inBytes.length);
+			newIn = new byte[blockSize];
+			System.arraycopy(inBytes, inOff, newIn, 0, blockSize);
 		}
 		
-		//Call the native code to perform computeBlock
-		computeBlock(aesCompute, newIn, outBytes, outOff, true);
+		//Call the native code to perform computeBlock.
+		if (outOff > 0){
+			byte[] newOut = new byte[blockSize];
+			computeBlock(aesCompute, newIn, newOut, 0, true);
+			System.arraycopy(newOut, 0, outBytes, outOff, blockSize);
+		} else {
+			computeBlock(aesCompute, newIn, outBytes, 0, true);
+		}
+	}
+	
+	/** 
+	 * Computes the AES permutation on consecutive blocks, using one call to the native code. <p>
+	 * Crypto++ processes the blocks together, using the AES instructions of the processor when they exist.
+	 * 
+	 * @param inBytes input bytes to compute.
+	 * @param inOff input offset in the inBytes array, where the first block begins.
+	 * @param outBytes output bytes. The resulted bytes of compute. May be the inBytes array, with the same offset.
+	 * @param outOff output offset in the outBytes array to put the result from.
+	 * @param numBlocks the number of blocks to compute.
+	 */
+	@Override
+	public void computeBlocks(byte[] inBytes, int inOff, byte[] outBytes, int outOff, int numBlocks) {
+		checkBlocks(inBytes, inOff, outBytes, outOff, numBlocks);
+		computeBlocks(aesCompute, inBytes, inOff, outBytes, outOff, numBlocks, true);
+	}
+	
+	/** 
+	 * Computes the AES permutation on consecutive blocks, from the position of the input buffer to the position of the output buffer.
+	 * The positions of both buffers are advanced by the number of processed bytes.
+	 * 
+	 * @param inBuffer holds the input blocks.
+	 * @param outBuffer the buffer to put the result in.
+	 * @param numBlocks the number of blocks to compute.
+	 */
+	@Override
+	public void computeBlocks(ByteBuffer inBuffer, ByteBuffer outBuffer, int numBlocks) {
+		if (!isKeySet()){
+			throw new IllegalStateException("secret key isn't set");
+		}
+		if (numBlocks < 0){
+			throw new IllegalArgumentException("the number of blocks should not be negative");
+		}
+		int len = numBlocks * getBlockSize();
+		if (inBuffer.remaining() < len){
+			throw new BufferUnderflowException();
+		}
+		if (outBuffer.remaining() < len){
+			throw new BufferOverflowException();
+		}
+		if (inBuffer.hasArray() && outBuffer.hasArray()){
+			//Compute directly on the arrays of the buffers.
+			computeBlocks(inBuffer.array(), inBuffer.arrayOffset() + inBuffer.position(), outBuffer.array(), outBuffer.arrayOffset() + outBuffer.position(), numBlocks);
+			inBuffer.position(inBuffer.position() + len);
+			outBuffer.position(outBuffer.position() + len);
+		} else {
+			//Direct buffers are copied to an array.
+			byte[] blocks = new byte[len];
+			inBuffer.get(blocks);
+			computeBlocks(blocks, 0, blocks, 0, numBlocks);
+			outBuffer.put(blocks);
+		}
 	}
 	
 	/** 
@@ -220,7 +286,7 @@ public class CryptoPpAES implements AES{
 			throw new IllegalArgumentException("outBytes and inBytes must be in the same size");
 		}
 			
-		optimizedCompute(aesCompute, inBytes, outBytes, true);
+		optimizedCompute(aesCompute, newInput(inBytes, outBytes), outBytes, true);
 	}
 
 	/** 
@@ -296,16 +362,101 @@ public class CryptoPpAES implements AES{
 			throw new ArrayIndexOutOfBoundsException("wrong offset for the given output buffer");
 		}
 		
-		// The native AES object needs the message to begin at offset 0.
-		// If the given offset is not 0 copy the msg to a new array. 
+		// The native AES object reads the block from offset 0 and writes the result at offset 0 of the output array.
+		// If the given offsets are not 0, use new arrays of one block. 
+		int blockSize = getBlockSize();
 		byte[] newIn = inBytes;
 		if (inOff > 0){
-			newIn = new byte[inBytes.length];
-			System.arraycopy(inBytes, inOff, newIn, 0, inBytes.length);
+			newIn = new byte[blockSize];
+			System.arraycopy(inBytes, inOff, newIn, 0, blockSize);
 		}
 		
-		//Call the native code to perform invert
-		computeBlock(aesInvert, newIn, outBytes, outOff, false);	
+		//Call the native code to perform invert.
+		if (outOff > 0){
+			byte[] newOut = new byte[blockSize];
+			computeBlock(aesInvert, newIn, newOut, 0, false);
+			System.arraycopy(newOut, 0, outBytes, outOff, blockSize);
+		} else {
+			computeBlock(aesInvert, newIn, outBytes, 0, false);
+		}	
+	}
+	
+	/** 
+	 * Inverts the AES permutation on consecutive blocks, using one call to the native code.
+	 * 
+	 * @param inBytes input bytes to invert.
+	 * @param inOff input offset in the inBytes array, where the first block begins.
+	 * @param outBytes output bytes. The resulted bytes of invert. May be the inBytes array, with the same offset.
+	 * @param outOff output offset in the outBytes array to put the result from.
+	 * @param numBlocks the number of blocks to invert.
+	 */
+	@Override
+	public void invertBlocks(byte[] inBytes, int inOff, byte[] outBytes, int outOff, int numBlocks) {
+		checkBlocks(inBytes, inOff, outBytes, outOff, numBlocks);
+		computeBlocks(aesInvert, inBytes, inOff, outBytes, outOff, numBlocks, false);
+	}
+	
+	/**
+	 * Computes or inverts the given blocks in one call to the native code. <p>
+	 * If the loaded native library does not have processBlocks, the blocks are copied to new arrays when needed and computed by optimizedCompute.
+	 */
+	private void computeBlocks(long aes, byte[] inBytes, int inOff, byte[] outBytes, int outOff, int numBlocks, boolean forEncrypt) {
+		if (isProcessBlocksSupported){
+			try {
+				processBlocks(aes, inBytes, inOff, outBytes, outOff, numBlocks, forEncrypt);
+				return;
+			} catch (UnsatisfiedLinkError e){
+				isProcessBlocksSupported = false;
+			}
+		}
+		
+		//optimizedCompute processes the whole input array and writes the result from offset 0 of the output array.
+		int len = numBlocks * getBlockSize();
+		byte[] newIn = inBytes;
+		if ((inOff > 0) || (inBytes.length != len)){
+			newIn = new byte[len];
+			System.arraycopy(inBytes, inOff, newIn, 0, len);
+		}
+		newIn = newInput(newIn, outBytes);
+		byte[] newOut = outBytes;
+		if (outOff > 0){
+			newOut = new byte[len];
+		}
+		optimizedCompute(aes, newIn, newOut, forEncrypt);
+		if (newOut != outBytes){
+			System.arraycopy(newOut, 0, outBytes, outOff, len);
+		}
+	}
+	
+	/**
+	 * optimizedCompute writes its copy of the input array back to the java array after computing, 
+	 * so if the output array is the input array, it gets a copy of the input.
+	 */
+	private byte[] newInput(byte[] inBytes, byte[] outBytes) {
+		if (inBytes == outBytes){
+			return inBytes.clone();
+		}
+		return inBytes;
+	}
+	
+	/**
+	 * Checks that the key is set and that the given blocks fit the given arrays.
+	 */
+	private void checkBlocks(byte[] inBytes, int inOff, byte[] outBytes, int outOff, int numBlocks) {
+		if (!isKeySet()){
+			throw new IllegalStateException("secret key isn't set");
+		}
+		if (numBlocks < 0){
+			throw new IllegalArgumentException("the number of blocks should not be negative");
+		}
+		int len = numBlocks * getBlockSize();
+		// Checks that the offsets and length are correct.
+		if ((inOff < 0) || (inOff+len > inBytes.length)){
+			throw new ArrayIndexOutOfBoundsException("wrong offset for the given input buffer");
+		}
+		if ((outOff < 0) || (outOff+len > outBytes.length)){
+			throw new ArrayIndexOutOfBoundsException("wrong offset for the given output buffer");
+		}
 	}
 	
 	/**
@@ -333,7 +484,7 @@ public class CryptoPpAES implements AES{
 		}
 		
 		//Call the native code to perform invert
-		optimizedCompute(aesInvert, inBytes, outBytes, false);	
+		optimizedCompute(aesInvert, newInput(inBytes, outBytes), outBytes, false);	
 	}
 
 	/**
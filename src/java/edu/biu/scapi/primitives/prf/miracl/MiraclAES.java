@@ -24,6 +24,9 @@
 */
 package edu.biu.scapi.primitives.prf.miracl;
 
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
@@ -174,6 +177,66 @@ public class MiraclAES implements AES{
 		computeBlock(aes, inBytes, inOff, outBytes, outOff);
 	}
 	
+	/** 
+	 * Computes the AES permutation on consecutive blocks. <p>
+	 * If the blocks fill two different arrays, they are computed by one call to the native code. Otherwise, the native code is called for each block.
+	 * 
+	 * @param inBytes input bytes to compute.
+	 * @param inOff input offset in the inBytes array, where the first block begins.
+	 * @param outBytes output bytes. The resulted bytes of compute. May be the inBytes array, with the same offset.
+	 * @param outOff output offset in the outBytes array to put the result from.
+	 * @param numBlocks the number of blocks to compute.
+	 */
+	@Override
+	public void computeBlocks(byte[] inBytes, int inOff, byte[] outBytes, int outOff, int numBlocks) {
+		int len = checkBlocks(inBytes, inOff, outBytes, outOff, numBlocks);
+		//The native function writes the input back to its array after the output was set, so it can not work in place.
+		if (inOff == 0 && outOff == 0 && inBytes.length == len && outBytes.length == len && inBytes != outBytes){
+			optimizedCompute(aes, inBytes, outBytes);
+			return;
+		}
+		for (int i = 0; i < len; i += getBlockSize()){
+			computeBlock(aes, inBytes, inOff + i, outBytes, outOff + i);
+		}
+	}
+	
+	/** 
+	 * Computes the AES permutation on consecutive blocks, from the position of the input buffer to the position of the output buffer.
+	 * The positions of both buffers are advanced by the number of processed bytes.
+	 * 
+	 * @param inBuffer holds the input blocks.
+	 * @param outBuffer the buffer to put the result in.
+	 * @param numBlocks the number of blocks to compute.
+	 */
+	@Override
+	public void computeBlocks(ByteBuffer inBuffer, ByteBuffer outBuffer, int numBlocks) {
+		if (!isKeySet()){
+			throw new IllegalStateException("secret key isn't set");
+		}
+		if (numBlocks < 0){
+			throw new IllegalArgumentException("the number of blocks should not be negative");
+		}
+		int len = numBlocks * getBlockSize();
+		if (inBuffer.remaining() < len){
+			throw new BufferUnderflowException();
+		}
+		if (outBuffer.remaining() < len){
+			throw new BufferOverflowException();
+		}
+		if (inBuffer.hasArray() && outBuffer.hasArray()){
+			//Compute directly on the arrays of the buffers.
+			computeBlocks(inBuffer.array(), inBuffer.arrayOffset() + inBuffer.position(), outBuffer.array(), outBuffer.arrayOffset() + outBuffer.position(), numBlocks);
+			inBuffer.position(inBuffer.position() + len);
+			outBuffer.position(outBuffer.position() + len);
+		} else {
+			//Direct buffers are copied to an array.
+			byte[] blocks = new byte[len];
+			inBuffer.get(blocks);
+			computeBlocks(blocks, 0, blocks, 0, numBlocks);
+			outBuffer.put(blocks);
+		}
+	}
+	
 	/** 
 	 * Computes the AES permutation on the given array. 
 	 * The given array length does not have to be the size of the block but a MUST be aligned to the block size.
@@ -277,6 +340,51 @@ public class MiraclAES implements AES{
 		invertBlock(aes, inBytes, inOff, outBytes, outOff);	
 	}
 	
+	/** 
+	 * Inverts the AES permutation on consecutive blocks. <p>
+	 * If the blocks fill two different arrays, they are inverted by one call to the native code. Otherwise, the native code is called for each block.
+	 * 
+	 * @param inBytes input bytes to invert.
+	 * @param inOff input offset in the inBytes array, where the first block begins.
+	 * @param outBytes output bytes. The resulted bytes of invert. May be the inBytes array, with the same offset.
+	 * @param outOff output offset in the outBytes array to put the result from.
+	 * @param numBlocks the number of blocks to invert.
+	 */
+	@Override
+	public void invertBlocks(byte[] inBytes, int inOff, byte[] outBytes, int outOff, int numBlocks) {
+		int len = checkBlocks(inBytes, inOff, outBytes, outOff, numBlocks);
+		//The native function writes the input back to its array after the output was set, so it can not work in place.
+		if (inOff == 0 && outOff == 0 && inBytes.length == len && outBytes.length == len && inBytes != outBytes){
+			optimizedInvert(aes, inBytes, outBytes);
+			return;
+		}
+		for (int i = 0; i < len; i += getBlockSize()){
+			invertBlock(aes, inBytes, inOff + i, outBytes, outOff + i);
+		}
+	}
+	
+	/**
+	 * Checks that the key is set and that the given blocks fit the given arrays.
+	 * @return the number of bytes in the given blocks.
+	 */
+	private int checkBlocks(byte[] inBytes, int inOff, byte[] outBytes, int outOff, int numBlocks) {
+		if (!isKeySet()){
+			throw new IllegalStateException("secret key isn't set");
+		}
+		if (numBlocks < 0){
+			throw new IllegalArgumentException("the number of blocks should not be negative");
+		}
+		int len = numBlocks * getBlockSize();
+		// Checks that the offsets and length are correct.
+		if ((inOff < 0) || (inOff+len > inBytes.length)){
+			throw new ArrayIndexOutOfBoundsException("wrong offset for the given input buffer");
+		}
+		if ((outOff < 0) || (outOff+len > outBytes.length)){
+			throw new ArrayIndexOutOfBoundsException("wrong offset for the given output buffer");
+		}
+		return len;
+	}
+	
 	/**
 	 * Inverts the AES permutation on the given array. 
 	 * The given array length does not have to be the size of the block but a MUST be aligned to the block size.
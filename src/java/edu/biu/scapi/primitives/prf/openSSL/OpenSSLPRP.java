@@ -24,6 +24,9 @@
 */
 package edu.biu.scapi.primitives.prf.openSSL;
 
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
 import java.security.InvalidParameterException;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
@@ -43,12 +46,17 @@ public abstract class OpenSSLPRP implements PrpFixed{
 	
 	protected boolean isKeySet; 
 	private SecureRandom random;
+	//Libraries that were built before doComputeBlocks and doInvertBlocks were added do not have them. 
+	//In this case the blocks are computed by doOptimizedCompute and doOptimizedInvert.
+	private static boolean isBlocksFunctionSupported = true;
 	
 	//Native functions that call OpenSSL functionalities.
 	private native void computeBlock(long computeP, byte[] in, byte[] out, int outOffset, int blockSize); 	//Computes the PRP on the given in block.
 	private native void invertBlock(long invertP, byte[] in, byte[] out, int outOffset, int blockSize);		//Inverts the PRP on the given in block.
 	private native void doOptimizedCompute(long computeP, byte[] inBytes, byte[] outBytes, int blockSize);	//Computes the PRP on the given in array.
 	private native void doOptimizedInvert(long invertP, byte[] inBytes, byte[] outBytes, int blockSize);	//Inverts the PRP on the given in array.
+	private native void doComputeBlocks(long computeP, byte[] in, int inOffset, byte[] out, int outOffset, int len);	//Computes the PRP on the given consecutive blocks.
+	private native void doInvertBlocks(long invertP, byte[] in, int inOffset, byte[] out, int outOffset, int len);	//Inverts the PRP on the given consecutive blocks.
 	private native void deleteNative(long computeP, long invertP);											//Deleted the native objects.
 	
 	/**
@@ -159,8 +167,9 @@ public abstract class OpenSSLPRP implements PrpFixed{
 		}
 		
 		// We copy just the block we need to compute. else, the JNI will copy the whole array for nothing. 
+		// The native code writes its copy of the input back after computing, so the input is copied also if it is the output array.
 		byte[] newIn = inBytes;
-		if (inOff > 0){
+		if ((inOff > 0) || (inBytes == outBytes)){
 			
 			newIn = new byte[getBlockSize()];
 			System.arraycopy(inBytes, inOff, newIn, 0, getBlockSize());
@@ -170,6 +179,59 @@ public abstract class OpenSSLPRP implements PrpFixed{
 		computeBlock(computeP, newIn, outBytes, outOff, getBlockSize());
 	}
 	
+	/** 
+	 * Computes the permutation on consecutive blocks, using one call to the native code. <p>
+	 * OpenSSL processes the blocks together, using the AES instructions of the processor when they exist.
+	 * 
+	 * @param inBytes input bytes to compute.
+	 * @param inOff input offset in the inBytes array, where the first block begins.
+	 * @param outBytes output bytes. The resulted bytes of compute. May be the inBytes array, with the same offset.
+	 * @param outOff output offset in the outBytes array to put the result from.
+	 * @param numBlocks the number of blocks to compute.
+	 */
+	@Override
+	public void computeBlocks(byte[] inBytes, int inOff, byte[] outBytes, int outOff, int numBlocks) {
+		checkBlocks(inBytes, inOff, outBytes, outOff, numBlocks);
+		processBlocks(true, inBytes, inOff, outBytes, outOff, numBlocks * getBlockSize());
+	}
+	
+	/** 
+	 * Computes the permutation on consecutive blocks, from the position of the input buffer to the position of the output buffer.
+	 * The positions of both buffers are advanced by the number of processed bytes.
+	 * 
+	 * @param inBuffer holds the input blocks.
+	 * @param outBuffer the buffer to put the result in.
+	 * @param numBlocks the number of blocks to compute.
+	 */
+	@Override
+	public void computeBlocks(ByteBuffer inBuffer, ByteBuffer outBuffer, int numBlocks) {
+		if (!isKeySet()){
+			throw new IllegalStateException("secret key isn't set");
+		}
+		if (numBlocks < 0){
+			throw new IllegalArgumentException("the number of blocks should not be negative");
+		}
+		int len = numBlocks * getBlockSize();
+		if (inBuffer.remaining() < len){
+			throw new BufferUnderflowException();
+		}
+		if (outBuffer.remaining() < len){
+			throw new BufferOverflowException();
+		}
+		if (inBuffer.hasArray() && outBuffer.hasArray()){
+			//Compute directly on the arrays of the buffers.
+			computeBlocks(inBuffer.array(), inBuffer.arrayOffset() + inBuffer.position(), outBuffer.array(), outBuffer.arrayOffset() + outBuffer.position(), numBlocks);
+			inBuffer.position(inBuffer.position() + len);
+			outBuffer.position(outBuffer.position() + len);
+		} else {
+			//Direct buffers are copied to an array.
+			byte[] blocks = new byte[len];
+			inBuffer.get(blocks);
+			computeBlocks(blocks, 0, blocks, 0, numBlocks);
+			outBuffer.put(blocks);
+		}
+	}
+	
 	/** 
 	 * Computes the permutation on the given array. 
 	 * The given array length does not have to be the size of the block but a MUST be aligned to the block size.
@@ -193,7 +255,7 @@ public abstract class OpenSSLPRP implements PrpFixed{
 			throw new IllegalArgumentException("outBytes and inBytes must be in the same size");
 		}
 			
-		doOptimizedCompute(computeP, inBytes, outBytes, getBlockSize());
+		doOptimizedCompute(computeP, newInput(inBytes, outBytes), outBytes, getBlockSize());
 	}
 
 	/** 
@@ -269,10 +331,11 @@ public abstract class OpenSSLPRP implements PrpFixed{
 			throw new ArrayIndexOutOfBoundsException("wrong offset for the given output buffer");
 		}
 		
-		// The native object needs the message to begin at offset 0.
-		// If the given offset is not 0 copy the msg to a new array. 
+		// We copy just the block we need to compute. else, the JNI will copy the whole array for nothing. 
+		// The native code writes its copy of the input back after computing, so the input is copied also if it is the output array.
 		byte[] newIn = inBytes;
-		if (inOff > 0){
+		if ((inOff > 0) || (inBytes == outBytes)){
+			
 			newIn = new byte[getBlockSize()];
 			System.arraycopy(inBytes, inOff, newIn, 0, getBlockSize());
 		}
@@ -281,6 +344,92 @@ public abstract class OpenSSLPRP implements PrpFixed{
 		invertBlock(invertP, newIn, outBytes, outOff, getBlockSize());	
 	}
 	
+	/** 
+	 * Inverts the permutation on consecutive blocks, using one call to the native code.
+	 * 
+	 * @param inBytes input bytes to invert.
+	 * @param inOff input offset in the inBytes array, where the first block begins.
+	 * @param outBytes output bytes. The resulted bytes of invert. May be the inBytes array, with the same offset.
+	 * @param outOff output offset in the outBytes array to put the result from.
+	 * @param numBlocks the number of blocks to invert.
+	 */
+	@Override
+	public void invertBlocks(byte[] inBytes, int inOff, byte[] outBytes, int outOff, int numBlocks) {
+		checkBlocks(inBytes, inOff, outBytes, outOff, numBlocks);
+		processBlocks(false, inBytes, inOff, outBytes, outOff, numBlocks * getBlockSize());
+	}
+	
+	/**
+	 * Computes or inverts the given blocks in one call to the native code. <p>
+	 * If the loaded native library does not have doComputeBlocks and doInvertBlocks, the blocks are copied to new arrays when needed 
+	 * and computed by doOptimizedCompute or doOptimizedInvert.
+	 */
+	private void processBlocks(boolean forCompute, byte[] inBytes, int inOff, byte[] outBytes, int outOff, int len) {
+		if (isBlocksFunctionSupported){
+			try {
+				if (forCompute){
+					doComputeBlocks(computeP, inBytes, inOff, outBytes, outOff, len);
+				} else {
+					doInvertBlocks(invertP, inBytes, inOff, outBytes, outOff, len);
+				}
+				return;
+			} catch (UnsatisfiedLinkError e){
+				isBlocksFunctionSupported = false;
+			}
+		}
+		
+		//The optimized functions process the whole input array and write the result from offset 0 of the output array.
+		byte[] newIn = inBytes;
+		if ((inOff > 0) || (inBytes.length != len)){
+			newIn = new byte[len];
+			System.arraycopy(inBytes, inOff, newIn, 0, len);
+		}
+		newIn = newInput(newIn, outBytes);
+		byte[] newOut = outBytes;
+		if (outOff > 0){
+			newOut = new byte[len];
+		}
+		if (forCompute){
+			doOptimizedCompute(computeP, newIn, newOut, getBlockSize());
+		} else {
+			doOptimizedInvert(invertP, newIn, newOut, getBlockSize());
+		}
+		if (newOut != outBytes){
+			System.arraycopy(newOut, 0, outBytes, outOff, len);
+		}
+	}
+	
+	/**
+	 * The optimized native functions write their copy of the input array back to the java array after computing, 
+	 * so if the output array is the input array, they get a copy of the input.
+	 */
+	private byte[] newInput(byte[] inBytes, byte[] outBytes) {
+		if (inBytes == outBytes){
+			return inBytes.clone();
+		}
+		return inBytes;
+	}
+	
+	/**
+	 * Checks that the key is set and that the given blocks fit the given arrays.
+	 */
+	private void checkBlocks(byte[] inBytes, int inOff, byte[] outBytes, int outOff, int numBlocks) {
+		if (!isKeySet()){
+			throw new IllegalStateException("secret key isn't set");
+		}
+		if (numBlocks < 0){
+			throw new IllegalArgumentException("the number of blocks should not be negative");
+		}
+		int len = numBlocks * getBlockSize();
+		// Checks that the offsets and length are correct.
+		if ((inOff < 0) || (inOff+len > inBytes.length)){
+			throw new ArrayIndexOutOfBoundsException("wrong offset for the given input buffer");
+		}
+		if ((outOff < 0) || (outOff+len > outBytes.length)){
+			throw new ArrayIndexOutOfBoundsException("wrong offset for the given output buffer");
+		}
+	}
+	
 	/**
 	 * Inverts the permutation on the given array. 
 	 * The given array length does not have to be the size of the block but a MUST be aligned to the block size.
@@ -306,7 +455,7 @@ public abstract class OpenSSLPRP implements PrpFixed{
 		}
 		
 		//Call the native code to perform invert.
-		doOptimizedInvert(invertP, inBytes, outBytes, getBlockSize());	
+		doOptimizedInvert(invertP, newInput(inBytes, outBytes), outBytes, getBlockSize());	
 	}
 
 	/**
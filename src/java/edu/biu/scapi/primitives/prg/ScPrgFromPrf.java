@@ -26,22 +26,35 @@
 
 package edu.biu.scapi.primitives.prg;
 
+import java.security.GeneralSecurityException;
 import java.security.InvalidKeyException;
 import java.security.spec.AlgorithmParameterSpec;
 import java.security.spec.InvalidParameterSpecException;
+import java.util.Arrays;
 
+import javax.crypto.Cipher;
 import javax.crypto.IllegalBlockSizeException;
 import javax.crypto.SecretKey;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
 
 import edu.biu.scapi.exceptions.FactoriesException;
 import edu.biu.scapi.exceptions.NoMaxException;
+import edu.biu.scapi.primitives.prf.AES;
+import edu.biu.scapi.primitives.prf.PrfVaryingIOLength;
+import edu.biu.scapi.primitives.prf.PrfVaryingInputLength;
+import edu.biu.scapi.primitives.prf.PrpFixed;
+import edu.biu.scapi.primitives.prf.PrpVaryingIOLength;
 import edu.biu.scapi.primitives.prf.PseudorandomFunction;
+import edu.biu.scapi.primitives.prf.PseudorandomPermutation;
 import edu.biu.scapi.primitives.prf.bc.BcAES;
 import edu.biu.scapi.tools.Factories.PrfFactory;
 
 /**
  * This is a simple way of generating a pseudorandom stream from a pseudorandom function. The seed for the pseudorandom generator is the key to the pseudorandom function. 
  * Then, the algorithm initializes a counter to 1 and applies the pseudorandom function to the counter, increments it, and repeats.
+ * If the pseudorandom function is AES, the same stream is generated by the AES cipher of the Java platform in counter mode.
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Moriya Farbstein)
  *
  */
@@ -50,6 +63,14 @@ public class ScPrgFromPrf implements PseudorandomGenerator{
 	private PseudorandomFunction prf;	// Underlying PRF.
 	private byte[] ctr;					//Counter used for key generation.
 	private boolean isKeySet;
+	private int mode;					//The way the prf is called. Chosen in setKey according to the type of the prf.
+	private byte[] lastBlock;			//Holds the last block when it does not fit in the output array.
+	private Cipher ctrCipher;			//AES in counter mode. Used instead of the prf if the prf is AES.
+
+	//The ways to call the prf.
+	private static final int VARYING_OUTPUT = 0;	//computeBlock(in, inOff, inLen, out, outOff, outLen)
+	private static final int VARYING_INPUT = 1;		//computeBlock(in, inOff, inLen, out, outOff)
+	private static final int FIXED = 2;				//computeBlock(in, inOff, out, outOff)
 
 	/**
 	 * Default constructor. Uses default implementation PRF.
@@ -75,7 +96,8 @@ public class ScPrgFromPrf implements PseudorandomGenerator{
 	}
 
 	/**
-	 * Initializes this PRG with SecretKey.
+	 * Initializes this PRG with SecretKey.<p>
+	 * The way the underlying prf is called is chosen here, according to its type, so that generating the bytes does not need to try the other ways.
 	 * @param secretKey suitable for the given Prf
 	 * @throws InvalidKeyException 
 	 */
@@ -91,10 +113,47 @@ public class ScPrgFromPrf implements PseudorandomGenerator{
 
 		//Initializes the counter to 1.
 		ctr[ctr.length-1] = 1;
+		lastBlock = new byte[ctr.length];
+
+		//A prf that can output any length (for example, IteratedPrfVarying) is called once with the required output length.
+		//A prf that can receive any input length (for example, Hmac) is called with the counter length.
+		//A prf with fixed input length (for example, AES) is called without the input length.
+		if ((prf instanceof PrfVaryingIOLength) && !(prf instanceof PseudorandomPermutation)){
+			mode = VARYING_OUTPUT;
+		} else if (prf instanceof PrfVaryingInputLength || prf instanceof PrpVaryingIOLength){
+			mode = VARYING_INPUT;
+		} else {
+			mode = FIXED;
+		}
+
+		//AES in counter mode is computed by the Java cipher, which works on many blocks in one call.
+		ctrCipher = null;
+		if (prf instanceof AES){
+			ctrCipher = createCtrCipher(secretKey);
+		}
 		isKeySet = true;
 
 	}
 
+	/**
+	 * Creates an AES cipher in counter mode whose counter starts at the counter of this PRG.
+	 * @return the cipher, or null if the Java platform can not use the given key. In this case the prf is used.
+	 */
+	private Cipher createCtrCipher(SecretKey secretKey){
+		byte[] keyBytes = secretKey.getEncoded();
+		if (keyBytes == null || ctr.length != 16){
+			return null;
+		}
+		try {
+			Cipher cipher = Cipher.getInstance("AES/CTR/NoPadding");
+			cipher.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(keyBytes, "AES"), new IvParameterSpec(ctr));
+			return cipher;
+		} catch (GeneralSecurityException e) {
+			//For example, a key of 256 bits without the unlimited strength policy files. Use the prf instead.
+			return null;
+		}
+	}
+
 	@Override
 	public boolean isKeySet() {
 		return isKeySet;
@@ -129,7 +188,9 @@ public class ScPrgFromPrf implements PseudorandomGenerator{
 	}
 
 	/**
-	 * Generates pseudorandom bytes using the underlying prf.
+	 * Generates pseudorandom bytes using the underlying prf.<p>
+	 * The bytes are written directly to the given array, block after block. The unused bytes of the last block are discarded,
+	 * so that the next call starts from the next counter.
 	 * @param outBytes - output bytes. The result of streaming the bytes.
 	 * @param outOffset - output offset
 	 * @param outLen - the required output length.
@@ -145,51 +206,83 @@ public class ScPrgFromPrf implements PseudorandomGenerator{
 		if ((outOffset > outBytes.length) || ((outOffset + outLen) > outBytes.length)){
 			throw new ArrayIndexOutOfBoundsException("wrong offset for the given output buffer");
 		}
+		//Nothing is generated, and the counter is not increased.
+		if (outLen == 0){
+			return;
+		}
+
+		if (ctrCipher != null){
+			getCtrBytes(outBytes, outOffset, outLen);
+			return;
+		}
+
+		try {
+			//The prf outputs all the bytes in one call.
+			if (mode == VARYING_OUTPUT){
+				prf.computeBlock(ctr, 0, ctr.length, outBytes, outOffset, outLen);
+				increaseCtr();
+				return;
+			}
 
-		int numGeneratedBytes = 0;	//Number of current generated bytes.
-		byte [] generatedBytes = new byte[ctr.length];
-
-		while(numGeneratedBytes < outLen){
-			try {
-				//If the prf can output any length (for example, IteratedPrfVarying) call the computeBlock with the outputLen.
-				prf.computeBlock(ctr, 0, ctr.length, outBytes, outOffset + numGeneratedBytes, outLen);
-				numGeneratedBytes += outLen;
-			} catch (IllegalBlockSizeException e) {
-				try {
-					//If the prf can receive any input length (for example, Hmac) call the computeBlock with the ctr length.
-					//The output is written to a new array because there is no guarantee that output array is long enough to hold the next output block.
-					prf.computeBlock(ctr, 0, ctr.length, generatedBytes, 0);
-					//Copy the right number of generated bytes.
-					if (numGeneratedBytes + generatedBytes.length <= outLen){
-						System.arraycopy(generatedBytes, 0, outBytes, outOffset + numGeneratedBytes, generatedBytes.length);
-					} else {
-						System.arraycopy(generatedBytes, 0, outBytes, outOffset + numGeneratedBytes, outLen - numGeneratedBytes);
-					}
-					//Increases the number of generated bytes.
-					numGeneratedBytes += ctr.length;
-				} catch (IllegalBlockSizeException e1) {
-					try {
-						//If the prf can receive fixed input length (for example, AES) call the computeBlock without the input length.
-						//The output is written to a new array because there is no guarantee that output array is long enough to hold the next output block.
-						prf.computeBlock(ctr, 0, generatedBytes, 0);
-						//Copy the right number of generated bytes.
-						if (numGeneratedBytes + generatedBytes.length <= outLen){
-							System.arraycopy(generatedBytes, 0, outBytes, outOffset + numGeneratedBytes, generatedBytes.length);
-						} else {
-							System.arraycopy(generatedBytes, 0, outBytes, outOffset + numGeneratedBytes, outLen - numGeneratedBytes);
-						}
-						//Increases the number of generated bytes.
-						numGeneratedBytes += ctr.length;
-					} catch (IllegalBlockSizeException e2) {
-						// TODO Auto-generated catch block
-						e2.printStackTrace();
-					}
+			int blockSize = ctr.length;
+			int numGeneratedBytes = 0;	//Number of current generated bytes.
+			if (mode == FIXED && prf instanceof PrpFixed){
+				//Write the successive counters to the output array and compute all the full blocks in place, in one call.
+				int numBlocks = outLen / blockSize;
+				for (int i = 0; i < numBlocks; i++){
+					System.arraycopy(ctr, 0, outBytes, outOffset + i * blockSize, blockSize);
+					increaseCtr();
 				}
+				((PrpFixed) prf).computeBlocks(outBytes, outOffset, outBytes, outOffset, numBlocks);
+				numGeneratedBytes = numBlocks * blockSize;
 			}
-			//Increases the counter.
-			increaseCtr();
+			//Write the full blocks directly to the output array.
+			while (outLen - numGeneratedBytes >= blockSize){
+				computeCtrBlock(outBytes, outOffset + numGeneratedBytes);
+				numGeneratedBytes += blockSize;
+				increaseCtr();
+			}
+			//The last block does not fit in the output array, so it is written to a buffer and then copied.
+			if (numGeneratedBytes < outLen){
+				computeCtrBlock(lastBlock, 0);
+				System.arraycopy(lastBlock, 0, outBytes, outOffset + numGeneratedBytes, outLen - numGeneratedBytes);
+				increaseCtr();
+			}
+		} catch (IllegalBlockSizeException e) {
+			// Should not occur since the way of calling the prf was chosen according to its type.
+			throw new IllegalStateException(e);
 		}
+	}
 
+	/**
+	 * Computes the prf on the counter, in the way that was chosen in setKey.
+	 */
+	private void computeCtrBlock(byte[] outBytes, int outOffset) throws IllegalBlockSizeException{
+		if (mode == VARYING_INPUT){
+			prf.computeBlock(ctr, 0, ctr.length, outBytes, outOffset);
+		} else {
+			prf.computeBlock(ctr, 0, outBytes, outOffset);
+		}
+	}
+
+	/**
+	 * Generates the bytes by the AES cipher in counter mode.<p>
+	 * The output array is zeroed and encrypted in place, so the output is the key stream.
+	 * The key stream of the cipher is the same as the output of the prf on the successive counters.
+	 */
+	private void getCtrBytes(byte[] outBytes, int outOffset, int outLen){
+		Arrays.fill(outBytes, outOffset, outOffset + outLen, (byte) 0);
+		try {
+			ctrCipher.update(outBytes, outOffset, outLen, outBytes, outOffset);
+			//Discard the rest of the last block, as the prf does.
+			int rest = (ctr.length - outLen % ctr.length) % ctr.length;
+			if (rest > 0){
+				ctrCipher.update(lastBlock, 0, rest, lastBlock, 0);
+			}
+		} catch (ShortBufferException e) {
+			// Should not occur since the output is of the same length as the input.
+			throw new IllegalStateException(e);
+		}
 	}
 
 	/**
@@ -197,24 +290,13 @@ public class ScPrgFromPrf implements PseudorandomGenerator{
 	 */
 	private void increaseCtr(){
 
-		//increase the counter by one.
-		int    carry = 1;
-		int len = ctr.length;
-
-		for (int i = len - 1; i >= 0; i--)
+		//increase the counter by one. The carry stops at the first byte that does not overflow.
+		for (int i = ctr.length - 1; i >= 0; i--)
 		{
-			int    x = (ctr[i] & 0xff) + carry;
-
-			if (x > 0xff)
-			{
-				carry = 1;
-			}
-			else
+			if (++ctr[i] != 0)
 			{
-				carry = 0;
+				break;
 			}
-
-			ctr[i] = (byte)x;
 		}
 	} 
 
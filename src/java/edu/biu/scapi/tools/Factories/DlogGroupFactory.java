@@ -67,7 +67,7 @@ public final class DlogGroupFactory {
 	 * @param algName is the name of a specific DlogGroup.A list of possible names follows: <p>
  	 * 	   	  For Elliptic Curves:   DlogECFp, DlogECF2m. <p>
 	 *		  For Dlog groups:	 DlogZpSafePrime 		  
-	 * @param provider the required provider name
+	 * @param provider the required provider name. For DlogZpSafePrime, the provider "Scapi" gives a pure Java implementation that does not need native libraries.
 	 * @return an object of type DlogGroup class that was determined by the algName + provider
 	 * @throws FactoriesException 
 	 */
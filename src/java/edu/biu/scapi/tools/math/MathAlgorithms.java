@@ -98,6 +98,40 @@ public class MathAlgorithms {
         return fact; 
     } 
     
+    /**
+     * Computes the Jacobi symbol (a/n) using the binary algorithm.<p>
+     * If n is prime, this is the Legendre symbol of a, i.e. 1 if a is a non zero quadratic residue modulo n, 
+     * -1 if a is a quadratic non-residue and 0 if n divides a. It is considerably cheaper than computing a^((n-1)/2) mod n.
+     * @param a
+     * @param n odd positive integer
+     * @return the Jacobi symbol (a/n), one of -1, 0, 1.
+     * @throws IllegalArgumentException if n is not odd and positive.
+     */
+    public static int jacobiSymbol(BigInteger a, BigInteger n) {
+    	if (n.signum() <= 0 || !n.testBit(0)) {
+    		throw new IllegalArgumentException("n must be odd and positive");
+    	}
+    	a = a.mod(n);
+    	int result = 1;
+    	while (a.signum() != 0) {
+    		//Remove the factors of two: (2/n) = -1 if and only if n = 3,5 mod 8.
+    		int twos = a.getLowestSetBit();
+    		a = a.shiftRight(twos);
+    		int nMod8 = n.intValue() & 7;
+    		if ((twos & 1) == 1 && (nMod8 == 3 || nMod8 == 5)) {
+    			result = -result;
+    		}
+    		//Quadratic reciprocity: (a/n) = -(n/a) if and only if a = n = 3 mod 4.
+    		if ((a.intValue() & 3) == 3 && (nMod8 & 3) == 3) {
+    			result = -result;
+    		}
+    		BigInteger temp = a;
+    		a = n.mod(temp);
+    		n = temp;
+    	}
+    	return n.equals(BigInteger.ONE) ? result : 0;
+    }
+    
     /*-------------------------------------------------------------*/
     /**
      * This class holds the result of calculating the square root of a BigInteger.
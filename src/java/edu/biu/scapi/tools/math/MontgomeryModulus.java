@@ -0,0 +1,205 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.tools.math;
+
+import java.math.BigInteger;
+
+/**
+ * This class performs modular arithmetic over a fixed odd modulus using Montgomery representation.<p>
+ * Values are kept as little-endian arrays of 32-bit limbs in Montgomery form (that is, x is held as x*R mod N where R = 2^(32*n)).
+ * The modulus dependent constants are computed once upon construction, so this class is useful when many multiplications 
+ * are done in the same modulus, as in a Dlog group over Zp*.<p>
+ * 
+ * The arrays returned by the functions of this class are always fully reduced, so two values are equal if and only if 
+ * their Montgomery forms are equal. Instances of this class hold no mutable state and can be shared between threads.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public final class MontgomeryModulus {
+	
+	private static final long MASK = 0xFFFFFFFFL;
+	
+	private final BigInteger modulus;	//The modulus N.
+	private final int[] n;				//The limbs of N.
+	private final int len;				//Number of limbs.
+	private final int nInv;				//-N^(-1) mod 2^32.
+	private final int[] rSquare;		//R^2 mod N, used to convert into Montgomery form.
+	private final int[] one;			//R mod N, the Montgomery form of 1.
+	
+	/**
+	 * Creates a Montgomery context for the given modulus.
+	 * @param modulus an odd integer greater than one.
+	 * @throws IllegalArgumentException if the modulus is even or not greater than one.
+	 */
+	public MontgomeryModulus(BigInteger modulus) {
+		if (modulus.signum() <= 0 || !modulus.testBit(0) || modulus.equals(BigInteger.ONE)){
+			throw new IllegalArgumentException("Montgomery modulus must be an odd integer greater than one");
+		}
+		this.modulus = modulus;
+		len = (modulus.bitLength() + 31) / 32;
+		n = toLimbs(modulus, len);
+		
+		//Newton iteration for the inverse of N mod 2^32. Each step doubles the number of correct bits.
+		int inv = n[0];
+		for (int i = 0; i < 4; i++) {
+			inv *= 2 - n[0] * inv;
+		}
+		nInv = -inv;
+		
+		BigInteger r = BigInteger.ONE.shiftLeft(32 * len);
+		one = toLimbs(r.mod(modulus), len);
+		rSquare = toLimbs(r.multiply(r).mod(modulus), len);
+	}
+	
+	/**
+	 * @return the modulus of this context.
+	 */
+	public BigInteger getModulus() {
+		return modulus;
+	}
+	
+	/**
+	 * @return the Montgomery form of 1.
+	 */
+	public int[] one() {
+		return one.clone();
+	}
+	
+	/**
+	 * Converts the given integer to Montgomery form.
+	 * @param x an integer; it is reduced modulo N if needed.
+	 * @return x*R mod N as an array of limbs.
+	 */
+	public int[] toMontgomery(BigInteger x) {
+		if (x.signum() < 0 || x.compareTo(modulus) >= 0){
+			x = x.mod(modulus);
+		}
+		int[] result = new int[len];
+		multiply(toLimbs(x, len), rSquare, result, new int[len + 2]);
+		return result;
+	}
+	
+	/**
+	 * Converts the given Montgomery form back to an integer.
+	 * @param a the Montgomery form of some x.
+	 * @return x.
+	 */
+	public BigInteger fromMontgomery(int[] a) {
+		int[] unit = new int[len];
+		unit[0] = 1;
+		int[] result = new int[len];
+		multiply(a, unit, result, new int[len + 2]);
+		return fromLimbs(result);
+	}
+	
+	/**
+	 * Multiplies two values in Montgomery form.
+	 * @return the Montgomery form of the product.
+	 */
+	public int[] multiply(int[] a, int[] b) {
+		int[] result = new int[len];
+		multiply(a, b, result, new int[len + 2]);
+		return result;
+	}
+	
+	/*
+	 * Montgomery multiplication (CIOS): result = a*b*R^(-1) mod N.
+	 * t is a scratch array of len+2 limbs. The result may alias a or b since it is written only at the end.
+	 */
+	private void multiply(int[] a, int[] b, int[] result, int[] t) {
+		for (int k = 0; k < t.length; k++){
+			t[k] = 0;
+		}
+		for (int i = 0; i < len; i++){
+			long bi = b[i] & MASK;
+			long carry = 0;
+			for (int j = 0; j < len; j++){
+				long s = (a[j] & MASK) * bi + (t[j] & MASK) + carry;
+				t[j] = (int) s;
+				carry = s >>> 32;
+			}
+			long s = (t[len] & MASK) + carry;
+			t[len] = (int) s;
+			t[len + 1] = (int) (s >>> 32);
+			
+			long m = (t[0] * nInv) & MASK;
+			s = (t[0] & MASK) + m * (n[0] & MASK);
+			carry = s >>> 32;
+			for (int j = 1; j < len; j++){
+				s = (t[j] & MASK) + m * (n[j] & MASK) + carry;
+				t[j - 1] = (int) s;
+				carry = s >>> 32;
+			}
+			s = (t[len] & MASK) + carry;
+			t[len - 1] = (int) s;
+			t[len] = t[len + 1] + (int) (s >>> 32);
+		}
+		
+		//The result is smaller than 2N, so at most one subtraction is needed.
+		if (t[len] != 0 || compare(t, 0, n) >= 0){
+			long borrow = 0;
+			for (int j = 0; j < len; j++){
+				long d = (t[j] & MASK) - (n[j] & MASK) - borrow;
+				result[j] = (int) d;
+				borrow = (d >>> 63);
+			}
+		} else {
+			System.arraycopy(t, 0, result, 0, len);
+		}
+	}
+	
+	/*
+	 * Compares len limbs of a starting at offset with b as unsigned integers.
+	 */
+	private int compare(int[] a, int offset, int[] b) {
+		for (int j = len - 1; j >= 0; j--){
+			if (a[offset + j] != b[j]){
+				return ((a[offset + j] & MASK) < (b[j] & MASK)) ? -1 : 1;
+			}
+		}
+		return 0;
+	}
+	
+	/*
+	 * Converts a non negative integer to little-endian 32-bit limbs.
+	 */
+	private static int[] toLimbs(BigInteger x, int numLimbs) {
+		byte[] bytes = x.toByteArray();
+		int[] limbs = new int[numLimbs];
+		for (int i = 0; i < bytes.length && i < 4 * numLimbs; i++){
+			limbs[i >>> 2] |= (bytes[bytes.length - 1 - i] & 0xFF) << (8 * (i & 3));
+		}
+		return limbs;
+	}
+	
+	private static BigInteger fromLimbs(int[] limbs) {
+		byte[] bytes = new byte[4 * limbs.length + 1];
+		for (int i = 0; i < 4 * limbs.length; i++){
+			bytes[bytes.length - 1 - i] = (byte) (limbs[i >>> 2] >>> (8 * (i & 3)));
+		}
+		return new BigInteger(bytes);
+	}
+}
@@ -0,0 +1,167 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.tools.parallel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class divides the work of batch functions between the threads of an executor.<p>
+ * The range of indices is split into consecutive chunks. The calling thread performs the first chunk and the executor the others. 
+ * After its own chunk, the calling thread also performs the chunks that no thread of the executor has started yet. 
+ * Therefore a batch that is called from inside a chunk of another batch can not deadlock, even on a fully occupied executor.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public final class BatchExecution {
+	
+	//Number of chunks per available processor, so that threads that finish early can take more chunks.
+	private static final int CHUNKS_PER_PROCESSOR = 4;
+	
+	private static ExecutorService sharedExecutor;	//Executor shared by all the objects that do not get an executor from the user. Created when it is first needed.
+	
+	/**
+	 * The work done on one chunk of the batch.
+	 */
+	public interface ChunkTask {
+		/**
+		 * Performs the work on the indices [from, to).
+		 * @param chunk the index of the chunk, between 0 and the number of chunks.
+		 */
+		void run(int chunk, int from, int to);
+	}
+	
+	private BatchExecution() {
+	}
+	
+	/**
+	 * Returns an executor with one daemon thread per available processor, that is shared by the whole application.<p>
+	 * It is used by objects that perform batch functions in parallel by default, such as the Dlog groups.
+	 * @return the shared executor.
+	 */
+	public static synchronized ExecutorService getSharedExecutor() {
+		if (sharedExecutor == null) {
+			final AtomicInteger threadNumber = new AtomicInteger();
+			sharedExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable r) {
+					Thread thread = new Thread(r, "scapi-batch-" + threadNumber.incrementAndGet());
+					//The threads should not keep the application alive.
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
+		return sharedExecutor;
+	}
+	
+	/**
+	 * @return the number of chunks to split a batch of the given size to.
+	 */
+	public static int numChunks(ExecutorService executor, int size) {
+		if (executor == null || size <= 1) {
+			return 1;
+		}
+		return Math.min(size, CHUNKS_PER_PROCESSOR * Runtime.getRuntime().availableProcessors());
+	}
+	
+	/**
+	 * Performs the given task on all the chunks of the range [0, size) and waits for all of them to finish.
+	 * @param executor the executor to use. It may be null if there is only one chunk.
+	 * @param chunks the number of chunks, as returned by {@link #numChunks(ExecutorService, int)}.
+	 * @throws RuntimeException any runtime exception thrown by the task.
+	 */
+	public static void run(ExecutorService executor, int size, int chunks, final ChunkTask task) {
+		if (chunks == 1) {
+			task.run(0, 0, size);
+			return;
+		}
+		
+		List<FutureTask<Object>> futures = new ArrayList<FutureTask<Object>>(chunks - 1);
+		for (int i = 1; i < chunks; i++) {
+			final int chunk = i;
+			final int from = (int) ((long) size * i / chunks);
+			final int to = (int) ((long) size * (i + 1) / chunks);
+			FutureTask<Object> future = new FutureTask<Object>(new Runnable() {
+				@Override
+				public void run() {
+					task.run(chunk, from, to);
+				}
+			}, null);
+			futures.add(future);
+			executor.execute(future);
+		}
+		
+		RuntimeException failure = null;
+		try {
+			task.run(0, 0, size / chunks);
+		} catch (RuntimeException e) {
+			failure = e;
+		}
+		
+		//Performs the chunks that were not started yet. FutureTask.run does nothing for a chunk that another thread already started.
+		for (FutureTask<Object> future : futures) {
+			future.run();
+		}
+		
+		//Waits for all the chunks even if one of them failed, so that no work of this batch is left running.
+		boolean interrupted = false;
+		for (FutureTask<Object> future : futures) {
+			while (true) {
+				try {
+					future.get();
+					break;
+				} catch (InterruptedException e) {
+					interrupted = true;
+				} catch (ExecutionException e) {
+					if (failure == null) {
+						Throwable cause = e.getCause();
+						if (cause instanceof RuntimeException) {
+							failure = (RuntimeException) cause;
+						} else if (cause instanceof Error) {
+							throw (Error) cause;
+						} else {
+							failure = new IllegalStateException(cause);
+						}
+					}
+					break;
+				}
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+		if (failure != null) {
+			throw failure;
+		}
+	}
+}
@@ -116,6 +116,37 @@ JNIEXPORT void JNICALL Java_edu_biu_scapi_primitives_prf_cryptopp_CryptoPpAES_op
 	  env->ReleaseByteArrayElements(inBytes,in,0);
 }
 
+/*
+ * Computes or inverts the AES permutation on consecutive blocks, in one call.
+ * The arrays are accessed directly, without copying them, and Crypto++ processes the blocks together 
+ * (using the AES-NI instructions when the processor supports them).
+ * The output array may be the input array, with the same offset.
+ */
+JNIEXPORT void JNICALL Java_edu_biu_scapi_primitives_prf_cryptopp_CryptoPpAES_processBlocks
+  (JNIEnv *env, jobject, jlong aes, jbyteArray inBytes, jint inOffset, jbyteArray outBytes, jint outOffset, jint numBlocks, jboolean forEncrypt){
+
+	  if (numBlocks <= 0){
+		  return;
+	  }
+
+	  BlockTransformation* cipher;
+	  if (forEncrypt){
+		  cipher = (AESEncryption*)aes;
+	  } else {
+		  cipher = (AESDecryption*)aes;
+	  }
+
+	  //No other JNI function may be called until the arrays are released.
+	  jbyte *in = (jbyte*) env->GetPrimitiveArrayCritical(inBytes, 0);
+	  jbyte *out = (jbyte*) env->GetPrimitiveArrayCritical(outBytes, 0);
+
+	  cipher->AdvancedProcessBlocks((byte*)(in + inOffset), NULL, (byte*)(out + outOffset), numBlocks * cipher->BlockSize(), BlockTransformation::BT_AllowParallel);
+
+	  //The output is copied back to the java array (if the JVM gave a copy), the input is not changed.
+	  env->ReleasePrimitiveArrayCritical(outBytes, out, 0);
+	  env->ReleasePrimitiveArrayCritical(inBytes, in, JNI_ABORT);
+}
+
 JNIEXPORT jstring JNICALL Java_edu_biu_scapi_primitives_prf_cryptopp_CryptoPpAES_getName
   (JNIEnv *env, jobject, jlong aes){
 	  string name = ((AESEncryption*)aes)->AlgorithmName();
@@ -142,6 +142,64 @@ JNIEXPORT void JNICALL Java_edu_biu_scapi_primitives_prf_openSSL_OpenSSLPRP_doOp
 	  delete (outBlock);
 }
 
+/* 
+ * function doComputeBlocks		: Computes the PRP on consecutive blocks, in one call.
+ *								  The arrays are accessed directly, without copying them. The output array may be the input array, with the same offset.
+ * param prp					: pointer to the PRP object.
+ * param in						: The array that holds the input blocks.
+ * param inOffset				: The offset within the input array where the first block begins.
+ * param out					: The array to hold the permutation result.
+ * param outOffset				: The offset within the output array to put the result from.
+ * param len					: The number of bytes to compute. A multiple of the block size.
+ */
+JNIEXPORT void JNICALL Java_edu_biu_scapi_primitives_prf_openSSL_OpenSSLPRP_doComputeBlocks
+  (JNIEnv *env, jobject, jlong prp, jbyteArray in, jint inOffset, jbyteArray out, jint outOffset, jint len){
+	  if (len <= 0){
+		  return;
+	  }
+	  int size;
+	  
+	  //No other JNI function may be called until the arrays are released.
+	  jbyte* input  = (jbyte*) env->GetPrimitiveArrayCritical(in, 0);
+	  jbyte* output  = (jbyte*) env->GetPrimitiveArrayCritical(out, 0);
+	  
+	  //Compute the prp on all the blocks. Since the padding is disabled, the whole output is written by this call.
+	  EVP_EncryptUpdate ((EVP_CIPHER_CTX*)prp, (unsigned char*)(output + outOffset), &size, (unsigned char*)(input + inOffset), len);
+	  
+	  //The output is copied back to the java array (if the JVM gave a copy), the input is not changed.
+	  env->ReleasePrimitiveArrayCritical(out, output, 0);
+	  env->ReleasePrimitiveArrayCritical(in, input, JNI_ABORT);
+}
+
+/* 
+ * function doInvertBlocks		: Inverts the PRP on consecutive blocks, in one call.
+ *								  The arrays are accessed directly, without copying them. The output array may be the input array, with the same offset.
+ * param prp					: pointer to the PRP object.
+ * param in						: The array that holds the input blocks.
+ * param inOffset				: The offset within the input array where the first block begins.
+ * param out					: The array to hold the permutation result.
+ * param outOffset				: The offset within the output array to put the result from.
+ * param len					: The number of bytes to invert. A multiple of the block size.
+ */
+JNIEXPORT void JNICALL Java_edu_biu_scapi_primitives_prf_openSSL_OpenSSLPRP_doInvertBlocks
+  (JNIEnv *env, jobject, jlong prp, jbyteArray in, jint inOffset, jbyteArray out, jint outOffset, jint len){
+	  if (len <= 0){
+		  return;
+	  }
+	  int size;
+	  
+	  //No other JNI function may be called until the arrays are released.
+	  jbyte* input  = (jbyte*) env->GetPrimitiveArrayCritical(in, 0);
+	  jbyte* output  = (jbyte*) env->GetPrimitiveArrayCritical(out, 0);
+	  
+	  //Invert the prp on all the blocks. Since the padding is disabled, the whole output is written by this call.
+	  EVP_DecryptUpdate ((EVP_CIPHER_CTX*)prp, (unsigned char*)(output + outOffset), &size, (unsigned char*)(input + inOffset), len);
+	  
+	  //The output is copied back to the java array (if the JVM gave a copy), the input is not changed.
+	  env->ReleasePrimitiveArrayCritical(out, output, 0);
+	  env->ReleasePrimitiveArrayCritical(in, input, JNI_ABORT);
+}
+
 /* 
  * function deleteNative		: Delete the native objects.
  * param computeP				: pointer to the PRP object that does encryption.
@@ -0,0 +1,97 @@
+package edu.biu.scapi.circuits.garbledCircuit;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import edu.biu.scapi.circuits.circuit.BooleanCircuit;
+import edu.biu.scapi.circuits.circuit.Wire;
+import edu.biu.scapi.circuits.encryption.AES128MultiKeyEncryption;
+import edu.biu.scapi.circuits.encryption.AESFixedKeyMultiKeyEncryption;
+import edu.biu.scapi.circuits.encryption.MultiKeyEncryptionScheme;
+import edu.biu.scapi.primitives.prf.bc.BcAES;
+
+/**
+ * Compares half gates garbling with the Free XOR row reduction garbling on the same circuit:
+ * the size of the garbled tables, the time to garble the circuit and the time to compute it.<p>
+ *
+ * Run with: java edu.biu.scapi.circuits.garbledCircuit.HalfGatesBenchmark [circuit file] [fixed | bc]<p>
+ * The default circuit is the AES circuit of the Yao protocol.
+ * The encryption scheme is AESFixedKeyMultiKeyEncryption (fixed, the default), which needs the Crypto++ native library,
+ * or AES128MultiKeyEncryption over BcAES (bc).
+ *
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class HalfGatesBenchmark {
+
+	private static final String DEFAULT_CIRCUIT = "src/java/edu/biu/SCProtocols/YaoProtocol/AES_Final-2.txt";
+	private static final int WARMUP = 20;
+	private static final int REPETITIONS = 50;
+
+	public static void main(String[] args) throws Exception {
+		BooleanCircuit circuit = new BooleanCircuit(new File((args.length > 0) ? args[0] : DEFAULT_CIRCUIT));
+		boolean fixedKey = args.length < 2 || args[1].equals("fixed");
+		System.out.println("circuit of " + circuit.getGates().length + " gates, " + (fixedKey ? "fixed key AES" : "BcAES") + " encryption");
+		System.out.println("scheme                  tables (bytes)   garble (ms)   compute (ms)");
+
+		run("half gates", new HalfGatesGarblingParameters(circuit, createEncryption(fixedKey)), circuit);
+		run("Free XOR row reduction", new FreeXORGarblingParameters(circuit, createEncryption(fixedKey), true), circuit);
+	}
+
+	private static MultiKeyEncryptionScheme createEncryption(boolean fixedKey){
+		return fixedKey ? new AESFixedKeyMultiKeyEncryption() : new AES128MultiKeyEncryption(new BcAES());
+	}
+
+	private static void run(String name, GarblingParameters parameters, BooleanCircuit circuit) throws Exception {
+		GarbledBooleanCircuit garbled = new GarbledBooleanCircuitImp(parameters);
+		Random random = new Random(1);
+
+		long garbleTime = 0;
+		long computeTime = 0;
+		for (int i = 0; i < WARMUP + REPETITIONS; i++){
+			long start = System.nanoTime();
+			CircuitCreationValues values = garbled.garble();
+			long garbleEnd = System.nanoTime();
+
+			//Sets random inputs, and computes the expected output on the ungarbled circuit.
+			Map<Integer, Byte> inputs = new HashMap<Integer, Byte>();
+			for (int party = 1; party <= circuit.getNumberOfParties(); party++){
+				Map<Integer, Wire> partyInputs = new HashMap<Integer, Wire>();
+				for (int wire : circuit.getInputWireIndices(party)){
+					byte bit = (byte) random.nextInt(2);
+					inputs.put(wire, bit);
+					partyInputs.put(wire, new Wire(bit));
+				}
+				circuit.setInputs(partyInputs, party);
+			}
+			Map<Integer, Wire> expected = circuit.compute();
+
+			long computeStart = System.nanoTime();
+			garbled.setGarbledInputFromUngarbledInput(inputs, values.getAllInputWireValues());
+			Map<Integer, Wire> output = garbled.translate(garbled.compute());
+			long computeEnd = System.nanoTime();
+
+			for (int wire : circuit.getOutputWireIndices()){
+				if (output.get(wire).getValue() != expected.get(wire).getValue()){
+					throw new IllegalStateException(name + " computed a wrong output");
+				}
+			}
+			if (i >= WARMUP){
+				garbleTime += garbleEnd - start;
+				computeTime += computeEnd - computeStart;
+			}
+		}
+
+		long tablesSize = 0;
+		for (byte[] table : garbled.getGarbledTables().toDoubleByteArray()){
+			//XOR gates have no garbled table.
+			if (table != null){
+				tablesSize += table.length;
+			}
+		}
+		System.out.println(String.format("%-23s %15d %13.3f %14.3f", name, tablesSize,
+				garbleTime / 1e6 / REPETITIONS, computeTime / 1e6 / REPETITIONS));
+	}
+}
@@ -0,0 +1,110 @@
+package edu.biu.scapi.circuits.garbledCircuit;
+
+import java.io.File;
+import java.security.SecureRandom;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import edu.biu.scapi.circuits.circuit.BooleanCircuit;
+import edu.biu.scapi.circuits.circuit.Wire;
+import edu.biu.scapi.circuits.encryption.AES128MultiKeyEncryption;
+import edu.biu.scapi.primitives.prf.bc.BcAES;
+
+/**
+ * Measures how garbling and computing a circuit by layers scales with the number of threads.<p>
+ * For each garbling scheme, the circuit is garbled and computed with 1 to N threads, by giving {@link GarbledBooleanCircuitImp}
+ * one GarblingParameters object per thread. Each object has its own AES128MultiKeyEncryption over BcAES.<p>
+ *
+ * Run with: java edu.biu.scapi.circuits.garbledCircuit.LayeredGarblingBenchmark [circuit file] [N]<p>
+ * The default circuit is the AES circuit of the Yao protocol, and the default N is the number of available processors.
+ *
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class LayeredGarblingBenchmark {
+
+	private static final String DEFAULT_CIRCUIT = "src/java/edu/biu/SCProtocols/YaoProtocol/AES_Final-2.txt";
+	private static final int WARMUP = 10;
+	private static final int REPETITIONS = 30;
+
+	private static final String[] SCHEMES = {"standard", "Free XOR", "half gates"};
+
+	public static void main(String[] args) throws Exception {
+		BooleanCircuit circuit = new BooleanCircuit(new File((args.length > 0) ? args[0] : DEFAULT_CIRCUIT));
+		int maxThreads = (args.length > 1) ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		System.out.println("circuit of " + circuit.getGates().length + " gates in " + circuit.getCompiledCircuit().getLayers().length
+				+ " layers, " + Runtime.getRuntime().availableProcessors() + " available processors");
+		System.out.println("scheme       threads   garble (ms)   speedup   compute (ms)   speedup");
+
+		for (int scheme = 0; scheme < SCHEMES.length; scheme++){
+			double[] oneThread = null;
+			for (int threads = 1; threads <= maxThreads; threads++){
+				GarblingParameters[] parameters = new GarblingParameters[threads];
+				for (int i = 0; i < threads; i++){
+					parameters[i] = createParameters(scheme, circuit);
+				}
+				double[] times = measure(new GarbledBooleanCircuitImp(parameters), circuit);
+				if (threads == 1){
+					oneThread = times;
+				}
+				System.out.println(String.format("%-12s %7d %13.3f %9.2f %14.3f %9.2f", SCHEMES[scheme], threads,
+						times[0], oneThread[0] / times[0], times[1], oneThread[1] / times[1]));
+			}
+		}
+	}
+
+	private static GarblingParameters createParameters(int scheme, BooleanCircuit circuit){
+		switch (scheme){
+			case 0:
+				return new StandardGarblingParameters(circuit, new AES128MultiKeyEncryption(new BcAES()), new SecureRandom(), false);
+			case 1:
+				return new FreeXORGarblingParameters(circuit, new AES128MultiKeyEncryption(new BcAES()), false);
+			default:
+				return new HalfGatesGarblingParameters(circuit, new AES128MultiKeyEncryption(new BcAES()));
+		}
+	}
+
+	/**
+	 * Garbles and computes the given circuit repeatedly, and checks the outputs against the ungarbled circuit.
+	 * @return the average garble time and the average compute time, in milliseconds.
+	 */
+	private static double[] measure(GarbledBooleanCircuit garbled, BooleanCircuit circuit) throws Exception {
+		Random random = new Random(1);
+		long garbleTime = 0;
+		long computeTime = 0;
+		for (int i = 0; i < WARMUP + REPETITIONS; i++){
+			long start = System.nanoTime();
+			CircuitCreationValues values = garbled.garble();
+			long garbleEnd = System.nanoTime();
+
+			Map<Integer, Byte> inputs = new HashMap<Integer, Byte>();
+			for (int party = 1; party <= circuit.getNumberOfParties(); party++){
+				Map<Integer, Wire> partyInputs = new HashMap<Integer, Wire>();
+				for (int wire : circuit.getInputWireIndices(party)){
+					byte bit = (byte) random.nextInt(2);
+					inputs.put(wire, bit);
+					partyInputs.put(wire, new Wire(bit));
+				}
+				circuit.setInputs(partyInputs, party);
+			}
+			Map<Integer, Wire> expected = circuit.compute();
+
+			long computeStart = System.nanoTime();
+			garbled.setGarbledInputFromUngarbledInput(inputs, values.getAllInputWireValues());
+			Map<Integer, Wire> output = garbled.translate(garbled.compute());
+			long computeEnd = System.nanoTime();
+
+			for (int wire : circuit.getOutputWireIndices()){
+				if (output.get(wire).getValue() != expected.get(wire).getValue()){
+					throw new IllegalStateException("the garbled circuit computed a wrong output");
+				}
+			}
+			if (i >= WARMUP){
+				garbleTime += garbleEnd - start;
+				computeTime += computeEnd - computeStart;
+			}
+		}
+		return new double[]{garbleTime / 1e6 / REPETITIONS, computeTime / 1e6 / REPETITIONS};
+	}
+}
@@ -0,0 +1,124 @@
+package edu.biu.scapi.comm;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+
+/**
+ * Checks that {@link AsyncChannelAdapter} does not send messages after a failed one, and that close does not hang
+ * when the underlying channel is stuck in a send.
+ *
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class AsyncChannelAdapterTest extends TestCase {
+
+	/**
+	 * A channel that records the sent messages. It fails to send a given message, and blocks on another one until it is closed,
+	 * as a socket does when the other party stops reading.
+	 */
+	private static class TestChannel implements Channel {
+		private List<Serializable> sent = new ArrayList<Serializable>();
+		private Serializable failOn;
+		private Serializable blockOn;
+		private boolean closed;
+
+		TestChannel(Serializable failOn, Serializable blockOn){
+			this.failOn = failOn;
+			this.blockOn = blockOn;
+		}
+
+		public synchronized void send(Serializable data) throws IOException {
+			if (data.equals(failOn)){
+				throw new IOException("failed to send " + data);
+			}
+			while (data.equals(blockOn) && !closed){
+				try {
+					wait();
+				} catch (InterruptedException e) {
+					throw new IOException("interrupted");
+				}
+			}
+			if (closed){
+				throw new IOException("the channel is closed");
+			}
+			sent.add(data);
+		}
+
+		public Serializable receive() throws ClassNotFoundException, IOException {
+			throw new IOException("not supported");
+		}
+
+		public synchronized void close(){
+			closed = true;
+			notifyAll();
+		}
+
+		public synchronized boolean isClosed(){
+			return closed;
+		}
+
+		synchronized List<Serializable> getSent(){
+			return new ArrayList<Serializable>(sent);
+		}
+	}
+
+	public void testSendsAfterFailureFail() throws Exception {
+		TestChannel channel = new TestChannel(2, null);
+		AsyncChannelAdapter adapter = new AsyncChannelAdapter(channel);
+		List<Future<Void>> futures = new ArrayList<Future<Void>>();
+		for (int i = 0; i < 6; i++){
+			futures.add(adapter.sendAsync(i));
+		}
+		for (int i = 0; i < 6; i++){
+			try {
+				futures.get(i).get();
+				assertTrue("message " + i + " should have failed", i < 2);
+			} catch (ExecutionException e) {
+				assertTrue("message " + i + " should have been sent", i >= 2);
+				assertTrue(e.getCause() instanceof IOException);
+			}
+		}
+		try {
+			adapter.send(6);
+			fail("a message was sent after a failed message");
+		} catch (IOException e) {
+			//Expected.
+		}
+		assertEquals(2, channel.getSent().size());
+		adapter.close();
+	}
+
+	public void testCloseOfStalledChannel() throws Exception {
+		TestChannel channel = new TestChannel(null, 1);
+		AsyncChannelAdapter adapter = new AsyncChannelAdapter(channel, AsyncChannelAdapter.DEFAULT_QUEUE_SIZE, 200);
+		List<Future<Void>> futures = new ArrayList<Future<Void>>();
+		for (int i = 0; i < 4; i++){
+			futures.add(adapter.sendAsync(i));
+		}
+		futures.get(0).get(5, TimeUnit.SECONDS);
+
+		long start = System.currentTimeMillis();
+		adapter.close();
+		assertTrue("close waited too long", System.currentTimeMillis() - start < 5000);
+		assertTrue(channel.isClosed());
+		for (int i = 1; i < 4; i++){
+			try {
+				futures.get(i).get(5, TimeUnit.SECONDS);
+				fail("message " + i + " should not have been sent");
+			} catch (ExecutionException e) {
+				//The blocked message fails when the channel is closed.
+			} catch (CancellationException e) {
+				//The queued messages are cancelled.
+			}
+		}
+		assertEquals(1, channel.getSent().size());
+	}
+}
@@ -0,0 +1,61 @@
+package edu.biu.scapi.comm;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * A channel between two threads of the same process.<p>
+ * The messages are serialized and deserialized as they would be by a socket channel, so that the receiver gets copies 
+ * of the sent objects.
+ *
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class QueueChannel implements Channel {
+	private BlockingQueue<byte[]> in;
+	private BlockingQueue<byte[]> out;
+
+	private QueueChannel(BlockingQueue<byte[]> in, BlockingQueue<byte[]> out){
+		this.in = in;
+		this.out = out;
+	}
+
+	/**
+	 * Creates the two ends of a channel.
+	 * @return an array of the two ends. A message sent by one of them is received by the other.
+	 */
+	public static QueueChannel[] createPair(){
+		BlockingQueue<byte[]> first = new LinkedBlockingQueue<byte[]>();
+		BlockingQueue<byte[]> second = new LinkedBlockingQueue<byte[]>();
+		return new QueueChannel[]{new QueueChannel(first, second), new QueueChannel(second, first)};
+	}
+
+	public void send(Serializable data) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream objects = new ObjectOutputStream(bytes);
+		objects.writeObject(data);
+		objects.close();
+		out.add(bytes.toByteArray());
+	}
+
+	public Serializable receive() throws ClassNotFoundException, IOException {
+		try {
+			return (Serializable) new ObjectInputStream(new ByteArrayInputStream(in.take())).readObject();
+		} catch (InterruptedException e) {
+			throw new IOException("interrupted while waiting for a message");
+		}
+	}
+
+	public void close(){
+	}
+
+	public boolean isClosed(){
+		return false;
+	}
+}
@@ -0,0 +1,148 @@
+package edu.biu.scapi.comm.twoPartyComm;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.util.Map;
+
+import edu.biu.scapi.comm.Channel;
+
+/**
+ * Measures round trips of byte arrays between two parties on the loopback interface, over the channels created by
+ * {@link SocketCommunicationSetup}:
+ * <ul>
+ * <li>plain send: {@link PlainTCPSocketChannel#send(java.io.Serializable)}, which serializes the array into a Message and then
+ * serializes the Message through the object stream of the socket.</li>
+ * <li>binary send: {@link BinaryTCPSocketChannel#send(java.io.Serializable)}, which serializes the array once and frames it.</li>
+ * <li>binary sendBytes: {@link BinaryChannel#sendBytes(byte[])}, which frames the raw bytes without any serialization.</li>
+ * </ul>
+ * Each round trip sends an array to the other party, which sends it back. <p>
+ *
+ * Run with: java edu.biu.scapi.comm.twoPartyComm.ChannelBenchmark [first port]<p>
+ * Each measurement connects on new ports, starting at the given port (default 8500).
+ *
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class ChannelBenchmark {
+
+	private static final int[] SIZES = {16, 1024, 64 * 1024, 1024 * 1024};
+	private static final long BYTES_PER_SIZE = 128L * 1024 * 1024;	//Bytes to send in each direction for each size.
+	private static final int MAX_ROUND_TRIPS = 20000;
+	private static final long TIMEOUT = 20000;
+
+	private enum Mode {PLAIN_SEND, BINARY_SEND, BINARY_SEND_BYTES}
+
+	private static int nextPort;
+
+	public static void main(String[] args) throws Exception {
+		nextPort = (args.length > 0) ? Integer.parseInt(args[0]) : 8500;
+
+		System.out.println("size (bytes)   mode                 round trip (us)   throughput (MB/s)");
+		for (int size : SIZES){
+			int roundTrips = (int) Math.min(MAX_ROUND_TRIPS, BYTES_PER_SIZE / size);
+			for (Mode mode : Mode.values()){
+				Channel[] channels = connect(mode != Mode.PLAIN_SEND);
+				//The first run warms up the JIT and the socket buffers.
+				measure(channels, mode, size, roundTrips / 4);
+				long time = measure(channels, mode, size, roundTrips);
+				channels[0].close();
+				channels[1].close();
+
+				double microsPerRoundTrip = time / 1000.0 / roundTrips;
+				double megabytesPerSecond = 2.0 * size * roundTrips / (time / 1e9) / (1024 * 1024);
+				System.out.println(String.format("%-14d %-20s %15.1f %19.1f", size, mode, microsPerRoundTrip, megabytesPerSecond));
+			}
+		}
+		//The listening threads of the setups may still run.
+		System.exit(0);
+	}
+
+	/**
+	 * Connects two parties of this process on new loopback ports.
+	 * @param binary true to create channels with binary framing.
+	 * @return the channels of the two parties.
+	 */
+	private static Channel[] connect(final boolean binary) throws Exception {
+		InetAddress localhost = InetAddress.getByName("127.0.0.1");
+		final SocketPartyData first = new SocketPartyData(localhost, nextPort++);
+		final SocketPartyData second = new SocketPartyData(localhost, nextPort++);
+		final Channel[] channels = new Channel[2];
+
+		Thread secondThread = new Thread(){
+			public void run(){
+				try {
+					channels[1] = createChannel(second, first, binary);
+				} catch (Exception e) {
+					e.printStackTrace();
+				}
+			}
+		};
+		secondThread.start();
+		channels[0] = createChannel(first, second, binary);
+		secondThread.join();
+		if (channels[0] == null || channels[1] == null){
+			throw new IOException("failed to connect the parties");
+		}
+		return channels;
+	}
+
+	private static Channel createChannel(PartyData me, PartyData other, boolean binary) throws Exception {
+		SocketCommunicationSetup setup = new SocketCommunicationSetup(me, other);
+		if (binary){
+			setup.enableBinaryFraming();
+		}
+		Map<String, Channel> connections = setup.prepareForCommunication(1, TIMEOUT);
+		return connections.isEmpty() ? null : connections.values().iterator().next();
+	}
+
+	/**
+	 * Runs the given number of round trips of arrays of the given size.
+	 * @return the elapsed time in nanoseconds.
+	 */
+	private static long measure(Channel[] channels, final Mode mode, int size, final int roundTrips) throws Exception {
+		final Channel echoChannel = channels[1];
+		final Exception[] echoError = new Exception[1];
+		Thread echoThread = new Thread(){
+			public void run(){
+				try {
+					for (int i = 0; i < roundTrips; i++){
+						if (mode == Mode.BINARY_SEND_BYTES){
+							BinaryChannel binary = (BinaryChannel) echoChannel;
+							binary.sendBytes(binary.receiveBytes());
+						} else{
+							echoChannel.send(echoChannel.receive());
+						}
+					}
+				} catch (Exception e) {
+					echoError[0] = e;
+				}
+			}
+		};
+		echoThread.start();
+
+		Channel channel = channels[0];
+		byte[] data = new byte[size];
+		long start = System.nanoTime();
+		for (int i = 0; i < roundTrips; i++){
+			data[i % size] = (byte) i;
+			byte[] received;
+			if (mode == Mode.BINARY_SEND_BYTES){
+				((BinaryChannel) channel).sendBytes(data);
+				received = ((BinaryChannel) channel).receiveBytes();
+			} else{
+				channel.send(data);
+				received = (byte[]) channel.receive();
+			}
+			if (received.length != size || received[i % size] != data[i % size]){
+				throw new IllegalStateException("received a wrong array");
+			}
+		}
+		long time = System.nanoTime() - start;
+
+		echoThread.join();
+		if (echoError[0] != null){
+			throw echoError[0];
+		}
+		return time;
+	}
+}
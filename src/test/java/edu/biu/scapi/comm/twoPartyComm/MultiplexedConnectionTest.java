@@ -0,0 +1,102 @@
+package edu.biu.scapi.comm.twoPartyComm;
+
+import java.lang.reflect.Field;
+import java.util.Map;
+
+import junit.framework.TestCase;
+import edu.biu.scapi.comm.Channel;
+import edu.biu.scapi.comm.QueueChannel;
+
+/**
+ * Checks that the logical channels of a {@link MultiplexedConnection} are removed once both parties closed them,
+ * and that the other party can not open logical channels or queue messages without bound.
+ *
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class MultiplexedConnectionTest extends TestCase {
+
+	private static final long WAIT = 5000;	//Milliseconds to wait for the reader thread.
+
+	public void testClosedChannelsAreRemoved() throws Exception {
+		QueueChannel[] channels = QueueChannel.createPair();
+		MultiplexedConnection first = new MultiplexedConnection(channels[0]);
+		MultiplexedConnection second = new MultiplexedConnection(channels[1]);
+
+		for (int i = 0; i < 500; i++){
+			Channel sender = first.getChannel("channel " + i);
+			Channel receiver = second.getChannel("channel " + i);
+			sender.send(i);
+			assertEquals(i, receiver.receive());
+			//The parties close in both orders.
+			if (i % 2 == 0){
+				sender.close();
+				receiver.close();
+			} else{
+				receiver.close();
+				sender.close();
+			}
+		}
+		assertTrue("the closed channels of the first party were not removed", waitForEmpty(first));
+		assertTrue("the closed channels of the second party were not removed", waitForEmpty(second));
+		assertFalse(first.isClosed());
+		assertFalse(second.isClosed());
+	}
+
+	public void testPeerChannelLimit() throws Exception {
+		QueueChannel[] channels = QueueChannel.createPair();
+		MultiplexedConnection connection = new MultiplexedConnection(channels[1], MultiplexedConnection.DEFAULT_WINDOW, 10);
+
+		for (int i = 0; i < 10; i++){
+			channels[0].send(new MultiplexedConnection.Frame("channel " + i, 0, 0, i));
+		}
+		Thread.sleep(200);
+		assertFalse(connection.isClosed());
+		//Requesting a channel leaves room for another one.
+		assertEquals(0, connection.getChannel("channel 0").receive());
+		channels[0].send(new MultiplexedConnection.Frame("channel 10", 0, 0, 10));
+		Thread.sleep(200);
+		assertFalse(connection.isClosed());
+
+		channels[0].send(new MultiplexedConnection.Frame("channel 11", 0, 0, 11));
+		assertTrue("the connection accepted too many channels", waitForClosed(connection));
+	}
+
+	public void testWindowIsEnforced() throws Exception {
+		QueueChannel[] channels = QueueChannel.createPair();
+		MultiplexedConnection connection = new MultiplexedConnection(channels[1], 4);
+
+		for (int i = 0; i < 4; i++){
+			channels[0].send(new MultiplexedConnection.Frame("channel", 0, 0, i));
+		}
+		Thread.sleep(200);
+		assertFalse(connection.isClosed());
+
+		channels[0].send(new MultiplexedConnection.Frame("channel", 0, 0, 4));
+		assertTrue("the connection accepted more messages than the window", waitForClosed(connection));
+	}
+
+	private boolean waitForEmpty(MultiplexedConnection connection) throws Exception {
+		Field field = MultiplexedConnection.class.getDeclaredField("channels");
+		field.setAccessible(true);
+		Map<?, ?> map = (Map<?, ?>) field.get(connection);
+		long end = System.currentTimeMillis() + WAIT;
+		while (System.currentTimeMillis() < end){
+			synchronized (map){
+				if (map.isEmpty()){
+					return true;
+				}
+			}
+			Thread.sleep(10);
+		}
+		return false;
+	}
+
+	private boolean waitForClosed(MultiplexedConnection connection) throws InterruptedException {
+		long end = System.currentTimeMillis() + WAIT;
+		while (!connection.isClosed() && System.currentTimeMillis() < end){
+			Thread.sleep(10);
+		}
+		return connection.isClosed();
+	}
+}
@@ -0,0 +1,169 @@
+package edu.biu.scapi.interactiveMidProtocols.ot.otBatch.otExtension;
+
+import java.security.SecureRandom;
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+import edu.biu.scapi.comm.Channel;
+import edu.biu.scapi.comm.QueueChannel;
+import edu.biu.scapi.interactiveMidProtocols.ot.OTOnByteArrayROutput;
+import edu.biu.scapi.primitives.dlog.bc.BcDlogECF2m;
+
+/**
+ * Runs the sender and the receiver pools in two threads, with the background threads filling the pools during the online transfers.
+ *
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class OTPoolTest extends TestCase {
+
+	private static final int CAPACITY = 3000;
+	private static final int CHUNK_SIZE = 1000;
+	private static final long TIMEOUT = 30000;	//Milliseconds to wait for a transfer before deciding that the parties are stuck.
+
+	private OTPoolSender sender;
+	private OTPoolReceiver receiver;
+	private Channel[] onlineChannels;
+	private SecureRandom random = new SecureRandom();
+
+	@Override
+	protected void setUp() throws Exception {
+		Channel[] poolChannels = QueueChannel.createPair();
+		onlineChannels = QueueChannel.createPair();
+		OTExtensionIKNPSender otSender = new OTExtensionIKNPSender(new BcDlogECF2m("B-163"), random);
+		OTExtensionIKNPReceiver otReceiver = new OTExtensionIKNPReceiver(new BcDlogECF2m("B-163"), random);
+		otSender.setChunkSize(CHUNK_SIZE);
+		otReceiver.setChunkSize(CHUNK_SIZE);
+		sender = new OTPoolSender(otSender, poolChannels[0], CAPACITY);
+		receiver = new OTPoolReceiver(otReceiver, poolChannels[1], CAPACITY, random);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		sender.close();
+		receiver.close();
+	}
+
+	/**
+	 * Starts the background threads and runs transfers at different points of their filling, 
+	 * including transfers that need more OTs than the capacity.
+	 */
+	public void testTransfersWhileFilling() throws Exception {
+		sender.start();
+		receiver.start();
+		for (int round = 0; round < 20; round++){
+			Thread.sleep((round * 137) % 1000);
+			int numOfOts = (round == 10) ? 2 * CAPACITY + 1 : 1 + random.nextInt(CAPACITY);
+			Transfer transfer = new Transfer(numOfOts, 1 + random.nextInt(40));
+			transfer.startSender();
+			transfer.startReceiver();
+			transfer.check();
+		}
+	}
+
+	/**
+	 * Runs a transfer that the pools can serve, while the background thread of the sender runs a chunk.<p>
+	 * The background thread of the receiver does not join this chunk until the transfer ends, 
+	 * so the transfer of the sender must not wait for the chunk.
+	 */
+	public void testTransferWhileSenderFills() throws Exception {
+		//Fill one chunk in both pools, without the background threads.
+		Thread fillThread = new Thread(){
+			public void run(){
+				try {
+					receiver.fill(CHUNK_SIZE);
+				} catch (Exception e) {
+					throw new IllegalStateException(e);
+				}
+			}
+		};
+		fillThread.start();
+		sender.fill(CHUNK_SIZE);
+		fillThread.join();
+
+		Transfer transfer = new Transfer(CHUNK_SIZE, 16);
+		//The receiver sends its bits and waits for the sender, so its background thread stays paused.
+		transfer.startReceiver();
+		Thread.sleep(500);
+		receiver.start();
+		//The background thread of the sender starts the next chunk and waits for the receiver.
+		sender.start();
+		Thread.sleep(500);
+		transfer.startSender();
+		transfer.check();
+	}
+
+	/**
+	 * The inputs, the threads and the results of one transfer.
+	 */
+	private class Transfer {
+		private int numOfOts;
+		private int len;
+		private byte[] x0;
+		private byte[] x1;
+		private byte[] sigma;
+		private Thread senderThread;
+		private Thread receiverThread;
+		private Exception senderError;
+		private Exception receiverError;
+		private OTOnByteArrayROutput output;
+
+		Transfer(int numOfOts, int len){
+			this.numOfOts = numOfOts;
+			this.len = len;
+			x0 = new byte[numOfOts * len];
+			x1 = new byte[numOfOts * len];
+			random.nextBytes(x0);
+			random.nextBytes(x1);
+			sigma = new byte[numOfOts];
+			for (int i = 0; i < numOfOts; i++){
+				sigma[i] = (byte) random.nextInt(2);
+			}
+		}
+
+		void startSender(){
+			senderThread = new Thread(){
+				public void run(){
+					try {
+						sender.transfer(onlineChannels[0], new OTExtensionGeneralSInput(x0, x1, numOfOts));
+					} catch (Exception e) {
+						senderError = e;
+					}
+				}
+			};
+			senderThread.setDaemon(true);
+			senderThread.start();
+		}
+
+		void startReceiver(){
+			receiverThread = new Thread(){
+				public void run(){
+					try {
+						output = (OTOnByteArrayROutput) receiver.transfer(onlineChannels[1], new OTExtensionGeneralRInput(sigma, len * 8));
+					} catch (Exception e) {
+						receiverError = e;
+					}
+				}
+			};
+			receiverThread.setDaemon(true);
+			receiverThread.start();
+		}
+
+		/**
+		 * Waits for both parties and checks that the receiver got the chosen strings.
+		 */
+		void check() throws InterruptedException {
+			senderThread.join(TIMEOUT);
+			receiverThread.join(TIMEOUT);
+			assertFalse("the parties are stuck in a transfer of " + numOfOts + " OTs", senderThread.isAlive() || receiverThread.isAlive());
+			assertNull(senderError);
+			assertNull(receiverError);
+
+			byte[] xSigma = output.getXSigma();
+			for (int i = 0; i < numOfOts; i++){
+				byte[] expected = Arrays.copyOfRange((sigma[i] == 0) ? x0 : x1, i * len, (i + 1) * len);
+				assertTrue("wrong output of OT " + i, Arrays.equals(expected, Arrays.copyOfRange(xSigma, i * len, (i + 1) * len)));
+			}
+		}
+	}
+}
@@ -0,0 +1,117 @@
+package edu.biu.scapi.interactiveMidProtocols.zeroKnowledge;
+
+import java.math.BigInteger;
+import java.security.SecureRandom;
+
+import junit.framework.TestCase;
+import edu.biu.scapi.comm.QueueChannel;
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.dlog.SigmaDlogProverComputation;
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.dlog.SigmaDlogProverInput;
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.dlog.SigmaDlogVerifierComputation;
+import edu.biu.scapi.primitives.dlog.DlogGroup;
+import edu.biu.scapi.primitives.dlog.ScDlogZpSafePrime;
+import edu.biu.scapi.primitives.dlog.bc.BcDlogECF2m;
+import edu.biu.scapi.primitives.randomOracle.HKDFBasedRO;
+import edu.biu.scapi.primitives.randomOracle.RandomOracle;
+import edu.biu.scapi.tools.parallel.BatchExecution;
+
+/**
+ * Sends Fiat-Shamir proofs of the Dlog sigma protocol through a channel and verifies the received proofs.<p>
+ * The verifier hashes the received first messages, so their serialization must give the bytes that the prover hashed.
+ *
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class ZKPOKFiatShamirFromSigmaTest extends TestCase {
+
+	private static final int NUM_OF_PROOFS = 200;
+	private static final int SOUNDNESS = 80;
+
+	private SecureRandom random = new SecureRandom();
+
+	/**
+	 * With a 257-bit p most of the Zp elements are shorter than p, so they are padded when they are sent.
+	 */
+	public void testZpProofsOverChannel() throws Exception {
+		runProofs(new ScDlogZpSafePrime(257, random));
+	}
+
+	public void testZpBatchOverChannel() throws Exception {
+		runBatch(new ScDlogZpSafePrime(257, random));
+	}
+
+	public void testECProofsOverChannel() throws Exception {
+		runProofs(new BcDlogECF2m("B-163"));
+	}
+
+	public void testECBatchOverChannel() throws Exception {
+		runBatch(new BcDlogECF2m("B-163"));
+	}
+
+	/**
+	 * Computes the challenges of a batch on several threads, each with its own random oracle, 
+	 * and checks that only the proofs with a wrong challenge are rejected.
+	 */
+	public void testParallelVerification() throws Exception {
+		DlogGroup dlog = new ScDlogZpSafePrime(257, random);
+		ZKPOKFiatShamirFromSigmaProver prover = new ZKPOKFiatShamirFromSigmaProver(null, new SigmaDlogProverComputation(dlog, SOUNDNESS, random));
+		ZKPOKFiatShamirFromSigmaVerifier verifier = new ZKPOKFiatShamirFromSigmaVerifier(null, new SigmaDlogVerifierComputation(dlog, SOUNDNESS, random));
+		RandomOracle[] oracles = new RandomOracle[Runtime.getRuntime().availableProcessors()];
+		for (int i = 0; i < oracles.length; i++){
+			oracles[i] = new HKDFBasedRO();
+		}
+		verifier.setExecutor(BatchExecution.getSharedExecutor(), oracles);
+
+		SigmaDlogProverInput[] inputs = new SigmaDlogProverInput[NUM_OF_PROOFS];
+		ZKCommonInput[] commonInputs = new ZKCommonInput[NUM_OF_PROOFS];
+		for (int i = 0; i < NUM_OF_PROOFS; i++){
+			inputs[i] = createInput(dlog);
+			commonInputs[i] = inputs[i].getCommonParams();
+		}
+		ZKPOKFiatShamirProof[] proofs = prover.generateFiatShamirProofs(inputs);
+		//Swap the challenges of two proofs.
+		ZKPOKFiatShamirProof first = proofs[3];
+		proofs[3] = new ZKPOKFiatShamirProof(first.getA(), proofs[4].getE(), first.getZ());
+		proofs[4] = new ZKPOKFiatShamirProof(proofs[4].getA(), first.getE(), proofs[4].getZ());
+
+		boolean[] verified = verifier.verifyFiatShamirProofs(commonInputs, proofs);
+		for (int i = 0; i < NUM_OF_PROOFS; i++){
+			assertEquals("wrong result of proof " + i, i != 3 && i != 4, verified[i]);
+		}
+	}
+
+	private void runProofs(DlogGroup dlog) throws Exception {
+		QueueChannel[] channels = QueueChannel.createPair();
+		ZKPOKFiatShamirFromSigmaProver prover = new ZKPOKFiatShamirFromSigmaProver(channels[0], new SigmaDlogProverComputation(dlog, SOUNDNESS, random));
+		ZKPOKFiatShamirFromSigmaVerifier verifier = new ZKPOKFiatShamirFromSigmaVerifier(channels[1], new SigmaDlogVerifierComputation(dlog, SOUNDNESS, random));
+
+		for (int i = 0; i < NUM_OF_PROOFS; i++){
+			SigmaDlogProverInput input = createInput(dlog);
+			prover.prove(input);
+			assertTrue("honest proof " + i + " was rejected", verifier.verify(input.getCommonParams()));
+		}
+	}
+
+	private void runBatch(DlogGroup dlog) throws Exception {
+		QueueChannel[] channels = QueueChannel.createPair();
+		ZKPOKFiatShamirFromSigmaProver prover = new ZKPOKFiatShamirFromSigmaProver(channels[0], new SigmaDlogProverComputation(dlog, SOUNDNESS, random));
+		ZKPOKFiatShamirFromSigmaVerifier verifier = new ZKPOKFiatShamirFromSigmaVerifier(channels[1], new SigmaDlogVerifierComputation(dlog, SOUNDNESS, random));
+
+		SigmaDlogProverInput[] inputs = new SigmaDlogProverInput[NUM_OF_PROOFS];
+		ZKCommonInput[] commonInputs = new ZKCommonInput[NUM_OF_PROOFS];
+		for (int i = 0; i < NUM_OF_PROOFS; i++){
+			inputs[i] = createInput(dlog);
+			commonInputs[i] = inputs[i].getCommonParams();
+		}
+		prover.proveBatch(inputs);
+		boolean[] verified = verifier.verifyBatch(commonInputs);
+		for (int i = 0; i < NUM_OF_PROOFS; i++){
+			assertTrue("honest proof " + i + " was rejected", verified[i]);
+		}
+	}
+
+	private SigmaDlogProverInput createInput(DlogGroup dlog){
+		BigInteger w = new BigInteger(dlog.getOrder().bitLength() - 1, random);
+		return new SigmaDlogProverInput(dlog.exponentiate(dlog.getGenerator(), w), w);
+	}
+}
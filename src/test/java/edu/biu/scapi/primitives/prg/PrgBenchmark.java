@@ -0,0 +1,70 @@
+package edu.biu.scapi.primitives.prg;
+
+import java.security.SecureRandom;
+
+import javax.crypto.spec.SecretKeySpec;
+
+import edu.biu.scapi.primitives.prf.bc.BcAES;
+import edu.biu.scapi.primitives.prf.bc.BcHMAC;
+import edu.biu.scapi.primitives.prf.bc.BcTripleDES;
+import edu.biu.scapi.primitives.prg.bc.BcRC4;
+
+/**
+ * Measures the throughput of {@link ScPrgFromPrf} in GB/s, for each of the ways it generates its output:
+ * <ul>
+ * <li>BcAES: the AES/CTR cipher of the Java platform.</li>
+ * <li>BcTripleDES: the fixed-length prf, block after block.</li>
+ * <li>BcHMAC: the varying input length prf, block after block.</li>
+ * </ul>
+ * BcRC4 is measured as a reference. Each generator is called with small and large output lengths.<p>
+ *
+ * Run with: java edu.biu.scapi.primitives.prg.PrgBenchmark
+ *
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class PrgBenchmark {
+
+	private static final int[] CALL_SIZES = {16, 1024, 1024 * 1024};
+	private static final long MIN_TIME = 1000000000L;	//Nanoseconds to run each measurement.
+
+	public static void main(String[] args) throws Exception {
+		SecureRandom random = new SecureRandom();
+		String[] names = {"ScPrgFromPrf(BcAES)", "ScPrgFromPrf(BcTripleDES)", "ScPrgFromPrf(BcHMAC)", "BcRC4"};
+		PseudorandomGenerator[] prgs = {new ScPrgFromPrf(new BcAES()), new ScPrgFromPrf(new BcTripleDES()),
+				new ScPrgFromPrf(new BcHMAC()), new BcRC4()};
+		int[] keySizes = {16, 24, 32, 16};
+
+		System.out.println("generator                   call (bytes)   throughput (GB/s)");
+		for (int i = 0; i < prgs.length; i++){
+			byte[] key = new byte[keySizes[i]];
+			random.nextBytes(key);
+			prgs[i].setKey(new SecretKeySpec(key, ""));
+			for (int size : CALL_SIZES){
+				byte[] out = new byte[size];
+				//The first run warms up the JIT.
+				measure(prgs[i], out);
+				System.out.println(String.format("%-27s %12d %19.3f", names[i], size, measure(prgs[i], out)));
+			}
+		}
+	}
+
+	/**
+	 * Fills the given array with the output of the given generator repeatedly, for at least MIN_TIME.
+	 * @return the throughput in GB/s.
+	 */
+	private static double measure(PseudorandomGenerator prg, byte[] out){
+		long bytes = 0;
+		long start = System.nanoTime();
+		long time;
+		do {
+			//Checks the time once in many calls, since small calls are faster than reading the clock.
+			for (int i = 0; i < 64; i++){
+				prg.getPRGBytes(out, 0, out.length);
+			}
+			bytes += 64L * out.length;
+			time = System.nanoTime() - start;
+		} while (time < MIN_TIME);
+		return bytes / (double) time;
+	}
+}